@@ -24,7 +24,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.w3c.dom.Attr;
 import org.w3c.dom.Element;
@@ -44,7 +46,25 @@ import VASSAL.i18n.Translatable;
  * handled automatically.
  */
 public abstract class AbstractBuildable extends AbstractImageFinder implements Buildable, ValidityChecker, PropertyNameSource {
-  protected List<Buildable> buildComponents = new ArrayList<>();
+  protected List<Buildable> buildComponents = new BuildableList();
+
+  /*
+   * The components found by searching this part of the build tree, kept
+   * until the tree changes, so that components which are looked up while
+   * a game is played need not be searched for each time.
+   */
+  private static class ComponentIndex {
+    private final long version;
+    private final java.util.Map<Class<?>, List<?>> children = new ConcurrentHashMap<>();
+    private final java.util.Map<Class<?>, List<?>> descendants = new ConcurrentHashMap<>();
+    private final java.util.Map<Class<?>, java.util.Map<String, List<?>>> named = new ConcurrentHashMap<>();
+
+    private ComponentIndex(long version) {
+      this.version = version;
+    }
+  }
+
+  private volatile ComponentIndex componentIndex;
 
   // Sub-classes can set this reference to perform validity checking
   protected ValidityChecker validator;
@@ -121,6 +141,17 @@ public abstract class AbstractBuildable extends AbstractImageFinder implements B
    * @return all build components that are an instance of the given class
    */
   public <T> List<T> getComponentsOf(Class<T> target) {
+    final ComponentIndex index = getComponentIndex();
+    if (index == null) {
+      return findComponentsOf(target);
+    }
+
+    @SuppressWarnings("unchecked")
+    final List<T> l = (List<T>) index.children.computeIfAbsent(target, this::findComponentsOf);
+    return new ArrayList<>(l);
+  }
+
+  private <T> List<T> findComponentsOf(Class<T> target) {
     final ArrayList<T> l = new ArrayList<>();
     for (final Buildable b : buildComponents) {
       if (target.isInstance(b)) {
@@ -130,6 +161,61 @@ public abstract class AbstractBuildable extends AbstractImageFinder implements B
     return l;
   }
 
+  /**
+   * Finds build components by their configure name, without searching all
+   * of them each time.
+   *
+   * @param target Target class
+   * @param name the configure name
+   * @return an unmodifiable {@link List} of the build components that are
+   * instances of the given class with the given name, in order
+   * @since 3.5.0
+   */
+  public <T extends Configurable> List<T> getComponentsNamed(Class<T> target, String name) {
+    final ComponentIndex index = getComponentIndex();
+    final java.util.Map<String, List<?>> byName = index == null ?
+      groupByName(findComponentsOf(target)) :
+      index.named.computeIfAbsent(target, t -> groupByName(findComponentsOf(target)));
+
+    @SuppressWarnings("unchecked")
+    final List<T> l = (List<T>) byName.getOrDefault(name, Collections.emptyList());
+    return l;
+  }
+
+  private static <T extends Configurable> java.util.Map<String, List<?>> groupByName(List<T> components) {
+    final java.util.Map<String, List<?>> m = new HashMap<>();
+    for (final T c : components) {
+      final String name = c.getConfigureName();
+      if (name != null) {
+        @SuppressWarnings("unchecked")
+        final List<T> l = (List<T>) m.computeIfAbsent(name, k -> new ArrayList<T>());
+        l.add(c);
+      }
+    }
+    m.replaceAll((k, v) -> Collections.unmodifiableList(v));
+    return m;
+  }
+
+  /**
+   * @return the index of the components found in this part of the build
+   * tree, or null if the tree may change without it being known
+   */
+  private ComponentIndex getComponentIndex() {
+    if (!(buildComponents instanceof BuildableList)) {
+      return null;
+    }
+
+    // read before searching, so that a change made during the search
+    // leaves the results behind
+    final long version = BuildableList.getVersion();
+    ComponentIndex index = componentIndex;
+    if (index == null || index.version != version) {
+      index = new ComponentIndex(version);
+      componentIndex = index;
+    }
+    return index;
+  }
+
   /**
    * Recursively descend the build tree and return an enumeration of all
    * components that are instances of the given class
@@ -152,12 +238,29 @@ public abstract class AbstractBuildable extends AbstractImageFinder implements B
    * @return {@link List} of all components that are instances of the given class
    */
   public <T> List<T> getAllDescendantComponentsOf(Class<T> target) {
+    final ComponentIndex index = getComponentIndex();
+    if (index != null) {
+      final List<?> l = index.descendants.get(target);
+      if (l != null) {
+        @SuppressWarnings("unchecked")
+        final List<T> found = (List<T>) l;
+        return new ArrayList<>(found);
+      }
+    }
+
     final ArrayList<T> l = new ArrayList<>();
-    addComponents(target, l);
+    if (addComponents(target, l) && index != null) {
+      index.descendants.put(target, new ArrayList<>(l));
+    }
     return l;
   }
 
-  private <T> void addComponents(Class<T> target, List<T> l) {
+  /**
+   * @return true if every component searched reports changes to its
+   * children, so that the results may be kept until the tree changes
+   */
+  private <T> boolean addComponents(Class<T> target, List<T> l) {
+    boolean tracked = buildComponents instanceof BuildableList;
     if (target.isInstance(this)) {
       l.add(target.cast(this));
     }
@@ -166,9 +269,10 @@ public abstract class AbstractBuildable extends AbstractImageFinder implements B
         l.add(target.cast(b));
       }
       else if (b instanceof AbstractBuildable) {
-        ((AbstractBuildable) b).addComponents(target, l);
+        tracked &= ((AbstractBuildable) b).addComponents(target, l);
       }
     }
+    return tracked;
   }
 
   @Override
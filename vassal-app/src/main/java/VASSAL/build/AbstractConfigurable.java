@@ -87,6 +87,8 @@ public abstract class AbstractConfigurable extends AbstractBuildable implements
       name = s;
       localizedName = s;
     }
+    // Components found by name must be looked up again
+    BuildableList.changed();
   }
 
   /**
@@ -0,0 +1,193 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+
+package VASSAL.build;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * The list of the children of an {@link AbstractBuildable}. Every change to
+ * any such list advances a single version number, so that what has been
+ * found by searching the build tree can be kept until the tree changes.
+ */
+class BuildableList extends ArrayList<Buildable> {
+  private static final long serialVersionUID = 1L;
+
+  private static final AtomicLong version = new AtomicLong();
+
+  /**
+   * @return a number which changes whenever the children of any component,
+   * or the name of any {@link AbstractConfigurable}, change
+   */
+  static long getVersion() {
+    return version.get();
+  }
+
+  static void changed() {
+    version.incrementAndGet();
+  }
+
+  // Every method which changes the list is overridden, as the inherited
+  // ones do not all call each other. The version is advanced after the
+  // change, so that nothing found before it is kept under the new version.
+
+  @Override
+  public boolean add(Buildable b) {
+    try {
+      return super.add(b);
+    }
+    finally {
+      changed();
+    }
+  }
+
+  @Override
+  public void add(int index, Buildable b) {
+    try {
+      super.add(index, b);
+    }
+    finally {
+      changed();
+    }
+  }
+
+  @Override
+  public boolean addAll(Collection<? extends Buildable> c) {
+    try {
+      return super.addAll(c);
+    }
+    finally {
+      changed();
+    }
+  }
+
+  @Override
+  public boolean addAll(int index, Collection<? extends Buildable> c) {
+    try {
+      return super.addAll(index, c);
+    }
+    finally {
+      changed();
+    }
+  }
+
+  @Override
+  public Buildable set(int index, Buildable b) {
+    try {
+      return super.set(index, b);
+    }
+    finally {
+      changed();
+    }
+  }
+
+  @Override
+  public Buildable remove(int index) {
+    try {
+      return super.remove(index);
+    }
+    finally {
+      changed();
+    }
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    try {
+      return super.remove(o);
+    }
+    finally {
+      changed();
+    }
+  }
+
+  @Override
+  protected void removeRange(int fromIndex, int toIndex) {
+    try {
+      super.removeRange(fromIndex, toIndex);
+    }
+    finally {
+      changed();
+    }
+  }
+
+  @Override
+  public boolean removeAll(Collection<?> c) {
+    try {
+      return super.removeAll(c);
+    }
+    finally {
+      changed();
+    }
+  }
+
+  @Override
+  public boolean retainAll(Collection<?> c) {
+    try {
+      return super.retainAll(c);
+    }
+    finally {
+      changed();
+    }
+  }
+
+  @Override
+  public boolean removeIf(Predicate<? super Buildable> filter) {
+    try {
+      return super.removeIf(filter);
+    }
+    finally {
+      changed();
+    }
+  }
+
+  @Override
+  public void replaceAll(UnaryOperator<Buildable> operator) {
+    try {
+      super.replaceAll(operator);
+    }
+    finally {
+      changed();
+    }
+  }
+
+  @Override
+  public void sort(Comparator<? super Buildable> c) {
+    try {
+      super.sort(c);
+    }
+    finally {
+      changed();
+    }
+  }
+
+  @Override
+  public void clear() {
+    try {
+      super.clear();
+    }
+    finally {
+      changed();
+    }
+  }
+}
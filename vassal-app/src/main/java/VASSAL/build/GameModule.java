@@ -17,6 +17,7 @@
  */
 package VASSAL.build;
 
+import java.awt.Dimension;
 import java.awt.FileDialog;
 import java.awt.Rectangle;
 import java.awt.event.KeyEvent;
@@ -30,6 +31,8 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystemException;
 import java.security.SecureRandom;
@@ -112,6 +115,7 @@ import VASSAL.command.Command;
 import VASSAL.command.CommandEncoder;
 import VASSAL.command.Logger;
 import VASSAL.command.NullCommand;
+import VASSAL.command.StreamingCommandEncoder;
 import VASSAL.configure.AutoConfigurer;
 import VASSAL.configure.CompoundValidityChecker;
 import VASSAL.configure.ConfigureTree;
@@ -144,6 +148,8 @@ import VASSAL.tools.WriteErrorDialog;
 import VASSAL.tools.filechooser.FileChooser;
 import VASSAL.tools.image.ImageTileSource;
 import VASSAL.tools.image.tilecache.ImageTileDiskCache;
+import VASSAL.tools.image.tilecache.LazyImageTileDiskCache;
+import VASSAL.tools.image.tilecache.TileStore;
 import VASSAL.tools.menu.MenuManager;
 import VASSAL.tools.swing.SwingUtils;
 import VASSAL.tools.version.VersionUtils;
@@ -312,6 +318,17 @@ public class GameModule extends AbstractConfigurable
   private final List<KeyStrokeSource> keyStrokeSources = new ArrayList<>();
   private final List<KeyStrokeListener> keyStrokeListeners = new ArrayList<>();
   private CommandEncoder[] commandEncoders = new CommandEncoder[0];
+  private final StreamingCommandEncoder streamingEncoder = new StreamingCommandEncoder(new CommandEncoder() {
+    @Override
+    public Command decode(String command) {
+      return decodeSubCommand(command);
+    }
+
+    @Override
+    public String encode(Command c) {
+      return encodeSubCommand(c);
+    }
+  }, COMMAND_SEPARATOR);
   private final List<String> deferredChat = new ArrayList<>();
 
   private boolean loggingPaused = false;
@@ -1226,6 +1243,30 @@ public class GameModule extends AbstractConfigurable
     return s;
   }
 
+  /**
+   * Writes a {@link Command}, which may contain multiple appended commands, to a stream in exactly the form
+   * returned by {@link #encode(Command)}. Each subcommand is written as soon as it has been encoded, so the
+   * encoded form of the whole Command is never held in memory at once.
+   * @param c Command to encode
+   * @param out destination for the encoded command. Writes nothing if the command cannot be encoded.
+   * @throws IOException if the command cannot be written
+   */
+  public void encode(Command c, Writer out) throws IOException {
+    streamingEncoder.encode(c, out);
+  }
+
+  /**
+   * Reads a {@link Command}, which may contain multiple appended commands, from a stream in the form produced by
+   * {@link #encode(Command)}. Subcommands are decoded one at a time as they are read, so the encoded form of the
+   * whole Command is never held in memory at once.
+   * @param in source of the encoded command, which should be buffered
+   * @return the decoded {@link Command}, or null if it was not recognized
+   * @throws IOException if the command cannot be read
+   */
+  public Command decode(Reader in) throws IOException {
+    return streamingEncoder.decode(in);
+  }
+
   /**
    * @return a common FileChooser so that recent file locations
    * can be remembered
@@ -1663,7 +1704,11 @@ public class GameModule extends AbstractConfigurable
         DigestUtils.sha1Hex(getGameName() + "_" + getGameVersion()); //NON-NLS
 
       final File tc = new File(Info.getConfDir(), "tiles/" + hstr); //NON-NLS
-      tcache = new ImageTileDiskCache(tc.getAbsolutePath());
+      final TileStore store =
+        new TileStore(new File(Info.getConfDir(), "tiles/" + TileStore.DIR_NAME)); //NON-NLS
+      tcache = Boolean.TRUE.equals(Prefs.getGlobalPrefs().getValue(Prefs.LAZY_TILING)) ?
+        new LazyImageTileDiskCache(tc.getAbsolutePath(), store, getDataArchive(), new Dimension(256, 256)) :
+        new ImageTileDiskCache(tc.getAbsolutePath(), store);
     }
 
     return tcache;
@@ -1769,36 +1814,33 @@ public class GameModule extends AbstractConfigurable
    */
   @Override
   public Object getProperty(Object key) {
-    if (GlobalOptions.PLAYER_SIDE.equals(key) || GlobalOptions.PLAYER_SIDE_ALT.equals(key)) {
-      final String mySide = PlayerRoster.getMySide();
-      return mySide == null ? "" : mySide;  //$NON-NLS-1$
-    }
-    else if (GlobalOptions.PLAYER_NAME.equals(key) || GlobalOptions.PLAYER_NAME_ALT.equals(key)) {
-      return getPrefs().getValue(GameModule.REAL_NAME);
-    }
-    else if (GlobalOptions.PLAYER_ID.equals(key) || GlobalOptions.PLAYER_ID_ALT.equals(key)) {
-      return GlobalOptions.getInstance().getPlayerId();
-    }
-    else if (MODULE_NAME_PROPERTY.equals(key)) {
-      return gameName;
-    }
-    else if (MODULE_VERSION_PROPERTY.equals(key)) {
-      return moduleVersion;
-    }
-    else if (MODULE_DESCRIPTION_PROPERTY.equals(key)) {
-      return description;
-    }
-    else if (MODULE_VASSAL_VERSION_CREATED_PROPERTY.equals(key)) {
-      return vassalVersionCreated;
-    }
-    else if (MODULE_VASSAL_VERSION_RUNNING_PROPERTY.equals(key)) {
-      return Info.getVersion();
-    }
-    else if (MODULE_OTHER1_PROPERTY.equals(key)) {
-      return moduleOther1;
-    }
-    else if (MODULE_OTHER2_PROPERTY.equals(key)) {
-      return moduleOther2;
+    if (key instanceof String) {
+      switch ((String) key) {
+      case GlobalOptions.PLAYER_SIDE:
+      case GlobalOptions.PLAYER_SIDE_ALT:
+        final String mySide = PlayerRoster.getMySide();
+        return mySide == null ? "" : mySide;  //$NON-NLS-1$
+      case GlobalOptions.PLAYER_NAME:
+      case GlobalOptions.PLAYER_NAME_ALT:
+        return getPrefs().getValue(GameModule.REAL_NAME);
+      case GlobalOptions.PLAYER_ID:
+      case GlobalOptions.PLAYER_ID_ALT:
+        return GlobalOptions.getInstance().getPlayerId();
+      case MODULE_NAME_PROPERTY:
+        return gameName;
+      case MODULE_VERSION_PROPERTY:
+        return moduleVersion;
+      case MODULE_DESCRIPTION_PROPERTY:
+        return description;
+      case MODULE_VASSAL_VERSION_CREATED_PROPERTY:
+        return vassalVersionCreated;
+      case MODULE_VASSAL_VERSION_RUNNING_PROPERTY:
+        return Info.getVersion();
+      case MODULE_OTHER1_PROPERTY:
+        return moduleOther1;
+      case MODULE_OTHER2_PROPERTY:
+        return moduleOther2;
+      }
     }
     final MutableProperty p = propsContainer.getMutableProperty(String.valueOf(key));
     return p == null ? null : p.getPropertyValue();
@@ -18,6 +18,9 @@
 package VASSAL.build.module;
 
 import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 import VASSAL.build.BadDataReport;
@@ -61,6 +64,7 @@ import VASSAL.counters.PieceDefiner;
 import VASSAL.counters.Pivot;
 import VASSAL.counters.PlaceMarker;
 import VASSAL.counters.PlaySound;
+import VASSAL.counters.PropertyPlan;
 import VASSAL.counters.PropertySheet;
 import VASSAL.counters.Replace;
 import VASSAL.counters.ReportState;
@@ -77,6 +81,7 @@ import VASSAL.counters.TriggerAction;
 import VASSAL.counters.UsePrototype;
 import VASSAL.tools.ErrorDialog;
 import VASSAL.tools.SequenceEncoder;
+import VASSAL.tools.concurrent.LRUCache;
 
 /**
  * Although it is the {@link CommandEncoder} which handles the basic commands: {@link AddPiece},
@@ -192,6 +197,43 @@ public class BasicCommandEncoder implements CommandEncoder, Buildable {
     Map.entry(Deselect.ID, Deselect::new)
   );
 
+  /**
+   * A parsed piece definition, shared by every piece built from it: the definition of each of its
+   * traits, from the outermost inward, followed by that of its {@link BasicPiece}, {@link Stack} or
+   * {@link Deck}, together with the factory which builds each of them. The traits themselves cannot
+   * be shared, since each holds the state of its own piece, but their {@link PropertyPlan}s are.
+   */
+  private static final class Definition {
+    private final String[] types;
+    private final DecoratorFactory[] decorators;
+    private final BasicPieceFactory basic;
+    private volatile PropertyPlan[] plans;
+
+    private Definition(String[] types, DecoratorFactory[] decorators, BasicPieceFactory basic) {
+      this.types = types;
+      this.decorators = decorators;
+      this.basic = basic;
+    }
+  }
+
+  /** The most piece definitions kept parsed */
+  static final int DEFINITION_CACHE_SIZE = 4096;
+
+  /**
+   * Parsed piece definitions, keyed by the full definition string. Thousands of pieces in a game
+   * may share a definition, and splitting a definition costs far more than building the traits,
+   * since every level of nesting unescapes everything inside it again. Definitions made on the
+   * fly, e.g. by Place Marker traits, can be of any number, so the least recently used are dropped.
+   */
+  final LRUCache<String, Definition> definitions = new LRUCache<>(DEFINITION_CACHE_SIZE);
+
+  /**
+   * Whether a subclass builds pieces or traits of its own, so that the factories of a definition
+   * must be the overridable {@link #createDecorator} and {@link #createBasic}
+   */
+  private final boolean customFactories =
+    overrides("createDecorator", String.class, GamePiece.class) || overrides("createBasic", String.class); //NON-NLS
+
   /**
    * Fallthrough factory to catch unknown types.
    */
@@ -250,22 +292,75 @@ public class BasicCommandEncoder implements CommandEncoder, Buildable {
    * @param type definition string of the piece or trait to be created.
    */
   public GamePiece createPiece(String type) {
-    final SequenceEncoder.Decoder st = new SequenceEncoder.Decoder(type, '\t');
-    type = st.nextToken();
-    final String innerType = st.hasMoreTokens() ? st.nextToken() : null;
-
-    if (innerType != null) {
-      GamePiece inner = createPiece(innerType);
-      if (inner == null) {
-        ErrorDialog.dataWarning(new BadDataReport("Could not create piece with type " + innerType, type)); //NON-NLS
-        inner = new BasicPiece();
+    Definition def = definitions.get(type);
+    if (def == null) {
+      def = definitions.add(type, parseDefinition(type));
+    }
+
+    // Build the piece from the inside out
+    final String[] types = def.types;
+    int i = types.length - 1;
+    GamePiece piece = def.basic.createBasicPiece(types[i]);
+    while (--i >= 0) {
+      if (piece == null) {
+        ErrorDialog.dataWarning(new BadDataReport("Could not create piece with type " + types[i + 1], types[i])); //NON-NLS
+        piece = new BasicPiece();
+      }
+      final Decorator d = def.decorators[i].createDecorator(types[i], piece);
+      if (d != null) {
+        piece = d;
       }
-      final Decorator d = createDecorator(type, inner);
-      return d != null ? d : inner;
     }
-    else {
-      return createBasic(type);
+
+    PropertyPlan[] plans = def.plans;
+    if (plans == null) {
+      def.plans = plans = PropertyPlan.create(piece);
+    }
+    PropertyPlan.attach(piece, plans);
+    return piece;
+  }
+
+  /**
+   * Splits the definition string of a piece into the definitions of its traits, each of which
+   * holds the definition of everything inside it, escaped, and finds the factory for each.
+   *
+   * @param type definition string of a piece
+   * @return the parsed definition
+   */
+  private Definition parseDefinition(String type) {
+    final List<String> list = new ArrayList<>();
+    String innerType = type;
+    do {
+      final SequenceEncoder.Decoder st = new SequenceEncoder.Decoder(innerType, '\t');
+      list.add(st.nextToken());
+      innerType = st.hasMoreTokens() ? st.nextToken() : null;
+    } while (innerType != null);
+
+    final String[] types = list.toArray(new String[0]);
+    final DecoratorFactory[] decorators = new DecoratorFactory[types.length - 1];
+    if (customFactories) {
+      Arrays.fill(decorators, (DecoratorFactory) this::createDecorator);
+      return new Definition(types, decorators, this::createBasic);
+    }
+
+    for (int i = 0; i < decorators.length; ++i) {
+      decorators[i] = decoratorFactories.getOrDefault(typePrefix(types[i]), defaultDecoratorFactory);
+    }
+    return new Definition(types, decorators,
+      basicFactories.getOrDefault(typePrefix(types[types.length - 1]), defaultBasicPieceFactory));
+  }
+
+  private boolean overrides(String name, Class<?>... params) {
+    for (Class<?> c = getClass(); c != BasicCommandEncoder.class; c = c.getSuperclass()) {
+      try {
+        c.getDeclaredMethod(name, params);
+        return true;
+      }
+      catch (NoSuchMethodException ignored) {
+        // not declared here; try the superclass
+      }
     }
+    return false;
   }
 
   /**
@@ -322,8 +417,7 @@ public class BasicCommandEncoder implements CommandEncoder, Buildable {
     }
     SequenceEncoder.Decoder st;
     if (command.startsWith(ADD)) {
-      command = command.substring(ADD.length());
-      st = new SequenceEncoder.Decoder(command, PARAM_SEPARATOR);
+      st = new SequenceEncoder.Decoder(command, ADD.length(), command.length(), PARAM_SEPARATOR);
       final String id = unwrapNull(st.nextToken());
       final String type = st.nextToken();
       final String state = st.nextToken();
@@ -347,16 +441,14 @@ public class BasicCommandEncoder implements CommandEncoder, Buildable {
       }
     }
     else if (command.startsWith(CHANGE)) {
-      command = command.substring(CHANGE.length());
-      st = new SequenceEncoder.Decoder(command, PARAM_SEPARATOR);
+      st = new SequenceEncoder.Decoder(command, CHANGE.length(), command.length(), PARAM_SEPARATOR);
       final String id = st.nextToken();
       final String newState = st.nextToken();
       final String oldState = st.hasMoreTokens() ? st.nextToken() : null;
       return new ChangePiece(id, oldState, newState);
     }
     else if (command.startsWith(MOVE)) {
-      command = command.substring(MOVE.length());
-      st = new SequenceEncoder.Decoder(command, PARAM_SEPARATOR);
+      st = new SequenceEncoder.Decoder(command, MOVE.length(), command.length(), PARAM_SEPARATOR);
       final String id = unwrapNull(st.nextToken());
       final String newMapId = unwrapNull(st.nextToken());
       final int newX = Integer.parseInt(st.nextToken());
@@ -438,6 +438,7 @@ public class BasicLogger implements Logger, Buildable, GameComponent, CommandEnc
     undo.execute();
     GameModule.getGameModule().getServer().sendToOthers(undo);
     logOutput.add(undo);
+    GameModule.getGameModule().getGameState().piecesChanged(undo);
   }
 
   @Override
@@ -447,6 +448,7 @@ public class BasicLogger implements Logger, Buildable, GameComponent, CommandEnc
       if (c.getUndoCommand() != null && !c.getUndoCommand().isNull()) {
         nextUndo = logOutput.size() - 1;
       }
+      GameModule.getGameModule().getGameState().piecesChanged(c);
     }
     undoAction.setEnabled(nextUndo >= 0);
   }
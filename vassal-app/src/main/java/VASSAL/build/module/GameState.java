@@ -23,22 +23,37 @@ import java.awt.Cursor;
 import java.awt.event.ActionEvent;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -50,6 +65,7 @@ import javax.swing.JOptionPane;
 import javax.swing.SwingWorker;
 import javax.swing.SwingUtilities;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.LoggerFactory;
 
@@ -58,16 +74,24 @@ import VASSAL.build.GameModule;
 import VASSAL.build.module.metadata.AbstractMetaData;
 import VASSAL.build.module.metadata.MetaDataFactory;
 import VASSAL.build.module.metadata.SaveMetaData;
+import VASSAL.build.module.properties.ChangePropertyCommand;
 import VASSAL.command.AddPiece;
 import VASSAL.command.AlertCommand;
+import VASSAL.command.ChangePiece;
 import VASSAL.command.Command;
 import VASSAL.command.CommandEncoder;
 import VASSAL.command.CommandFilter;
 import VASSAL.command.ConditionalCommand;
 import VASSAL.command.Logger;
+import VASSAL.command.MovePiece;
 import VASSAL.command.NullCommand;
+import VASSAL.command.RemovePiece;
+import VASSAL.command.SetPersistentPropertyCommand;
+import VASSAL.configure.BooleanConfigurer;
 import VASSAL.configure.DirectoryConfigurer;
 import VASSAL.counters.GamePiece;
+import VASSAL.counters.PropertyIndex;
+import VASSAL.counters.Stack;
 import VASSAL.i18n.Resources;
 import VASSAL.launch.Launcher;
 import VASSAL.tools.ComponentSplitter;
@@ -80,11 +104,11 @@ import VASSAL.tools.filechooser.FileChooser;
 import VASSAL.tools.filechooser.LogAndSaveFileFilter;
 import VASSAL.tools.io.DeobfuscatingInputStream;
 import VASSAL.tools.io.FileArchive;
-import VASSAL.tools.io.IOUtils;
 import VASSAL.tools.io.ObfuscatingOutputStream;
 import VASSAL.tools.io.ZipArchive;
 import VASSAL.tools.menu.MenuManager;
 import VASSAL.tools.swing.Dialogs;
+import VASSAL.tools.swing.ProgressDialog;
 import VASSAL.tools.version.VersionUtils;
 
 /**
@@ -102,11 +126,22 @@ public class GameState implements CommandEncoder {
   private static final org.slf4j.Logger log =
     LoggerFactory.getLogger(GameState.class);
 
+  /** Preference key for whether piece properties are indexed; see {@link PropertyIndex} */
+  public static final String INDEX_PROPERTIES = "indexPieceProperties"; //NON-NLS
+
   protected Map<String, GamePiece> pieces = new HashMap<>();
+  protected PropertyIndex propertyIndex = new PropertyIndex(pieces.values());
   protected List<GameComponent> gameComponents = new ArrayList<>();
   protected List<GameSetupStep> setupSteps = new ArrayList<>();
+  private final List<PieceListener> pieceListeners = new ArrayList<>();
   protected Action loadGame, saveGame, saveGameAs, newGame, closeGame;
-  protected String lastSave;
+  /** SHA-1 digest of the encoded game state when it was last saved, or null if unsaved */
+  protected byte[] lastSaveDigest;
+  // Counts the pieces added or removed and the Commands logged, so that the
+  // game state need only be digested again once something may have changed
+  private long modificationCount;
+  private long digestCount = -1;
+  private byte[] digest;
   protected File lastSaveFile = null;
   protected DirectoryConfigurer savedGameDirectoryPreference;
   protected String loadComments;
@@ -116,7 +151,7 @@ public class GameState implements CommandEncoder {
    * <code>Load</code>, <code>Close</code>, and <code>Save</code>
    * entries to the <code>File</code> menu of the controls window
    */
-  public void addTo(@SuppressWarnings("unused") GameModule mod) {
+  public void addTo(GameModule mod) {
     loadGame = new AbstractAction(Resources.getString("GameState.load_game")) {
       private static final long serialVersionUID = 1L;
 
@@ -191,14 +226,31 @@ public class GameState implements CommandEncoder {
     saveGame.setEnabled(gameStarting);
     saveGameAs.setEnabled(gameStarting);
     closeGame.setEnabled(gameStarting);
+
+    final BooleanConfigurer indexOption = new BooleanConfigurer(INDEX_PROPERTIES, Resources.getString("GameState.index_properties"), Boolean.FALSE); //NON-NLS
+    indexOption.addPropertyChangeListener(e -> propertyIndex.setEnabled(Boolean.TRUE.equals(e.getNewValue())));
+    mod.getPrefs().addOption(Resources.getString("Prefs.general_tab"), indexOption); //NON-NLS
+    propertyIndex.setEnabled(indexOption.booleanValue());
   }
 
   /**
    * @return true if the game state is different from when it was last saved
    */
   public boolean isModified() {
-    final String s = saveString();
-    return s != null && !s.equals(lastSave);
+    final byte[] d = currentDigest();
+    return d != null && !Arrays.equals(d, lastSaveDigest);
+  }
+
+  /**
+   * @return the digest of the game state, computed again only if a piece has
+   * been added or removed or a Command logged since it was last computed
+   */
+  private byte[] currentDigest() {
+    if (digestCount != modificationCount) {
+      digest = saveDigest();
+      digestCount = modificationCount;
+    }
+    return digest;
   }
 
   /**
@@ -320,6 +372,7 @@ public class GameState implements CommandEncoder {
     this.gameStarting = gameStarting;
     if (!gameStarting) {
       pieces.clear();
+      propertyIndex.clear();
     }
 
     newGame.setEnabled(!gameStarting);
@@ -343,7 +396,8 @@ public class GameState implements CommandEncoder {
     }
 
     gameStarted |= this.gameStarting;
-    lastSave = gameStarting ? saveString() : null;
+    ++modificationCount;
+    lastSaveDigest = gameStarting ? currentDigest() : null;
     lastSaveFile = null;
 
     if (gameStarted) {
@@ -474,6 +528,31 @@ public class GameState implements CommandEncoder {
     return GameModule.getGameModule().encode(getRestoreCommand());
   }
 
+  /**
+   * Streams the encoded game state through a digest, so that it can be
+   * compared with the saved state without being held in memory.
+   *
+   * @return SHA-1 digest of the save string, or null if there is no game to save
+   */
+  protected byte[] saveDigest() {
+    final Command c = getRestoreCommand();
+    if (c == null) {
+      return null;
+    }
+
+    final MessageDigest md = DigestUtils.getSha1Digest();
+    try (Writer w = new BufferedWriter(new OutputStreamWriter(
+      new DigestOutputStream(OutputStream.nullOutputStream(), md),
+      StandardCharsets.UTF_8))) {
+      GameModule.getGameModule().encode(c, w);
+    }
+    catch (IOException e) {
+      // the null stream does not throw
+      throw new UncheckedIOException(e);
+    }
+    return md.digest();
+  }
+
   protected boolean checkForOldSaveFile(File f) {
     if (f.exists()) {
       // warn user if overwriting a save from an old version
@@ -544,10 +623,10 @@ public class GameState implements CommandEncoder {
 
   public void setModified(boolean modified) {
     if (modified) {
-      lastSave = null;
+      lastSaveDigest = null;
     }
     else {
-      lastSave = saveString();
+      lastSaveDigest = currentDigest();
     }
   }
 
@@ -574,7 +653,20 @@ public class GameState implements CommandEncoder {
     if (p.getId() == null) {
       p.setId(getNewPieceId());
     }
-    pieces.put(p.getId(), p);
+    final GamePiece old = pieces.put(p.getId(), p);
+    if (old != p) {
+      ++modificationCount;
+      if (old != null) {
+        propertyIndex.remove(old);
+      }
+      propertyIndex.add(p);
+      for (final PieceListener l : List.copyOf(pieceListeners)) {
+        if (old != null) {
+          l.pieceRemoved(old);
+        }
+        l.pieceAdded(p);
+      }
+    }
   }
 
   /**
@@ -589,10 +681,133 @@ public class GameState implements CommandEncoder {
    */
   public void removePiece(String id) {
     if (id != null) {
-      pieces.remove(id);
+      final GamePiece p = pieces.remove(id);
+      if (p != null) {
+        ++modificationCount;
+        propertyIndex.remove(p);
+        for (final PieceListener l : List.copyOf(pieceListeners)) {
+          l.pieceRemoved(p);
+        }
+      }
     }
   }
 
+  /**
+   * Is told when pieces enter or leave the game, and when they may have
+   * changed. Listeners are called by the thread changing the game, which is
+   * normally the EDT.
+   *
+   * @see #addPieceListener
+   * @since 3.5.0
+   */
+  public interface PieceListener {
+    void pieceAdded(GamePiece p);
+
+    void pieceRemoved(GamePiece p);
+
+    /** The piece may have changed its state or moved */
+    void pieceChanged(GamePiece p);
+
+    /**
+     * Something may have changed which any piece's properties can depend
+     * on, such as a Global Property
+     */
+    void allPiecesChanged();
+  }
+
+  /** @since 3.5.0 */
+  public void addPieceListener(PieceListener l) {
+    pieceListeners.add(l);
+  }
+
+  /** @since 3.5.0 */
+  public void removePieceListener(PieceListener l) {
+    pieceListeners.remove(l);
+  }
+
+  /**
+   * Tells the {@link PieceListener}s which pieces may have been changed by a
+   * Command which has been executed or logged. Commands which change pieces
+   * directly name the pieces they change. Chat text, and property changes
+   * which leave the value as it was, change nothing. Any other Command, such
+   * as a Global Property change, is taken to change something which every
+   * piece may depend on: a piece's properties can be derived from any Global
+   * Property through Calculated Properties, Text Labels, Prototypes or
+   * expressions, so the pieces depending on it cannot be known without
+   * evaluating them all. Any Command also marks the game state as possibly
+   * modified; see {@link #isModified()}.
+   *
+   * @since 3.5.0
+   */
+  public void piecesChanged(Command c) {
+    if (c == null) {
+      return;
+    }
+    ++modificationCount;
+    if (pieceListeners.isEmpty()) {
+      return;
+    }
+
+    final Set<GamePiece> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+    final boolean all = findChangedPieces(c, changed);
+    for (final PieceListener l : List.copyOf(pieceListeners)) {
+      if (all) {
+        l.allPiecesChanged();
+      }
+      else {
+        changed.forEach(l::pieceChanged);
+      }
+    }
+  }
+
+  /**
+   * @return true if the Command may change something other than the pieces
+   * found
+   */
+  private boolean findChangedPieces(Command c, Set<GamePiece> found) {
+    GamePiece target = null;
+    if (c instanceof ChangePiece) {
+      target = getPieceForId(((ChangePiece) c).getId());
+    }
+    else if (c instanceof MovePiece) {
+      target = getPieceForId(((MovePiece) c).getId());
+    }
+    else if (c instanceof SetPersistentPropertyCommand) {
+      target = getPieceForId(((SetPersistentPropertyCommand) c).getId());
+    }
+    else if (c instanceof AddPiece) {
+      target = ((AddPiece) c).getTarget();
+    }
+    else if (c instanceof RemovePiece) {
+      target = ((RemovePiece) c).getTarget();
+    }
+    else if (c instanceof ChangePropertyCommand) {
+      // Set Global Property reports a change even when the value is the same
+      final ChangePropertyCommand cpc = (ChangePropertyCommand) c;
+      if (!Objects.equals(cpc.getOldValue(), cpc.getNewValue())) {
+        return true;
+      }
+    }
+    else if (!(c instanceof NullCommand) && !(c instanceof Chatter.DisplayText)) {
+      return true;
+    }
+
+    if (target instanceof Stack) {
+      // moving or shuffling a stack changes the position of its pieces
+      found.addAll(((Stack) target).asList());
+    }
+    if (target != null) {
+      found.add(target);
+    }
+
+    for (final Command sub : c.getSubCommands()) {
+      if (findChangedPieces(sub, found)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * @return a String identifier guaranteed to be different from the
    * id of all GamePieces in the game
@@ -645,6 +860,15 @@ public class GameState implements CommandEncoder {
     return pieces.values();
   }
 
+  /**
+   * @return the index of piece property values, for finding the pieces in the game
+   * whose property has a given value
+   * @since 3.5.0
+   */
+  public PropertyIndex getPropertyIndex() {
+    return propertyIndex;
+  }
+
   public static class SetupCommand extends Command {
     private final boolean gameStarting;
 
@@ -737,16 +961,19 @@ public class GameState implements CommandEncoder {
 
     final SaveMetaData metaData;
     GameModule.getGameModule().warn(Resources.getString("GameState.saving_game") + ": " + f.getName());  //$NON-NLS-1$
-    // FIXME: It is extremely inefficient to produce the save string. It would
-    // be faster to write directly to the output stream instead.
     metaData = new SaveMetaData(); // this also potentially prompts for save file comments, so do *before* possibly long save file write
 
-    final String save = saveString();
+    final Command save = getRestoreCommand();
+    final MessageDigest md = DigestUtils.getSha1Digest();
     try (FileArchive archive = new ZipArchive(f)) {
+      // Write the commands straight through to the archive rather than
+      // building the whole save string in memory first
       try (OutputStream zout = archive.getOutputStream(SAVEFILE_ZIP_ENTRY);
            BufferedOutputStream bout = new BufferedOutputStream(zout);
-           OutputStream out = new ObfuscatingOutputStream(bout)) {
-        out.write(save.getBytes(StandardCharsets.UTF_8));
+           OutputStream out = new ObfuscatingOutputStream(bout);
+           Writer w = new BufferedWriter(new OutputStreamWriter(
+             new DigestOutputStream(out, md), StandardCharsets.UTF_8))) {
+        GameModule.getGameModule().encode(save, w);
       }
 
       metaData.save(archive);
@@ -754,7 +981,9 @@ public class GameState implements CommandEncoder {
 
     Launcher.getInstance().sendSaveCmd(f);
 
-    lastSave = save;
+    lastSaveDigest = md.digest();
+    digest = lastSaveDigest;
+    digestCount = modificationCount;
     final String msg;
     final String saveComments = metaData.getLocalizedDescription();
     if (!StringUtils.isEmpty(saveComments)) {
@@ -784,74 +1013,267 @@ public class GameState implements CommandEncoder {
     final JFrame frame = GameModule.getGameModule().getPlayerWindow();
     frame.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
 
-    new SwingWorker<Command, Void>() {
+    new SwingWorker<List<Command>, Void>() {
       @Override
-      public Command doInBackground() throws Exception {
+      public List<Command> doInBackground() throws Exception {
         try (in) {
-          return decodeSavedGame(in);
+          final Command c = decodeSavedGame(in);
+          return c == null ? null : splitLoadCommand(c);
         }
       }
 
       @Override
       protected void done() {
+        List<Command> loadCommands = null;
+        String msg = null;
         try {
-          Command loadCommand = null;
-          String msg = null;
-          try {
-            loadCommand = get();
-
-            if (loadCommand != null) {
-              if (loadComments != null && loadComments.length() > 0) {
-                msg = "!" + Resources.getString("GameState.loaded", shortName) + ": <b>" + loadComments + "</b>"; //$NON-NLS-1$
-              }
-              else {
-                msg = Resources.getString("GameState.loaded", shortName); //$NON-NLS-1$
-              }
-              GameModule.getGameModule().setGameFile(shortName, GameModule.GameFileMode.LOADED_GAME);
+          loadCommands = get();
+
+          if (loadCommands != null) {
+            if (loadComments != null && loadComments.length() > 0) {
+              msg = "!" + Resources.getString("GameState.loaded", shortName) + ": <b>" + loadComments + "</b>"; //$NON-NLS-1$
             }
             else {
-              msg = Resources.getString("GameState.invalid_savefile", shortName);  //$NON-NLS-1$
-              GameModule.getGameModule().setGameFileMode(GameModule.GameFileMode.NEW_GAME);
+              msg = Resources.getString("GameState.loaded", shortName); //$NON-NLS-1$
             }
+            GameModule.getGameModule().setGameFile(shortName, GameModule.GameFileMode.LOADED_GAME);
           }
-          catch (InterruptedException e) {
-            ErrorDialog.bug(e);
+          else {
+            msg = Resources.getString("GameState.invalid_savefile", shortName);  //$NON-NLS-1$
+            GameModule.getGameModule().setGameFileMode(GameModule.GameFileMode.NEW_GAME);
           }
-          // FIXME: review error message
-          catch (ExecutionException e) {
+        }
+        catch (InterruptedException e) {
+          ErrorDialog.bug(e);
+        }
+        // FIXME: review error message
+        catch (ExecutionException e) {
 // FIXME: This is a temporary hack to catch OutOfMemoryErrors; there should
 // be a better, more uniform and more permanent way of handling these, since
 // an OOME is neither a VASSAL bug, a module bug, nor due to bad data.
-            final OutOfMemoryError oom =
-              ThrowableUtils.getAncestor(OutOfMemoryError.class, e);
-            if (oom != null) {
-              ErrorDialog.bug(e);
-            }
-            else {
-              log.error("", e);
-            }
-            msg = Resources.getString("GameState.error_loading", shortName);
+          final OutOfMemoryError oom =
+            ThrowableUtils.getAncestor(OutOfMemoryError.class, e);
+          if (oom != null) {
+            ErrorDialog.bug(e);
           }
-
-          if (loadCommand != null) {
-            loadCommand.execute();
+          else {
+            log.error("", e);
           }
+          msg = Resources.getString("GameState.error_loading", shortName);
+        }
 
-          GameModule.getGameModule().warn(msg);
+        if (loadCommands != null) {
+          new GameLoader(frame, shortName, loadCommands, msg).run();
         }
-        finally {
+        else {
+          GameModule.getGameModule().warn(msg);
           frame.setCursor(Cursor.getPredefinedCursor(Cursor.DEFAULT_CURSOR));
         }
       }
     }.execute();
   }
 
+  /**
+   * Executes and logs a Command received from another player. Must be
+   * called on the EDT. A Command received while a game is being loaded is
+   * held until the whole game has been loaded, so that it does not act on
+   * a partly loaded game.
+   *
+   * @param c the Command received
+   * @since 3.5.0
+   */
+  public static void executeReceived(Command c) {
+    if (!GameLoader.hold(c)) {
+      c.execute();
+      GameModule.getGameModule().getLogger().log(c);
+    }
+  }
+
+  /**
+   * Splits the Command which loads a game into a list of Commands which
+   * do the same when executed in order. The containers which hold the
+   * AddPiece commands, and the AddPiece commands themselves, are split from
+   * their subcommands; any other Command is kept whole, as its
+   * {@link Command#execute} may depend on its subcommands.
+   */
+  private static List<Command> splitLoadCommand(Command c) {
+    final List<Command> list = new ArrayList<>();
+    final Deque<Command> todo = new ArrayDeque<>();
+    todo.push(c);
+    while (!todo.isEmpty()) {
+      final Command cmd = todo.pop();
+      final Class<?> cl = cmd.getClass();
+      if (cl == NullCommand.class || cl == SetupCommand.class ||
+          cl == AddPiece.class) {
+        final Command[] sub = cmd.getSubCommands();
+        cmd.stripSubCommands();
+        for (int i = sub.length - 1; i >= 0; --i) {
+          todo.push(sub[i]);
+        }
+      }
+      list.add(cmd);
+    }
+    return list;
+  }
+
+  // Time for which to execute the commands of a loading game before
+  // letting the EDT handle other events
+  private static final long LOAD_SLICE_MS = 50;
+
+  /**
+   * Executes the commands which load a game on the EDT, a slice at a time,
+   * so that the EDT goes on handling events while thousands of pieces are
+   * added. Maps draw no pieces until all have been added, then repaint
+   * once. A modal progress dialog, shown if loading takes more than one
+   * slice, keeps the player from acting on the partly loaded game and
+   * shows the map on which pieces are being placed. Commands received from
+   * other players meanwhile are held, and executed once loading has finished.
+   */
+  static class GameLoader implements Runnable {
+    // The loader executing its commands, if any. Used only on the EDT.
+    private static GameLoader active;
+
+    private final JFrame frame;
+    private final String shortName;
+    private final List<Command> commands;
+    private final String msg;
+    private final List<VASSAL.build.module.Map> maps;
+    private final ProgressDialog dialog;
+    private VASSAL.build.module.Map currentMap;
+    private int next = 0;
+    private boolean cancelled = false;
+    private boolean finished = false;
+    private final List<Command> received = new ArrayList<>();
+
+    GameLoader(JFrame frame, String shortName, List<Command> commands, String msg) {
+      this(frame, shortName, commands, msg, createDialog(frame, shortName));
+    }
+
+    GameLoader(JFrame frame, String shortName, List<Command> commands, String msg, ProgressDialog dialog) {
+      this.frame = frame;
+      this.shortName = shortName;
+      this.commands = commands;
+      this.msg = msg;
+      this.dialog = dialog;
+
+      maps = VASSAL.build.module.Map.getMapList();
+      maps.forEach(m -> m.setPiecesLoading(true));
+
+      dialog.setLocationRelativeTo(frame);
+      dialog.addActionListener(e -> cancelled = true);
+
+      active = this;
+    }
+
+    /**
+     * Holds a command received while a game is loading
+     *
+     * @return whether the command was held
+     */
+    static boolean hold(Command c) {
+      if (active == null) {
+        return false;
+      }
+      active.received.add(c);
+      return true;
+    }
+
+    private static ProgressDialog createDialog(JFrame frame, String shortName) {
+      final String title = Resources.getString("GameState.loading", shortName); //$NON-NLS-1$
+      return new ProgressDialog(frame, title, title);
+    }
+
+    @Override
+    public void run() {
+      if (finished) {
+        return;
+      }
+
+      try {
+        final long end = System.currentTimeMillis() + LOAD_SLICE_MS;
+        while (next < commands.size() && !cancelled) {
+          execute(commands.get(next++));
+          if (System.currentTimeMillis() >= end) {
+            break;
+          }
+        }
+      }
+      catch (RuntimeException | Error e) {
+        // leave the maps drawing pieces and the dialog closed, whatever happened
+        finish();
+        throw e;
+      }
+
+      if (next < commands.size() && !cancelled) {
+        dialog.setProgress(100 * next / commands.size());
+        SwingUtilities.invokeLater(this);
+        if (!dialog.isVisible()) {
+          // returns once loading has finished
+          dialog.setVisible(true);
+        }
+      }
+      else {
+        finish();
+      }
+    }
+
+    private void execute(Command c) {
+      c.execute();
+      if (c instanceof AddPiece) {
+        final GamePiece p = ((AddPiece) c).getTarget();
+        final VASSAL.build.module.Map m = p == null ? null : p.getMap();
+        if (m != null && m != currentMap) {
+          currentMap = m;
+          dialog.setLabel(Resources.getString("GameState.loading_map", m.getLocalizedMapName())); //$NON-NLS-1$
+        }
+      }
+    }
+
+    private void finish() {
+      finished = true;
+      dialog.dispose();
+      maps.forEach(m -> m.setPiecesLoading(false));
+
+      final GameModule g = GameModule.getGameModule();
+      if (cancelled) {
+        g.getGameState().setup(false);
+        g.setGameFileMode(GameModule.GameFileMode.NEW_GAME);
+        g.warn(Resources.getString("GameState.cancel_load", shortName)); //$NON-NLS-1$
+      }
+      else {
+        g.warn(msg);
+      }
+      frame.setCursor(Cursor.getPredefinedCursor(Cursor.DEFAULT_CURSOR));
+
+      // before any command received later, which waits on the EDT behind this
+      if (active == this) {
+        active = null;
+      }
+      received.forEach(GameState::executeReceived);
+      received.clear();
+    }
+  }
+
   /**
    * @return a Command that, when executed, will add all pieces currently
    * in the game. Used when saving a game. Pieces are grouped by map, and
    * within a map by visual layer.
    */
   public Command getRestorePiecesCommand() {
+    final Command c = new NullCommand();
+    for (final GamePiece p : getPiecesInRestoreOrder()) {
+      c.append(new AddPiece(p));
+    }
+    return c;
+  }
+
+  /**
+   * @return all pieces currently in the game, in the order in which
+   * {@link #getRestorePiecesCommand} adds them: grouped by map, and within
+   * a map by visual layer
+   * @since 3.5.0
+   */
+  public List<GamePiece> getPiecesInRestoreOrder() {
     // TODO remove stacks that were empty when the game was loaded and are still empty now
     final List<GamePiece> pieceList = new ArrayList<>(pieces.values());
     pieceList.sort(new Comparator<>() {
@@ -893,11 +1315,7 @@ public class GameState implements CommandEncoder {
       }
     });
 
-    final Command c = new NullCommand();
-    for (final GamePiece p : pieceList) {
-      c.append(new AddPiece(p));
-    }
-    return c;
+    return pieceList;
   }
 
   /**
@@ -918,11 +1336,10 @@ public class GameState implements CommandEncoder {
       for (ZipEntry entry = zipInput.getNextEntry(); entry != null;
            entry = zipInput.getNextEntry()) {
         if (SAVEFILE_ZIP_ENTRY.equals(entry.getName())) {
-          try (InputStream din = new DeobfuscatingInputStream(zipInput)) {
-            // FIXME: toString() is very inefficient, make decode() use the stream directly
-            return GameModule.getGameModule().decode(
-              IOUtils.toString(din, StandardCharsets.UTF_8)
-            );
+          try (InputStream din = new DeobfuscatingInputStream(zipInput);
+               Reader r = new BufferedReader(
+                 new InputStreamReader(din, StandardCharsets.UTF_8))) {
+            return GameModule.getGameModule().decode(r);
           }
         }
       }
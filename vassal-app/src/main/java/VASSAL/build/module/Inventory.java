@@ -36,13 +36,16 @@ import java.io.PrintWriter;
 import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -88,7 +91,6 @@ import VASSAL.counters.BoundsTracker;
 import VASSAL.counters.Decorator;
 import VASSAL.counters.GamePiece;
 import VASSAL.counters.PieceFilter;
-import VASSAL.counters.PieceIterator;
 import VASSAL.counters.Properties;
 import VASSAL.counters.PropertiesPieceFilter;
 import VASSAL.counters.PropertyExporter;
@@ -194,6 +196,45 @@ public class Inventory extends AbstractToolbarItem
 
   protected JDialog frame;
 
+  // Time for which to update the tree before letting the EDT handle other events
+  private static final long UPDATE_SLICE_MS = 50;
+
+  // Beyond this many changed pieces, building the tree again is quicker than updating it
+  private static final int MAX_CHANGED_PIECES = 1000;
+
+  // The leaf counter of each piece in the tree
+  private final Map<GamePiece, Counter> counters = new IdentityHashMap<>();
+
+  // Pieces which may have changed since the tree was last updated
+  private final Set<GamePiece> changedPieces = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  // Whether the tree must be built again from all pieces
+  private boolean rebuild = true;
+
+  private TreeUpdater updater;
+
+  private final GameState.PieceListener pieceListener = new GameState.PieceListener() {
+    @Override
+    public void pieceAdded(GamePiece p) {
+      pieceChanged(p);
+    }
+
+    @Override
+    public void pieceRemoved(GamePiece p) {
+      pieceChanged(p);
+    }
+
+    @Override
+    public void pieceChanged(GamePiece p) {
+      Inventory.this.pieceChanged(p);
+    }
+
+    @Override
+    public void allPiecesChanged() {
+      Inventory.this.allPiecesChanged();
+    }
+  };
+
   // These five identical to AbstractToolbarItem, and are only here for "clirr purposes"
   @Deprecated (since = "2020-10-21", forRemoval = true) public static final String HOTKEY = "hotkey"; //$NON-NLS-1$
   @Deprecated (since = "2020-10-21", forRemoval = true) public static final String BUTTON_TEXT = "text"; //$NON-NLS-1$
@@ -223,6 +264,7 @@ public class Inventory extends AbstractToolbarItem
     GameModule.getGameModule().addSideChangeListenerToPlayerRoster(this);
     getLaunchButton().setAlignmentY(0.0F);
     GameModule.getGameModule().getGameState().addGameComponent(this);
+    GameModule.getGameModule().getGameState().addPieceListener(pieceListener);
     frame = new JDialog(GameModule.getGameModule().getPlayerWindow());
     frame.setTitle(getConfigureName());
     final String key = "Inventory." + getConfigureName(); //$NON-NLS-1$
@@ -375,6 +417,8 @@ public class Inventory extends AbstractToolbarItem
    * TODO rework text display of Inventory
    */
   protected void inventoryToText() {
+    if (results == null) return;
+
     final FileChooser fc = GameModule.getGameModule().getFileChooser();
     if (fc.showSaveDialog() == FileChooser.CANCEL_OPTION) return;
 
@@ -419,6 +463,7 @@ public class Inventory extends AbstractToolbarItem
   public void removeFrom(Buildable b) {
     super.removeFrom(b);
     GameModule.getGameModule().getGameState().removeGameComponent(this);
+    GameModule.getGameModule().getGameState().removePieceListener(pieceListener);
   }
 
   @Override
@@ -434,47 +479,212 @@ public class Inventory extends AbstractToolbarItem
       frame.setVisible(false);
     }
     else {
-      refresh();
+      // The tree is kept up to date, so only an open inventory is built again
+      if (frame.isVisible()) {
+        refresh();
+      }
+      else {
+        updateInventory();
+      }
       frame.setVisible(true);
     }
   }
 
-  private void buildTreeModel() {
-    // Initialize all pieces with CurrentBoard correctly.
-    for (final VASSAL.build.module.Map m : VASSAL.build.module.Map.getMapList()) {
-      m.getPieces();
+  /**
+   * @return the leaf counter for a piece, or <code>null</code> if the piece
+   * is not in the game or is not included in the inventory
+   */
+  private Counter makeCounter(GamePiece p) {
+    if (!(p instanceof Decorator || p instanceof BasicPiece) ||
+        GameModule.getGameModule().getGameState().getPieceForId(p.getId()) != p ||
+        !piecePropertiesFilter.accept(p)) {
+      return null;
+    }
+
+    final ArrayList<String> groups = new ArrayList<>();
+    for (final String s : groupBy) {
+      if (s.length() > 0) {
+        final String prop = (String) p.getProperty(s);
+        if (prop != null)
+          groups.add(prop);
+      }
     }
 
-    final ArrayList<String> path = new ArrayList<>();
-    Collections.addAll(path, groupBy);
-    results = new CounterInventory(
-      new Counter(this.getConfigureName()), path, sortPieces);
+    int count = 1;
+    if (nonLeafFormat.length() > 0)
+      count = getTotalValue(p);
 
-    final PieceIterator pi = new PieceIterator(
-      GameModule.getGameModule().getGameState().getAllPieces().iterator(),
-      piecePropertiesFilter
-    );
+    return new Counter(p, groups, count, pieceFormat, sortFormat);
+  }
+
+  /**
+   * Moves a piece which may have changed to where it now belongs in the tree
+   */
+  private void updatePiece(GamePiece p) {
+    final Counter old = counters.get(p);
+    final Counter c = makeCounter(p);
+    if (old != null && c != null && old.groups.equals(c.groups)) {
+      old.setValue(c.getValue());
+      results.update(old);
+    }
+    else {
+      if (old != null) {
+        results.remove(old);
+        counters.remove(p);
+      }
+      if (c != null) {
+        results.insert(c);
+        counters.put(p, c);
+      }
+    }
+  }
+
+  private void pieceChanged(GamePiece p) {
+    if (!SwingUtilities.isEventDispatchThread()) {
+      SwingUtilities.invokeLater(() -> pieceChanged(p));
+      return;
+    }
+
+    if (cutBelowRoot > 0 || cutAboveLeaves > 0) {
+      // Cut trees have lost the nodes needed to update them
+      allPiecesChanged();
+    }
+    else if (!rebuild) {
+      changedPieces.add(p);
+      if (changedPieces.size() > MAX_CHANGED_PIECES) {
+        allPiecesChanged();
+      }
+      else if (frame.isVisible()) {
+        updateInventory();
+      }
+    }
+  }
+
+  private void allPiecesChanged() {
+    if (!SwingUtilities.isEventDispatchThread()) {
+      SwingUtilities.invokeLater(this::allPiecesChanged);
+      return;
+    }
+
+    rebuild = true;
+    changedPieces.clear();
+    if (frame.isVisible()) {
+      updateInventory();
+    }
+  }
 
-    while (pi.hasMoreElements()) {
-      final ArrayList<String> groups = new ArrayList<>();
-      final GamePiece p = pi.nextPiece();
+  /**
+   * Starts bringing the tree up to date, if it is not already being updated
+   */
+  private void updateInventory() {
+    if (updater == null && (rebuild || !changedPieces.isEmpty())) {
+      updater = new TreeUpdater();
+      SwingUtilities.invokeLater(updater);
+    }
+  }
 
-      if (p instanceof Decorator || p instanceof BasicPiece) {
-        for (final String s : groupBy) {
-          if (s.length() > 0) {
-            final String prop = (String) p.getProperty(s);
-            if (prop != null)
-              groups.add(prop);
+  /**
+   * Builds the tree from all pieces, or updates it for the pieces which have
+   * changed, on the EDT a slice at a time, so that the EDT goes on handling
+   * events while thousands of pieces are counted. A tree being built is
+   * shown once it is complete. Pieces which change meanwhile are updated
+   * afterwards.
+   */
+  private class TreeUpdater implements Runnable {
+    private final List<GamePiece> pieces;
+    private final CounterInventory inventory;
+    // The counters of a tree being built
+    private final Map<GamePiece, Counter> newCounters;
+    private int next = 0;
+
+    TreeUpdater() {
+      if (rebuild) {
+        rebuild = false;
+        changedPieces.clear();
+
+        // Initialize all pieces with CurrentBoard correctly.
+        for (final VASSAL.build.module.Map m : VASSAL.build.module.Map.getMapList()) {
+          m.getPieces();
+        }
+
+        pieces = new ArrayList<>(GameModule.getGameModule().getGameState().getAllPieces());
+        // Sorted once complete, rather than at each insertion
+        inventory = new CounterInventory(
+          new Counter(getConfigureName()), new ArrayList<>(Arrays.asList(groupBy)), false);
+        newCounters = new IdentityHashMap<>();
+      }
+      else {
+        pieces = new ArrayList<>(changedPieces);
+        changedPieces.clear();
+        inventory = results;
+        newCounters = null;
+      }
+    }
+
+    @Override
+    public void run() {
+      if (updater != this) {
+        // the game has closed
+        return;
+      }
+
+      final long end = System.currentTimeMillis() + UPDATE_SLICE_MS;
+      while (next < pieces.size()) {
+        final GamePiece p = pieces.get(next++);
+        if (newCounters == null) {
+          updatePiece(p);
+        }
+        else {
+          final Counter c = makeCounter(p);
+          if (c != null) {
+            inventory.insert(c);
+            newCounters.put(p, c);
           }
         }
 
-        int count = 1;
-        if (nonLeafFormat.length() > 0)
-          count = getTotalValue(p);
+        if (System.currentTimeMillis() >= end) {
+          break;
+        }
+      }
+
+      if (next < pieces.size()) {
+        SwingUtilities.invokeLater(this);
+        return;
+      }
 
-        final Counter c = new Counter(p, groups, count, pieceFormat, sortFormat);
-        // Store
-        results.insert(c);
+      if (newCounters != null) {
+        show();
+      }
+      updater = null;
+      updateInventory();
+    }
+
+    private void show() {
+      if (sortPieces) {
+        inventory.root.sortTree();
+      }
+      inventory.sort = sortPieces;
+      inventory.live = true;
+
+      // Make an attempt to keep the same nodes expanded
+      final HashSet<String> expanded = new HashSet<>();
+      final int n = tree.getRowCount();
+      for (int i = 0; i < n; ++i) {
+        if (tree.isExpanded(i)) {
+          expanded.add(tree.getPathForRow(i).getLastPathComponent().toString());
+        }
+      }
+
+      results = inventory;
+      counters.clear();
+      counters.putAll(newCounters);
+      tree.setModel(results);
+
+      for (int i = 0; i < tree.getRowCount(); ++i) {
+        if (expanded.contains(
+              tree.getPathForRow(i).getLastPathComponent().toString())) {
+          tree.expandRow(i);
+        }
       }
     }
   }
@@ -600,6 +810,9 @@ public class Inventory extends AbstractToolbarItem
 
   @Override
   public void setAttribute(String key, Object o) {
+    rebuild = true;
+    changedPieces.clear();
+
     if (FILTER.equals(key)) {
       piecePropertiesFilter.setExpression((String) o);
     }
@@ -774,6 +987,13 @@ public class Inventory extends AbstractToolbarItem
   @Override
   public void setup(boolean gameStarting) {
     getLaunchButton().setEnabled(gameStarting && enabledForPlayersSide());
+
+    // Drop the tree of the last game
+    updater = null;
+    rebuild = true;
+    changedPieces.clear();
+    counters.clear();
+
     if (gameStarting) {
       setupLaunch();
     }
@@ -843,23 +1063,9 @@ public class Inventory extends AbstractToolbarItem
   }
 
   private void refresh() {
-    // Make an attempt to keep the same nodes expanded
-    final HashSet<String> expanded = new HashSet<>();
-    final int n = tree.getRowCount();
-    for (int i = 0; i < n; ++i) {
-      if (tree.isExpanded(i)) {
-        expanded.add(tree.getPathForRow(i).getLastPathComponent().toString());
-      }
-    }
-    buildTreeModel();
-    tree.setModel(results);
-
-    for (int i = 0; i < tree.getRowCount(); ++i) {
-      if (expanded.contains(
-            tree.getPathForRow(i).getLastPathComponent().toString())) {
-        tree.expandRow(i);
-      }
-    }
+    rebuild = true;
+    changedPieces.clear();
+    updateInventory();
   }
 
   public class HotKeySender implements KeyListener {
@@ -1027,10 +1233,10 @@ public class Inventory extends AbstractToolbarItem
         }
         else {
           int sum = 0;
-          final int n = results.getChildCount(node);
+          final int n = node.getChildCount();
           for (int i = 0; i < n; ++i) {
             try {
-              final CounterNode childNode = (CounterNode) results.getChild(node, i);
+              final CounterNode childNode = (CounterNode) node.getChild(i);
               sum += Integer.parseInt((String) (childNode.getCounter()).getProperty(key));
             }
             catch (NumberFormatException e) {
@@ -1115,6 +1321,8 @@ public class Inventory extends AbstractToolbarItem
     protected final Counter counter;
     protected List<CounterNode> children;
     protected int level;
+    // Holds the sort key while the node's siblings are being sorted
+    private String cachedSortKey;
 
     // protected int depth;
 
@@ -1194,14 +1402,72 @@ public class Inventory extends AbstractToolbarItem
     }
 
     protected void sortChildren() {
-      if (sortStrategy.equals(ALPHA))
-        Collections.sort(children);
-      else if (sortStrategy.equals(LENGTHALPHA))
-        children.sort(new LengthAlpha());
+      // Format each sort key once, rather than at every comparison
+      for (final CounterNode child : children) {
+        child.cachedSortKey = child.toSortKey();
+      }
+      try {
+        children.sort(getChildComparator());
+      }
+      finally {
+        for (final CounterNode child : children) {
+          child.cachedSortKey = null;
+        }
+      }
+    }
+
+    /**
+     * @return the order in which children are sorted
+     * @since 3.5.0
+     */
+    protected Comparator<CounterNode> getChildComparator() {
+      if (sortStrategy.equals(LENGTHALPHA))
+        return new LengthAlpha();
       else if (sortStrategy.equals(NUMERIC))
-        children.sort(new Numerical());
+        return new Numerical();
       else
-        Collections.sort(children);
+        return Comparator.naturalOrder();
+    }
+
+    /**
+     * Adds a child after those which sort before or equal to it, as if the
+     * children had been sorted after adding it, assuming they were sorted.
+     *
+     * @return the index of the new child
+     * @since 3.5.0
+     */
+    public int insertChild(CounterNode counterNode) {
+      final Comparator<CounterNode> order = getChildComparator();
+      counterNode.cachedSortKey = counterNode.toSortKey();
+      try {
+        int lo = 0;
+        int hi = children.size();
+        while (lo < hi) {
+          final int mid = (lo + hi) >>> 1;
+          if (order.compare(children.get(mid), counterNode) <= 0) {
+            lo = mid + 1;
+          }
+          else {
+            hi = mid;
+          }
+        }
+        children.add(lo, counterNode);
+        return lo;
+      }
+      finally {
+        counterNode.cachedSortKey = null;
+      }
+    }
+
+    /**
+     * Sorts the children of this node, and of all nodes below it
+     * @since 3.5.0
+     */
+    public void sortTree() {
+      for (final CounterNode child : children) {
+        child.sortTree();
+      }
+      sortChildren();
     }
 
     public void removeChild(CounterNode child) {
@@ -1233,8 +1499,9 @@ public class Inventory extends AbstractToolbarItem
     }
 
     public int updateValues() {
+      // A node with children totals them; its own value is the last total
       int value = 0;
-      if (counter != null)
+      if (counter != null && children.isEmpty())
         value = counter.getValue();
 
       // inform children about update
@@ -1289,6 +1556,8 @@ public class Inventory extends AbstractToolbarItem
      * @return key as String
      */
     protected String toSortKey() {
+      if (cachedSortKey != null)
+        return cachedSortKey;
       String sortKey = getEntry();
       if (counter != null)
         sortKey = counter.toSortKey();
@@ -1454,6 +1723,8 @@ public class Inventory extends AbstractToolbarItem
     protected boolean changed;
     // Sort the tree
     protected boolean sort;
+    // Shown in the tree, so that changes must be reported to its listeners
+    boolean live;
 
     public CounterInventory(Counter c, List<String> path, boolean sort) {
       this.root = new CounterNode(c.getName(), c);
@@ -1469,6 +1740,11 @@ public class Inventory extends AbstractToolbarItem
      * @param counter
      */
     public void insert(Counter counter) {
+      if (live) {
+        insertLive(counter);
+        return;
+      }
+
       final String[] path = counter.getPath();
       final StringBuilder hash = new StringBuilder();
 
@@ -1490,6 +1766,208 @@ public class Inventory extends AbstractToolbarItem
       changed = true;
     }
 
+    /**
+     * Inserts a counter into a tree being shown, placing each new node where
+     * it sorts, and reports the new nodes and the changed totals
+     */
+    private void insertLive(Counter counter) {
+      final String[] path = counter.getPath();
+      final StringBuilder hash = new StringBuilder();
+      final List<CounterNode> nodes = new ArrayList<>();
+      nodes.add(root);
+
+      // Build the missing part of the path, then add it in one piece
+      CounterNode top = null;
+      CounterNode bottom = root;
+      for (int j = 0; path != null && j < path.length; j++) {
+        hash.append(path[j]);
+        final CounterNode existing = top == null ? inventory.get(hash.toString()) : null;
+        if (existing != null) {
+          nodes.add(existing);
+          bottom = existing;
+        }
+        else {
+          final CounterNode newNode = new CounterNode(
+            path[j], new Counter(path[j], counter.getPiece()), bottom.getLevel() + 1);
+          inventory.put(hash.toString(), newNode);
+          if (top == null) {
+            top = newNode;
+          }
+          else {
+            bottom.addChild(newNode, false);
+          }
+          bottom = newNode;
+        }
+      }
+
+      final CounterNode leaf = new CounterNode(
+        counter.toString(), counter, bottom.getLevel() + 1);
+      if (top == null) {
+        top = leaf;
+      }
+      else {
+        bottom.addChild(leaf, false);
+      }
+
+      final CounterNode parent = nodes.get(nodes.size() - 1);
+      final int index;
+      if (sort) {
+        index = parent.insertChild(top);
+      }
+      else {
+        parent.addChild(top, false);
+        index = parent.getChildCount() - 1;
+      }
+      changed = true;
+
+      if (parent == root && root.getChildCount() == 1) {
+        // A tree hiding its root does not show the children of an empty root
+        fireTreeStructureChanged(new Object[] {root});
+      }
+      else {
+        fireNodesInserted(nodes.toArray(), new int[] {index}, new Object[] {top});
+        fireAncestorsChanged(nodes);
+      }
+    }
+
+    /**
+     * Removes a counter from the tree, along with any groups left empty.
+     *
+     * @since 3.5.0
+     */
+    public void remove(Counter counter) {
+      final List<CounterNode> nodes = findPath(counter);
+      if (nodes == null) {
+        return;
+      }
+      final List<String> keys = getPathKeys(counter);
+
+      // Remove the leaf, and each group it leaves empty
+      CounterNode removed = counter.node;
+      int level = nodes.size() - 1;
+      int index = indexOf(nodes.get(level), removed);
+      if (index < 0) {
+        return;
+      }
+      nodes.get(level).children.remove(index);
+      while (level > 0 && nodes.get(level).isLeaf()) {
+        inventory.remove(keys.get(level - 1));
+        removed = nodes.get(level);
+        nodes.remove(level--);
+        index = indexOf(nodes.get(level), removed);
+        nodes.get(level).children.remove(index);
+      }
+      changed = true;
+
+      if (live) {
+        fireNodesRemoved(nodes.toArray(), new int[] {index}, new Object[] {removed});
+        fireAncestorsChanged(nodes);
+      }
+    }
+
+    /**
+     * Reports that the label or value of a counter in the tree may have
+     * changed. If the counter no longer sorts among its siblings, it is moved.
+     * Groups whose labels change with their totals are not moved until the
+     * tree is next built.
+     *
+     * @since 3.5.0
+     */
+    public void update(Counter counter) {
+      final List<CounterNode> nodes = findPath(counter);
+      if (nodes == null) {
+        return;
+      }
+
+      final CounterNode parent = nodes.get(nodes.size() - 1);
+      final CounterNode leaf = counter.node;
+      int index = indexOf(parent, leaf);
+      if (index < 0) {
+        return;
+      }
+      changed = true;
+
+      if (sort && !isSorted(parent, index)) {
+        parent.children.remove(index);
+        if (live) {
+          fireNodesRemoved(nodes.toArray(), new int[] {index}, new Object[] {leaf});
+        }
+        index = parent.insertChild(leaf);
+        if (live) {
+          fireNodesInserted(nodes.toArray(), new int[] {index}, new Object[] {leaf});
+        }
+      }
+      else if (live) {
+        fireNodesChanged(nodes.toArray(), new int[] {index}, new Object[] {leaf});
+      }
+
+      if (live) {
+        fireAncestorsChanged(nodes);
+      }
+    }
+
+    private boolean isSorted(CounterNode parent, int index) {
+      final Comparator<CounterNode> order = parent.getChildComparator();
+      final CounterNode node = parent.children.get(index);
+      return (index == 0 || order.compare(parent.children.get(index - 1), node) <= 0) &&
+        (index == parent.children.size() - 1 || order.compare(node, parent.children.get(index + 1)) <= 0);
+    }
+
+    private int indexOf(CounterNode parent, CounterNode child) {
+      for (int i = 0; i < parent.children.size(); ++i) {
+        if (parent.children.get(i) == child) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    /**
+     * @return the keys in {@link #inventory} of the groups of a counter
+     */
+    private List<String> getPathKeys(Counter counter) {
+      final List<String> keys = new ArrayList<>();
+      final StringBuilder hash = new StringBuilder();
+      for (final String group : counter.getPath()) {
+        hash.append(group);
+        keys.add(hash.toString());
+      }
+      return keys;
+    }
+
+    /**
+     * @return the nodes from the root to the parent of a counter, or
+     * <code>null</code> if it is not in the tree
+     */
+    private List<CounterNode> findPath(Counter counter) {
+      if (counter.node == null) {
+        return null;
+      }
+
+      final List<CounterNode> nodes = new ArrayList<>();
+      nodes.add(root);
+      for (final String key : getPathKeys(counter)) {
+        final CounterNode node = inventory.get(key);
+        if (node == null) {
+          return null;
+        }
+        nodes.add(node);
+      }
+      return nodes;
+    }
+
+    /**
+     * Reports that the labels of the groups on a path may have changed, as
+     * their totals have
+     */
+    private void fireAncestorsChanged(List<CounterNode> nodes) {
+      for (int i = nodes.size() - 1; i > 0; --i) {
+        final CounterNode parent = nodes.get(i - 1);
+        final int index = indexOf(parent, nodes.get(i));
+        fireNodesChanged(nodes.subList(0, i).toArray(), new int[] {index}, new Object[] {nodes.get(i)});
+      }
+    }
+
     private void updateEntries() {
       root.updateValues();
     }
@@ -1561,6 +2039,32 @@ public class Inventory extends AbstractToolbarItem
       }
     }
 
+    /** @since 3.5.0 */
+    public void fireNodesInserted(Object[] path, int[] childIndices,
+                                  Object[] children) {
+      final TreeModelEvent e = new TreeModelEvent(this, path, childIndices, children);
+      for (final TreeModelListener l : treeModelListeners) {
+        l.treeNodesInserted(e);
+      }
+    }
+
+    /** @since 3.5.0 */
+    public void fireTreeStructureChanged(Object[] path) {
+      final TreeModelEvent e = new TreeModelEvent(this, path);
+      for (final TreeModelListener l : treeModelListeners) {
+        l.treeStructureChanged(e);
+      }
+    }
+
+    /** @since 3.5.0 */
+    public void fireNodesChanged(Object[] path, int[] childIndices,
+                                 Object[] children) {
+      final TreeModelEvent e = new TreeModelEvent(this, path, childIndices, children);
+      for (final TreeModelListener l : treeModelListeners) {
+        l.treeNodesChanged(e);
+      }
+    }
+
     @Override
     public Object getChild(Object parent, int index) {
       final CounterNode counter = (CounterNode) parent;
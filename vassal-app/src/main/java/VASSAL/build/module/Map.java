@@ -57,6 +57,7 @@ import java.util.Collections;
 import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import javax.swing.JComponent;
@@ -89,7 +90,9 @@ import VASSAL.build.Configurable;
 import VASSAL.build.GameModule;
 import VASSAL.build.IllegalBuildException;
 import VASSAL.build.module.documentation.HelpFile;
+import VASSAL.build.module.map.BoardBuffer;
 import VASSAL.build.module.map.BoardPicker;
+import VASSAL.build.module.map.CompoundPieceCollection;
 import VASSAL.build.module.map.CounterDetailViewer;
 import VASSAL.build.module.map.DefaultPieceCollection;
 import VASSAL.build.module.map.DrawPile;
@@ -229,6 +232,7 @@ public class Map extends AbstractToolbarItem implements GameComponent, MouseList
   protected List<Board> boards = new CopyOnWriteArrayList<>();
   protected int[][] boardWidths; // Cache of board widths by row/column
   protected int[][] boardHeights; // Cache of board heights by row/column
+  protected BoardBuffer boardBuffer = new BoardBuffer(); // Offscreen copy of the boards in the view; null to always draw the boards from their tiles
   protected PieceCollection pieces = new DefaultPieceCollection(); // All the pieces on the map, but sorted into visual layers. Will be replaced by a LayeredPieceCollection if Map has a "Game Piece Layers" Component.
   protected Highlighter highlighter = new ColoredBorder();
   protected ArrayList<Highlighter> highlighters = new ArrayList<>(); //NOPMD
@@ -237,6 +241,7 @@ public class Map extends AbstractToolbarItem implements GameComponent, MouseList
   protected boolean hideCounters = false; // Option to hide counters to see
   // map
   protected float pieceOpacity = 1.0f;
+  private boolean piecesLoading = false; // Pieces are not drawn while a game is loading
   protected boolean allowMultiple = false;
   protected VisibilityCondition visibilityCondition;
   protected DragGestureListener dragGestureListener;
@@ -1964,6 +1969,9 @@ public class Map extends AbstractToolbarItem implements GameComponent, MouseList
    */
   public void repaint(boolean cf) {
     clearFirst = cf;
+    if (cf && boardBuffer != null) {
+      boardBuffer.invalidate();
+    }
     theMap.repaint();
   }
 
@@ -2009,6 +2017,23 @@ public class Map extends AbstractToolbarItem implements GameComponent, MouseList
     final Graphics2D g2d = (Graphics2D) g;
     final double os_scale = g2d.getDeviceConfiguration().getDefaultTransform().getScaleX();
     final double dzoom = getZoom() * os_scale;
+
+    if (c == theMap && boardBuffer != null) {
+      // Copy the boards from the buffer, which holds the whole visible part
+      // of the view, so that repainting a small region is cheap
+      final Rectangle viewRect = componentToDrawing(theMap.getVisibleRect(), os_scale);
+      boardBuffer.draw(g, visibleRect, viewRect, dzoom,
+        theMap.getGraphicsConfiguration(), bgColor, (bg, region) -> {
+          boolean settled = true;
+          for (final Board b : boards) {
+            b.drawRegion(bg, getLocation(b, dzoom), region, dzoom, os_scale, c);
+            settled &= b.isViewSettled();
+          }
+          return settled;
+        });
+      return;
+    }
+
     for (final Board b : boards) {
       b.drawRegion(g, getLocation(b, dzoom), visibleRect, dzoom, c);
     }
@@ -2032,7 +2057,7 @@ public class Map extends AbstractToolbarItem implements GameComponent, MouseList
   public void drawPiecesInRegion(Graphics g,
                                  Rectangle visibleRect,
                                  Component c) {
-    if (hideCounters) {
+    if (hideCounters || piecesLoading) {
       return;
     }
 
@@ -2043,8 +2068,12 @@ public class Map extends AbstractToolbarItem implements GameComponent, MouseList
     final Composite oldComposite = g2d.getComposite();
     g2d.setComposite(
       AlphaComposite.getInstance(AlphaComposite.SRC_OVER, pieceOpacity));
-    final GamePiece[] stack = pieces.getPieces(); // Gets map pieces, sorted by visual layer
+    final List<GamePiece> stack = getPieceList(); // Gets map pieces, sorted by visual layer
+    final Set<GamePiece> candidates = visibleRect == null ? null : piecesNear(drawingToMap(visibleRect, os_scale));
     for (final GamePiece gamePiece : stack) {
+      if (candidates != null && !candidates.contains(gamePiece)) {
+        continue;
+      }
       final Point pt = mapToDrawing(gamePiece.getPosition(), os_scale);
       if (gamePiece.getClass() == Stack.class) {
         getStackMetrics().draw(
@@ -2082,7 +2111,7 @@ public class Map extends AbstractToolbarItem implements GameComponent, MouseList
    * @param yOffset y offset
    */
   public void drawPieces(Graphics g, int xOffset, int yOffset) {
-    if (hideCounters) {
+    if (hideCounters || piecesLoading) {
       return;
     }
 
@@ -2090,7 +2119,7 @@ public class Map extends AbstractToolbarItem implements GameComponent, MouseList
     final double os_scale = g2d.getDeviceConfiguration().getDefaultTransform().getScaleX();
     final Composite oldComposite = g2d.getComposite();
     g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, pieceOpacity));
-    final GamePiece[] stack = pieces.getPieces(); // Gets map pieces, sorted by visual layer
+    final List<GamePiece> stack = getPieceList(); // Gets map pieces, sorted by visual layer
     for (final GamePiece gamePiece : stack) {
       final Point pt = mapToDrawing(gamePiece.getPosition(), os_scale);
       gamePiece.draw(g, pt.x + xOffset, pt.y + yOffset, theMap, getZoom());
@@ -2257,6 +2286,30 @@ public class Map extends AbstractToolbarItem implements GameComponent, MouseList
     return pieces.getAllPieces();
   }
 
+  /**
+   * @return the same pieces as {@link #getPieces()}, in the same order, as an unmodifiable list. Unlike
+   * {@link #getPieces()}, this does not copy the pieces when the map's PieceCollection keeps a snapshot of
+   * them, so it is preferred where the pieces are only read, such as when painting the map.
+   * @since 3.5.0
+   */
+  public List<GamePiece> getPieceList() {
+    return pieces instanceof CompoundPieceCollection ?
+      ((CompoundPieceCollection) pieces).getPieceList(false) :
+      Collections.unmodifiableList(Arrays.asList(pieces.getPieces()));
+  }
+
+  /**
+   * @return the same pieces as {@link #getAllPieces()}, in the same order, as an unmodifiable list, without
+   * copying them where possible
+   * @see #getPieceList()
+   * @since 3.5.0
+   */
+  public List<GamePiece> getAllPieceList() {
+    return pieces instanceof CompoundPieceCollection ?
+      ((CompoundPieceCollection) pieces).getPieceList(true) :
+      Collections.unmodifiableList(Arrays.asList(pieces.getAllPieces()));
+  }
+
   /**
    * @param pieces Sets the PieceCollection for this map (usually a LayeredPieceCollection a/k/a "Game Piece Layer Control"), which keeps the pieces/stacks/decks sorted by visual layer, and within each layer by back-to-front draw order
    */
@@ -2311,6 +2364,9 @@ public class Map extends AbstractToolbarItem implements GameComponent, MouseList
    * will be adjusted N pixels to the right.
    */
   protected void setBoardBoundaries() {
+    if (boardBuffer != null) {
+      boardBuffer.invalidate();
+    }
     int maxX = 0;
     int maxY = 0;
     for (final Board b : boards) {
@@ -2407,6 +2463,20 @@ public class Map extends AbstractToolbarItem implements GameComponent, MouseList
     hideCounters = !show;
   }
 
+  /**
+   * While a game is being loaded, its pieces are added a few at a time.
+   * They are not drawn until loading is finished, so that the map is
+   * painted once with all of them rather than after each batch.
+   *
+   * @param loading true while a game is loading
+   */
+  void setPiecesLoading(boolean loading) {
+    piecesLoading = loading;
+    if (!loading) {
+      repaint();
+    }
+  }
+
   /**
    * @return true if {@link GamePiece}s should be drawn when painting the map
    */
@@ -2577,6 +2647,9 @@ public class Map extends AbstractToolbarItem implements GameComponent, MouseList
     else {
       pieces.clear();
       boards.clear();
+      if (boardBuffer != null) {
+        boardBuffer.dispose();
+      }
       if (mainWindowDock != null) {
         if (mainWindowDock.getHideableComponent().isShowing()) {
           Prefs.getGlobalPrefs().getOption(MAIN_WINDOW_HEIGHT)
@@ -2652,9 +2725,14 @@ public class Map extends AbstractToolbarItem implements GameComponent, MouseList
    * @return a visible piece at the given location, or null if none.
    */
   public GamePiece findPiece(Point pt, PieceFinder finder) {
-    final GamePiece[] stack = pieces.getPieces();
-    for (int i = stack.length - 1; i >= 0; --i) {
-      final GamePiece p = finder.select(this, stack[i], pt);
+    final List<GamePiece> stack = getPieceList();
+    final Set<GamePiece> candidates = piecesNear(pt);
+    for (int i = stack.size() - 1; i >= 0; --i) {
+      final GamePiece piece = stack.get(i);
+      if (candidates != null && !candidates.contains(piece)) {
+        continue;
+      }
+      final GamePiece p = finder.select(this, piece, pt);
       if (p != null) {
         return p;
       }
@@ -2670,9 +2748,14 @@ public class Map extends AbstractToolbarItem implements GameComponent, MouseList
    * @return a piece at the given location, regardless of visibility, or null if none.
    */
   public GamePiece findAnyPiece(Point pt, PieceFinder finder) {
-    final GamePiece[] stack = pieces.getAllPieces();
-    for (int i = stack.length - 1; i >= 0; --i) {
-      final GamePiece p = finder.select(this, stack[i], pt);
+    final List<GamePiece> stack = getAllPieceList();
+    final Set<GamePiece> candidates = piecesNear(pt);
+    for (int i = stack.size() - 1; i >= 0; --i) {
+      final GamePiece piece = stack.get(i);
+      if (candidates != null && !candidates.contains(piece)) {
+        continue;
+      }
+      final GamePiece p = finder.select(this, piece, pt);
       if (p != null) {
         return p;
       }
@@ -2680,6 +2763,39 @@ public class Map extends AbstractToolbarItem implements GameComponent, MouseList
     return null;
   }
 
+  /**
+   * Uses the spatial index of our {@link CompoundPieceCollection}, if we have one, to find the pieces
+   * which may overlap a region of the map
+   * @param region a rectangle in map coordinates
+   * @return the pieces, stacks and decks which may overlap the region, or null if every piece must be considered
+   */
+  protected Set<GamePiece> piecesNear(Rectangle region) {
+    return pieces instanceof CompoundPieceCollection ?
+      ((CompoundPieceCollection) pieces).getSpatialIndex().query(region) : null;
+  }
+
+  /**
+   * Uses the spatial index of our {@link CompoundPieceCollection}, if we have one, to find the pieces
+   * which may contain a point of the map
+   * @param pt a point in map coordinates
+   * @return the pieces, stacks and decks which may contain the point, or null if every piece must be considered
+   */
+  protected Set<GamePiece> piecesNear(Point pt) {
+    return pieces instanceof CompoundPieceCollection ?
+      ((CompoundPieceCollection) pieces).getSpatialIndex().query(pt) : null;
+  }
+
+  /**
+   * Notifies the map that the position or bounding box of one of its pieces may have changed, so that
+   * it can be found again by painting and {@link PieceFinder} queries
+   * @param p a piece, stack or deck on this map. Pieces in a stack should report the stack instead.
+   */
+  public void pieceBoundsChanged(GamePiece p) {
+    if (pieces instanceof CompoundPieceCollection) {
+      ((CompoundPieceCollection) pieces).pieceBoundsChanged(p);
+    }
+  }
+
   /**
    * Place a piece at the destination point. If necessary, remove the piece from its parent Stack or Map
    * @param piece GamePiece to place
@@ -2712,10 +2828,10 @@ public class Map extends AbstractToolbarItem implements GameComponent, MouseList
    * @param commandFactory The PieceVisitorDispatcher to apply
    */
   public Command apply(PieceVisitorDispatcher commandFactory) {
-    final GamePiece[] stack = pieces.getPieces();
+    final List<GamePiece> stack = getPieceList();
     Command c = null;
-    for (int i = 0; i < stack.length && c == null; ++i) {
-      c = (Command) commandFactory.accept(stack[i]);
+    for (int i = 0; i < stack.size() && c == null; ++i) {
+      c = (Command) commandFactory.accept(stack.get(i));
     }
     return c;
   }
@@ -3508,10 +3624,15 @@ public class Map extends AbstractToolbarItem implements GameComponent, MouseList
       // are running on an HDPI system. We want to draw at the effective
       // scale factor to prevent poor quality upscaling, so reset the
       // transform to scale of 1 and multiply the map zoom by the OS scaling.
+      // Paint only the region which needs it, not the whole visible rectangle
+      final Rectangle clip = g2d.getClipBounds();
+      final Rectangle visible = getVisibleRect();
+
       final AffineTransform orig_t = g2d.getTransform();
       g2d.setTransform(SwingUtils.descaleTransform(orig_t));
 
-      final Rectangle r = map.componentToDrawing(getVisibleRect(), os_scale);
+      final Rectangle r = map.componentToDrawing(
+        clip == null ? visible : clip.intersection(visible), os_scale);
 
       g2d.setColor(map.bgColor);
       g2d.fillRect(r.x, r.y, r.width, r.height);
@@ -0,0 +1,119 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package VASSAL.build.module.map;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+/**
+ * An offscreen copy of the boards of a {@link VASSAL.build.module.Map} as they appear in the visible part of
+ * its view, at the current zoom level. Repainting a small region of the view, such as one where a piece has
+ * moved, then copies the boards from the buffer instead of drawing them again from their tiles.
+ * <br><br>
+ * The buffer is redrawn in full whenever the zoom level or the visible part of the view changes, when it is
+ * invalidated, and for as long as the boards report that tiles are still loading or fading in.
+ */
+public class BoardBuffer {
+  /**
+   * Draws the boards into the buffer
+   */
+  @FunctionalInterface
+  public interface Painter {
+    /**
+     * @param g graphics object for the buffer, translated to drawing coordinates
+     * @param region the region to draw, in drawing coordinates
+     * @return true if the boards have been drawn completely, false if tiles are still loading or fading in
+     */
+    boolean paint(Graphics2D g, Rectangle region);
+  }
+
+  private BufferedImage image;
+  private final Rectangle area = new Rectangle();
+  private double zoom;
+  private boolean valid = false;
+
+  /**
+   * Marks the buffer as needing to be redrawn, because the boards have changed
+   */
+  public void invalidate() {
+    valid = false;
+  }
+
+  /**
+   * Releases the buffer
+   */
+  public void dispose() {
+    image = null;
+    valid = false;
+  }
+
+  /**
+   * Draws the boards in a region, redrawing the buffer first if necessary.
+   *
+   * @param g target graphics object
+   * @param region region to draw, in drawing coordinates
+   * @param viewRect visible part of the view, in drawing coordinates
+   * @param dzoom zoom factor, including OS scaling
+   * @param gc configuration for which to create the buffer
+   * @param background color with which to fill the buffer before drawing the boards
+   * @param painter draws the boards
+   */
+  public void draw(Graphics g, Rectangle region, Rectangle viewRect, double dzoom,
+                   GraphicsConfiguration gc, Color background, Painter painter) {
+    if (viewRect.isEmpty()) {
+      return;
+    }
+
+    if (image == null ||
+        image.getWidth() != viewRect.width ||
+        image.getHeight() != viewRect.height) {
+      image = gc.createCompatibleImage(viewRect.width, viewRect.height);
+      valid = false;
+    }
+
+    if (!area.equals(viewRect) || zoom != dzoom) {
+      area.setBounds(viewRect);
+      zoom = dzoom;
+      valid = false;
+    }
+
+    if (!valid) {
+      final Graphics2D bg = image.createGraphics();
+      bg.setRenderingHints(((Graphics2D) g).getRenderingHints());
+      bg.translate(-area.x, -area.y);
+      bg.setColor(background);
+      bg.fillRect(area.x, area.y, area.width, area.height);
+      // Draw the whole area, so that tiles still to arrive anywhere in it
+      // will be drawn, and will cause another repaint, when they do.
+      valid = painter.paint(bg, area);
+      bg.dispose();
+    }
+
+    final Rectangle r = region.intersection(area);
+    if (!r.isEmpty()) {
+      g.drawImage(image,
+        r.x, r.y, r.x + r.width, r.y + r.height,
+        r.x - area.x, r.y - area.y, r.x - area.x + r.width, r.y - area.y + r.height,
+        null);
+    }
+  }
+}
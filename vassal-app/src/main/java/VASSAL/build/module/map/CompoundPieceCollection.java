@@ -17,8 +17,10 @@
  */
 package VASSAL.build.module.map;
 
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
 
 import VASSAL.counters.Deck;
 import VASSAL.counters.GamePiece;
@@ -34,23 +36,49 @@ import VASSAL.counters.Stack;
  * Maintains, usually on behalf of a Map, lists of all the pieces in each of several layers, along with a set of "enabled"
  * flags marking which layers are disabled/hidden and which are enabled/visible. When a piece is added to the overall collection,
  * its appropriate layer is determined and it is added to the list of pieces on that layer.
+ * <br><br>
+ * The pieces of all layers, in drawing order, are kept in a snapshot which is rebuilt only when the collection changes,
+ * so that painting the map and finding pieces on it need not gather them from the layers every time.
  */
 public abstract class CompoundPieceCollection implements PieceCollection {
   protected SimplePieceCollection[] layers; // List of pieces in each layer
   protected int bottomLayer = 0;            // Current bottom layer (provides option to rotate layer depth)
   protected boolean[] enabled;              // Flags indicating which layers are presently enabled/visible
+  protected final PieceSpatialIndex spatialIndex = new PieceSpatialIndex(); // Locations of the pieces in all layers
+
+  private int layersModCount = 0; // Changes when the layers are replaced, rotated, enabled or disabled
+  private Snapshot snapshot;      // Pieces in enabled layers
+  private Snapshot allSnapshot;   // Pieces in all layers
+
+  /**
+   * The pieces of the collection, in drawing order, as they were when the collection had a given modification count
+   */
+  private static class Snapshot {
+    private final int modCount;
+    private final GamePiece[] pieces;
+    private final List<GamePiece> list;
+
+    private Snapshot(int modCount, GamePiece[] pieces) {
+      this.modCount = modCount;
+      this.pieces = pieces;
+      list = Collections.unmodifiableList(Arrays.asList(pieces));
+    }
+  }
 
   protected CompoundPieceCollection(int layerCount) {
     initLayers(layerCount);
   }
 
   protected void initLayers(int layerCount) {
+    // The new layers start counting from zero, so carry the old count over to keep it increasing
+    layersModCount = (layers == null ? 0 : getModCount()) + 1;
     layers = new SimplePieceCollection[layerCount];
     enabled = new boolean[layerCount];
     for (int i = 0; i < layers.length; ++i) {
       layers[i] = new SimplePieceCollection();
       enabled[i] = true;
     }
+    spatialIndex.clear();
   }
 
   /**
@@ -99,6 +127,7 @@ public abstract class CompoundPieceCollection implements PieceCollection {
   @Override
   public void add(GamePiece p) {
     getCollectionForPiece(p).add(p);
+    spatialIndex.add(p);
   }
 
   /**
@@ -109,6 +138,7 @@ public abstract class CompoundPieceCollection implements PieceCollection {
     for (final SimplePieceCollection layer : layers) {
       layer.clear();
     }
+    spatialIndex.clear();
   }
 
   /*
@@ -125,18 +155,91 @@ public abstract class CompoundPieceCollection implements PieceCollection {
    * @return A list of all pieces in this overall collection, or all that are in "enabled" layers, depending on the parameter
    */
   protected GamePiece[] getPieces(boolean includeDisabled) {
-    final ArrayList<GamePiece> l = new ArrayList<>();
-    int layer = bottomLayer;
-    for (int i = 0; i < layers.length; ++i) {
-      if (includeDisabled || (!includeDisabled && enabled[layer])) {
-        l.addAll(Arrays.asList(layers[layer].getPieces()));
+    return getSnapshot(includeDisabled).pieces.clone();
+  }
+
+  /**
+   * Returns the pieces in the same order as {@link #getPieces()} and {@link #getAllPieces()}, without copying them. The
+   * list is an unmodifiable snapshot, which is shared until the collection next changes, and which does not change
+   * when it does.
+   *
+   * @param includeDisabled true if pieces in disabled layers should be included
+   * @return the pieces, from the bottom up
+   * @since 3.5.0
+   */
+  public List<GamePiece> getPieceList(boolean includeDisabled) {
+    return getSnapshot(includeDisabled).list;
+  }
+
+  /**
+   * Visits the pieces in the same order as {@link #getPieces()} and {@link #getAllPieces()}, without copying them. The
+   * pieces visited are those in the collection when the visit starts, so that the action may change the collection.
+   *
+   * @param includeDisabled true if pieces in disabled layers should be included
+   * @param action the action to perform on each piece
+   * @since 3.5.0
+   */
+  public void forEachPiece(boolean includeDisabled, Consumer<? super GamePiece> action) {
+    for (final GamePiece p : getSnapshot(includeDisabled).pieces) {
+      action.accept(p);
+    }
+  }
+
+  /**
+   * @return a count which changes whenever pieces are added, removed or reordered, or layers are rotated, enabled or
+   * disabled, so that anything computed from the pieces in the collection can be reused until it does
+   * @since 3.5.0
+   */
+  public int getModCount() {
+    int modCount = layersModCount;
+    for (final SimplePieceCollection layer : layers) {
+      modCount += layer.getModCount();
+    }
+    return modCount;
+  }
+
+  /**
+   * Notes that the layers have been rotated, enabled or disabled. Subclasses which change {@link #bottomLayer} or
+   * {@link #enabled} directly must call this afterwards.
+   * @since 3.5.0
+   */
+  protected void layersChanged() {
+    ++layersModCount;
+  }
+
+  private Snapshot getSnapshot(boolean includeDisabled) {
+    final int modCount = getModCount();
+    Snapshot s = includeDisabled ? allSnapshot : snapshot;
+    if (s == null || s.modCount != modCount) {
+      int size = 0;
+      for (int i = 0; i < layers.length; ++i) {
+        if (includeDisabled || enabled[i]) {
+          size += layers[i].size();
+        }
       }
-      layer++;
-      if (layer >= layers.length) {
-        layer = 0;
+
+      final GamePiece[] pieces = new GamePiece[size];
+      int n = 0;
+      int layer = bottomLayer;
+      for (int i = 0; i < layers.length; ++i) {
+        if (includeDisabled || enabled[layer]) {
+          n = layers[layer].copyInto(pieces, n);
+        }
+        layer++;
+        if (layer >= layers.length) {
+          layer = 0;
+        }
+      }
+
+      s = new Snapshot(modCount, pieces);
+      if (includeDisabled) {
+        allSnapshot = s;
+      }
+      else {
+        snapshot = s;
       }
     }
-    return l.toArray(new GamePiece[0]);
+    return s;
   }
 
   /**
@@ -157,7 +260,7 @@ public abstract class CompoundPieceCollection implements PieceCollection {
     int index = layers[layer].indexOf(p);
     if (index >= 0) {
       for (int i = 0; i < layer - 1; ++i) {
-        index += layers[i].getPieces().length;
+        index += layers[i].size();
       }
     }
     return index;
@@ -169,6 +272,23 @@ public abstract class CompoundPieceCollection implements PieceCollection {
   @Override
   public void remove(GamePiece p) {
     getCollectionForPiece(p).remove(p);
+    spatialIndex.remove(p);
+  }
+
+  /**
+   * @return the spatial index of the pieces in all layers of this collection, which can be used to find the
+   * pieces near a region or point of the map without visiting every piece
+   */
+  public PieceSpatialIndex getSpatialIndex() {
+    return spatialIndex;
+  }
+
+  /**
+   * Notes that the position or bounding box of a piece in this collection may have changed
+   * @param p a piece, stack or deck in this collection
+   */
+  public void pieceBoundsChanged(GamePiece p) {
+    spatialIndex.invalidate(p);
   }
 
   /**
@@ -281,6 +401,7 @@ public abstract class CompoundPieceCollection implements PieceCollection {
     bottomLayer = layer;
     if (bottomLayer < 0) bottomLayer = getLayerCount() - 1;
     if (bottomLayer >= getLayerCount()) bottomLayer = 0;
+    layersChanged();
   }
 
   /**
@@ -309,7 +430,7 @@ public abstract class CompoundPieceCollection implements PieceCollection {
     if (skipNullLayers) {
       for (int i = 0; i < layers.length; i++) {
         rotate(rotateUp);
-        if (layers[getTopLayer()].getPieces().length > 0) {
+        if (layers[getTopLayer()].size() > 0) {
           return;
         }
       }
@@ -339,6 +460,7 @@ public abstract class CompoundPieceCollection implements PieceCollection {
   public void setLayerEnabled(int layer, boolean b) {
     if (layer >= 0 && layer < layers.length) {
       enabled[layer] = b;
+      layersChanged();
     }
   }
 
@@ -349,6 +471,7 @@ public abstract class CompoundPieceCollection implements PieceCollection {
   public void toggleLayerEnabled(int layer) {
     if (layer >= 0 && layer < layers.length) {
       enabled[layer] = !enabled[layer];
+      layersChanged();
     }
   }
 
@@ -377,5 +500,6 @@ public abstract class CompoundPieceCollection implements PieceCollection {
     for (int i = 0; i < layers.length; i++) {
       enabled[i] = true;
     }
+    layersChanged();
   }
 }
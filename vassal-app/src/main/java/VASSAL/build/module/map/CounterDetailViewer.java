@@ -584,7 +584,7 @@ public class CounterDetailViewer extends AbstractConfigurable implements Drawabl
    * on selection criteria setup in config.
    */
   protected List<GamePiece> getDisplayablePieces() {
-    final GamePiece[] allPieces = map.getPieces(); // All pieces from bottom up
+    final List<GamePiece> allPieces = map.getPieceList(); // All pieces from bottom up
 
     final Visitor visitor = new Visitor(new Filter(), map,
       map.componentToMap(currentMousePosition.getPoint()), showOverlap);
@@ -594,8 +594,8 @@ public class CounterDetailViewer extends AbstractConfigurable implements Drawabl
      * Process pieces from the top down to make it easier to check for top layer
      * only.
      */
-    for (int i = allPieces.length - 1; i >= 0; i--) {
-      dispatcher.accept(allPieces[i]);
+    for (int i = allPieces.size() - 1; i >= 0; i--) {
+      dispatcher.accept(allPieces.get(i));
     }
 
     return visitor.getPieces();
@@ -32,16 +32,22 @@ import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.Paint;
 import java.awt.Rectangle;
+import java.awt.Shape;
 import java.awt.Stroke;
 import java.awt.TexturePaint;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Area;
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 
 import org.apache.commons.lang3.builder.HashCodeBuilder;
@@ -150,6 +156,20 @@ public class MapShader extends AbstractToolbarItem implements GameComponent, Dra
   protected AlphaComposite borderComposite = null;
   protected BasicStroke stroke = null;
 
+  /*
+   * The shading is kept from one repaint to the next, and is formed again
+   * only when the area of a shaded piece changes.
+   */
+  private final AreaUnion pieceUnion = new AreaUnion();
+  private Area shade;
+  private Area shadeClip;
+  private String shadeType;
+
+  // The shading at the last zoom drawn
+  private Area scaledFrom;
+  private double scaledZoom;
+  private Shape scaledShade;
+
   public MapShader() {
     setButtonTextKey(BUTTON_TEXT);
     launch = makeLaunchButton("", Resources.getString("Editor.MapShader.shade"), "", e -> toggleShading());
@@ -165,8 +185,8 @@ public class MapShader extends AbstractToolbarItem implements GameComponent, Dra
       return;
     }
 
-    Area area = getShadeShape(map);
-    if (area.isEmpty()) {
+    final Area shadeShape = getShadeShape(map);
+    if (shadeShape.isEmpty()) {
       return;
     }
 
@@ -174,10 +194,14 @@ public class MapShader extends AbstractToolbarItem implements GameComponent, Dra
     final double os_scale = g2d.getDeviceConfiguration().getDefaultTransform().getScaleX();
     final double zoom = map.getZoom() * os_scale;
 
-    if (zoom != 1.0) {
-      area = new Area(AffineTransform.getScaleInstance(zoom, zoom)
-                                     .createTransformedShape(area));
+    // Scaling the outline is enough to draw it; it need not be an Area
+    if (shadeShape != scaledFrom || zoom != scaledZoom) {
+      scaledShade = zoom == 1.0 ? shadeShape :
+        AffineTransform.getScaleInstance(zoom, zoom).createTransformedShape(shadeShape);
+      scaledFrom = shadeShape;
+      scaledZoom = zoom;
     }
+    final Shape area = scaledShade;
 
     final Composite oldComposite = g2d.getComposite();
     final Color oldColor = g2d.getColor();
@@ -233,13 +257,185 @@ public class MapShader extends AbstractToolbarItem implements GameComponent, Dra
   }
 
   /**
-   * Get/Build the shape of the shade.
+   * Get/Build the shape of the shade. The same Area is returned until the
+   * shading changes, so it must not be modified.
    */
   protected Area getShadeShape(Map map) {
-    final Area myShape = type.equals(FG_TYPE) ?
-      new Area() : new Area(getBoardClip());
-    Arrays.stream(map.getPieces()).forEach(p -> checkPiece(myShape, p));
-    return myShape;
+    final java.util.Map<GamePiece, Area> areas = new IdentityHashMap<>();
+    Arrays.stream(map.getPieces()).forEach(p -> collectArea(areas, p));
+
+    final boolean changed = pieceUnion.update(areas);
+    if (changed || shade == null || !type.equals(shadeType) ||
+        (!type.equals(FG_TYPE) && shadeClip != getBoardClip())) {
+      if (type.equals(FG_TYPE)) {
+        shade = pieceUnion.get();
+      }
+      else {
+        shadeClip = getBoardClip();
+        shade = new Area(shadeClip);
+        shade.subtract(pieceUnion.get());
+      }
+      shadeType = type;
+    }
+    return shade;
+  }
+
+  protected void collectArea(java.util.Map<GamePiece, Area> areas, GamePiece piece) {
+    if (piece instanceof Stack) {
+      final Stack s = (Stack) piece;
+      s.asList().forEach(gamePiece -> collectArea(areas, gamePiece));
+    }
+    else {
+      final ShadedPiece shaded = (ShadedPiece) Decorator.getDecorator(piece, ShadedPiece.class);
+      if (shaded != null) {
+        final Area shape = shaded.getArea(this);
+        if (shape != null) {
+          areas.put(piece, shape);
+        }
+      }
+    }
+  }
+
+  /**
+   * The union of the areas of the shaded pieces, kept as a binary tree of
+   * partial unions with a piece's area at each leaf. A {@link ShadedPiece}
+   * returns the same Area while its shading is unchanged, so when a piece's
+   * area changes only the unions on the path from its leaf to the root need
+   * to be formed again. Joining areas in pairs in this way is also much
+   * faster than adding them one by one to an ever more complex Area.
+   */
+  private static class AreaUnion {
+    private final java.util.Map<GamePiece, Integer> leaves = new IdentityHashMap<>();
+    private final Deque<Integer> freeLeaves = new ArrayDeque<>();
+
+    // nodes[1] is the root; the children of nodes[i] are nodes[2i] and
+    // nodes[2i+1]; the leaves are nodes[size] to nodes[2 * size - 1]
+    private int size;
+    private Area[] nodes = new Area[0];
+
+    /**
+     * Replaces the areas of the pieces
+     *
+     * @return true if the union has changed
+     */
+    boolean update(java.util.Map<GamePiece, Area> areas) {
+      final BitSet dirty = new BitSet();
+
+      for (final Iterator<java.util.Map.Entry<GamePiece, Integer>> i = leaves.entrySet().iterator(); i.hasNext(); ) {
+        final java.util.Map.Entry<GamePiece, Integer> e = i.next();
+        if (!areas.containsKey(e.getKey())) {
+          final int leaf = e.getValue();
+          nodes[leaf] = null;
+          dirty.set(leaf);
+          freeLeaves.add(leaf);
+          i.remove();
+        }
+      }
+
+      for (final java.util.Map.Entry<GamePiece, Area> e : areas.entrySet()) {
+        Integer leaf = leaves.get(e.getKey());
+        if (leaf == null) {
+          if (freeLeaves.isEmpty()) {
+            grow(areas.size());
+          }
+          leaf = freeLeaves.remove();
+          leaves.put(e.getKey(), leaf);
+        }
+        if (nodes[leaf] != e.getValue()) {
+          nodes[leaf] = e.getValue();
+          dirty.set(leaf);
+        }
+      }
+
+      if (dirty.isEmpty()) {
+        return false;
+      }
+
+      // Form the unions above the changed leaves, a level at a time
+      BitSet level = dirty;
+      while (level.nextSetBit(2) >= 0) {
+        final BitSet parents = new BitSet();
+        for (int i = level.nextSetBit(0); i >= 0; i = level.nextSetBit(i + 1)) {
+          parents.set(i / 2);
+        }
+        for (int p = parents.nextSetBit(0); p >= 0; p = parents.nextSetBit(p + 1)) {
+          nodes[p] = union(nodes[2 * p], nodes[2 * p + 1]);
+        }
+        level = parents;
+      }
+      return true;
+    }
+
+    /**
+     * Makes room for at least the given number of leaves, moving the
+     * existing ones into place and marking them all changed
+     */
+    private void grow(int minSize) {
+      int newSize = Math.max(1, size);
+      while (newSize < minSize || newSize == size) {
+        newSize *= 2;
+      }
+
+      final Area[] newNodes = new Area[2 * newSize];
+      final java.util.Map<GamePiece, Integer> moved = new IdentityHashMap<>();
+      int next = newSize;
+      for (final java.util.Map.Entry<GamePiece, Integer> e : leaves.entrySet()) {
+        newNodes[next] = nodes[e.getValue()];
+        moved.put(e.getKey(), next++);
+      }
+
+      leaves.clear();
+      leaves.putAll(moved);
+      freeLeaves.clear();
+      for (int i = next; i < 2 * newSize; ++i) {
+        freeLeaves.add(i);
+      }
+
+      // Form all the unions again
+      for (int p = newSize - 1; p > 0; --p) {
+        newNodes[p] = union(newNodes[2 * p], newNodes[2 * p + 1]);
+      }
+
+      size = newSize;
+      nodes = newNodes;
+    }
+
+    /**
+     * @return the union of two areas, which are left unchanged
+     */
+    private static Area union(Area a, Area b) {
+      if (a == null) {
+        return b;
+      }
+      else if (b == null) {
+        return a;
+      }
+      final Area u = new Area(a);
+      u.add(b);
+      return u;
+    }
+
+    /**
+     * @return the union of all the areas. It must not be modified.
+     */
+    Area get() {
+      return nodes.length > 1 && nodes[1] != null ? nodes[1] : new Area();
+    }
+
+    void clear() {
+      leaves.clear();
+      freeLeaves.clear();
+      size = 0;
+      nodes = new Area[0];
+    }
+  }
+
+  private void clearShade() {
+    pieceUnion.clear();
+    shade = null;
+    shadeClip = null;
+    scaledFrom = null;
+    scaledShade = null;
   }
 
   protected void checkPiece(Area area, GamePiece piece) {
@@ -660,6 +856,7 @@ public class MapShader extends AbstractToolbarItem implements GameComponent, Dra
     getLaunchButton().setEnabled(gameStarting);
     if (!gameStarting) {
       boardClip = null;
+      clearShade();
     }
   }
 
@@ -931,6 +1128,11 @@ public class MapShader extends AbstractToolbarItem implements GameComponent, Dra
     /**
      * Returns the Area to add to (or subtract from) the area drawn by the MapShader's.
      * Area is assumed to be at zoom factor 1.0
+     * <br><br>
+     * The MapShader keeps the Area returned and treats the piece's shading
+     * as unchanged for as long as the same Area is returned, so a piece may
+     * return the same Area again while its shading is unchanged, but must
+     * never modify an Area once it has been returned.
      * @param shader Map Shader
      * @return the Area contributed by the piece
      */
@@ -24,6 +24,7 @@ import java.awt.AlphaComposite;
 import java.awt.Color;
 import java.awt.Component;
 import java.awt.Cursor;
+import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.Point;
@@ -50,6 +51,7 @@ import java.awt.event.MouseListener;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
@@ -69,6 +71,7 @@ import VASSAL.build.GameModule;
 import VASSAL.build.module.GameComponent;
 import VASSAL.build.module.GlobalOptions;
 import VASSAL.build.module.Map;
+import VASSAL.build.module.PlayerRoster;
 import VASSAL.build.module.map.boardPicker.Board;
 import VASSAL.command.ChangeTracker;
 import VASSAL.command.Command;
@@ -94,6 +97,7 @@ import VASSAL.counters.PropertyExporter;
 import VASSAL.counters.Stack;
 import VASSAL.tools.LaunchButton;
 import VASSAL.tools.image.ImageUtils;
+import VASSAL.tools.imageop.AbstractTileOpImpl;
 import VASSAL.tools.imageop.Op;
 import VASSAL.tools.swing.SwingUtils;
 
@@ -1033,7 +1037,6 @@ public class PieceMover extends AbstractBuildable
     BufferedImage makeDragImageCursorCommon(double zoom, boolean doOffset,
       Component target, boolean setSize) {
 
-      // FIXME: Should be an ImageOp.
       dragCursorZoom = zoom;
 
       final List<Point> relativePositions = buildBoundingBox(zoom, doOffset);
@@ -1041,14 +1044,16 @@ public class PieceMover extends AbstractBuildable
       final int w = boundingBox.width + EXTRA_BORDER * 2;
       final int h = boundingBox.height + EXTRA_BORDER * 2;
 
-      BufferedImage image = ImageUtils.createCompatibleTranslucentImage(w, h);
-
-      drawDragImage(image, target, relativePositions, zoom);
-
       if (setSize) dragCursor.setSize(w, h);
-      image = featherDragImage(image, w, h, EXTRA_BORDER);
 
-      return image;
+      final List<GamePiece> pieces = new ArrayList<>();
+      for (final PieceIterator i = DragBuffer.getBuffer().getIterator();
+           i.hasMoreElements(); pieces.add(i.nextPiece()));
+
+      // Dragging the same pieces again, or back onto a map at the same
+      // zoom, reuses the image from the cache
+      return new DragImageOp(pieces, relativePositions,
+        new Rectangle(boundingBox), zoom, target).getImage();
     }
 
     /**
@@ -1130,17 +1135,16 @@ public class PieceMover extends AbstractBuildable
       return relativePositions;
     }
 
-    private void drawDragImage(BufferedImage image, Component target,
-                               List<Point> relativePositions, double zoom) {
+    private static void drawDragImage(BufferedImage image, Component target,
+                                      List<GamePiece> pieces,
+                                      List<Point> relativePositions,
+                                      Rectangle boundingBox, double zoom) {
       final Graphics2D g = image.createGraphics();
 
       int index = 0;
       Point lastPos = null;
       int stackCount = 0;
-      for (final PieceIterator dragContents = DragBuffer.getBuffer().getIterator();
-           dragContents.hasMoreElements(); ) {
-
-        final GamePiece piece = dragContents.nextPiece();
+      for (final GamePiece piece : pieces) {
         final Point pos = relativePositions.get(index++);
         final Map map = piece.getMap();
 
@@ -1186,7 +1190,7 @@ public class PieceMover extends AbstractBuildable
       g.dispose();
     }
 
-    private StackMetrics getStackMetrics(GamePiece piece) {
+    private static StackMetrics getStackMetrics(GamePiece piece) {
       StackMetrics sm = null;
       final Map map = piece.getMap();
       if (map != null) {
@@ -1198,37 +1202,152 @@ public class PieceMover extends AbstractBuildable
       return sm;
     }
 
-    private BufferedImage featherDragImage(BufferedImage src,
-                                           int w, int h, int b) {
-      // FIXME: This should be redone so that we draw the feathering onto the
-      // destination first, and then pass the Graphics2D on to draw the pieces
-      // directly over it. Presently this doesn't work because some of the
-      // pieces screw up the Graphics2D when passed it... The advantage to doing
-      // it this way is that we create only one BufferedImage instead of two.
-      final BufferedImage dst =
-        ImageUtils.createCompatibleTranslucentImage(w, h);
-
-      final Graphics2D g = dst.createGraphics();
-      g.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
-                         RenderingHints.VALUE_ANTIALIAS_ON);
-
-      // paint the rectangle occupied by the piece at specified alpha
-      g.setColor(new Color(0xff, 0xff, 0xff, CURSOR_ALPHA));
-      g.fillRect(0, 0, w, h);
-
-      // feather outwards
-      for (int f = 0; f < b; ++f) {
-        final int alpha = CURSOR_ALPHA * (f + 1) / b;
-        g.setColor(new Color(0xff, 0xff, 0xff, alpha));
-        g.drawRect(f, f, w - 2 * f, h - 2 * f);
+    // The most recent feathering mask, which is reused while the size of
+    // the drag image stays the same
+    private static BufferedImage featherMask;
+
+    private static synchronized BufferedImage getFeatherMask(int w, int h, int b) {
+      if (featherMask == null ||
+          featherMask.getWidth() != w || featherMask.getHeight() != h) {
+        final BufferedImage mask =
+          ImageUtils.createCompatibleTranslucentImage(w, h);
+
+        final Graphics2D g = mask.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                           RenderingHints.VALUE_ANTIALIAS_ON);
+
+        // paint the rectangle occupied by the piece at specified alpha
+        g.setColor(new Color(0xff, 0xff, 0xff, CURSOR_ALPHA));
+        g.fillRect(0, 0, w, h);
+
+        // feather outwards
+        for (int f = 0; f < b; ++f) {
+          final int alpha = CURSOR_ALPHA * (f + 1) / b;
+          g.setColor(new Color(0xff, 0xff, 0xff, alpha));
+          g.drawRect(f, f, w - 2 * f, h - 2 * f);
+        }
+        g.dispose();
+
+        featherMask = mask;
       }
+      return featherMask;
+    }
 
-      // paint in the source image
-      g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_IN));
-      g.drawImage(src, 0, 0, null);
+    private static BufferedImage featherDragImage(BufferedImage src,
+                                                  int w, int h, int b) {
+      // multiply the alpha of the pieces by that of the mask, in place
+      final Graphics2D g = src.createGraphics();
+      g.setComposite(AlphaComposite.DstIn);
+      g.drawImage(getFeatherMask(w, h, b), 0, 0, null);
       g.dispose();
 
-      return dst;
+      return src;
+    }
+
+    /**
+     * The feathered image of the pieces being dragged, at a given zoom.
+     * Two ops are equal when they would draw the same pieces, looking the
+     * same, in the same places, so the image is kept in the {@link Op} cache.
+     *
+     * The cache keeps the op as the key of its image, so the op lets go of
+     * the pieces and the target once it has drawn them.
+     */
+    private static class DragImageOp extends AbstractTileOpImpl {
+      private List<GamePiece> pieces;
+      private List<Point> relativePositions;
+      private Component target;
+      private final Rectangle boundingBox;
+      private final double zoom;
+      private final String key;
+
+      DragImageOp(List<GamePiece> pieces, List<Point> relativePositions,
+                  Rectangle boundingBox, double zoom, Component target) {
+        this.pieces = pieces;
+        this.relativePositions = relativePositions;
+        this.boundingBox = boundingBox;
+        this.zoom = zoom;
+        this.target = target;
+        key = buildKey();
+      }
+
+      private String buildKey() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(zoom).append(';')
+          .append(boundingBox.x).append(',').append(boundingBox.y).append(',')
+          .append(boundingBox.width).append(',').append(boundingBox.height)
+          .append(';').append(GameModule.getUserId())
+          .append(';').append(PlayerRoster.getMySide());
+
+        for (int i = 0; i < pieces.size(); ++i) {
+          final GamePiece piece = pieces.get(i);
+          final Point pos = relativePositions.get(i);
+          sb.append('\n').append(pos.x).append(',').append(pos.y).append(';');
+          if (piece instanceof Stack) {
+            final Stack stack = (Stack) piece;
+            sb.append(stack.isExpanded());
+            for (final GamePiece child : stack.asList()) {
+              appendPieceKey(sb.append('\t'), child);
+            }
+          }
+          else {
+            appendPieceKey(sb, piece);
+          }
+        }
+
+        return sb.toString();
+      }
+
+      private static void appendPieceKey(StringBuilder sb, GamePiece piece) {
+        // The visible state holds what the traits draw, including what
+        // they evaluate when drawn, such as label text and the levels of
+        // layers which follow a property
+        sb.append(piece.getId()).append(';')
+          .append(piece.getType()).append(';')
+          .append(piece.getProperty(Properties.VISIBLE_STATE)).append(';')
+          .append(piece.getProperty(Properties.SELECTED));
+        if (piece.getParent() instanceof Deck) {
+          sb.append(';').append(((Deck) piece.getParent()).isFaceDown());
+        }
+      }
+
+      @Override
+      public List<VASSAL.tools.opcache.Op<?>> getSources() {
+        return Collections.emptyList();
+      }
+
+      @Override
+      public BufferedImage eval() {
+        final int w = getWidth();
+        final int h = getHeight();
+        final BufferedImage image = ImageUtils.createCompatibleTranslucentImage(w, h);
+        try {
+          drawDragImage(image, target, pieces, relativePositions, boundingBox, zoom);
+        }
+        finally {
+          pieces = null;
+          relativePositions = null;
+          target = null;
+        }
+        return featherDragImage(image, w, h, EXTRA_BORDER);
+      }
+
+      @Override
+      protected void fixSize() {
+        size = new Dimension(boundingBox.width + EXTRA_BORDER * 2,
+                             boundingBox.height + EXTRA_BORDER * 2);
+      }
+
+      @Override
+      public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || o.getClass() != this.getClass()) return false;
+        return key.equals(((DragImageOp) o).key);
+      }
+
+      @Override
+      public int hashCode() {
+        return key.hashCode();
+      }
     }
 
     ///////////////////////////////////////////////////////////////////////////
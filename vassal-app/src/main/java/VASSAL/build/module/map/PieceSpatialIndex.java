@@ -0,0 +1,264 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package VASSAL.build.module.map;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import VASSAL.build.module.Map;
+import VASSAL.counters.GamePiece;
+import VASSAL.counters.Stack;
+
+/**
+ * A uniform grid over map coordinates which records which top-level pieces (pieces, {@link Stack}s and
+ * {@link VASSAL.counters.Deck}s) of a {@link CompoundPieceCollection} overlap each cell. Painting and
+ * {@link VASSAL.counters.PieceFinder} queries use it to visit only the pieces near a region or point,
+ * instead of every piece on the {@link Map}.
+ * <br><br>
+ * Bounding boxes are computed lazily: pieces which are added, or whose bounds are reported as changed
+ * through {@link #invalidate}, are held as pending and placed in the grid on the next query. Pieces which
+ * are not yet on a Map cannot be measured, and so are returned by every query. Queries are widened by one
+ * cell so that small changes of bounds which were not reported (e.g. highlighting of selected pieces) do
+ * not cause pieces to be missed. The result of a query is a set of candidates -- callers must still make
+ * their own precise tests.
+ */
+public class PieceSpatialIndex {
+  public static final int DEFAULT_CELL_SIZE = 128;
+
+  private final int cellSize;
+  private final java.util.Map<Long, List<GamePiece>> cells = new HashMap<>();
+  private final java.util.Map<GamePiece, Rectangle> indexed = new IdentityHashMap<>();
+  private final Set<GamePiece> pending = Collections.newSetFromMap(new IdentityHashMap<>());
+  private final Set<GamePiece> unbounded = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  public PieceSpatialIndex() {
+    this(DEFAULT_CELL_SIZE);
+  }
+
+  public PieceSpatialIndex(int cellSize) {
+    if (cellSize <= 0) {
+      throw new IllegalArgumentException("cellSize must be positive"); //NON-NLS
+    }
+    this.cellSize = cellSize;
+  }
+
+  /**
+   * @param p a top-level piece newly added to the collection
+   */
+  public void add(GamePiece p) {
+    unindex(p);
+    pending.add(p);
+  }
+
+  /**
+   * @param p a top-level piece removed from the collection
+   */
+  public void remove(GamePiece p) {
+    unindex(p);
+    pending.remove(p);
+  }
+
+  /**
+   * Notes that the position or bounding box of a piece in the index may have changed. Pieces
+   * which are not in the index are ignored.
+   * @param p a top-level piece
+   */
+  public void invalidate(GamePiece p) {
+    if (unindex(p)) {
+      pending.add(p);
+    }
+  }
+
+  /**
+   * Forces the bounds of every piece in the index to be recomputed on the next query
+   */
+  public void invalidateAll() {
+    pending.addAll(indexed.keySet());
+    pending.addAll(unbounded);
+    indexed.clear();
+    unbounded.clear();
+    cells.clear();
+  }
+
+  /**
+   * Removes every piece from the index
+   */
+  public void clear() {
+    indexed.clear();
+    pending.clear();
+    unbounded.clear();
+    cells.clear();
+  }
+
+  /**
+   * @param p a piece
+   * @return true if the piece is recorded in the index
+   */
+  public boolean contains(GamePiece p) {
+    return indexed.containsKey(p) || pending.contains(p) || unbounded.contains(p);
+  }
+
+  /**
+   * @param region a rectangle in map coordinates
+   * @return the pieces which may overlap the region
+   */
+  public Set<GamePiece> query(Rectangle region) {
+    flush();
+
+    final Set<GamePiece> found = Collections.newSetFromMap(new IdentityHashMap<>());
+    found.addAll(unbounded);
+
+    final int x0 = cellOf(region.x) - 1;
+    final int y0 = cellOf(region.y) - 1;
+    final int x1 = cellOf(region.x + Math.max(region.width - 1, 0)) + 1;
+    final int y1 = cellOf(region.y + Math.max(region.height - 1, 0)) + 1;
+
+    // A region larger than the populated part of the grid is cheaper to answer directly
+    if ((long) (x1 - x0 + 1) * (y1 - y0 + 1) > cells.size()) {
+      for (final java.util.Map.Entry<GamePiece, Rectangle> e : indexed.entrySet()) {
+        if (overlapsCells(e.getValue(), x0, y0, x1, y1)) {
+          found.add(e.getKey());
+        }
+      }
+      return found;
+    }
+
+    for (int cx = x0; cx <= x1; ++cx) {
+      for (int cy = y0; cy <= y1; ++cy) {
+        final List<GamePiece> l = cells.get(key(cx, cy));
+        if (l != null) {
+          found.addAll(l);
+        }
+      }
+    }
+    return found;
+  }
+
+  /**
+   * @param pt a point in map coordinates
+   * @return the pieces which may contain the point
+   */
+  public Set<GamePiece> query(Point pt) {
+    return query(new Rectangle(pt.x, pt.y, 1, 1));
+  }
+
+  /**
+   * Places pending pieces in the grid
+   */
+  protected void flush() {
+    if (pending.isEmpty()) {
+      return;
+    }
+    for (final GamePiece p : pending) {
+      final Rectangle r = boundsOf(p);
+      if (r == null) {
+        unbounded.add(p);
+      }
+      else {
+        indexed.put(p, r);
+        forEachCell(r, true, p);
+      }
+    }
+    pending.clear();
+  }
+
+  /**
+   * @param p a top-level piece
+   * @return the bounds of the piece in map coordinates, or null if they cannot be determined
+   */
+  protected Rectangle boundsOf(GamePiece p) {
+    final Map map = p.getMap();
+    if (map == null) {
+      return null;
+    }
+
+    final Rectangle r;
+    if (p.getClass() == Stack.class) {
+      // Include every member, visible or not, so that hiding or revealing
+      // a piece does not require the stack to be re-indexed.
+      final Stack s = (Stack) p;
+      final Rectangle[] childBounds = new Rectangle[s.getPieceCount()];
+      map.getStackMetrics().getContents(s, null, null, childBounds, 0, 0);
+      r = new Rectangle();
+      for (final Rectangle cb : childBounds) {
+        if (cb != null) {
+          r.add(cb);
+        }
+      }
+    }
+    else {
+      r = p.boundingBox();
+    }
+
+    final Point pos = p.getPosition();
+    r.translate(pos.x, pos.y);
+    return r;
+  }
+
+  private boolean unindex(GamePiece p) {
+    final Rectangle r = indexed.remove(p);
+    if (r != null) {
+      forEachCell(r, false, p);
+      return true;
+    }
+    return unbounded.remove(p) || pending.contains(p);
+  }
+
+  private void forEachCell(Rectangle r, boolean add, GamePiece p) {
+    final int x0 = cellOf(r.x);
+    final int y0 = cellOf(r.y);
+    final int x1 = cellOf(r.x + Math.max(r.width - 1, 0));
+    final int y1 = cellOf(r.y + Math.max(r.height - 1, 0));
+    for (int cx = x0; cx <= x1; ++cx) {
+      for (int cy = y0; cy <= y1; ++cy) {
+        final Long k = key(cx, cy);
+        if (add) {
+          cells.computeIfAbsent(k, x -> new ArrayList<>(4)).add(p);
+        }
+        else {
+          final List<GamePiece> l = cells.get(k);
+          if (l != null) {
+            l.remove(p);
+            if (l.isEmpty()) {
+              cells.remove(k);
+            }
+          }
+        }
+      }
+    }
+  }
+
+  private boolean overlapsCells(Rectangle r, int x0, int y0, int x1, int y1) {
+    return cellOf(r.x + Math.max(r.width - 1, 0)) >= x0 && cellOf(r.x) <= x1
+        && cellOf(r.y + Math.max(r.height - 1, 0)) >= y0 && cellOf(r.y) <= y1;
+  }
+
+  private int cellOf(int c) {
+    return Math.floorDiv(c, cellSize);
+  }
+
+  private static long key(int cx, int cy) {
+    return ((long) cx << 32) | (cy & 0xffffffffL);
+  }
+}
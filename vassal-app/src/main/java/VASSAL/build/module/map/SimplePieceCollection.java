@@ -30,6 +30,7 @@ import VASSAL.counters.GamePiece;
  */
 public class SimplePieceCollection implements PieceCollection {
   private final List<GamePiece> pieces = new ArrayList<>();
+  private int modCount = 0;
 
   /**
    * Returns the index of a piece.  When painting the map, pieces
@@ -50,11 +51,13 @@ public class SimplePieceCollection implements PieceCollection {
   @Override
   public void add(GamePiece p) {
     pieces.add(p);
+    ++modCount;
   }
 
   @Override
   public void clear() {
     pieces.clear();
+    ++modCount;
   }
 
   @Override
@@ -72,9 +75,39 @@ public class SimplePieceCollection implements PieceCollection {
     return getPieces();
   }
 
+  /**
+   * @return the number of pieces in the collection
+   * @since 3.5.0
+   */
+  public int size() {
+    return pieces.size();
+  }
+
+  /**
+   * @return a count which changes whenever pieces are added, removed or reordered
+   * @since 3.5.0
+   */
+  public int getModCount() {
+    return modCount;
+  }
+
+  /**
+   * Copies the pieces into an array, in order
+   * @param a the array
+   * @param offset the index in the array at which to put the first piece
+   * @return the index in the array following the last piece
+   */
+  int copyInto(GamePiece[] a, int offset) {
+    for (final GamePiece p : pieces) {
+      a[offset++] = p;
+    }
+    return offset;
+  }
+
   private void removePieceAt(int gone) {
     if (gone >= 0) {
       pieces.remove(gone);
+      ++modCount;
     }
   }
 
@@ -83,6 +116,7 @@ public class SimplePieceCollection implements PieceCollection {
     if (i >= 0) {
       pieces.remove(i);
       pieces.add(pos, p);
+      ++modCount;
     }
   }
 
@@ -97,6 +131,7 @@ public class SimplePieceCollection implements PieceCollection {
     if (i >= 0) {
       pieces.remove(p);
       pieces.add(p);
+      ++modCount;
     }
   }
 }
@@ -299,6 +299,22 @@ public class Board extends AbstractConfigurable implements GridContainer {
 
   private final ConcurrentMap<Point, Future<BufferedImage>> o_requested = new ConcurrentHashMap<>();
 
+  // The zoom and bounds at which the board was last drawn in the map's view,
+  // for which the tiles in requested and alpha are indexed
+  private double viewZoom;
+  private final Rectangle viewBounds = new Rectangle();
+
+  // Whether every tile last drawn in the map's view was drawn in full
+  private boolean viewSettled = true;
+
+  /**
+   * @return true if none of the tiles last drawn in the map's view were still loading or
+   * fading in, so that what was drawn will not change until the board or the view does
+   */
+  public boolean isViewSettled() {
+    return viewSettled;
+  }
+
   private static final Comparator<Point> tileOrdering = (t1, t2) -> {
     if (t1.y < t2.y) return -1;
     if (t1.y > t2.y) return 1;
@@ -328,18 +344,50 @@ public class Board extends AbstractConfigurable implements GridContainer {
                          Rectangle visibleRect,
                          double zoom,
                          final Component obs) {
+    final double os_scale = ((Graphics2D) g).getDeviceConfiguration().getDefaultTransform().getScaleX();
+    drawRegion(g, location, visibleRect, zoom, os_scale, obs);
+  }
+
+  /**
+   * Draws a region of the board. The OS scaling is given explicitly, for drawing
+   * to an offscreen image which will later be copied to the observer.
+   *
+   * @param g target graphics object
+   * @param location location of the board in drawing coordinates
+   * @param visibleRect region to draw, in drawing coordinates
+   * @param zoom zoom factor, including OS scaling
+   * @param os_scale OS scaling of the observer
+   * @param obs observer to be repainted as tiles arrive
+   */
+  public void drawRegion(final Graphics g,
+                         final Point location,
+                         Rectangle visibleRect,
+                         double zoom,
+                         final double os_scale,
+                         final Component obs) {
     zoom *= magnification;
     final Rectangle bounds =
       new Rectangle(location.x, location.y,
                     Math.round(boundaries.width * (float) zoom),
                     Math.round(boundaries.height * (float) zoom));
 
+    final boolean isView = map != null && obs == map.getView();
+    if (isView) {
+      if (zoom != viewZoom || !bounds.equals(viewBounds)) {
+        // Tiles at another zoom or location are other tiles
+        viewZoom = zoom;
+        viewBounds.setBounds(bounds);
+        requested.clear();
+        alpha.clear();
+      }
+      viewSettled = true;
+    }
+
     if (!visibleRect.intersects(bounds)) {
       return;
     }
 
     final Graphics2D g2d = (Graphics2D) g;
-    final double os_scale = g2d.getDeviceConfiguration().getDefaultTransform().getScaleX();
 
     visibleRect = visibleRect.intersection(bounds);
 
@@ -404,16 +452,20 @@ public class Board extends AbstractConfigurable implements GridContainer {
 // avoid mixing requests (and fade-in) between maps and their overview
 // maps. This is a kludge which should be fixed when model-view
 // separation happens.
-            if (map != null && obs == map.getView()) {
+            if (isView) {
               if (requested.containsKey(tile)) {
                 requested.remove(tile);
+                viewSettled = false;
                 final Point t = tile;
+                // the tile is fading in until its alpha reaches 1
+                alpha.put(t, 0.0f);
 
                 final Animator a = new Animator(100,
                   new TimingTargetAdapter() {
                     @Override
                     public void timingEvent(float fraction) {
-                      alpha.put(t, fraction);
+                      // unless the fade was dropped on changing zoom
+                      alpha.replace(t, fraction);
                       obs.repaint(cx, cy, cw, ch);
                     }
                   }
@@ -425,6 +477,7 @@ public class Board extends AbstractConfigurable implements GridContainer {
               else {
                 final Float a = alpha.get(tile);
                 if (a != null && a < 1.0f) {
+                  viewSettled = false;
                   final Composite oldComp = g2d.getComposite();
                   g2d.setComposite(
                     AlphaComposite.getInstance(AlphaComposite.SRC_OVER, a));
@@ -448,8 +501,9 @@ public class Board extends AbstractConfigurable implements GridContainer {
             }
           }
           else {
-            if (map != null && obs == map.getView()) {
+            if (isView) {
               requested.putIfAbsent(tile, fim);
+              viewSettled = false;
             }
             else {
               o_requested.putIfAbsent(tile, fim);
@@ -466,7 +520,7 @@ public class Board extends AbstractConfigurable implements GridContainer {
       }
     }
 
-    if (map != null && obs == map.getView()) {
+    if (isView) {
       for (final Point tile : requested.keySet().toArray(new Point[0])) {
         if (Arrays.binarySearch(tiles, tile, tileOrdering) < 0) {
           requested.remove(tile);
@@ -78,10 +78,18 @@ public class Region extends AbstractConfigurable {
 
   public void setOrigin(Point p) {
     origin = p;
+    originMoved();
   }
 
   public void moveOrigin(int dx, int dy) {
     origin.translate(dx, dy);
+    originMoved();
+  }
+
+  private void originMoved() {
+    if (myGrid != null) {
+      myGrid.regionMoved(this);
+    }
   }
 
   public static final String NAME = "name"; //$NON-NLS-1$
@@ -167,12 +175,14 @@ public class Region extends AbstractConfigurable {
         val = Integer.valueOf((String) val);
       }
       origin.x = (Integer) val;
+      originMoved();
     }
     else if (Y.equals(key)) {
       if (val instanceof String) {
         val = Integer.valueOf((String) val);
       }
       origin.y = (Integer) val;
+      originMoved();
     }
   }
 
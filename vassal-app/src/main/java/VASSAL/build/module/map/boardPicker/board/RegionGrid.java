@@ -56,6 +56,7 @@ import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -112,8 +113,11 @@ public class RegionGrid extends AbstractConfigurable implements MapGrid, Configu
 
   protected GridNumbering gridNumbering;
 
+  private volatile OriginIndex originIndex;
+
   public void addRegion(Region a) {
     regionList.put(a.getOrigin(), a);
+    originIndex = null;
     if (inConfig && regionConfigurer != null) {
       regionConfigurer.view.repaint();
     }
@@ -121,11 +125,21 @@ public class RegionGrid extends AbstractConfigurable implements MapGrid, Configu
 
   public void removeRegion(Region a) {
     regionList.remove(a.getOrigin());
+    originIndex = null;
   }
 
   public void removeAllRegions() {
     regionList.clear();
     buildComponents.clear();
+    originIndex = null;
+  }
+
+  /**
+   * Called when the origin of a region moves, so that snapping will find it
+   * in its new place
+   */
+  void regionMoved(Region a) {
+    originIndex = null;
   }
 
   @Override
@@ -330,21 +344,137 @@ public class RegionGrid extends AbstractConfigurable implements MapGrid, Configu
   // Internal routine to find closest point for region name reporting
   //
   protected Point doSnap(Point p) {
-    double distSq, minDistSq = Double.MAX_VALUE;
-    Point snapPoint = p;
-
-    // Iterate over each grid point and determine the closest.
-    for (final Point checkPoint : regionList.keySet()) {
-      distSq =
-          (p.x - checkPoint.x) * (p.x - checkPoint.x)
-          + (p.y - checkPoint.y) * (p.y - checkPoint.y);
-      if (distSq < minDistSq) {
-        minDistSq = distSq;
-        snapPoint = checkPoint;
+    OriginIndex index = originIndex;
+    if (index == null || index.size() != regionList.size()) {
+      index = new OriginIndex(regionList.keySet());
+      originIndex = index;
+    }
+
+    final Point snapPoint = index.nearest(p);
+    return new Point(snapPoint != null ? snapPoint : p);
+  }
+
+  /*
+   * Divides the area covered by the region origins into a grid of cells,
+   * each listing the origins within it. The nearest origin to a point is
+   * found by searching outward from the cell containing it, one ring of
+   * cells at a time, until no cell further out can hold anything closer.
+   */
+  private static class OriginIndex {
+    private final int[] xs;
+    private final int[] ys;
+    private final int x0;
+    private final int y0;
+    private final int cellSize;
+    private final int cols;
+    private final int rows;
+    private final int[][] cells;
+
+    OriginIndex(Collection<Point> origins) {
+      final int n = origins.size();
+      xs = new int[n];
+      ys = new int[n];
+
+      int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+      int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+      int i = 0;
+      for (final Point o : origins) {
+        xs[i] = o.x;
+        ys[i] = o.y;
+        minX = Math.min(minX, o.x);
+        minY = Math.min(minY, o.y);
+        maxX = Math.max(maxX, o.x);
+        maxY = Math.max(maxY, o.y);
+        ++i;
+      }
+
+      x0 = minX;
+      y0 = minY;
+
+      if (n == 0) {
+        cellSize = 1;
+        cols = rows = 0;
+        cells = new int[0][];
+        return;
+      }
+
+      // About one origin per cell
+      final double w = (double) maxX - minX + 1;
+      final double h = (double) maxY - minY + 1;
+      cellSize = Math.max(1, (int) Math.ceil(Math.sqrt(w * h / n)));
+      cols = (int) ((w + cellSize - 1) / cellSize);
+      rows = (int) ((h + cellSize - 1) / cellSize);
+
+      final int[] counts = new int[cols * rows];
+      for (i = 0; i < n; ++i) {
+        ++counts[cell(i)];
+      }
+
+      cells = new int[counts.length][];
+      for (int c = 0; c < counts.length; ++c) {
+        cells[c] = new int[counts[c]];
+        counts[c] = 0;
       }
+
+      for (i = 0; i < n; ++i) {
+        final int c = cell(i);
+        cells[c][counts[c]++] = i;
+      }
+    }
+
+    private int cell(int i) {
+      return (ys[i] - y0) / cellSize * cols + (xs[i] - x0) / cellSize;
+    }
+
+    int size() {
+      return xs.length;
     }
 
-    return new Point(snapPoint);
+    Point nearest(Point p) {
+      if (xs.length == 0) {
+        return null;
+      }
+
+      // The cell containing p, or nearest to it if p is outside the grid.
+      // Moving p onto the grid brings it no closer to any origin.
+      final int cx = (int) Math.min(Math.max(Math.floorDiv((long) p.x - x0, cellSize), 0), cols - 1);
+      final int cy = (int) Math.min(Math.max(Math.floorDiv((long) p.y - y0, cellSize), 0), rows - 1);
+      final int last = Math.max(
+        Math.max(cx, cols - 1 - cx),
+        Math.max(cy, rows - 1 - cy));
+
+      int best = -1;
+      long bestDistSq = Long.MAX_VALUE;
+      for (int r = 0; r <= last; ++r) {
+        for (int y = Math.max(0, cy - r); y <= Math.min(rows - 1, cy + r); ++y) {
+          // Only the edges of the ring are new
+          final boolean edge = y == cy - r || y == cy + r;
+          final int step = edge || r == 0 ? 1 : 2 * r;
+          for (int x = cx - r; x <= cx + r; x += step) {
+            if (x < 0 || x >= cols) {
+              continue;
+            }
+            for (final int i : cells[y * cols + x]) {
+              final long dx = (long) p.x - xs[i];
+              final long dy = (long) p.y - ys[i];
+              final long distSq = dx * dx + dy * dy;
+              if (distSq < bestDistSq) {
+                bestDistSq = distSq;
+                best = i;
+              }
+            }
+          }
+        }
+
+        // Every origin in the next ring is further than r cells from p
+        final long reach = (long) r * cellSize;
+        if (best >= 0 && bestDistSq <= reach * reach) {
+          break;
+        }
+      }
+
+      return new Point(xs[best], ys[best]);
+    }
   }
 
   @Override
@@ -384,6 +514,12 @@ public class RegionGrid extends AbstractConfigurable implements MapGrid, Configu
    * Return Region by Name
    */
   public Region findRegion(String name) {
+    final List<Region> named = getComponentsNamed(Region.class, name);
+    if (!named.isEmpty()) {
+      return named.get(0);
+    }
+
+    // Regions may also be added without being built into the grid
     for (final Region checkRegion : regionList.values()) {
       if (checkRegion.getConfigureName().equals(name)) {
         return checkRegion;
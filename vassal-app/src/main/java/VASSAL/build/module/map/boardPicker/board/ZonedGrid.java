@@ -29,6 +29,7 @@ import java.awt.geom.Ellipse2D;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.IntConsumer;
 
 import org.w3c.dom.Element;
 
@@ -54,6 +55,9 @@ public class ZonedGrid extends AbstractConfigurable implements GeometricGrid, Gr
   protected GridContainer container;
   protected ZonedGridHighlighter zoneHighlighters;
 
+  private volatile ZoneIndex zoneIndex;
+  private volatile int version;
+
   @Override
   public String[] getAttributeDescriptions() {
     return new String[0];
@@ -259,11 +263,9 @@ public class ZonedGrid extends AbstractConfigurable implements GeometricGrid, Gr
   @Override
   public String locationName(Point p) {
     String name = null;
-    for (final Zone zone : zones) {
-      if (zone.contains(p)) {
-        name = zone.locationName(p);
-        break;
-      }
+    final Zone zone = findZone(p);
+    if (zone != null) {
+      name = zone.locationName(p);
     }
     if (name == null
         && background != null) {
@@ -275,11 +277,9 @@ public class ZonedGrid extends AbstractConfigurable implements GeometricGrid, Gr
   @Override
   public String localizedLocationName(Point p) {
     String name = null;
-    for (final Zone zone : zones) {
-      if (zone.contains(p)) {
-        name = zone.localizedLocationName(p);
-        break;
-      }
+    final Zone zone = findZone(p);
+    if (zone != null) {
+      name = zone.localizedLocationName(p);
     }
     if (name == null
         && background != null) {
@@ -319,16 +319,25 @@ public class ZonedGrid extends AbstractConfigurable implements GeometricGrid, Gr
     return a;
   }
 
+  /**
+   * @return the first zone containing the given point, or null if none does
+   */
   public Zone findZone(Point p) {
-    for (final Zone zone : zones) {
-      if (zone.contains(p)) {
-        return zone;
-      }
+    ZoneIndex index = zoneIndex;
+    if (index == null || index.zones.length != zones.size()) {
+      index = new ZoneIndex(zones);
+      zoneIndex = index;
     }
-    return null;
+    return index.find(p);
   }
 
   public Zone findZone(String name) {
+    final List<Zone> named = getComponentsNamed(Zone.class, name);
+    if (!named.isEmpty()) {
+      return named.get(0);
+    }
+
+    // Zones may also be added without being built into the grid
     for (final Zone zone : zones) {
       if (zone.getName().equals(name)) {
         return zone;
@@ -352,20 +361,41 @@ public class ZonedGrid extends AbstractConfigurable implements GeometricGrid, Gr
 
   @Override
   public boolean isLocationRestricted(Point p) {
-    for (final Zone zone : zones) {
-      if (zone.contains(p)) {
-        return zone.getGrid() != null && zone.getGrid().isLocationRestricted(p);
-      }
+    final Zone zone = findZone(p);
+    if (zone != null) {
+      return zone.getGrid() != null && zone.getGrid().isLocationRestricted(p);
     }
     return background != null && background.isLocationRestricted(p);
   }
 
   public void addZone(Zone z) {
     zones.add(z);
+    zoneChanged(z);
   }
 
   public void removeZone(Zone z) {
     zones.remove(z);
+    zoneChanged(z);
+  }
+
+  /**
+   * Must be called when the shape of one of the zones changes, so that
+   * {@link #findZone(Point)} will find it in its new place.
+   * @since 3.5.0
+   */
+  public void zoneChanged(Zone z) {
+    zoneIndex = null;
+    ++version;
+  }
+
+  /**
+   * @return a number which changes whenever a zone is added, removed or
+   * changes shape, so that callers may cache the results of
+   * {@link #findZone(Point)}
+   * @since 3.5.0
+   */
+  public int getVersion() {
+    return version;
   }
 
   public Iterator<Zone> getZones() {
@@ -403,4 +433,98 @@ public class ZonedGrid extends AbstractConfigurable implements GeometricGrid, Gr
     }
     return null;
   }
+
+  /*
+   * Divides the area covered by the zones into a grid of cells, each listing
+   * the zones whose bounds overlap it, so that finding the zone containing a
+   * point tests only the zones listed for its cell rather than every zone.
+   * The lists keep the order of the zones, so the first zone containing a
+   * point is the one found, just as when testing each zone in turn.
+   */
+  private static class ZoneIndex {
+    // Enough cells for a few per zone, but without using too much memory
+    private static final int CELLS_PER_ZONE = 4;
+    private static final int MAX_CELLS = 1 << 16;
+
+    private final Zone[] zones;
+    private final Rectangle area;
+    private final int cellSize;
+    private final int cols;
+    private final int[][] cells;
+
+    ZoneIndex(List<Zone> list) {
+      zones = list.toArray(new Zone[0]);
+
+      final Rectangle[] bounds = new Rectangle[zones.length];
+      Rectangle a = null;
+      for (int i = 0; i < zones.length; ++i) {
+        bounds[i] = zones[i].getBounds();
+        if (!bounds[i].isEmpty()) {
+          a = a == null ? new Rectangle(bounds[i]) : a.union(bounds[i]);
+        }
+      }
+      area = a;
+
+      if (area == null) {
+        cellSize = 1;
+        cols = 0;
+        cells = new int[0][];
+        return;
+      }
+
+      final int n = Math.min(zones.length * CELLS_PER_ZONE, MAX_CELLS);
+      cellSize = Math.max(1,
+        (int) Math.ceil(Math.sqrt((double) area.width * area.height / n)));
+      cols = (area.width + cellSize - 1) / cellSize;
+      final int rows = (area.height + cellSize - 1) / cellSize;
+
+      // Count the zones in each cell, then fill them in zone order
+      final int[] counts = new int[cols * rows];
+      for (final Rectangle r : bounds) {
+        if (!r.isEmpty()) {
+          forEachCell(r, c -> ++counts[c]);
+        }
+      }
+
+      cells = new int[counts.length][];
+      for (int c = 0; c < counts.length; ++c) {
+        cells[c] = new int[counts[c]];
+        counts[c] = 0;
+      }
+
+      for (int i = 0; i < bounds.length; ++i) {
+        if (!bounds[i].isEmpty()) {
+          final int zone = i;
+          forEachCell(bounds[i], c -> cells[c][counts[c]++] = zone);
+        }
+      }
+    }
+
+    private void forEachCell(Rectangle r, IntConsumer action) {
+      final int x0 = (r.x - area.x) / cellSize;
+      final int y0 = (r.y - area.y) / cellSize;
+      final int x1 = (r.x + r.width - 1 - area.x) / cellSize;
+      final int y1 = (r.y + r.height - 1 - area.y) / cellSize;
+      for (int y = y0; y <= y1; ++y) {
+        for (int x = x0; x <= x1; ++x) {
+          action.accept(y * cols + x);
+        }
+      }
+    }
+
+    Zone find(Point p) {
+      // A zone can contain only points within its bounds
+      if (area == null || !area.contains(p)) {
+        return null;
+      }
+
+      final int c = (p.y - area.y) / cellSize * cols + (p.x - area.x) / cellSize;
+      for (final int i : cells[c]) {
+        if (zones[i].contains(p)) {
+          return zones[i];
+        }
+      }
+      return null;
+    }
+  }
 }
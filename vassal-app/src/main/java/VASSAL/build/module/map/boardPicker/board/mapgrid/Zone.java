@@ -239,6 +239,9 @@ public class Zone extends AbstractConfigurable implements GridContainer, Mutable
     }
     else if (PATH.equals(key)) {
       PolygonEditor.reset(myPolygon, (String) val);
+      if (parentGrid != null) {
+        parentGrid.zoneChanged(this);
+      }
     }
     else if (LOCATION_FORMAT.equals(key)) {
       locationFormat = (String) val;
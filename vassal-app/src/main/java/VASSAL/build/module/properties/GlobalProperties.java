@@ -143,13 +143,9 @@ public class GlobalProperties extends AbstractConfigurable implements MutablePro
 
   @Override
   public GlobalProperty getMutableProperty(String name) {
-    GlobalProperty property = null;
-    for (final GlobalProperty prop : getComponentsOf(GlobalProperty.class)) {
-      if (prop.getConfigureName().equals(name)) {
-        property = prop;
-      }
-    }
-    return property;
+    // The last of any with the same name
+    final List<GlobalProperty> l = getComponentsNamed(GlobalProperty.class, name);
+    return l.isEmpty() ? null : l.get(l.size() - 1);
   }
 
   /*
@@ -22,6 +22,7 @@ import java.beans.PropertyChangeListener;
 import javax.swing.SwingUtilities;
 
 import VASSAL.build.GameModule;
+import VASSAL.build.module.GameState;
 import VASSAL.command.Command;
 
 /**
@@ -36,10 +37,7 @@ public class CommandDecoder implements PropertyChangeListener {
   public void propertyChange(PropertyChangeEvent evt) {
     final Command c = GameModule.getGameModule().decode((String) evt.getNewValue());
     if (c != null) {
-      SwingUtilities.invokeLater(() -> {
-        c.execute();
-        GameModule.getGameModule().getLogger().log(c);
-      });
+      SwingUtilities.invokeLater(() -> GameState.executeReceived(c));
     }
   }
 }
@@ -40,6 +40,8 @@ public class SimpleStatus implements PlayerStatus {
   public static final String AWAY = "away"; //$NON-NLS-1$
   public static final String LOOKING = "looking"; //$NON-NLS-1$
   public static final String NAME = "name"; //$NON-NLS-1$
+  /** @since 3.5.0 */
+  public static final String DELTA_SYNCH = "deltaSynch"; //$NON-NLS-1$
 
   private final boolean looking;
   private final boolean away;
@@ -48,6 +50,7 @@ public class SimpleStatus implements PlayerStatus {
   private String ip;
   private String moduleVersion;
   private String crc;
+  private boolean deltaSynch;
 
   public SimpleStatus() {
     this(false, false, ""); //$NON-NLS-1$
@@ -62,6 +65,15 @@ public class SimpleStatus implements PlayerStatus {
   }
 
   public SimpleStatus(boolean looking, boolean away, String profile, String client, String ip, String module, String crc) {
+    this(looking, away, profile, client, ip, module, crc, false);
+  }
+
+  /**
+   * @param deltaSynch whether the player's client can send and receive only
+   * the differences between two games when synchronizing
+   * @since 3.5.0
+   */
+  public SimpleStatus(boolean looking, boolean away, String profile, String client, String ip, String module, String crc, boolean deltaSynch) {
     this.looking = looking;
     this.away = away;
     this.profile = profile;
@@ -69,6 +81,7 @@ public class SimpleStatus implements PlayerStatus {
     this.ip = ip;
     this.moduleVersion = module;
     this.crc = crc;
+    this.deltaSynch = deltaSynch;
   }
 
   public boolean isAway() {
@@ -99,6 +112,16 @@ public class SimpleStatus implements PlayerStatus {
     return crc;
   }
 
+  /**
+   * @return whether the player's client can synchronize by sending only the
+   * differences between two games. Older clients do not report this, and
+   * so are asked for the whole game.
+   * @since 3.5.0
+   */
+  public boolean isDeltaSynch() {
+    return deltaSynch;
+  }
+
   public static String encode(SimpleStatus s) {
     final SequenceEncoder se = new SequenceEncoder(',');
     se.append(s.looking);
@@ -108,13 +131,14 @@ public class SimpleStatus implements PlayerStatus {
     se.append(s.ip);
     se.append(s.moduleVersion);
     se.append(s.crc);
+    se.append(s.deltaSynch);
     return se.getValue();
   }
 
   public static SimpleStatus decode(String s) {
     final SequenceEncoder.Decoder sd = new SequenceEncoder.Decoder(s, ',');
     return new SimpleStatus(sd.nextBoolean(false), sd.nextBoolean(false), sd.nextToken(""), sd.nextToken(""),  //$NON-NLS-1$ //$NON-NLS-2$
-        sd.nextToken(""), sd.nextToken(""), sd.nextToken(""));         //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        sd.nextToken(""), sd.nextToken(""), sd.nextToken(""), sd.nextBoolean(false));         //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
   }
 
   /**
@@ -132,5 +156,6 @@ public class SimpleStatus implements PlayerStatus {
     }
     moduleVersion = g.getGameVersion() + ((g.getArchiveWriter() == null) ? "" : " (Editing)");  //$NON-NLS-1$ //$NON-NLS-2$
     crc = Long.toHexString(g.getCrc());
+    deltaSynch = true;
   }
 }
@@ -0,0 +1,126 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package VASSAL.chat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.swing.Timer;
+
+import VASSAL.build.GameModule;
+import VASSAL.command.Command;
+import VASSAL.i18n.Resources;
+
+/**
+ * A {@link Command} which ends the changes sent by a {@link SynchCommand}
+ * with a {@link SynchDigest}. When executed, it checks that the pieces of
+ * our game are now in the same state as those of the sender's game, and if
+ * not, asks the sender for the whole game instead.
+ *
+ * A player who asks for a delta calls {@link #await}, so that the whole
+ * game is asked for if no check arrives, e.g. because the other client
+ * dropped the request.
+ *
+ * @since 3.5.0
+ */
+public class SynchCheckCommand extends Command {
+  /** How long to wait for the reply to a request for the differences */
+  static final int TIMEOUT = 60 * 1000;
+
+  /** The fallbacks of the requests still waiting for their check, by the player asked */
+  private static final Map<Player, Timer> pending = new HashMap<>();
+
+  private final Player sender;
+  private final ChatServerConnection client;
+  private final String checksum;
+
+  public SynchCheckCommand(Player sender, ChatServerConnection client, String checksum) {
+    this.sender = sender;
+    this.client = client;
+    this.checksum = checksum;
+  }
+
+  public Player getPlayer() {
+    return sender;
+  }
+
+  public String getChecksum() {
+    return checksum;
+  }
+
+  /**
+   * Waits for the check ending the reply to a {@link SynchCommand} with a
+   * {@link SynchDigest} sent to a player. If none arrives in time, the
+   * whole game is asked for. Must be called on the event dispatch thread.
+   *
+   * @param player the player asked for the differences
+   * @param client the server connection
+   */
+  public static void await(Player player, ChatServerConnection client) {
+    final Timer timer = new Timer(TIMEOUT, e -> {
+      if (pending.remove(player) != null) {
+        GameModule.getGameModule().warn(Resources.getString("Server.synch_timeout", player.getName())); //$NON-NLS-1$
+        synchAll(player, client);
+      }
+    });
+    timer.setRepeats(false);
+
+    final Timer old = pending.put(player, timer);
+    if (old != null) {
+      old.stop();
+    }
+    timer.start();
+  }
+
+  private static void synchAll(Player player, ChatServerConnection client) {
+    final GameModule g = GameModule.getGameModule();
+    g.setGameFileMode(GameModule.GameFileMode.NEW_GAME);
+    g.getGameState().setup(false);
+    client.sendTo(player, new SynchCommand(client.getUserInfo(), client));
+  }
+
+  @Override
+  protected void executeCommand() {
+    final Timer timer = pending.remove(sender);
+    if (timer == null) {
+      // We gave up waiting, and have asked for the whole game
+      return;
+    }
+    timer.stop();
+
+    final GameModule g = GameModule.getGameModule();
+    if (checksum.equals(SynchDigest.of(g.getGameState()).getChecksum())) {
+      return;
+    }
+
+    g.warn(Resources.getString("Server.synch_mismatch", sender.getName())); //$NON-NLS-1$
+    synchAll(sender, client);
+  }
+
+  @Override
+  protected Command myUndoCommand() {
+    return null;
+  }
+
+  /**
+   * Don't log synchronization checks */
+  @Override
+  public boolean isLoggable() {
+    return false;
+  }
+}
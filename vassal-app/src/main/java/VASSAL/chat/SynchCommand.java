@@ -18,32 +18,74 @@
 package VASSAL.chat;
 
 import VASSAL.build.GameModule;
+import VASSAL.build.module.GameState;
 import VASSAL.command.Command;
+import VASSAL.command.NullCommand;
 import VASSAL.i18n.Resources;
 
 /**
  * A {@link Command} that, when executed, sends game synchronization
  * information to a given {@link VASSAL.chat.SimplePlayer}
  *
+ * If the command carries a {@link SynchDigest} of the recipient's game,
+ * only the pieces and components whose state differs from ours are sent,
+ * followed by a {@link SynchCheckCommand} with which the recipient checks
+ * the result. Otherwise, the whole game is sent, also followed by a check
+ * if the recipient sent a digest.
  */
 public class SynchCommand extends Command {
   private final Player recipient;
   private final ChatServerConnection client;
+  private final SynchDigest digest;
 
   public SynchCommand(Player p, ChatServerConnection client) {
+    this(p, client, null);
+  }
+
+  /**
+   * @param p the player to synchronize
+   * @param client the server connection
+   * @param digest the digest of the player's game, or {@code null} to
+   * send the whole game
+   * @since 3.5.0
+   */
+  public SynchCommand(Player p, ChatServerConnection client, SynchDigest digest) {
     recipient = p;
     this.client = client;
+    this.digest = digest;
   }
 
   public Player getPlayer() {
     return recipient;
   }
 
+  /**
+   * @return the digest of the recipient's game, or {@code null}
+   * @since 3.5.0
+   */
+  public SynchDigest getDigest() {
+    return digest;
+  }
+
   @Override
   protected void executeCommand() {
     if (recipient != null) {
       GameModule.getGameModule().warn(Resources.getString("Server.sending_game_info", recipient.getName())); //$NON-NLS-1$
-      final Command synch = GameModule.getGameModule().getGameState().getRestoreCommand();
+      final GameState gs = GameModule.getGameModule().getGameState();
+      final Command synch;
+      if (digest != null && gs.isGameStarted() && digest.isCompatible(gs)) {
+        synch = new NullCommand();
+        final SynchDigest local = SynchDigest.diff(gs, digest, synch);
+        synch.append(new SynchCheckCommand(client.getUserInfo(), client, local.getChecksum()));
+      }
+      else {
+        synch = gs.getRestoreCommand();
+        if (synch != null && digest != null) {
+          // the recipient is waiting for a check, even though we send the whole game
+          synch.append(new SynchCheckCommand(client.getUserInfo(), client, SynchDigest.of(gs).getChecksum()));
+        }
+      }
+
       if (synch != null) {
         client.sendTo(recipient, synch);
       }
@@ -0,0 +1,216 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package VASSAL.chat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+import org.apache.commons.codec.digest.DigestUtils;
+
+import VASSAL.build.GameModule;
+import VASSAL.build.module.GameComponent;
+import VASSAL.build.module.GameState;
+import VASSAL.command.AddPiece;
+import VASSAL.command.ChangePiece;
+import VASSAL.command.Command;
+import VASSAL.command.RemovePiece;
+import VASSAL.counters.GamePiece;
+import VASSAL.tools.SequenceEncoder;
+
+/**
+ * A compact summary of the state of a game, holding a hash of the type and
+ * state of each piece and of the restore command of each
+ * {@link GameComponent}.
+ *
+ * A player who asks to be synchronized sends the digest of their game, so
+ * that the player answering need send only the pieces and components whose
+ * state differs, rather than the whole game.
+ *
+ * @since 3.5.0
+ */
+public class SynchDigest {
+  private static final char DELIM = ',';
+
+  private static class Entry {
+    private final String type;
+    private final String state;
+
+    private Entry(String type, String state) {
+      this.type = type;
+      this.state = state;
+    }
+  }
+
+  private final String crc;
+  private final List<String> components;
+  private final SortedMap<String, Entry> pieces;
+
+  private SynchDigest(String crc, List<String> components,
+                      SortedMap<String, Entry> pieces) {
+    this.crc = crc;
+    this.components = components;
+    this.pieces = pieces;
+  }
+
+  private static String hash(String s) {
+    final CRC32 crc = new CRC32();
+    if (s != null) {
+      crc.update(s.getBytes(StandardCharsets.UTF_8));
+    }
+    return Long.toHexString(crc.getValue());
+  }
+
+  private static String moduleCrc() {
+    return Long.toHexString(GameModule.getGameModule().getCrc());
+  }
+
+  /**
+   * @param gs the game
+   * @return the digest of the current state of the game
+   */
+  public static SynchDigest of(GameState gs) {
+    return diff(gs, null, null);
+  }
+
+  /**
+   * Computes the digest of a game, and the changes which would bring
+   * another game to the same state.
+   *
+   * @param gs the game
+   * @param remote the digest of the other game, or {@code null}
+   * @param delta the command to which to append the changes, or
+   * {@code null} if only the digest is wanted
+   * @return the digest of {@code gs}
+   */
+  public static SynchDigest diff(GameState gs, SynchDigest remote,
+                                 Command delta) {
+    final boolean compare = remote != null && delta != null;
+
+    // remove pieces which we do not have
+    if (compare) {
+      for (final String id : remote.pieces.keySet()) {
+        if (gs.getPieceForId(id) == null) {
+          delta.append(new RemovePiece(id));
+        }
+      }
+    }
+
+    final SortedMap<String, Entry> pieces = new TreeMap<>();
+    for (final GamePiece p : gs.getPiecesInRestoreOrder()) {
+      final String type = p.getType();
+      final String state = p.getState();
+      final Entry e = new Entry(hash(type), hash(state));
+      pieces.put(p.getId(), e);
+
+      if (compare) {
+        final Entry re = remote.pieces.get(p.getId());
+        if (re == null) {
+          delta.append(new AddPiece(p, state));
+        }
+        else if (!re.type.equals(e.type)) {
+          delta.append(new RemovePiece(p.getId()));
+          delta.append(new AddPiece(p, state));
+        }
+        else if (!re.state.equals(e.state)) {
+          delta.append(new ChangePiece(p.getId(), state));
+        }
+      }
+    }
+
+    final GameModule g = GameModule.getGameModule();
+    final List<String> components = new ArrayList<>();
+    for (final GameComponent gc : gs.getGameComponents()) {
+      final Command c = gc.getRestoreCommand();
+      final String h = hash(g.encode(c));
+
+      if (compare && !h.equals(remote.components.get(components.size()))) {
+        delta.append(c);
+      }
+
+      components.add(h);
+    }
+
+    return new SynchDigest(moduleCrc(), components, pieces);
+  }
+
+  /**
+   * @param gs the game
+   * @return whether {@link #diff} can bring a game with this digest to the
+   * state of {@code gs}, which requires that both games use the same module
+   */
+  public boolean isCompatible(GameState gs) {
+    return crc.equals(moduleCrc()) &&
+           components.size() == gs.getGameComponents().size();
+  }
+
+  /**
+   * @return a hash of the states of all pieces, for checking that two games
+   * have the same pieces in the same states. Components are left out, as
+   * some, e.g. chess clocks, change on their own.
+   */
+  public String getChecksum() {
+    final SequenceEncoder se = new SequenceEncoder(DELIM);
+    appendPieces(se);
+    return DigestUtils.sha1Hex(se.getValue() == null ? "" : se.getValue());
+  }
+
+  private void appendPieces(SequenceEncoder se) {
+    for (final java.util.Map.Entry<String, Entry> e : pieces.entrySet()) {
+      se.append(e.getKey())
+        .append(e.getValue().type)
+        .append(e.getValue().state);
+    }
+  }
+
+  /**
+   * @return the number of pieces in the digest
+   */
+  public int getPieceCount() {
+    return pieces.size();
+  }
+
+  public String encode() {
+    final SequenceEncoder se = new SequenceEncoder(DELIM);
+    se.append(crc).append(components.size());
+    for (final String h : components) {
+      se.append(h);
+    }
+    appendPieces(se);
+    return se.getValue();
+  }
+
+  public static SynchDigest decode(String s) {
+    final SequenceEncoder.Decoder sd = new SequenceEncoder.Decoder(s, DELIM);
+    final String crc = sd.nextToken("");
+    final int n = sd.nextInt(0);
+    final List<String> components = new ArrayList<>(n);
+    for (int i = 0; i < n; ++i) {
+      components.add(sd.nextToken(""));
+    }
+    final SortedMap<String, Entry> pieces = new TreeMap<>();
+    while (sd.hasMoreTokens()) {
+      final String id = sd.nextToken();
+      pieces.put(id, new Entry(sd.nextToken(""), sd.nextToken("")));
+    }
+    return new SynchDigest(crc, components, pieces);
+  }
+}
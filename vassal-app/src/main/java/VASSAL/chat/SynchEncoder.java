@@ -19,12 +19,21 @@ package VASSAL.chat;
 
 import VASSAL.command.Command;
 import VASSAL.command.CommandEncoder;
+import VASSAL.tools.SequenceEncoder;
 
 /**
  * Date: Mar 16, 2003
  */
 public class SynchEncoder implements CommandEncoder {
   public static final String COMMAND_PREFIX = "SYNC"; //$NON-NLS-1$
+  /**
+   * Prefixes of the commands of the delta synchronization protocol, chosen
+   * so that clients which do not know them ignore them
+   * @since 3.5.0
+   */
+  public static final String DELTA_PREFIX = "DSYNC"; //$NON-NLS-1$
+  public static final String CHECK_PREFIX = "CSYNC"; //$NON-NLS-1$
+  private static final char DELIM = '\t';
   private final PlayerEncoder playerEncoder;
   private final ChatServerConnection client;
 
@@ -35,6 +44,18 @@ public class SynchEncoder implements CommandEncoder {
 
   @Override
   public Command decode(String s) {
+    if (s.startsWith(DELTA_PREFIX)) {
+      final SequenceEncoder.Decoder sd =
+        new SequenceEncoder.Decoder(s, DELTA_PREFIX.length(), s.length(), DELIM);
+      final Player p = playerEncoder.stringToPlayer(sd.nextToken(""));
+      return new SynchCommand(p, client, SynchDigest.decode(sd.nextToken("")));
+    }
+    if (s.startsWith(CHECK_PREFIX)) {
+      final SequenceEncoder.Decoder sd =
+        new SequenceEncoder.Decoder(s, CHECK_PREFIX.length(), s.length(), DELIM);
+      final Player p = playerEncoder.stringToPlayer(sd.nextToken(""));
+      return new SynchCheckCommand(p, client, sd.nextToken(""));
+    }
     if (!s.startsWith(COMMAND_PREFIX)) {
       return null;
     }
@@ -44,10 +65,23 @@ public class SynchEncoder implements CommandEncoder {
 
   @Override
   public String encode(Command c) {
+    if (c instanceof SynchCheckCommand) {
+      final SynchCheckCommand cmd = (SynchCheckCommand) c;
+      return CHECK_PREFIX + new SequenceEncoder(DELIM)
+        .append(playerEncoder.playerToString(cmd.getPlayer()))
+        .append(cmd.getChecksum())
+        .getValue();
+    }
     if (!(c instanceof SynchCommand)) {
       return null;
     }
     final SynchCommand cmd = (SynchCommand) c;
+    if (cmd.getDigest() != null) {
+      return DELTA_PREFIX + new SequenceEncoder(DELIM)
+        .append(playerEncoder.playerToString(cmd.getPlayer()))
+        .append(cmd.getDigest().encode())
+        .getValue();
+    }
     return COMMAND_PREFIX + playerEncoder.playerToString(cmd.getPlayer());
   }
 
@@ -58,7 +58,7 @@ public class AsynchronousServerNode extends ServerNode {
   }
 
   @Override
-  protected synchronized void sendContents(Node node) {
+  protected void sendContents(Node node) {
     contentsReporter.markChanged(node);
   }
 
@@ -92,7 +92,7 @@ public class AsynchronousServerNode extends ServerNode {
       server.statusReporter.updateContents(server.getLeafDescendants());
       final long time = System.currentTimeMillis();
       final Iterator<Node> modules;
-      if (time - lastGlobalUpdate < GLOBAL_UPDATE_INTERVAL) {
+      if (time - lastGlobalUpdate >= GLOBAL_UPDATE_INTERVAL) {
         modules = Arrays.asList(server.getChildren()).iterator();
         lastGlobalUpdate = time;
       }
@@ -102,7 +102,6 @@ public class AsynchronousServerNode extends ServerNode {
       while (modules.hasNext()) {
         final Node module = modules.next();
         logger.fine("Sending contents of " + module.getId()); //$NON-NLS-1$
-        final Node[] players = module.getLeafDescendants();
         final Node[] rooms = module.getChildren();
 
         // Check if any rooms have lost their first player
@@ -125,11 +124,7 @@ public class AsynchronousServerNode extends ServerNode {
           }
         }
 
-        final String listCommand = Protocol.encodeListCommand(players);
-        logger.finer(listCommand);
-        module.send(listCommand);
-        final String roomInfo = Protocol.encodeRoomsInfo(rooms);
-        module.send(roomInfo);
+        server.sendModuleContents(module);
       }
       changed.clear();
     }
@@ -0,0 +1,315 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package VASSAL.chat.node;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A {@link SocketHandler} for a non-blocking {@link SocketChannel} serviced by the {@link Selector}
+ * thread of a {@link Server}, so that a connection does not need threads of its own.
+ * <br><br>
+ * Reading and writing are done on the selector thread. Lines received are handed to the
+ * {@link SocketWatcher} on a shared {@link Executor}, one at a time and in order for each
+ * connection, so that slow message handling never holds up the selector. Lines to be sent are
+ * queued and written whenever the channel can accept them. A client is disconnected once more
+ * than {@link #MAX_QUEUED_BYTES} have been waiting to be sent to it for longer than
+ * {@link #MAX_BACKLOG_MILLIS}. A single large line, such as a game restore, is always accepted,
+ * however large, so long as the client takes it in time.
+ */
+public class ChannelSocketHandler extends SocketHandler {
+  private static final Logger logger =
+    Logger.getLogger(ChannelSocketHandler.class.getName());
+
+  private static final int BUFFER_SIZE = 8192;
+
+  /** The most bytes which may wait to be written to one connection for long */
+  static final long MAX_QUEUED_BYTES = 8L * 1024 * 1024;
+
+  /** How long more than {@link #MAX_QUEUED_BYTES} may wait to be written to one connection */
+  static final long MAX_BACKLOG_MILLIS = 60L * 1000;
+
+  private final SocketChannel channel;
+  private final Server server;
+  private final SocketWatcher watcher;
+  private final InetAddress address;
+  private SelectionKey key;
+
+  private final ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+  private final LineCodec codec = new LineCodec(this::readLine);
+
+  private final Queue<ByteBuffer> out = new ConcurrentLinkedQueue<>();
+  private final AtomicLong queuedBytes = new AtomicLong();
+  private final long maxQueuedBytes;
+  private final long maxBacklogMillis;
+  // when more than maxQueuedBytes were first queued, or 0 if fewer are
+  private volatile long backlogSince = 0;
+  private volatile boolean overflowed = false;
+  private final AtomicBoolean writeRequested = new AtomicBoolean();
+  private volatile long lastWrite = System.currentTimeMillis();
+  private volatile boolean closing = false;
+  private volatile ByteBuffer signOff;
+  private boolean signedOff = false;
+  private boolean isOpen = true;
+
+  private final Queue<Runnable> inbox = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean inboxScheduled = new AtomicBoolean();
+
+  public ChannelSocketHandler(SocketChannel channel, Server server, SocketWatcher watcher) {
+    this(channel, server, watcher, MAX_QUEUED_BYTES, MAX_BACKLOG_MILLIS);
+  }
+
+  ChannelSocketHandler(SocketChannel channel, Server server, SocketWatcher watcher,
+                       long maxQueuedBytes, long maxBacklogMillis) {
+    super(watcher);
+    this.channel = channel;
+    this.server = server;
+    this.watcher = watcher;
+    this.maxQueuedBytes = maxQueuedBytes;
+    this.maxBacklogMillis = maxBacklogMillis;
+    address = channel.socket().getInetAddress();
+  }
+
+  /**
+   * Registers the channel with the server's selector. Must be called on the selector thread.
+   */
+  @Override
+  public void start() {
+    if (key == null) {
+      try {
+        key = server.register(channel, this);
+      }
+      catch (IOException e) {
+        closeSocket();
+      }
+    }
+  }
+
+  @Override
+  public void writeLine(String pMessage) {
+    if (!closing) {
+      synchronized (codec) {
+        enqueue(ByteBuffer.wrap(codec.encode(pMessage)));
+      }
+    }
+  }
+
+  @Override
+  protected void writeDeflate() {
+    // encode and enqueue together, so that lines are compressed in the order sent
+    synchronized (codec) {
+      writeLine(DEFLATE);
+      codec.startDeflating();
+    }
+  }
+
+  /**
+   * Sends a sign-off, then closes the connection once everything queued has been written
+   */
+  @Override
+  public void close() {
+    if (!closing) {
+      closing = true;
+      synchronized (codec) {
+        signOff = ByteBuffer.wrap(codec.encode(SIGN_OFF));
+        enqueue(signOff);
+      }
+    }
+  }
+
+  // Called holding the lock on the codec, so that lines are queued one at a time
+  private void enqueue(ByteBuffer b) {
+    if (isOpen() && !overflowed) {
+      if (queuedBytes.addAndGet(b.limit()) > maxQueuedBytes) {
+        final long now = System.currentTimeMillis();
+        if (backlogSince == 0) {
+          backlogSince = now;
+        }
+        else if (now - backlogSince > maxBacklogMillis) {
+          // the client is not keeping up; have the selector thread drop it
+          overflowed = true;
+          logger.warning("Disconnecting " + address + ": more than " + maxQueuedBytes + " bytes queued for " + maxBacklogMillis + " ms"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+          server.requestWrite(this);
+          return;
+        }
+      }
+      out.add(b);
+      if (writeRequested.compareAndSet(false, true)) {
+        server.requestWrite(this);
+      }
+    }
+  }
+
+  @Override
+  public InetAddress getInetAddress() {
+    return address;
+  }
+
+  /**
+   * @return time in milliseconds at which the last line was written
+   */
+  long getLastWrite() {
+    return lastWrite;
+  }
+
+  private synchronized boolean isOpen() {
+    return isOpen;
+  }
+
+  /**
+   * Called on the selector thread when the channel is ready
+   */
+  void handleReady() {
+    try {
+      if (key.isReadable()) {
+        read();
+      }
+      if (key.isValid() && key.isWritable()) {
+        write();
+      }
+    }
+    catch (IOException e) {
+      closeSocket();
+    }
+  }
+
+  /**
+   * Called on the selector thread after {@link Server#requestWrite}
+   */
+  void enableWrite() {
+    if (overflowed) {
+      closeSocket();
+    }
+    else if (key != null && key.isValid()) {
+      key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+    }
+  }
+
+  private void read() throws IOException {
+    if (channel.read(in) < 0) {
+      closeSocket();
+      return;
+    }
+
+    codec.decode(in.array(), 0, in.position());
+    in.clear();
+
+    if (signedOff) {
+      closeSocket();
+    }
+  }
+
+  private void readLine(String msg) {
+    if (signedOff) {
+      return;
+    }
+
+    if (SIGN_OFF.equals(msg)) {
+      signedOff = true;
+    }
+    else if (!negotiate(msg, codec::startInflating) && msg.length() > 0) {
+      dispatch(() -> {
+        try {
+          watcher.handleMessage(msg);
+        }
+        catch (Exception e) {
+          // Handler threw an exception.  Keep reading.
+          logger.log(Level.WARNING, "Caught " + e.getClass().getName() + " handling " + msg, e); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+      });
+    }
+  }
+
+  private void write() throws IOException {
+    for (ByteBuffer b = out.peek(); b != null; b = out.peek()) {
+      channel.write(b);
+      if (b.hasRemaining()) {
+        // the socket buffer is full; wait to be writable again
+        return;
+      }
+      out.poll();
+      if (queuedBytes.addAndGet(-b.limit()) <= maxQueuedBytes) {
+        backlogSince = 0;
+      }
+      lastWrite = System.currentTimeMillis();
+      if (b == signOff) {
+        closeSocket();
+        return;
+      }
+    }
+
+    key.interestOps(SelectionKey.OP_READ);
+    writeRequested.set(false);
+    if (!out.isEmpty() && writeRequested.compareAndSet(false, true)) {
+      // a line was queued after the queue was drained
+      enableWrite();
+    }
+  }
+
+  /**
+   * Runs a task on the server's executor after all tasks previously dispatched for this connection
+   */
+  private void dispatch(Runnable task) {
+    inbox.add(task);
+    if (inboxScheduled.compareAndSet(false, true)) {
+      server.execute(this::drainInbox);
+    }
+  }
+
+  private void drainInbox() {
+    do {
+      for (Runnable task = inbox.poll(); task != null; task = inbox.poll()) {
+        task.run();
+      }
+      inboxScheduled.set(false);
+    } while (!inbox.isEmpty() && inboxScheduled.compareAndSet(false, true));
+  }
+
+  private void closeSocket() {
+    synchronized (this) {
+      if (!isOpen) {
+        return;
+      }
+      isOpen = false;
+    }
+
+    if (key != null) {
+      key.cancel();
+    }
+    try {
+      channel.close();
+    }
+    catch (IOException ignore) {
+      // FIXME: review error message
+    }
+    out.clear();
+    codec.end();
+    dispatch(() -> watcher.socketClosed(this));
+  }
+}
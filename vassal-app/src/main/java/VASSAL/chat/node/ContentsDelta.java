@@ -0,0 +1,138 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package VASSAL.chat.node;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The changes to the players and rooms of a module since the last time its
+ * contents were sent. Each delta has a sequence number one greater than the
+ * one before, so that a client can tell when it has missed one and must ask
+ * for the whole list again.
+ *
+ * @see Protocol#encodeDeltaCommand
+ * @since 3.5.0
+ */
+public class ContentsDelta {
+  /** A player connected; path is the player's new path */
+  public static final char JOINED = '+';
+  /** A player disconnected; path is the player's old path */
+  public static final char LEFT = '-';
+  /** A player changed rooms; path is the player's new path */
+  public static final char MOVED = '>';
+  /** A player's info changed; path is the player's path */
+  public static final char INFO = '*';
+  /** A room's info changed; path is the room's path */
+  public static final char ROOM = 'R';
+
+  public static class Change {
+    public final char op;
+    public final String path;
+    public final String info;
+
+    public Change(char op, String path, String info) {
+      this.op = op;
+      this.path = path;
+      this.info = info;
+    }
+  }
+
+  private final long seq;
+  private final List<Change> changes;
+
+  public ContentsDelta(long seq, List<Change> changes) {
+    this.seq = seq;
+    this.changes = changes;
+  }
+
+  public long getSeq() {
+    return seq;
+  }
+
+  public List<Change> getChanges() {
+    return Collections.unmodifiableList(changes);
+  }
+
+  /**
+   * Applies the changes to a tree of the form sent by
+   * {@link Protocol#encodeListCommand}.
+   *
+   * @param root the root of the tree, whose children are modules
+   */
+  public void applyTo(Node root) {
+    for (final Change c : changes) {
+      switch (c.op) {
+      case LEFT:
+        remove(root, c.path);
+        break;
+      case JOINED:
+      case MOVED:
+        // a player's path ends with its id, which is unique in the module
+        final Node n = Node.build(root, c.path);
+        n.setInfo(c.info);
+        removeOthers(n);
+        break;
+      case INFO:
+      case ROOM:
+        Node.build(root, c.path).setInfo(c.info);
+        break;
+      default:
+        break;
+      }
+    }
+  }
+
+  private static void remove(Node root, String path) {
+    final Node n = root.getDescendant(path);
+    if (n != null && n.getParent() != null) {
+      final Node room = n.getParent();
+      room.remove(n);
+      removeIfEmpty(room);
+    }
+  }
+
+  // Removes the old node of a player which moved from one room to another
+  private static void removeOthers(Node player) {
+    final Node room = player.getParent();
+    final Node module = room.getParent();
+    if (module == null) {
+      return;
+    }
+
+    final List<Node> empty = new ArrayList<>();
+    for (final Node r : module.getChildren()) {
+      if (r != room) {
+        final Node old = r.getChild(player.getId());
+        if (old != null) {
+          r.remove(old);
+          empty.add(r);
+        }
+      }
+    }
+    empty.forEach(ContentsDelta::removeIfEmpty);
+  }
+
+  // The server drops rooms when their last player leaves
+  private static void removeIfEmpty(Node room) {
+    if (room.getChildren().length == 0 && room.getParent() != null) {
+      room.getParent().remove(room);
+    }
+  }
+}
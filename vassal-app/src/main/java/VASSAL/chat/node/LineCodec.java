@@ -0,0 +1,164 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package VASSAL.chat.node;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Converts between the lines exchanged over a node connection and the bytes
+ * sent over the socket.
+ * <br><br>
+ * Lines start out as UTF-8 text, each ending with a newline. Once both ends
+ * have agreed to it, each direction becomes a single raw deflate stream,
+ * flushed after every line. As the compressor keeps its dictionary for the
+ * life of the connection, the repetitive commands sent during a game
+ * compress far better than when each message is compressed on its own.
+ * <br><br>
+ * Encoding may be done from any thread. Decoding must be done by one thread
+ * at a time, as the lines are handed to the consumer as they are found.
+ */
+class LineCodec {
+  private static final int BUFFER_SIZE = 8192;
+
+  private final Consumer<String> lines;
+  private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+  private final byte[] buf = new byte[BUFFER_SIZE];
+
+  private Deflater deflater;
+  private Inflater inflater;
+
+  /**
+   * @param lines receives each line decoded, without its line terminator
+   */
+  LineCodec(Consumer<String> lines) {
+    this.lines = lines;
+  }
+
+  /**
+   * @return the bytes to send for a line
+   */
+  synchronized byte[] encode(String msg) {
+    final byte[] b = (msg + '\n').getBytes(StandardCharsets.UTF_8);
+    if (deflater == null) {
+      return b;
+    }
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream(b.length / 2 + 16);
+    final byte[] chunk = new byte[Math.max(64, b.length)];
+    deflater.setInput(b);
+    int n;
+    do {
+      // SYNC_FLUSH makes all the input so far available to the other end
+      n = deflater.deflate(chunk, 0, chunk.length, Deflater.SYNC_FLUSH);
+      out.write(chunk, 0, n);
+    } while (n == chunk.length);
+    return out.toByteArray();
+  }
+
+  /**
+   * Compresses all lines encoded from now on
+   */
+  synchronized void startDeflating() {
+    if (deflater == null) {
+      deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    }
+  }
+
+  synchronized boolean isDeflating() {
+    return deflater != null;
+  }
+
+  /**
+   * Decompresses all bytes decoded from now on, including the remainder of
+   * any bytes being decoded when this is called
+   */
+  void startInflating() {
+    if (inflater == null) {
+      inflater = new Inflater(true);
+    }
+  }
+
+  /**
+   * Splits bytes read from the socket into lines. A partial line at the end
+   * is kept until the rest of it arrives.
+   *
+   * @throws IOException if compressed bytes are corrupt
+   */
+  void decode(byte[] b, int off, int len) throws IOException {
+    final int end = off + len;
+    int i = off;
+    while (i < end && inflater == null) {
+      decodeByte(b[i++]);
+    }
+
+    if (i < end) {
+      inflater.setInput(b, i, end - i);
+      try {
+        int n;
+        while ((n = inflater.inflate(buf)) > 0) {
+          for (int j = 0; j < n; ++j) {
+            decodeByte(buf[j]);
+          }
+        }
+      }
+      catch (DataFormatException e) {
+        throw new IOException(e);
+      }
+    }
+  }
+
+  /**
+   * Lines are split as {@link java.io.BufferedReader#readLine} does, except
+   * that a lone carriage return does not end a line. UTF-8 never uses the
+   * byte of a newline within another character.
+   */
+  private void decodeByte(byte c) {
+    if (c == '\n') {
+      final byte[] b = line.toByteArray();
+      line.reset();
+      final int len = b.length > 0 && b[b.length - 1] == '\r' ? b.length - 1 : b.length;
+      lines.accept(new String(b, 0, len, StandardCharsets.UTF_8));
+    }
+    else {
+      line.write(c);
+    }
+  }
+
+  /**
+   * Frees the native memory of the compressor. Must be called by the thread
+   * which decodes, once the connection is closed.
+   */
+  void end() {
+    synchronized (this) {
+      if (deflater != null) {
+        deflater.end();
+        deflater = null;
+      }
+    }
+    if (inflater != null) {
+      inflater.end();
+      inflater = null;
+    }
+  }
+}
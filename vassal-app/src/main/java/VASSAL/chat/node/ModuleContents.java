@@ -0,0 +1,122 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package VASSAL.chat.node;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The contents of a module as last sent to its players, from which the
+ * server computes the {@link ContentsDelta} to send when they change.
+ * Rooms are included only while they have players, as in the list sent by
+ * {@link Protocol#encodeListCommand}.
+ */
+class ModuleContents {
+  private static class Entry {
+    private final String path;
+    private final String info;
+
+    private Entry(String path, String info) {
+      this.path = path;
+      this.info = info;
+    }
+  }
+
+  private Map<String, Entry> players = new HashMap<>();
+  private Map<String, Entry> rooms = new HashMap<>();
+  private long seq;
+
+  // Players which asked for the whole list
+  private final Set<Node> listRequests = ConcurrentHashMap.newKeySet();
+
+  long getSeq() {
+    return seq;
+  }
+
+  void requestList(Node player) {
+    listRequests.add(player);
+  }
+
+  boolean takeListRequest(Node player) {
+    return listRequests.remove(player);
+  }
+
+  /**
+   * Records the current contents of the module.
+   *
+   * @param module the module
+   * @return the changes since the contents were last recorded, or
+   * {@code null} if there are none
+   */
+  ContentsDelta update(Node module) {
+    final Map<String, Entry> newPlayers = new HashMap<>();
+    final Map<String, Entry> newRooms = new HashMap<>();
+
+    for (final Node room : module.getChildren()) {
+      final Node[] children = room.getChildren();
+      for (final Node p : children) {
+        if (p.getPath() != null && p.getInfo() != null) {
+          newPlayers.put(p.getId(), new Entry(p.getPath(), p.getInfo()));
+        }
+      }
+      if (children.length > 0 && room.getInfo() != null && !room.getInfo().isEmpty()) {
+        newRooms.put(room.getId(), new Entry(room.getPath(), room.getInfo()));
+      }
+    }
+
+    final List<ContentsDelta.Change> changes = new ArrayList<>();
+
+    for (final Map.Entry<String, Entry> e : players.entrySet()) {
+      if (!newPlayers.containsKey(e.getKey())) {
+        changes.add(new ContentsDelta.Change(ContentsDelta.LEFT, e.getValue().path, null));
+      }
+    }
+
+    for (final Map.Entry<String, Entry> e : newPlayers.entrySet()) {
+      final Entry cur = e.getValue();
+      final Entry old = players.get(e.getKey());
+      if (old == null) {
+        changes.add(new ContentsDelta.Change(ContentsDelta.JOINED, cur.path, cur.info));
+      }
+      else if (!old.path.equals(cur.path)) {
+        changes.add(new ContentsDelta.Change(ContentsDelta.MOVED, cur.path, cur.info));
+      }
+      else if (!old.info.equals(cur.info)) {
+        changes.add(new ContentsDelta.Change(ContentsDelta.INFO, cur.path, cur.info));
+      }
+    }
+
+    // after the players, so that rooms which have just become occupied exist
+    for (final Map.Entry<String, Entry> e : newRooms.entrySet()) {
+      final Entry old = rooms.get(e.getKey());
+      if (old == null || !Objects.equals(old.info, e.getValue().info)) {
+        changes.add(new ContentsDelta.Change(ContentsDelta.ROOM, e.getValue().path, e.getValue().info));
+      }
+    }
+
+    players = newPlayers;
+    rooms = newRooms;
+
+    return changes.isEmpty() ? null : new ContentsDelta(++seq, changes);
+  }
+}
@@ -41,8 +41,8 @@ import VASSAL.tools.SequenceEncoder;
 public class Node implements MsgSender {
   private static final Logger logger = Logger.getLogger(MsgSender.class.getName());
   private final String id;
-  private String info;
-  private Node parent;
+  private volatile String info;
+  private volatile Node parent;
   private final List<Node> children = new ArrayList<>();
 
   public Node(Node parent, String id, String info) {
@@ -82,7 +82,9 @@ public class Node implements MsgSender {
 
   public void remove(Node child) {
     logger.finer("Removing " + child + " from " + this); //$NON-NLS-1$ //$NON-NLS-2$
-    children.remove(child);
+    synchronized (children) {
+      children.remove(child);
+    }
   }
 
   public void add(Node child) {
@@ -93,7 +95,9 @@ public class Node implements MsgSender {
       child.parent.remove(child);
     }
     logger.finer("Adding " + child + " to " + this); //$NON-NLS-1$ //$NON-NLS-2$
-    children.add(child);
+    synchronized (children) {
+      children.add(child);
+    }
     child.setParent(this);
   }
 
@@ -68,7 +68,7 @@ import VASSAL.tools.SequenceEncoder;
  */
 public class NodeClient implements LockableChatServerConnection,
     PlayerEncoder, ChatControlsInitializer, SocketWatcher {
-  public static final String ZIP_HEADER = "!ZIP!"; //$NON-NLS-1$
+  public static final String ZIP_HEADER = Protocol.ZIP_HEADER;
   protected PropertyChangeSupport propSupport = new PropertyChangeSupport(this);
   protected NodePlayer me;
   protected SimpleRoom currentRoom;
@@ -77,7 +77,7 @@ public class NodeClient implements LockableChatServerConnection,
   protected String moduleName;
   protected String playerId;
   protected MainRoomChecker checker = new MainRoomChecker();
-  protected int compressionLimit = 1000;
+  protected int compressionLimit = Protocol.ZIP_LIMIT;
   protected CommandEncoder encoder;
   protected RoomInteractionControlsInitializer roomControls;
   protected SimpleStatusControlsInitializer playerStatusControls;
@@ -89,6 +89,15 @@ public class NodeClient implements LockableChatServerConnection,
   protected PropertyChangeListener profileChangeListener;
   protected NodeRoom pendingSynchToRoom;
 
+  /**
+   * The server's contents as of the last list or delta, and the sequence
+   * number of the last delta applied to them, or -1 if deltas cannot be
+   * applied until the server sends the whole list
+   */
+  protected Node contents;
+  protected long contentsSeq = -1;
+  private boolean listRequested;
+
   private SocketHandler sender;
 
   protected final String host;
@@ -139,7 +148,8 @@ public class NodeClient implements LockableChatServerConnection,
         s.getClient(),
         s.getIp(),
         s.getModuleVersion(),
-        s.getCrc()
+        s.getCrc(),
+        s.isDeltaSynch()
       );
       p.setStatus(s);
       setUserInfo(p);
@@ -184,6 +194,11 @@ public class NodeClient implements LockableChatServerConnection,
         .getValue();
     send(Protocol.encodeRegisterCommand(me.getId(), path,
         new PropertiesEncoder(me.toProperties()).getStringValue()));
+    // Ask to be sent only changes to the list of players from now on
+    contents = null;
+    contentsSeq = -1;
+    listRequested = true;
+    send(Protocol.encodeListRequest());
     if (GameModule.getGameModule() != null) {
       final String username = (String) GameModule.getGameModule().getPrefs()
           .getValue("Login"); //$NON-NLS-1$
@@ -197,6 +212,7 @@ public class NodeClient implements LockableChatServerConnection,
     final Socket s = new Socket(host, port);
     sender = new SocketHandler(s, this);
     sender.start();
+    sender.requestCompression();
   }
 
   protected void closeConnection() {
@@ -260,11 +276,11 @@ public class NodeClient implements LockableChatServerConnection,
   public void forward(String receipientPath, String msg) {
     if (isConnected() && currentRoom != null && msg != null) {
       msg = checker.filter(msg, defaultRoomName, currentRoom.getName());
-      if (msg.length() > compressionLimit) {
+      // a compressed connection does better without compressing each
+      // message; the server zips it for players whose connections are not
+      if (msg.length() > compressionLimit && !sender.isCompressed()) {
         try {
-          msg = ZIP_HEADER + Base64.encodeBase64String(
-            Compressor.compress(msg.getBytes(StandardCharsets.UTF_8))
-          );
+          msg = Protocol.encodeZipped(msg);
         }
         // FIXME: review error message
         catch (final IOException e) {
@@ -467,23 +483,51 @@ public class NodeClient implements LockableChatServerConnection,
   public void handleMessageFromServer(String msg) {
     final Node n;
     final Properties p;
+    final ContentsDelta delta;
+    final long seq;
     if ((n = Protocol.decodeListCommand(msg)) != null) {
+      contents = n;
+      contentsSeq = -1;
       final Node mod = n.getChild(moduleName);
       if (mod != null) {
         updateRooms(mod);
       }
-      // Rooms have been updated with any new players (including us), so perform
-      // a Synchronize
-      // for a move to a new room if needed.
-      if (pendingSynchToRoom != null) {
-        new SynchAction(pendingSynchToRoom.getOwningPlayer(), this)
-            .actionPerformed(null);
-        pendingSynchToRoom = null;
-        GameModule.getGameModule().warn(
-            Resources.getString("Chat.synchronize_complete"));
+      synchToPendingRoom();
+    }
+    else if ((delta = Protocol.decodeDeltaCommand(msg)) != null) {
+      if (contents != null && contentsSeq >= 0 && delta.getSeq() == contentsSeq + 1) {
+        delta.applyTo(contents);
+        contentsSeq = delta.getSeq();
+        final Node mod = contents.getChild(moduleName);
+        if (mod != null) {
+          updateRooms(mod);
+        }
+        synchToPendingRoom();
+        propSupport.firePropertyChange(ROOM, null, currentRoom);
+        propSupport.firePropertyChange(AVAILABLE_ROOMS, null, allRooms);
+      }
+      else if (!listRequested) {
+        // We missed a delta, so start again from the whole list
+        contentsSeq = -1;
+        listRequested = true;
+        send(Protocol.encodeListRequest());
       }
     }
+    else if ((seq = Protocol.decodeListSeqCommand(msg)) >= 0) {
+      contentsSeq = seq;
+      listRequested = false;
+    }
     else if ((p = Protocol.decodeRoomsInfo(msg)) != null) {
+      // Keep the room info with the contents, for rebuilding the rooms after a delta
+      final Node mod = contents == null ? null : contents.getChild(moduleName);
+      if (mod != null) {
+        for (final String roomName : p.stringPropertyNames()) {
+          final Node room = mod.getChild(roomName);
+          if (room != null) {
+            room.setInfo(p.getProperty(roomName));
+          }
+        }
+      }
       for (final NodeRoom aRoom : allRooms) {
         final String infoString = p.getProperty(aRoom.getName());
         if (infoString != null && infoString.length() > 0) {
@@ -529,6 +573,18 @@ public class NodeClient implements LockableChatServerConnection,
     handleMessageFromServer(msg);
   }
 
+  // Rooms have been updated with any new players (including us), so perform
+  // a Synchronize for a move to a new room if needed.
+  private void synchToPendingRoom() {
+    if (pendingSynchToRoom != null) {
+      new SynchAction(pendingSynchToRoom.getOwningPlayer(), this)
+          .actionPerformed(null);
+      pendingSynchToRoom = null;
+      GameModule.getGameModule().warn(
+          Resources.getString("Chat.synchronize_complete"));
+    }
+  }
+
   protected void updateRooms(Node module) {
     final Node[] roomNodes = module.getChildren();
     final NodeRoom[] rooms = new NodeRoom[roomNodes.length];
@@ -637,7 +693,7 @@ public class NodeClient implements LockableChatServerConnection,
         .getValue(GameModule.PERSONAL_INFO), Info.getVersion(), s.getIp(), g
         .getGameVersion()
         + ((g.getArchiveWriter() == null) ? "" : " " + Resources.getString("Editor.NodeClient.editing")), Long
-        .toHexString(g.getCrc()));
+        .toHexString(g.getCrc()), true);
     me.setStatus(s);
     g.getPrefs().getOption(GameModule.PERSONAL_INFO).addPropertyChangeListener(
         profileChangeListener);
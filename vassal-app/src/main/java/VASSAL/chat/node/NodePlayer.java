@@ -70,7 +70,8 @@ public class NodePlayer extends SimplePlayer {
                     p.getProperty(SimpleStatus.CLIENT, ""), //$NON-NLS-1$
                     p.getProperty(SimpleStatus.IP, ""), //$NON-NLS-1$
                     p.getProperty(SimpleStatus.MODULE_VERSION, ""), //$NON-NLS-1$
-                    p.getProperty(SimpleStatus.CRC, ""))); //$NON-NLS-1$
+                    p.getProperty(SimpleStatus.CRC, ""), //$NON-NLS-1$
+                    "true".equals(p.getProperty(SimpleStatus.DELTA_SYNCH)))); //$NON-NLS-1$
   }
 
   public Properties toProperties() {
@@ -101,6 +102,7 @@ public class NodePlayer extends SimplePlayer {
     if (ip != null) {
       p1.put(SimpleStatus.CRC, crc);
     }
+    p1.put(SimpleStatus.DELTA_SYNCH, String.valueOf(status.isDeltaSynch()));
     p1.put(ID, id == null ? "" : id);
     return p1;
   }
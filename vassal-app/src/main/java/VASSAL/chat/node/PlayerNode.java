@@ -19,6 +19,7 @@ package VASSAL.chat.node;
 
 import java.io.IOException;
 import java.net.Socket;
+import java.nio.channels.SocketChannel;
 import java.util.Objects;
 import java.util.Properties;
 
@@ -35,6 +36,7 @@ public class PlayerNode extends Node implements SocketWatcher {
   protected String id;
   protected String info;
   private final AsynchronousServerNode server;
+  private volatile boolean deltas;
   private static ConnectionLimiter connLimiter = new ConnectionLimiter();
 
   public PlayerNode(Socket socket, AsynchronousServerNode server) throws IOException {
@@ -44,6 +46,17 @@ public class PlayerNode extends Node implements SocketWatcher {
     input.start();
   }
 
+  /**
+   * A player connected through a non-blocking channel of a {@link Server}.
+   * Must be called on the server's selector thread.
+   */
+  public PlayerNode(SocketChannel channel, Server selector, AsynchronousServerNode server) {
+    super(null, null, null);
+    this.server = server;
+    input = new ChannelSocketHandler(channel, selector, this);
+    input.start();
+  }
+
   @Override
   public String getId() {
     return id;
@@ -66,6 +79,22 @@ public class PlayerNode extends Node implements SocketWatcher {
     return info + (ip.length() > 0 ? "|ip=" + ip : ""); //NON-NLS
   }
 
+  /**
+   * @return whether the player's client understands {@link ContentsDelta}s
+   * @since 3.5.0
+   */
+  public boolean acceptsDeltas() {
+    return deltas;
+  }
+
+  /**
+   * @return whether the lines sent to the player are compressed
+   * @since 3.5.0
+   */
+  public boolean isCompressed() {
+    return input.isCompressed();
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
@@ -131,6 +160,10 @@ public class PlayerNode extends Node implements SocketWatcher {
     else if ((cmd = Protocol.decodeLoginCommand(line)) != null) {
       connLimiter.register(cmd, input);
     }
+    else if (Protocol.decodeListRequest(line)) {
+      deltas = true;
+      server.requestContents(this);
+    }
   }
 
   @Override
@@ -18,8 +18,14 @@
 package VASSAL.chat.node;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
+import org.apache.commons.codec.binary.Base64;
+
+import VASSAL.chat.Compressor;
 import VASSAL.tools.PropertiesEncoder;
 import VASSAL.tools.SequenceEncoder;
 
@@ -40,6 +46,17 @@ public class Protocol {
   public static final String ROOM_INFO = "ROOM_INFO\t"; //$NON-NLS-1$
   public static final String LOGIN = "LOGIN\t"; //$NON-NLS-1$
   public static final String KICK = "KICK\t"; //$NON-NLS-1$
+  public static final String LIST_REQUEST = "LIST_REQUEST\t"; //$NON-NLS-1$
+  public static final String LIST_SEQ = "LIST_SEQ\t"; //$NON-NLS-1$
+  public static final String DELTA = "DELTA\t"; //$NON-NLS-1$
+  public static final String ZIP_HEADER = "!ZIP!"; //$NON-NLS-1$
+
+  /**
+   * Forwarded messages longer than this are zipped for players whose
+   * connections are not compressed
+   * @since 3.5.0
+   */
+  public static final int ZIP_LIMIT = 1000;
 
   /**
    * Contains registration information sent when a client initially connects to
@@ -133,6 +150,21 @@ public class Protocol {
     return info;
   }
 
+  /**
+   * Zips and Base64-encodes a message forwarded from one client to another.
+   * Every client decodes messages beginning with {@link #ZIP_HEADER}.
+   *
+   * @param message
+   * @return
+   * @throws IOException
+   * @since 3.5.0
+   */
+  public static String encodeZipped(String message) throws IOException {
+    return ZIP_HEADER + Base64.encodeBase64String(
+      Compressor.compress(message.getBytes(StandardCharsets.UTF_8))
+    );
+  }
+
   /**
    * Sent when a player updates his personal information
    *
@@ -261,6 +293,98 @@ public class Protocol {
     return node;
   }
 
+  /**
+   * Sent by a client which understands {@link #encodeDeltaCommand}, to ask
+   * for the whole list of players, followed by {@link #encodeListSeqCommand},
+   * after which it is sent only changes to the list
+   *
+   * @return
+   * @since 3.5.0
+   */
+  public static String encodeListRequest() {
+    return LIST_REQUEST;
+  }
+
+  public static boolean decodeListRequest(String cmd) {
+    return cmd.startsWith(LIST_REQUEST);
+  }
+
+  /**
+   * Sent after the list of players and the rooms info in reply to
+   * {@link #encodeListRequest}, giving the sequence number of the last
+   * {@link ContentsDelta} which the list includes
+   *
+   * @param seq
+   * @return
+   * @since 3.5.0
+   */
+  public static String encodeListSeqCommand(long seq) {
+    return LIST_SEQ + seq;
+  }
+
+  /**
+   * @see #encodeListSeqCommand
+   * @return the sequence number, or -1 if {@code cmd} is not a list sequence command
+   */
+  public static long decodeListSeqCommand(String cmd) {
+    if (cmd.startsWith(LIST_SEQ)) {
+      try {
+        return Long.parseLong(cmd.substring(LIST_SEQ.length()));
+      }
+      catch (NumberFormatException e) {
+        return -1;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Changes to the players and rooms of a module since the last delta
+   *
+   * @param delta
+   * @return
+   * @since 3.5.0
+   */
+  public static String encodeDeltaCommand(ContentsDelta delta) {
+    final SequenceEncoder se = new SequenceEncoder('\t');
+    se.append(delta.getSeq());
+    for (final ContentsDelta.Change c : delta.getChanges()) {
+      se.append(
+        new SequenceEncoder(String.valueOf(c.op), '=')
+          .append(c.path)
+          .append(c.info)
+          .getValue()
+      );
+    }
+    return DELTA + se.getValue();
+  }
+
+  /**
+   * @see #encodeDeltaCommand
+   * @param cmd
+   * @return
+   * @since 3.5.0
+   */
+  public static ContentsDelta decodeDeltaCommand(String cmd) {
+    ContentsDelta delta = null;
+    if (cmd.startsWith(DELTA)) {
+      final SequenceEncoder.Decoder st = new SequenceEncoder.Decoder(cmd, DELTA.length(), cmd.length(), '\t');
+      final long seq = st.nextLong(-1);
+      final List<ContentsDelta.Change> changes = new ArrayList<>();
+      while (st.hasMoreTokens()) {
+        final SequenceEncoder.Decoder st2 = new SequenceEncoder.Decoder(st.nextToken(), '=');
+        final String op = st2.nextToken("");
+        final String path = st2.nextToken("");
+        final String info = st2.nextToken(null);
+        if (op.length() == 1 && !path.isEmpty()) {
+          changes.add(new ContentsDelta.Change(op.charAt(0), path, info));
+        }
+      }
+      delta = new ContentsDelta(seq, changes);
+    }
+    return delta;
+  }
+
   public static boolean decodeRegisterRequest(String cmd) {
     return cmd.startsWith(REG_REQUEST);
   }
@@ -19,23 +19,52 @@ package VASSAL.chat.node;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.net.ServerSocket;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.nio.charset.Charset;
+import java.util.Iterator;
 import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import VASSAL.tools.ArgsParser;
 
 /**
- * The server-side Main class
+ * The server-side Main class.
+ * <br><br>
+ * All client connections are serviced by this single thread through a {@link Selector}, rather
+ * than by a pair of threads for each connection. Messages received are handled on a small pool
+ * of worker threads; see {@link ChannelSocketHandler}.
  */
 public class Server extends Thread {
+  private static final long KEEP_ALIVE_INTERVAL = 1000L * 60 * 2;
+  private static final long KEEP_ALIVE_CHECK = 1000L * 10;
+
   private final AsynchronousServerNode rootNode;
-  private final ServerSocket socket;
+  private final Selector selector;
+  private final ServerSocketChannel socket;
+  private final ExecutorService workers;
+  private final Queue<ChannelSocketHandler> writeRequests = new ConcurrentLinkedQueue<>();
+  private volatile boolean running = true;
 
   public Server(AsynchronousServerNode rootNode, int port) throws IOException {
+    super("chat server"); //NON-NLS
     this.rootNode = rootNode;
-    socket = new ServerSocket(port);
+    selector = Selector.open();
+    socket = ServerSocketChannel.open();
+    socket.bind(new InetSocketAddress(port));
+    socket.configureBlocking(false);
+    socket.register(selector, SelectionKey.OP_ACCEPT);
+    workers = Executors.newFixedThreadPool(
+      Math.max(2, Runtime.getRuntime().availableProcessors()),
+      r -> new Thread(r, "chat worker") //NON-NLS
+    );
     System.err.println("Started server on port " + port); //$NON-NLS-1$
     start();
   }
@@ -43,10 +72,35 @@ public class Server extends Thread {
   @Override
   public void run() {
     int consecutiveFailures = 0;
-    while (consecutiveFailures < 10) {
+    long lastKeepAliveCheck = System.currentTimeMillis();
+    while (running && consecutiveFailures < 10) {
       try {
-        final Socket s = socket.accept();
-        new PlayerNode(s, rootNode);
+        selector.select(KEEP_ALIVE_CHECK);
+
+        for (ChannelSocketHandler h = writeRequests.poll(); h != null; h = writeRequests.poll()) {
+          h.enableWrite();
+        }
+
+        final Iterator<SelectionKey> i = selector.selectedKeys().iterator();
+        while (i.hasNext()) {
+          final SelectionKey key = i.next();
+          i.remove();
+          if (!key.isValid()) {
+            continue;
+          }
+          if (key.isAcceptable()) {
+            accept();
+          }
+          else {
+            ((ChannelSocketHandler) key.attachment()).handleReady();
+          }
+        }
+
+        final long now = System.currentTimeMillis();
+        if (now - lastKeepAliveCheck >= KEEP_ALIVE_CHECK) {
+          lastKeepAliveCheck = now;
+          sendKeepAlives(now);
+        }
         consecutiveFailures = 0;
       }
       // FIXME: review error message
@@ -55,7 +109,79 @@ public class Server extends Thread {
         consecutiveFailures++;
       }
     }
-    System.exit(1);
+
+    if (running) {
+      System.exit(1);
+    }
+
+    try {
+      selector.close();
+      socket.close();
+    }
+    catch (final IOException ignore) {
+    }
+    workers.shutdown();
+  }
+
+  private void accept() throws IOException {
+    for (SocketChannel ch = socket.accept(); ch != null; ch = socket.accept()) {
+      ch.configureBlocking(false);
+      connect(ch);
+    }
+  }
+
+  /**
+   * Attaches a player to a newly accepted connection. Called on the selector thread.
+   */
+  void connect(SocketChannel channel) {
+    new PlayerNode(channel, this, rootNode);
+  }
+
+  /**
+   * @return the port on which connections are accepted
+   */
+  int getPort() {
+    return socket.socket().getLocalPort();
+  }
+
+  /**
+   * Stops accepting and servicing connections
+   */
+  void shutdown() {
+    running = false;
+    selector.wakeup();
+  }
+
+  private void sendKeepAlives(long now) {
+    for (final SelectionKey key : selector.keys()) {
+      final Object h = key.attachment();
+      if (h instanceof ChannelSocketHandler &&
+          now - ((ChannelSocketHandler) h).getLastWrite() >= KEEP_ALIVE_INTERVAL) {
+        ((ChannelSocketHandler) h).writeLine("");
+      }
+    }
+  }
+
+  /**
+   * Registers a connection for reading. Must be called on the selector thread.
+   */
+  SelectionKey register(SocketChannel channel, ChannelSocketHandler handler) throws IOException {
+    return channel.register(selector, SelectionKey.OP_READ, handler);
+  }
+
+  /**
+   * Asks the selector thread to write the lines queued by a connection
+   */
+  void requestWrite(ChannelSocketHandler handler) {
+    writeRequests.add(handler);
+    selector.wakeup();
+  }
+
+  /**
+   * Runs a task on the worker threads
+   */
+  void execute(Runnable task) {
+    workers.execute(task);
   }
 
   public static void main(String[] args) throws Exception {
@@ -21,9 +21,14 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import VASSAL.tools.PropertiesEncoder;
@@ -32,6 +37,11 @@ import VASSAL.tools.SequenceEncoder;
 public class ServerNode extends Node {
   private static final Logger logger = Logger.getLogger(ServerNode.class.getName());
   private final SendContentsTask sendContents;
+  private final Map<String, ModuleContents> contents = new ConcurrentHashMap<>();
+  // Changes within one module hold the read lock and lock the module node;
+  // adding or removing a module, or moving a player between modules, holds
+  // the write lock
+  private final ReadWriteLock treeLock = new ReentrantReadWriteLock();
 
   public ServerNode() {
     super(null, null, null);
@@ -40,12 +50,55 @@ public class ServerNode extends Node {
     t.schedule(sendContents, 0, 1000);
   }
 
-  public synchronized void forward(String senderPath, String msg) {
-    final MsgSender target = getMsgSender(senderPath);
-    target.send(msg);
+  /**
+   * Sends a message to the nodes matching a path. Routing messages does not lock the whole
+   * server: each node's list of children is locked only while it is copied, so messages to
+   * different rooms proceed in parallel. Changes to the structure of the tree (registering,
+   * moving and disconnecting players) lock only the module they change, so they are made one
+   * at a time within a module, and in parallel across modules.
+   */
+  public void forward(String senderPath, String msg) {
+    // Clients on compressed connections do not zip their long messages,
+    // so zip those again for the players who would otherwise receive them
+    // uncompressed. Older clients never compress their connections.
+    if (msg.length() <= Protocol.ZIP_LIMIT || msg.startsWith(Protocol.ZIP_HEADER)) {
+      getMsgSender(senderPath).send(msg);
+      return;
+    }
+
+    String zipped = null;
+    for (final Node target : getTargets(senderPath)) {
+      for (final Node p : target.isLeaf() ? new Node[]{target} : target.getLeafDescendants()) {
+        if (p instanceof PlayerNode && ((PlayerNode) p).isCompressed()) {
+          p.send(msg);
+        }
+        else {
+          if (zipped == null) {
+            try {
+              zipped = Protocol.encodeZipped(msg);
+            }
+            catch (IOException e) {
+              logger.log(Level.WARNING, "Unable to zip message", e); //$NON-NLS-1$
+              zipped = msg;
+            }
+          }
+          p.send(zipped);
+        }
+      }
+    }
+  }
+
+  public MsgSender getMsgSender(String path) {
+    final MsgSender[] senders = getTargets(path);
+
+    return msg -> {
+      for (final MsgSender sender : senders) {
+        sender.send(msg);
+      }
+    };
   }
 
-  public synchronized MsgSender getMsgSender(String path) {
+  private Node[] getTargets(String path) {
     Node[] target = {this};
     final SequenceEncoder.Decoder st = new SequenceEncoder.Decoder(path, '/');
     while (st.hasMoreTokens()) {
@@ -85,40 +138,150 @@ public class ServerNode extends Node {
       }
     }
 
-    final MsgSender[] senders = Arrays.copyOf(target, target.length);
+    return target;
+  }
 
-    return msg -> {
-      for (final MsgSender sender : senders) {
-        sender.send(msg);
+  public void disconnect(Node target) {
+    final Node mod;
+    final boolean empty;
+    treeLock.readLock().lock();
+    try {
+      mod = getModule(target);
+      if (mod == null) {
+        return;
       }
-    };
-  }
+      synchronized (mod) {
+        // the player cannot have left the module while it was unlocked,
+        // other than by being moved to another, under the write lock
+        if (getModule(target) != mod) {
+          return;
+        }
+        final Node room = target.getParent();
+        room.remove(target);
+        if (room.getChildren().length == 0) {
+          room.getParent().remove(room);
+        }
+        empty = mod.getChildren().length == 0;
+      }
+    }
+    finally {
+      treeLock.readLock().unlock();
+    }
 
-  public synchronized void disconnect(Node target) {
-    final Node mod = getModule(target);
-    if (mod != null) {
-      final Node room = target.getParent();
-      room.remove(target);
-      if (room.getChildren().length == 0) {
-        room.getParent().remove(room);
+    if (empty) {
+      treeLock.writeLock().lock();
+      try {
+        // unless a player has joined it since
+        if (mod.getChildren().length == 0) {
+          remove(mod);
+        }
       }
-      if (mod.getChildren().length == 0) {
-        remove(mod);
+      finally {
+        treeLock.writeLock().unlock();
       }
-      sendContents(mod);
     }
+    sendContents(mod);
   }
 
-  protected synchronized void sendContents(Node module) {
+  protected void sendContents(Node module) {
     sendContents.markChanged(module);
   }
 
-  public synchronized void registerNode(String parentPath, Node newNode) {
-    final Node newParent = Node.build(this, parentPath);
-    newParent.add(newNode);
-    final Node module = getModule(newParent);
-    if (module != null) {
-      sendContents(module);
+  public void registerNode(String parentPath, Node newNode) {
+    final String moduleId = new SequenceEncoder.Decoder(parentPath, '/').nextToken(null);
+    treeLock.readLock().lock();
+    try {
+      final Node module = moduleId == null ? null : getChild(moduleId);
+      if (module != null && newNode.getParent() == null) {
+        synchronized (module) {
+          Node.build(this, parentPath).add(newNode);
+        }
+        sendContents(module);
+        return;
+      }
+    }
+    finally {
+      treeLock.readLock().unlock();
+    }
+
+    // the module is new, or the player is leaving another
+    treeLock.writeLock().lock();
+    try {
+      final Node newParent = Node.build(this, parentPath);
+      newParent.add(newNode);
+      final Node module = getModule(newParent);
+      if (module != null) {
+        sendContents(module);
+      }
+    }
+    finally {
+      treeLock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * A player has asked for the whole list of players, and to be sent only
+   * changes to it from then on.
+   *
+   * @param player the player
+   * @since 3.5.0
+   */
+  public void requestContents(Node player) {
+    final Node mod = getModule(player);
+    if (mod != null) {
+      contents.computeIfAbsent(mod.getId(), k -> new ModuleContents()).requestList(player);
+      sendContents(mod);
+    }
+  }
+
+  /**
+   * Sends the players of a module the changes to its contents. Players who
+   * understand {@link ContentsDelta}s are sent only the changes since the
+   * last time; others, the whole list.
+   *
+   * @param module the module
+   * @since 3.5.0
+   */
+  protected void sendModuleContents(Node module) {
+    final ModuleContents mc = contents.computeIfAbsent(module.getId(), k -> new ModuleContents());
+
+    final Node[] players = module.getLeafDescendants();
+    final Node[] rooms = module.getChildren();
+    final ContentsDelta delta = mc.update(module);
+
+    String listCommand = null;
+    String roomInfo = null;
+    String deltaCommand = null;
+
+    for (final Node p : players) {
+      final boolean deltas = p instanceof PlayerNode && ((PlayerNode) p).acceptsDeltas();
+      final boolean whole = mc.takeListRequest(p);
+      if (deltas && !whole) {
+        if (delta != null) {
+          if (deltaCommand == null) {
+            deltaCommand = Protocol.encodeDeltaCommand(delta);
+            logger.finer(deltaCommand);
+          }
+          p.send(deltaCommand);
+        }
+      }
+      else if (delta != null || whole) {
+        if (listCommand == null) {
+          listCommand = Protocol.encodeListCommand(players);
+          logger.finer(listCommand);
+          roomInfo = Protocol.encodeRoomsInfo(rooms);
+          logger.finer(roomInfo);
+        }
+        p.send(listCommand);
+        p.send(roomInfo);
+        if (deltas) {
+          p.send(Protocol.encodeListSeqCommand(mc.getSeq()));
+        }
+      }
+    }
+
+    if (players.length == 0) {
+      contents.remove(module.getId());
     }
   }
 
@@ -130,20 +293,45 @@ public class ServerNode extends Node {
     return module;
   }
 
-  public synchronized void move(Node target, String newParentPath) {
-    final Node oldMod = getModule(target);
-    final Node newParent = Node.build(this, newParentPath);
-    newParent.add(target);
-    final Node mod = getModule(newParent);
-    if (mod != null) {
-      sendContents(mod);
+  public void move(Node target, String newParentPath) {
+    final String moduleId = new SequenceEncoder.Decoder(newParentPath, '/').nextToken(null);
+    treeLock.readLock().lock();
+    try {
+      final Node mod = getModule(target);
+      if (mod != null && mod.getId().equals(moduleId)) {
+        synchronized (mod) {
+          if (getModule(target) == mod) {
+            // a move between rooms of the same module
+            Node.build(this, newParentPath).add(target);
+            sendContents(mod);
+            return;
+          }
+        }
+      }
+    }
+    finally {
+      treeLock.readLock().unlock();
+    }
+
+    treeLock.writeLock().lock();
+    try {
+      final Node oldMod = getModule(target);
+      final Node newParent = Node.build(this, newParentPath);
+      newParent.add(target);
+      final Node mod = getModule(newParent);
+      if (mod != null) {
+        sendContents(mod);
+      }
+      if (oldMod != mod && oldMod != null) {
+        sendContents(oldMod);
+      }
     }
-    if (oldMod != mod && oldMod != null) {
-      sendContents(oldMod);
+    finally {
+      treeLock.writeLock().unlock();
     }
   }
 
-  public synchronized void updateInfo(Node target) {
+  public void updateInfo(Node target) {
     final Node mod = getModule(target);
     if (mod != null) {
       sendContents(mod);
@@ -157,7 +345,7 @@ public class ServerNode extends Node {
    * @param kicker Id of Kicking player
    * @param kickeeId Id of Player to be kicked
    */
-  public synchronized void kick(PlayerNode kicker, String kickeeId) {
+  public void kick(PlayerNode kicker, String kickeeId) {
     // Check the kicker owns the room he is in
     final Node roomNode = kicker.getParent();
     final String roomOwnerId;
@@ -181,7 +369,7 @@ public class ServerNode extends Node {
     move(kickeeNode, defaultRoomNode.getPath());
   }
 
-  private static class SendContentsTask extends TimerTask {
+  private class SendContentsTask extends TimerTask {
     // FIXME: should modules be wrapped by Collections.synchronizedMap()?
     private final Set<Node> modules = new HashSet<>();
 
@@ -199,14 +387,7 @@ public class ServerNode extends Node {
       }
       for (final Node module : s) {
         logger.fine("Sending contents of " + module.getId()); //$NON-NLS-1$
-        final Node[] players = module.getLeafDescendants();
-        final Node[] rooms = module.getChildren();
-        final String listCommand = Protocol.encodeListCommand(players);
-        module.send(listCommand);
-        logger.finer(listCommand);
-        final String roomInfo = Protocol.encodeRoomsInfo(rooms);
-        module.send(roomInfo);
-        logger.finer(roomInfo);
+        sendModuleContents(module);
       }
       synchronized (modules) {
         modules.clear();
@@ -17,35 +17,64 @@
  */
 package VASSAL.chat.node;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.InputStreamReader;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.InetAddress;
 import java.net.Socket;
-import java.nio.charset.StandardCharsets;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class SocketHandler {
   private final Socket sock;
   private final SocketWatcher handler;
-  private final BufferedReader reader;
-  private final BufferedWriter writer;
+  private final InputStream reader;
+  private final OutputStream writer;
   private final BlockingQueue<String> writeQueue = new LinkedBlockingQueue<>();
   private boolean isOpen = true;
   private Thread readThread = null;
   private Thread writeThread = null;
 
-  private static final String SIGN_OFF = "!BYE"; //$NON-NLS-1$
+  private final LineCodec codec;
+  private final AtomicBoolean deflateSent = new AtomicBoolean();
+  private volatile boolean signedOff = false;
+
+  static final String SIGN_OFF = "!BYE"; //$NON-NLS-1$
+
+  /**
+   * Sent by a client to ask that the connection be compressed. Servers
+   * which do not understand it ignore it, as they do any unknown command.
+   */
+  static final String DEFLATE_REQUEST = "!DEFLATE?"; //$NON-NLS-1$
+
+  /**
+   * The last line sent uncompressed. Each end sends it once, in answer to
+   * {@link #DEFLATE_REQUEST} or to the other end's {@link #DEFLATE}, and
+   * compresses everything it sends afterwards.
+   */
+  static final String DEFLATE = "!DEFLATE"; //$NON-NLS-1$
 
   public SocketHandler(Socket sock, SocketWatcher handler) throws IOException {
     this.sock = sock;
     this.handler = handler;
-    reader = new BufferedReader(new InputStreamReader(sock.getInputStream(), StandardCharsets.UTF_8));
-    writer = new BufferedWriter(new OutputStreamWriter(sock.getOutputStream(), StandardCharsets.UTF_8));
+    reader = sock.getInputStream();
+    writer = new BufferedOutputStream(sock.getOutputStream());
+    codec = new LineCodec(this::readLine);
+  }
+
+  /**
+   * For subclasses which do their own I/O instead of using a blocking {@link Socket}.
+   * They must override {@link #start}, {@link #writeLine}, {@link #close} and {@link #getInetAddress}.
+   */
+  protected SocketHandler(SocketWatcher handler) {
+    this.sock = null;
+    this.handler = handler;
+    reader = null;
+    writer = null;
+    codec = null;
   }
 
   public void start() {
@@ -59,23 +88,11 @@ public class SocketHandler {
 
   private Thread startReadThread() {
     final Runnable r = () -> {
-      String line;
+      final byte[] buf = new byte[8192];
+      int n;
       try {
-        while ((line = reader.readLine()) != null) {
-          if (SIGN_OFF.equals(line)) {
-            break;
-          }
-          else if (line.length() > 0) {
-            try {
-              handler.handleMessage(line);
-            }
-            catch (Exception e) {
-              // FIXME: review error message
-              // Handler threw an exception.  Keep reading.
-              System.err.println("Caught " + e.getClass().getName() + " handling " + line); //$NON-NLS-1$ //$NON-NLS-2$
-              e.printStackTrace();
-            }
-          }
+        while (!signedOff && (n = reader.read(buf)) >= 0) {
+          codec.decode(buf, 0, n);
         }
       }
       catch (IOException ignore) {
@@ -138,9 +155,85 @@ public class SocketHandler {
     return t;
   }
 
+  private void readLine(String line) {
+    if (signedOff) {
+      return;
+    }
+
+    if (SIGN_OFF.equals(line)) {
+      signedOff = true;
+    }
+    else if (!negotiate(line, codec::startInflating) && line.length() > 0) {
+      try {
+        handler.handleMessage(line);
+      }
+      catch (Exception e) {
+        // FIXME: review error message
+        // Handler threw an exception.  Keep reading.
+        System.err.println("Caught " + e.getClass().getName() + " handling " + line); //$NON-NLS-1$ //$NON-NLS-2$
+        e.printStackTrace();
+      }
+    }
+  }
+
+  /**
+   * Handles the lines by which the two ends agree to compress the connection.
+   *
+   * @param line a line received
+   * @param startInflating decompresses the remainder of the input
+   * @return whether the line was part of the negotiation
+   */
+  boolean negotiate(String line, Runnable startInflating) {
+    if (DEFLATE_REQUEST.equals(line)) {
+      sendDeflate();
+      return true;
+    }
+    else if (DEFLATE.equals(line)) {
+      startInflating.run();
+      sendDeflate();
+      return true;
+    }
+    return false;
+  }
+
+  private void sendDeflate() {
+    if (deflateSent.compareAndSet(false, true)) {
+      writeDeflate();
+    }
+  }
+
+  /**
+   * Sends {@link #DEFLATE}, then compresses everything sent afterwards
+   */
+  protected void writeDeflate() {
+    // the write thread switches once it has written the line
+    writeLine(DEFLATE);
+  }
+
+  /**
+   * Asks the other end to compress the connection. Nothing changes if it
+   * does not understand the request.
+   *
+   * @since 3.5.0
+   */
+  public void requestCompression() {
+    writeLine(DEFLATE_REQUEST);
+  }
+
+  /**
+   * @return whether the lines this end sends are compressed
+   * @since 3.5.0
+   */
+  public boolean isCompressed() {
+    return deflateSent.get();
+  }
+
   private void writeNext(String line) throws IOException {
-    writer.write(line + '\n');
+    writer.write(codec.encode(line));
     writer.flush();
+    if (DEFLATE.equals(line)) {
+      codec.startDeflating();
+    }
   }
 
   public void writeLine(String pMessage) {
@@ -58,7 +58,7 @@ public class SimpleStatusControlsInitializer implements ChatControlsInitializer
         if (client != null) {
           final Player p = client.getUserInfo();
           SimpleStatus s = (SimpleStatus) p.getStatus();
-          s = new SimpleStatus(!s.isLooking(), s.isAway(), s.getProfile(), s.getClient(), s.getIp(), s.getModuleVersion(), s.getCrc());
+          s = new SimpleStatus(!s.isLooking(), s.isAway(), s.getProfile(), s.getClient(), s.getIp(), s.getModuleVersion(), s.getCrc(), s.isDeltaSynch());
           client.setUserInfo(new SimplePlayer(p.getId(), p.getName(), s));
         }
       });
@@ -76,11 +76,11 @@ public class SimpleStatusControlsInitializer implements ChatControlsInitializer
       if (client != null) {
         final Player p = client.getUserInfo();
         SimpleStatus s = (SimpleStatus) p.getStatus();
-        s = new SimpleStatus(s.isLooking(), true, s.getProfile(), s.getClient(), s.getIp(), s.getModuleVersion(), s.getCrc());
+        s = new SimpleStatus(s.isLooking(), true, s.getProfile(), s.getClient(), s.getIp(), s.getModuleVersion(), s.getCrc(), s.isDeltaSynch());
         client.setUserInfo(new SimplePlayer(p.getId(), p.getName(), s));
         JOptionPane.showMessageDialog(controls.getRoomTree(), Resources.getString("Chat.im_back"), Resources.getString("Chat.away_from_keyboard"), JOptionPane.PLAIN_MESSAGE); //$NON-NLS-1$ //$NON-NLS-2$
         s = (SimpleStatus) p.getStatus();
-        s = new SimpleStatus(s.isLooking(), false, s.getProfile(), s.getClient(), s.getIp(), s.getModuleVersion(), s.getCrc());
+        s = new SimpleStatus(s.isLooking(), false, s.getProfile(), s.getClient(), s.getIp(), s.getModuleVersion(), s.getCrc(), s.isDeltaSynch());
         client.setUserInfo(new SimplePlayer(p.getId(), p.getName(), s));
       }
     });
@@ -23,12 +23,16 @@ import javax.swing.AbstractAction;
 import javax.swing.JTree;
 
 import VASSAL.build.GameModule;
+import VASSAL.build.module.GameState;
 import VASSAL.chat.ChatServerConnection;
 import VASSAL.chat.LockableChatServerConnection;
 import VASSAL.chat.Player;
 import VASSAL.chat.Room;
 import VASSAL.chat.SimplePlayer;
+import VASSAL.chat.SimpleStatus;
+import VASSAL.chat.SynchCheckCommand;
 import VASSAL.chat.SynchCommand;
+import VASSAL.chat.SynchDigest;
 import VASSAL.i18n.Resources;
 
 /**
@@ -37,6 +41,10 @@ import VASSAL.i18n.Resources;
  *  - Cannot Synch with a player in a different room
  *  - Cannot Synch with yourself
  *  - Cannot Synch with any player in the same room within 15 seconds of your last synch in this room
+ *
+ * If we already have a game with pieces in it, e.g. the last save, and the
+ * other player's client reports that it knows how, only the differences
+ * between the two games are requested.
  */
 public class SynchAction extends AbstractAction {
   private static final long serialVersionUID = 1L;
@@ -81,15 +89,29 @@ public class SynchAction extends AbstractAction {
     if (isEnabled()) {
       final long now = System.currentTimeMillis();
       if (! targetRoom.equals(lastRoom) || (now - lastSync) > TOO_SOON) {
-        GameModule.getGameModule().setGameFileMode(GameModule.GameFileMode.NEW_GAME);
-        GameModule.getGameModule().getGameState().setup(false);
-        client.sendTo(p, new SynchCommand(client.getUserInfo(), client));
+        final GameState gs = GameModule.getGameModule().getGameState();
+        if (canSynchDelta(gs)) {
+          client.sendTo(p, new SynchCommand(client.getUserInfo(), client, SynchDigest.of(gs)));
+          SynchCheckCommand.await(p, client);
+        }
+        else {
+          GameModule.getGameModule().setGameFileMode(GameModule.GameFileMode.NEW_GAME);
+          gs.setup(false);
+          client.sendTo(p, new SynchCommand(client.getUserInfo(), client));
+        }
         lastSync = now;
       }
       lastRoom = targetRoom;
     }
   }
 
+  private boolean canSynchDelta(GameState gs) {
+    if (!gs.isGameStarted() || gs.getAllPieces().isEmpty()) {
+      return false;
+    }
+    return p.getStatus() instanceof SimpleStatus && ((SimpleStatus) p.getStatus()).isDeltaSynch();
+  }
+
   public static PlayerActionFactory factory(final ChatServerConnection client) {
     return (SimplePlayer p, JTree tree) -> {
       final Room r = client.getRoom();
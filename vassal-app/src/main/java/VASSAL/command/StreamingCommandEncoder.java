@@ -0,0 +1,363 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package VASSAL.command;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Encodes compound {@link Command}s to a {@link Writer} and decodes them from a {@link Reader}, producing
+ * exactly the same text as {@link VASSAL.build.GameModule#encode} and {@link VASSAL.build.GameModule#decode},
+ * which join the encoded subcommands with a {@link VASSAL.tools.SequenceEncoder}.
+ * <br><br>
+ * Instead of building the whole encoded String, each subcommand is written to the stream as soon as it has
+ * been encoded by the {@link CommandEncoder} for single commands, escaping delimiters on the fly for nested
+ * compound commands. Decoding likewise reads one subcommand at a time, so that the memory needed to save or
+ * load a game is proportional to the largest single command rather than to the whole game.
+ */
+public class StreamingCommandEncoder {
+  private final CommandEncoder encoder;
+  private final char delim;
+
+  /**
+   * @param encoder translates single (not compound) commands
+   * @param delimiter separates the subcommands of a compound command
+   */
+  public StreamingCommandEncoder(CommandEncoder encoder, char delimiter) {
+    this.encoder = encoder;
+    this.delim = delimiter;
+  }
+
+  /**
+   * Writes a compound command. Writes nothing if the command cannot be encoded.
+   * @param c Command to encode
+   * @param out destination
+   * @throws IOException oops
+   */
+  public void encode(Command c, Writer out) throws IOException {
+    if (c != null) {
+      writeCommand(c, encoder.encode(c), out);
+    }
+  }
+
+  /**
+   * @param c Command to encode
+   * @return the encoded command, or null if it cannot be encoded
+   */
+  public String encode(Command c) {
+    if (c == null || (c.getSubCommands().length == 0 && encoder.encode(c) == null)) {
+      return null;
+    }
+    final StringWriter out = new StringWriter();
+    try {
+      encode(c, out);
+    }
+    catch (IOException e) {
+      // StringWriter does not throw
+      throw new UncheckedIOException(e);
+    }
+    return out.toString();
+  }
+
+  private void writeCommand(Command c, String head, Writer out) throws IOException {
+    final Command[] sub = c.getSubCommands();
+    if (sub.length == 0) {
+      if (head != null) {
+        out.write(head);
+      }
+      return;
+    }
+
+    writeElement(head, out);
+
+    Writer nested = null;
+    for (final Command command : sub) {
+      final String s = encoder.encode(command);
+      if (command.getSubCommands().length == 0) {
+        if (s != null) {
+          out.write(delim);
+          writeElement(s, out);
+        }
+      }
+      else {
+        out.write(delim);
+        if (s != null && !s.isEmpty() &&
+            (s.charAt(0) == '\\' || s.charAt(0) == '\'' || s.charAt(0) == delim)) {
+          // Whether this element must be quoted depends on more than its
+          // first character, so it has to be built in full before writing it.
+          writeElement(encode(command), out);
+        }
+        else {
+          if (nested == null) {
+            nested = new EscapingWriter(out);
+          }
+          writeCommand(command, s, nested);
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes a single element as {@link VASSAL.tools.SequenceEncoder#append(String)} would
+   */
+  private void writeElement(String s, Writer out) throws IOException {
+    if (s == null || s.isEmpty()) {
+      return;
+    }
+
+    final boolean quote = s.charAt(0) == '\\' ||
+      (s.charAt(0) == '\'' && s.charAt(s.length() - 1) == '\'');
+    if (quote) {
+      out.write('\'');
+    }
+
+    int begin = 0;
+    int end = s.indexOf(delim);
+    while (end >= 0) {
+      out.write(s, begin, end - begin);
+      out.write('\\');
+      begin = end;
+      end = s.indexOf(delim, end + 1);
+    }
+    out.write(s, begin, s.length() - begin);
+
+    if (quote) {
+      out.write('\'');
+    }
+  }
+
+  /**
+   * Reads a compound command.
+   * @param in source, which should be buffered
+   * @return the decoded Command, or null if it was not recognized
+   * @throws IOException oops
+   */
+  public Command decode(Reader in) throws IOException {
+    return decodeLevel(new ReaderChars(in));
+  }
+
+  /**
+   * @param s an encoded compound command
+   * @return the decoded Command, or null if it was not recognized
+   */
+  public Command decode(String s) {
+    if (s == null) {
+      return null;
+    }
+    try {
+      return decode(new StringReader(s));
+    }
+    catch (IOException e) {
+      // StringReader does not throw
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private Command decodeLevel(Chars src) throws IOException {
+    // The first element is always a single command, so it can be read whole.
+    final TokenChars first = new TokenChars(src);
+    final String firstRaw = first.readAll();
+    final String firstToken = unquote(firstRaw);
+
+    if (!first.endedAtDelimiter()) {
+      // Only one element: a single command, unless it was escaped or quoted
+      return first.hadEscape() || !firstToken.equals(firstRaw) ?
+        decode(firstToken) : encoder.decode(firstToken);
+    }
+
+    Command c = decode(firstToken);
+    boolean more = true;
+    while (more) {
+      final TokenChars token = new TokenChars(src);
+      final Command next;
+      if (token.peek() == '\'') {
+        // A quoted element must be read whole in order to be unquoted
+        next = decode(unquote(token.readAll()));
+      }
+      else {
+        next = decodeLevel(token);
+      }
+      more = token.endedAtDelimiter();
+      c = c == null ? next : c.append(next);
+    }
+    return c;
+  }
+
+  private static String unquote(String s) {
+    final int len = s.length();
+    return len > 1 && s.charAt(0) == '\'' && s.charAt(len - 1) == '\'' ?
+      s.substring(1, len - 1) : s;
+  }
+
+  /**
+   * A source of characters, returning -1 at the end
+   */
+  private interface Chars {
+    int read() throws IOException;
+  }
+
+  private static class ReaderChars implements Chars {
+    private final Reader in;
+
+    ReaderChars(Reader in) {
+      this.in = in;
+    }
+
+    @Override
+    public int read() throws IOException {
+      return in.read();
+    }
+  }
+
+  /**
+   * The characters of the next element of an enclosing source, with
+   * escaped delimiters unescaped, ending at the next real delimiter.
+   */
+  private class TokenChars implements Chars {
+    private final Chars parent;
+    private int pending = -2;
+    private int ahead = -2;
+    private boolean done;
+    private boolean atDelimiter;
+    private boolean escape;
+
+    TokenChars(Chars parent) {
+      this.parent = parent;
+    }
+
+    private int nextRaw() throws IOException {
+      if (pending != -2) {
+        final int c = pending;
+        pending = -2;
+        return c;
+      }
+      return parent.read();
+    }
+
+    private int readUnescaped() throws IOException {
+      if (done) {
+        return -1;
+      }
+
+      final int c = nextRaw();
+      if (c == '\\') {
+        final int n = nextRaw();
+        if (n == delim) {
+          escape = true;
+          return delim;
+        }
+        pending = n;
+        return c;
+      }
+      else if (c == delim) {
+        done = true;
+        atDelimiter = true;
+        return -1;
+      }
+      else if (c == -1) {
+        done = true;
+        return -1;
+      }
+      return c;
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (ahead != -2) {
+        final int c = ahead;
+        ahead = -2;
+        return c;
+      }
+      return readUnescaped();
+    }
+
+    int peek() throws IOException {
+      if (ahead == -2) {
+        ahead = readUnescaped();
+      }
+      return ahead;
+    }
+
+    String readAll() throws IOException {
+      final StringBuilder buf = new StringBuilder();
+      for (int c = read(); c != -1; c = read()) {
+        buf.append((char) c);
+      }
+      return buf.toString();
+    }
+
+    boolean endedAtDelimiter() throws IOException {
+      // make sure the element has been read to its end
+      while (read() != -1) {
+        // skip
+      }
+      return atDelimiter;
+    }
+
+    boolean hadEscape() {
+      return escape;
+    }
+  }
+
+  /**
+   * Escapes delimiters written to an enclosing Writer
+   */
+  private class EscapingWriter extends Writer {
+    private final Writer out;
+
+    EscapingWriter(Writer out) {
+      this.out = out;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+      if (c == delim) {
+        out.write('\\');
+      }
+      out.write(c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+      for (int i = off; i < off + len; ++i) {
+        write(cbuf[i]);
+      }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+      for (int i = off; i < off + len; ++i) {
+        write(str.charAt(i));
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      out.flush();
+    }
+
+    @Override
+    public void close() {
+      // the enclosing Writer belongs to someone else
+    }
+  }
+}
@@ -89,6 +89,17 @@ public class AreaOfEffect extends Decorator implements TranslatablePiece, MapSha
   protected String radiusMarker = "";
   protected String description = "";
 
+  /*
+   * The Area last built, and what it was built from. While none of these
+   * change, the same Area is returned again, which tells the MapShader
+   * that this piece's shading has not changed.
+   */
+  private Area lastArea;
+  private Object[] lastAreaKey;
+  private Area lastInnerArea;
+  private Area lastOwnArea;
+  private Area lastCombinedArea;
+
   public AreaOfEffect() {
     this(ID + ColorConfigurer.colorToString(defaultTransparencyColor), null);
   }
@@ -237,12 +248,20 @@ public class AreaOfEffect extends Decorator implements TranslatablePiece, MapSha
 
     final Board board = map.findBoard(mapPosition);
     final MapGrid grid = board == null ? null : board.getGrid();
+    final Rectangle boardBounds = board == null ? null : board.bounds();
+    final double mag = board == null ? 1.0 : board.getMagnification();
+
+    final Object[] key = {
+      map, mapPosition, myRadius, board, grid, boardBounds, mag
+    };
+    if (lastArea != null && Arrays.equals(key, lastAreaKey)) {
+      return lastArea;
+    }
 
     Area a;
     if (grid instanceof GeometricGrid) {
       final GeometricGrid gGrid = (GeometricGrid) grid;
 
-      final Rectangle boardBounds = board.bounds();
       final Point boardPosition = new Point(
         mapPosition.x - boardBounds.x, mapPosition.y - boardBounds.y);
 
@@ -250,7 +269,6 @@ public class AreaOfEffect extends Decorator implements TranslatablePiece, MapSha
       final AffineTransform t = AffineTransform.getTranslateInstance(
         boardBounds.x, boardBounds.y); // Translate back to map co-ords
 
-      final double mag = board.getMagnification();
       if (mag != 1.0) {
         t.translate(boardPosition.x, boardPosition.y);
         t.scale(mag, mag);
@@ -264,6 +282,9 @@ public class AreaOfEffect extends Decorator implements TranslatablePiece, MapSha
                              mapPosition.y - myRadius,
                              myRadius * 2, myRadius * 2));
     }
+
+    lastArea = a;
+    lastAreaKey = key;
     return a;
   }
 
@@ -336,8 +357,15 @@ public class AreaOfEffect extends Decorator implements TranslatablePiece, MapSha
         if (a == null) {
           a = myArea;
         }
-        else {
-          a.add(myArea);
+        else if (myArea != null) {
+          // The inner Area may be cached, so must not be changed
+          if (a != lastInnerArea || myArea != lastOwnArea) {
+            lastInnerArea = a;
+            lastOwnArea = myArea;
+            lastCombinedArea = new Area(a);
+            lastCombinedArea.add(myArea);
+          }
+          a = lastCombinedArea;
         }
       }
     }
@@ -45,6 +45,8 @@ import VASSAL.build.module.GlobalOptions;
 import VASSAL.build.module.Map;
 import VASSAL.build.module.documentation.HelpFile;
 import VASSAL.build.module.map.boardPicker.Board;
+import VASSAL.build.module.map.boardPicker.board.MapGrid;
+import VASSAL.build.module.map.boardPicker.board.ZonedGrid;
 import VASSAL.build.module.map.boardPicker.board.mapgrid.Zone;
 import VASSAL.build.module.properties.PropertyNameSource;
 import VASSAL.command.AddPiece;
@@ -135,6 +137,7 @@ public class BasicPiece extends AbstractImageFinder implements TranslatablePiece
   protected Image image;           // BasicPiece's own image
   protected String imageName;      // BasicPiece image name
   private String commonName;       // BasicPiece's name for the piece (aka "BasicName" property in Vassal Module)
+  private ZoneCache zoneCache;     // The zone last found to contain this piece
 
   public BasicPiece() {
     this(ID + ";;;;");
@@ -238,58 +241,51 @@ public class BasicPiece extends AbstractImageFinder implements TranslatablePiece
    * @param key String key of property to be returned.
    */
   public Object getPublicProperty(Object key) {
-    if (Properties.KEY_COMMANDS.equals(key)) {
-      return getKeyCommands();
-    }
-    else if (LOCATION_NAME.equals(key)) {
-      return getMap() == null ? "" : getMap().locationName(getPosition());
-    }
-    else if (PIECE_NAME.equals(key)) {
-      return Decorator.getOutermost(this).getName();
-    }
-    else if (CURRENT_MAP.equals(key)) {
-      return getMap() == null ? "" : getMap().getConfigureName();
-    }
-    else if (DECK_NAME.equals(key)) {
-      return getParent() instanceof Deck ? ((Deck) getParent()).getDeckName() : "";
-    }
-    else if (DECK_POSITION.equals(key)) {
-      if (getParent() instanceof Deck) {
-        final Deck deck = (Deck) getParent();
-        final int size = deck.getPieceCount();
-        final int pos = deck.indexOf(Decorator.getOutermost(this));
-        return String.valueOf(size - pos + 1);
-      }
-      else {
-        return "0";
-      }
-    }
-    else if (CURRENT_BOARD.equals(key)) {
-      if (getMap() != null) {
-        final Board b = getMap().findBoard(getPosition());
-        if (b != null) {
-          return b.getName();
+    if (key instanceof String) {
+      switch ((String) key) {
+      case Properties.KEY_COMMANDS:
+        return getKeyCommands();
+      case LOCATION_NAME:
+        return getMap() == null ? "" : getMap().locationName(getPosition());
+      case PIECE_NAME:
+        return Decorator.getOutermost(this).getName();
+      case CURRENT_MAP:
+        return getMap() == null ? "" : getMap().getConfigureName();
+      case DECK_NAME:
+        return getParent() instanceof Deck ? ((Deck) getParent()).getDeckName() : "";
+      case DECK_POSITION:
+        if (getParent() instanceof Deck) {
+          final Deck deck = (Deck) getParent();
+          final int size = deck.getPieceCount();
+          final int pos = deck.indexOf(Decorator.getOutermost(this));
+          return String.valueOf(size - pos + 1);
         }
-      }
-      return "";
-    }
-    else if (CURRENT_ZONE.equals(key)) {
-      if (getMap() != null) {
-        final Zone z = getMap().findZone(getPosition());
-        if (z != null) {
-          return z.getName();
+        else {
+          return "0";
+        }
+      case CURRENT_BOARD:
+        if (getMap() != null) {
+          final Board b = getMap().findBoard(getPosition());
+          if (b != null) {
+            return b.getName();
+          }
         }
+        return "";
+      case CURRENT_ZONE:
+        if (getMap() != null) {
+          final Zone z = findZone();
+          if (z != null) {
+            return z.getName();
+          }
+        }
+        return "";
+      case CURRENT_X:
+        return String.valueOf(getPosition().x);
+      case CURRENT_Y:
+        return String.valueOf(getPosition().y);
+      case Properties.VISIBLE_STATE:
+        return "";
       }
-      return "";
-    }
-    else if (CURRENT_X.equals(key)) {
-      return String.valueOf(getPosition().x);
-    }
-    else if (CURRENT_Y.equals(key)) {
-      return String.valueOf(getPosition().y);
-    }
-    else if (Properties.VISIBLE_STATE.equals(key)) {
-      return "";
     }
 
     // Check for a property in the scratch-pad properties
@@ -303,7 +299,7 @@ public class BasicPiece extends AbstractImageFinder implements TranslatablePiece
     // Check for higher level properties. Each level if it exists will check the higher level if required.
     if (prop == null) {
       final Map map = getMap();
-      final Zone zone = (map == null ? null : map.findZone(getPosition()));
+      final Zone zone = (map == null ? null : findZone());
       if (zone != null) {
         prop = zone.getProperty(key);
       }
@@ -342,56 +338,51 @@ public class BasicPiece extends AbstractImageFinder implements TranslatablePiece
    * @return  Returns localized text of property, if available, otherwise non-localized value, accounting for Mask status.
    */
   public Object getLocalizedPublicProperty(Object key) {
-    if (List.of(
-      Properties.KEY_COMMANDS,
-      DECK_NAME,
-      CURRENT_X,
-      CURRENT_Y,
-      Properties.VISIBLE_STATE
-    ).contains(key)) {
-      return getProperty(key);
-    }
-    else if (LOCATION_NAME.equals(key)) {
-      return getMap() == null ? "" : getMap().localizedLocationName(getPosition());
-    }
-    else if (PIECE_NAME.equals(key)) {
-      return Decorator.getOutermost(this).getName();
-    }
-    else if (BASIC_NAME.equals(key)) {
-      return getLocalizedName();
-    }
-    else if (CURRENT_MAP.equals(key)) {
-      return getMap() == null ? "" : getMap().getLocalizedConfigureName();
-    }
-    else if (DECK_POSITION.equals(key)) {
-      if (getParent() instanceof Deck) {
-        final Deck deck = (Deck) getParent();
-        final int size = deck.getPieceCount();
-        final int pos = deck.indexOf(Decorator.getOutermost(this));
-        return String.valueOf(size - pos);
-      }
-      else {
-        return "0";
-      }
-    }
-    else if (CURRENT_BOARD.equals(key)) {
-      if (getMap() != null) {
-        final Board b = getMap().findBoard(getPosition());
-        if (b != null) {
-          return b.getLocalizedName();
+    if (key instanceof String) {
+      switch ((String) key) {
+      case Properties.KEY_COMMANDS:
+      case DECK_NAME:
+      case CURRENT_X:
+      case CURRENT_Y:
+      case Properties.VISIBLE_STATE:
+        return getProperty(key);
+      case LOCATION_NAME:
+        return getMap() == null ? "" : getMap().localizedLocationName(getPosition());
+      case PIECE_NAME:
+        return Decorator.getOutermost(this).getName();
+      case BASIC_NAME:
+        return getLocalizedName();
+      case CURRENT_MAP:
+        return getMap() == null ? "" : getMap().getLocalizedConfigureName();
+      case DECK_POSITION:
+        if (getParent() instanceof Deck) {
+          final Deck deck = (Deck) getParent();
+          final int size = deck.getPieceCount();
+          final int pos = deck.indexOf(Decorator.getOutermost(this));
+          return String.valueOf(size - pos);
         }
-      }
-      return "";
-    }
-    else if (CURRENT_ZONE.equals(key)) {
-      if (getMap() != null) {
-        final Zone z = getMap().findZone(getPosition());
-        if (z != null) {
-          return z.getLocalizedName();
+        else {
+          return "0";
+        }
+      case CURRENT_BOARD:
+        if (getMap() != null) {
+          final Board b = getMap().findBoard(getPosition());
+          if (b != null) {
+            return b.getLocalizedName();
+          }
+        }
+        return "";
+      case CURRENT_ZONE:
+        if (getMap() != null) {
+          final Zone z = findZone();
+          if (z != null) {
+            return z.getLocalizedName();
+          }
         }
+        return "";
       }
-      return "";
     }
+
     // Check for a property in the scratch-pad properties
     Object prop = props == null ? null : props.get(key);
 
@@ -403,7 +394,7 @@ public class BasicPiece extends AbstractImageFinder implements TranslatablePiece
     // Check for higher level properties. Each level if it exists will check the higher level if required.
     if (prop == null) {
       final Map map = getMap();
-      final Zone zone = (map == null ? null : map.findZone(getPosition()));
+      final Zone zone = (map == null ? null : findZone());
       if (zone != null) {
         prop = zone.getLocalizedProperty(key);
       }
@@ -589,6 +580,60 @@ public class BasicPiece extends AbstractImageFinder implements TranslatablePiece
     return getParent() == null ? new Point(pos) : getParent().getPosition();
   }
 
+  /*
+   * The zone containing a piece is looked up whenever a property is not
+   * found on the piece itself, so remember where it was last found. It is
+   * found again only once the piece, its board or the zones have moved.
+   */
+  private static class ZoneCache {
+    private final MapGrid grid;
+    private final Point pos;
+    private final int version;
+    private final Zone zone;
+
+    private ZoneCache(MapGrid grid, Point pos, int version, Zone zone) {
+      this.grid = grid;
+      this.pos = pos;
+      this.version = version;
+      this.zone = zone;
+    }
+  }
+
+  /**
+   * @return the {@link Zone} containing this piece, or null if it is not
+   * in one. The same as {@link Map#findZone(Point)} at its position.
+   */
+  private Zone findZone() {
+    final Map m = getMap();
+    if (m == null) {
+      return null;
+    }
+
+    final Point p = getPosition();
+    final Board b = m.findBoard(p);
+    if (b == null) {
+      return null;
+    }
+
+    final MapGrid grid = b.getGrid();
+    if (!(grid instanceof ZonedGrid)) {
+      return null;
+    }
+
+    // Zones are found in board co-ords
+    final Rectangle r = b.bounds();
+    p.translate(-r.x, -r.y);
+
+    final ZonedGrid zg = (ZonedGrid) grid;
+    final int version = zg.getVersion();
+    ZoneCache c = zoneCache;
+    if (c == null || c.grid != grid || c.version != version || !c.pos.equals(p)) {
+      c = new ZoneCache(grid, p, version, zg.findZone(p));
+      zoneCache = c;
+    }
+    return c.zone;
+  }
+
   /**
    * @param p Sets the location of this piece on its {@link Map}
    */
@@ -598,7 +643,9 @@ public class BasicPiece extends AbstractImageFinder implements TranslatablePiece
       getMap().repaint(getMap().boundingBoxOf(Decorator.getOutermost(this)));
     }
     pos = p;
+    zoneCache = null;
     if (getMap() != null && getParent() == null) {
+      getMap().pieceBoundsChanged(Decorator.getOutermost(this));
       getMap().repaint(getMap().boundingBoxOf(Decorator.getOutermost(this)));
     }
   }
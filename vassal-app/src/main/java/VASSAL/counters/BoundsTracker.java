@@ -26,26 +26,36 @@ import VASSAL.build.module.Map;
  * Records the bounding boxes of GamePieces.  Use addPiece() to
  * record the bounding box of a GamePiece at a certain time.  Use
  * repaint() to repaint the appropriate areas of the maps to which the
- * added pieces belonged.
+ * added pieces belonged.  Repainting also lets each map know that the
+ * bounds of the added pieces may have changed.
  */
 public class BoundsTracker {
   private final Set<Map> maps;
+  private final Set<GamePiece> pieces;
 
   public BoundsTracker() {
     maps = new HashSet<>();
+    pieces = new HashSet<>();
   }
 
   public void clear() {
     maps.clear();
+    pieces.clear();
   }
 
   public void addPiece(GamePiece p) {
     if (p.getMap() != null) {
       maps.add(p.getMap());
+      pieces.add(p.getParent() != null ? p.getParent() : Decorator.getOutermost(p));
     }
   }
 
   public void repaint() {
+    for (final GamePiece p : pieces) {
+      if (p.getMap() != null) {
+        p.getMap().pieceBoundsChanged(p);
+      }
+    }
     for (final Map m : maps) {
       m.repaint();
     }
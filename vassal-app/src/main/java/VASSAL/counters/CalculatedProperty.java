@@ -152,6 +152,11 @@ public class CalculatedProperty extends Decorator implements EditablePiece, Loop
   }
 
 
+  @Override
+  protected boolean answersProperty(String key) {
+    return name.length() > 0 && name.equals(key);
+  }
+
   /**
    * Return the value of this trait's property.
    * Evaluating Expressions can lead to infinite loops and
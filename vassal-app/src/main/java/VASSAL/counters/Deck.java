@@ -1006,8 +1006,7 @@ public class Deck extends Stack implements PlayerRoster.SideChangeListener {
     faceDown = "true".equals(st.nextToken()); //$NON-NLS-1$
     final ArrayList<GamePiece> l = new ArrayList<>();
     if (st.hasMoreTokens()) {
-      final SequenceEncoder.Decoder st2 =
-        new SequenceEncoder.Decoder(st.nextToken(), ',');
+      final SequenceEncoder.Decoder st2 = st.nextDecoder(',');
       while (st2.hasMoreTokens()) {
         final GamePiece p = gameModule.getGameState()
                                       .getPieceForId(st2.nextToken());
@@ -75,12 +75,25 @@ public abstract class Decorator extends AbstractImageFinder implements GamePiece
   private Decorator dec;
   private boolean selected = false;
 
+  /** Which members inward of this trait may answer each property, shared by pieces of the same type */
+  PropertyPlan propertyPlan;
+
   /** @param p Set the inner GamePiece -- usually the next Trait (Decorator) inward, or the BasicPiece itself. */
   public void setInner(GamePiece p) {
     piece = p;
     if (p != null) {
       p.setProperty(Properties.OUTER, this);
     }
+    clearPropertyPlans();
+  }
+
+  /**
+   * Drops the property plans of this trait and of those outward of it, whose members have changed
+   */
+  void clearPropertyPlans() {
+    for (Decorator d = this; d != null; d = d.dec) {
+      d.propertyPlan = null;
+    }
   }
 
   /** @param m Each GamePiece belongs to a single {@link Map}. Default behavior for a trait is to pass the new map inward toward the BasicPiece. */
@@ -153,24 +166,21 @@ public abstract class Decorator extends AbstractImageFinder implements GamePiece
    */
   @Override
   public Object getProperty(Object key) {
-    if (Properties.KEY_COMMANDS.equals(key)) {
-      return getKeyCommands();
-    }
-    else if (Properties.INNER.equals(key)) {
-      return piece;
-    }
-    else if (Properties.OUTER.equals(key)) {
-      return dec;
-    }
-    else if (Properties.VISIBLE_STATE.equals(key)) {
-      return myGetState() + piece.getProperty(key);
-    }
-    else if (Properties.SELECTED.equals(key)) {
-      return selected;
-    }
-    else {
-      return piece.getProperty(key);
+    if (key instanceof String) {
+      switch ((String) key) {
+      case Properties.KEY_COMMANDS:
+        return getKeyCommands();
+      case Properties.INNER:
+        return piece;
+      case Properties.OUTER:
+        return dec;
+      case Properties.VISIBLE_STATE:
+        return myGetState() + piece.getProperty(key);
+      case Properties.SELECTED:
+        return selected;
+      }
     }
+    return nextPropertySource(key, false).getProperty(key);
   }
 
   /**
@@ -181,23 +191,118 @@ public abstract class Decorator extends AbstractImageFinder implements GamePiece
    */
   @Override
   public Object getLocalizedProperty(Object key) {
-    if (List.of(
-      Properties.KEY_COMMANDS,
-      Properties.INNER,
-      Properties.OUTER,
-      Properties.VISIBLE_STATE
-    ).contains(key)) {
-      return getProperty(key);
+    if (key instanceof String) {
+      switch ((String) key) {
+      case Properties.KEY_COMMANDS:
+      case Properties.INNER:
+      case Properties.OUTER:
+      case Properties.VISIBLE_STATE:
+        return getProperty(key);
+      /*
+       * Return local cached copy of Selection Status
+       */
+      case Properties.SELECTED:
+        return isSelected();
+      }
     }
-    /*
-     * Return local cached copy of Selection Status
-     */
-    else if (Properties.SELECTED.equals(key)) {
-      return isSelected();
+    return nextPropertySource(key, true).getLocalizedProperty(key);
+  }
+
+  /**
+   * Whether this trait may answer a request for the given property itself, rather than pass it
+   * inward. Only the properties which not every trait answers are asked about, and only of a
+   * trait whose class declares this method along with {@link #getProperty} (or
+   * {@link #getLocalizedProperty}). As the answer is kept in the {@link PropertyPlan} of every
+   * piece of the same type, it must depend only on the type of the trait, not on its state.
+   *
+   * @param key the name of the property
+   * @return whether the trait may answer it; by default, true
+   * @since 3.5.0
+   */
+  protected boolean answersProperty(String key) {
+    return true;
+  }
+
+  /**
+   * What each class of trait may answer. A class which does not override
+   * {@link #getProperty} only answers the keys handled above, and passes
+   * every other request inward unchanged, so it can be stepped over. One
+   * which overrides it and declares {@link #answersProperty} along with it
+   * can be stepped over for the keys it does not answer.
+   */
+  private static final class Answers {
+    private final boolean property;
+    private final boolean localized;
+    private final boolean propertyKeys;
+    private final boolean localizedKeys;
+
+    private Answers(Class<?> c) {
+      final Class<?> getProperty = declaringClass(c, "getProperty", Object.class); //NON-NLS
+      final Class<?> getLocalizedProperty = declaringClass(c, "getLocalizedProperty", Object.class); //NON-NLS
+      final Class<?> answersProperty = declaringClass(c, "answersProperty", String.class); //NON-NLS
+      property = getProperty != Decorator.class;
+      localized = getLocalizedProperty != Decorator.class;
+      propertyKeys = property && answersProperty == getProperty;
+      localizedKeys = localized && answersProperty == getLocalizedProperty;
     }
-    else {
-      return piece.getLocalizedProperty(key);
+  }
+
+  private static final ClassValue<Answers> ANSWERS = new ClassValue<>() {
+    @Override
+    protected Answers computeValue(Class<?> c) {
+      return new Answers(c);
+    }
+  };
+
+  private static Class<?> declaringClass(Class<?> c, String method, Class<?> param) {
+    for (; c != null; c = c.getSuperclass()) {
+      try {
+        c.getDeclaredMethod(method, param);
+        return c;
+      }
+      catch (NoSuchMethodException e) {
+        // look further up
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return whether a member of a piece may answer a request for a property
+   * itself, rather than passing it straight on with the default behavior
+   */
+  static boolean mayAnswer(GamePiece p, Object key, boolean localized) {
+    if (!(p instanceof Decorator)) {
+      return true;
     }
+    final Answers a = ANSWERS.get(p.getClass());
+    if (localized ? !a.localized : !a.property) {
+      return false;
+    }
+    return !(localized ? a.localizedKeys : a.propertyKeys) ||
+      !(key instanceof String) ||
+      ((Decorator) p).answersProperty((String) key);
+  }
+
+  /**
+   * @return the next member inward which may answer a property request
+   * itself, found by the property plan if the piece has one
+   */
+  private GamePiece nextPropertySource(Object key, boolean localized) {
+    final PropertyPlan plan = propertyPlan;
+    if (plan != null && key instanceof String) {
+      return plan.next(piece, (String) key, localized);
+    }
+
+    GamePiece p = piece;
+    while (p instanceof Decorator) {
+      final Answers a = ANSWERS.get(p.getClass());
+      if (localized ? a.localized : a.property) {
+        break;
+      }
+      p = ((Decorator) p).piece;
+    }
+    return p;
   }
 
   /**
@@ -154,6 +154,11 @@ public class DynamicProperty extends Decorator implements TranslatablePiece, Pro
     return piece.getShape();
   }
 
+  @Override
+  protected boolean answersProperty(String key) {
+    return key.equals(getKey());
+  }
+
   @Override
   public Object getProperty(Object key) {
     if (key.equals(getKey())) {
@@ -245,6 +250,8 @@ public class DynamicProperty extends Decorator implements TranslatablePiece, Pro
     else {
       this.value = value;
     }
+
+    PropertyIndex.pieceChanged(this);
   }
 
   private String formatValue(String value) {
@@ -37,6 +37,7 @@ import VASSAL.tools.RecursionLimiter.Loopable;
 import java.awt.Point;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 /**
@@ -180,6 +181,28 @@ public class GlobalCommand {
     return false; // Never gets here, but checkStyle doesn't understand that.
   }
 
+  /**
+   * Check the Property Fast Match for a given gamePiece, first asking the {@link PropertyIndex} if we have one
+   * @param gamePiece the game piece
+   * @param index the property index, or null
+   * @return true if piece matches
+   */
+  private boolean passesPropertyFastMatch(GamePiece gamePiece, PropertyIndex index) {
+    return (index == null || index.mayEqual(gamePiece, fastProperty, fastValue)) && passesPropertyFastMatch(gamePiece);
+  }
+
+  /**
+   * An "Equals" Property Fast Match can be answered by the {@link PropertyIndex}, if it is enabled
+   * @return the property index, or null if it is disabled or cannot answer our Fast Match
+   */
+  private PropertyIndex getPropertyFastMatchIndex() {
+    if (!target.fastMatchProperty || fastProperty.isEmpty() ||
+        target.targetCompare != GlobalCommandTarget.CompareMode.EQUALS) {
+      return null;
+    }
+    return PropertyIndex.getInstance();
+  }
+
   /**
    * Need a super-fast (i.e. not dependent on exception-throwing) plan for detecting valid numbers
    * @param s string to check
@@ -323,7 +346,26 @@ public class GlobalCommand {
         // For most Global Key Commands we need to run through the larger lists of maps & pieces. Ideally the Fast Matches
         // here will filter some of that out to improve performance, but we also want to do the best job possible for old
         // modules that don't take advantage of Fast Match yet.
+
+        // If the property index can tell us which pieces might pass the Property Fast Match, we need only visit the maps
+        // they are on, and need not ask every other piece for its property. We still run through the pieces of those maps
+        // in order, so that the command reaches the matching pieces in the same order as it would without the index. Since
+        // the command may change or move pieces as it goes, we look again at where the candidates are as we reach each map.
+        final PropertyIndex index = getPropertyFastMatchIndex();
+        Set<GamePiece> candidates = null;
+        int indexModCount = 0;
+
         for (final Map map : maps) {
+          if (index != null) {
+            if (candidates == null || index.getModCount() != indexModCount) {
+              indexModCount = index.getModCount();
+              candidates = index.findCandidates(fastProperty, fastValue);
+            }
+            if (candidates.stream().noneMatch(gamePiece -> map.equals(gamePiece.getMap()))) {
+              continue;
+            }
+          }
+
           // First check that this is a map we're even interested in
           if (target.fastMatchLocation) {
             // "Current Map" only cares about the map the issuing piece is on
@@ -339,7 +381,7 @@ public class GlobalCommand {
           }
 
           // Now we go through all the pieces/stacks/decks on this map
-          final GamePiece[] everythingOnMap = map.getPieces();
+          final List<GamePiece> everythingOnMap = map.getPieceList();
 
           if (!target.fastMatchLocation) {
             // If NOT doing Location fast-matching we do tighter loops (because perf is important during GKCs)
@@ -365,7 +407,7 @@ public class GlobalCommand {
                 // This will iterate through actual game pieces
                 for (final GamePiece gamePiece : pieceList) {
                   // If a property-based Fast Match is specified, we eliminate non-matchers of that first.
-                  if (!passesPropertyFastMatch(gamePiece)) {
+                  if (!passesPropertyFastMatch(gamePiece, index)) {
                     continue;
                   }
                   dispatcher.accept(gamePiece);
@@ -389,7 +431,7 @@ public class GlobalCommand {
               // This will iterate through actual game pieces
               for (final GamePiece gamePiece : pieceList) {
                 // If a property-based Fast Match is specified, we eliminate non-matchers of that first.
-                if (!passesPropertyFastMatch(gamePiece)) {
+                if (!passesPropertyFastMatch(gamePiece, index)) {
                   continue;
                 }
 
@@ -233,6 +233,22 @@ public class Immobilized extends Decorator implements EditablePiece {
     }
   }
 
+  @Override
+  protected boolean answersProperty(String key) {
+    switch (key) {
+    case Properties.NO_STACK:
+    case Properties.TERRAIN:
+    case Properties.IGNORE_GRID:
+    case Properties.SELECT_EVENT_FILTER:
+    case Properties.MOVE_EVENT_FILTER:
+    case Properties.NON_MOVABLE:
+    case Properties.BAND_SELECT_EVENT_FILTER:
+      return true;
+    default:
+      return false;
+    }
+  }
+
   @Override
   public Object getProperty(Object key) {
     if (Properties.NO_STACK.equals(key)) {
@@ -92,6 +92,11 @@ public class Marker extends Decorator implements EditablePiece {
     return piece.getShape();
   }
 
+  @Override
+  protected boolean answersProperty(String key) {
+    return Arrays.asList(keys).contains(key);
+  }
+
   @Override
   public Object getProperty(Object key) {
     for (int i = 0; i < keys.length; ++i) {
@@ -117,6 +122,7 @@ public class Marker extends Decorator implements EditablePiece {
     for (int i = 0; i < keys.length; ++i) {
       if (keys[i].equals(key)) {
         values[i] = (String) value;
+        PropertyIndex.pieceChanged(this);
         return;
       }
     }
@@ -139,6 +145,7 @@ public class Marker extends Decorator implements EditablePiece {
     while (st.hasMoreTokens() && i < values.length) {
       values[i++] = st.nextToken();
     }
+    PropertyIndex.pieceChanged(this);
   }
 
   @Override
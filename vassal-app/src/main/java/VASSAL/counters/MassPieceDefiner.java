@@ -163,6 +163,7 @@ public class MassPieceDefiner extends PieceDefiner {
       final EditablePiece myPiece = (EditablePiece) this.inUseModel.elementAt(index);
       myPiece.mySetType(template.getType());
       if (myPiece instanceof Decorator) {
+        ((Decorator) myPiece).clearPropertyPlans();
         ((Decorator) myPiece).mySetState(template.getState());
       }
       else {
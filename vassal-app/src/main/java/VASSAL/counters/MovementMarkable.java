@@ -191,6 +191,11 @@ public class MovementMarkable extends Decorator implements TranslatablePiece {
     }
   }
 
+  @Override
+  protected boolean answersProperty(String key) {
+    return Properties.MOVED.equals(key);
+  }
+
   @Override
   public Object getProperty(Object key) {
     if (Properties.MOVED.equals(key)) {
@@ -537,6 +537,7 @@ public class PieceDefiner extends JPanel implements HelpWindowExtension {
       if (c != null) {
         p.mySetType(c.getType());
         if (p instanceof Decorator) {
+          ((Decorator) p).clearPropertyPlans();
           ((Decorator) p).mySetState(c.getState());
         }
         else {
@@ -120,6 +120,20 @@ public class PropertiesPieceFilter {
     return f;
   }
 
+  /**
+   * Return the property name and value tested by a PieceFilter parsed from a
+   * single equality such as prop1 = value1
+   * @param f Piece Filter
+   * @return the name and value, or null if the filter is anything else, or
+   * if the value is a boolean, which matches case-insensitively
+   */
+  public static String[] getEquality(PieceFilter f) {
+    if (f instanceof EQ && ((EQ) f).alternate == null) {
+      return new String[] {((EQ) f).name, ((EQ) f).value};
+    }
+    return null;
+  }
+
   public static String toBeanShellString(String s) {
     return toBeanShellString(parse(s));
   }
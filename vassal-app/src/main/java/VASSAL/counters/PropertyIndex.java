@@ -0,0 +1,303 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package VASSAL.counters;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import javax.swing.SwingUtilities;
+
+import VASSAL.build.GameModule;
+import VASSAL.build.module.GameState;
+
+/**
+ * An inverted index from the values of piece properties to the pieces having them, so that
+ * Global Key Commands and the Sum and Count functions can find the pieces whose property equals a
+ * given value without asking every piece in the game.
+ * <br><br>
+ * A property is indexed the first time it is looked up, and is then kept up to date as pieces enter
+ * and leave the game and as {@link DynamicProperty} and {@link Marker} traits change value. Only
+ * values held by those traits are indexed: for a piece whose value for a property comes from
+ * anywhere else, such as a {@link CalculatedProperty} or a map or global property, the value is
+ * read from the piece at every lookup.
+ * <br><br>
+ * The index of the current game is enabled by the {@link GameState#INDEX_PROPERTIES} preference.
+ * <br><br>
+ * A {@code PropertyIndex} is not thread-safe. The index of the current game is used only on the
+ * Event Dispatch Thread, where the game's pieces are changed: {@link #getInstance()} returns null
+ * on any other thread, so that lookups there check every piece, and changes there to pieces, which
+ * can only be pieces not yet in the game, such as those of a game being read, are not indexed.
+ *
+ * @see GameState#getPropertyIndex()
+ * @since 3.5.0
+ */
+public class PropertyIndex {
+  private final Collection<GamePiece> allPieces;
+  private final Map<String, Entry> entries = new HashMap<>();
+  private boolean enabled = false;
+  private int modCount = 0;
+
+  /**
+   * The index for one property name
+   */
+  private static class Entry {
+    private final String name;
+    private final Map<String, Set<GamePiece>> byValue = new HashMap<>();
+    private final Map<GamePiece, String> values = new IdentityHashMap<>();
+    private final Set<GamePiece> unindexed = newPieceSet();
+
+    private Entry(String name) {
+      this.name = name;
+    }
+
+    private boolean contains(GamePiece p) {
+      return values.containsKey(p) || unindexed.contains(p);
+    }
+
+    private void insert(GamePiece p) {
+      if (isStored(p, name)) {
+        final String value = String.valueOf(p.getProperty(name));
+        values.put(p, value);
+        byValue.computeIfAbsent(value, v -> newPieceSet()).add(p);
+      }
+      else {
+        unindexed.add(p);
+      }
+    }
+
+    private void delete(GamePiece p) {
+      final String value = values.remove(p);
+      if (value != null) {
+        final Set<GamePiece> s = byValue.get(value);
+        s.remove(p);
+        if (s.isEmpty()) {
+          byValue.remove(value);
+        }
+      }
+      else {
+        unindexed.remove(p);
+      }
+    }
+
+    private Set<GamePiece> find(String value, boolean checkUnindexed) {
+      final Set<GamePiece> found = newPieceSet();
+      found.addAll(byValue.getOrDefault(value, Collections.emptySet()));
+      for (final GamePiece p : unindexed) {
+        if (!checkUnindexed || value.equals(String.valueOf(p.getProperty(name)))) {
+          found.add(p);
+        }
+      }
+      return found;
+    }
+  }
+
+  /**
+   * @param allPieces a live view of all pieces in the game, used to build the index of a property
+   * the first time it is looked up
+   */
+  public PropertyIndex(Collection<GamePiece> allPieces) {
+    this.allPieces = allPieces;
+  }
+
+  private static Set<GamePiece> newPieceSet() {
+    return Collections.newSetFromMap(new IdentityHashMap<>());
+  }
+
+  /**
+   * A piece's value for a property can be indexed if the outermost trait exposing the property
+   * is one which holds the value, and so notifies the index when the value changes
+   */
+  private static boolean isStored(GamePiece outer, String name) {
+    for (GamePiece p = outer; p instanceof Decorator; p = ((Decorator) p).getInner()) {
+      if (((Decorator) p).getPropertyNames().contains(name)) {
+        return (p instanceof DynamicProperty && !(p instanceof SetGlobalProperty)) ||
+          p instanceof Marker;
+      }
+    }
+    return false;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Enables or disables the index. A disabled index holds nothing, and answers no lookups.
+   */
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+    if (!enabled) {
+      clear();
+    }
+  }
+
+  /**
+   * Adds a piece which has entered the game
+   */
+  public void add(GamePiece p) {
+    if (enabled && !(p instanceof Stack)) {
+      for (final Entry e : entries.values()) {
+        if (!e.contains(p)) {
+          e.insert(p);
+          ++modCount;
+        }
+      }
+    }
+  }
+
+  /**
+   * Removes a piece which has left the game
+   */
+  public void remove(GamePiece p) {
+    for (final Entry e : entries.values()) {
+      if (e.contains(p)) {
+        e.delete(p);
+        ++modCount;
+      }
+    }
+  }
+
+  /**
+   * Re-indexes a piece whose properties may have changed
+   * @param p the piece, or any of its traits
+   */
+  public void update(GamePiece p) {
+    if (entries.isEmpty()) {
+      return;
+    }
+
+    final GamePiece outer = Decorator.getOutermost(p);
+    for (final Entry e : entries.values()) {
+      // Ignore pieces which are not in the game, e.g. while they are being built
+      if (e.contains(outer)) {
+        final String old = e.values.get(outer);
+        e.delete(outer);
+        e.insert(outer);
+        if (!Objects.equals(old, e.values.get(outer))) {
+          ++modCount;
+        }
+      }
+    }
+  }
+
+  /**
+   * Discards the index of every property
+   */
+  public void clear() {
+    entries.clear();
+    ++modCount;
+  }
+
+  /**
+   * @return a count which changes whenever a piece enters or leaves the index, or the indexed
+   * value of a piece changes, so that the results of {@link #findCandidates} can be reused until
+   * it does
+   */
+  public int getModCount() {
+    return modCount;
+  }
+
+  /**
+   * Finds the pieces in the game whose value for a property, converted with
+   * {@link String#valueOf(Object)}, is equal to the given value. The pieces found may be on any
+   * map, or on none.
+   *
+   * @param name the property name
+   * @param value the value to find
+   * @return the pieces found, or null if the index is disabled
+   */
+  public Set<GamePiece> find(String name, String value) {
+    return enabled ? getEntry(name).find(value, true) : null;
+  }
+
+  /**
+   * Finds the pieces in the game whose value for a property may be equal to the given value:
+   * those whose indexed value is equal to it, and all those whose value is not indexed. Unlike
+   * {@link #find}, this asks no piece for its property, so that it remains valid for as long as
+   * {@link #getModCount} does not change, even if unindexed values change.
+   *
+   * @param name the property name
+   * @param value the value to find
+   * @return the pieces found, or null if the index is disabled
+   */
+  public Set<GamePiece> findCandidates(String name, String value) {
+    return enabled ? getEntry(name).find(value, false) : null;
+  }
+
+  /**
+   * @param p a piece
+   * @param name the property name
+   * @param value the value
+   * @return false if the index knows that the piece's value for the property, converted with
+   * {@link String#valueOf(Object)}, is not the given value
+   */
+  public boolean mayEqual(GamePiece p, String name, String value) {
+    final Entry e = entries.get(name);
+    if (e == null) {
+      return true;
+    }
+    final String v = e.values.get(p);
+    return v == null || v.equals(value);
+  }
+
+  private Entry getEntry(String name) {
+    Entry e = entries.get(name);
+    if (e == null) {
+      e = new Entry(name);
+      for (final GamePiece p : allPieces) {
+        if (!(p instanceof Stack)) {
+          e.insert(p);
+        }
+      }
+      entries.put(name, e);
+    }
+    return e;
+  }
+
+  /**
+   * @return the property index of the current game, or null if the index is disabled, there is
+   * no module loaded, or this is not the Event Dispatch Thread
+   */
+  public static PropertyIndex getInstance() {
+    if (!SwingUtilities.isEventDispatchThread()) {
+      return null;
+    }
+    final GameModule g = GameModule.getGameModule();
+    if (g == null || g.getGameState() == null) {
+      return null;
+    }
+    final PropertyIndex index = g.getGameState().getPropertyIndex();
+    return index.isEnabled() ? index : null;
+  }
+
+  /**
+   * Tells the index of the current game, if any, that the properties of a piece may have changed
+   * @param p the piece, or any of its traits
+   */
+  static void pieceChanged(GamePiece p) {
+    final PropertyIndex index = getInstance();
+    if (index != null) {
+      index.update(p);
+    }
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package VASSAL.counters;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Which members of a piece may answer a request for each property, shared by every piece of
+ * the same type. A request for a property passes from the outermost trait inward until one
+ * answers it. Most traits answer only the properties which every {@link Decorator} answers,
+ * and many others only properties named in their type, such as a {@link Marker} or a
+ * {@link DynamicProperty}. The plan of a trait holds, for each property requested of it, how
+ * many of the members inward of it cannot answer it, so that the request goes straight to the
+ * next one which may. Every trait which may answer is still asked, in the same order, so
+ * traits whose answers depend on their state, such as {@link Obscurable}, behave as before.
+ * <p>
+ * A plan is made for each trait of a piece type with {@link #create}, and given to every piece
+ * built from that type with {@link #attach}. A trait drops its plan, and those of the traits
+ * outward of it, when the members inward of it change.
+ *
+ * @since 3.5.0
+ */
+public final class PropertyPlan {
+  /** The most properties for which a plan remembers the answer */
+  static final int MAX_KEYS = 1024;
+
+  private final Map<String, Integer> property = new ConcurrentHashMap<>();
+  private final Map<String, Integer> localized = new ConcurrentHashMap<>();
+
+  private PropertyPlan() {
+  }
+
+  /**
+   * @param piece the outermost member of a piece
+   * @return a new plan for each trait of the piece, from the outermost inward
+   */
+  public static PropertyPlan[] create(GamePiece piece) {
+    final PropertyPlan[] plans = new PropertyPlan[countTraits(piece)];
+    for (int i = 0; i < plans.length; ++i) {
+      plans[i] = new PropertyPlan();
+    }
+    return plans;
+  }
+
+  /**
+   * Gives the plans made by {@link #create} for a piece of the same type to each trait of a
+   * piece. A piece with a different number of traits is given none.
+   *
+   * @param piece the outermost member of a piece
+   * @param plans the plans for its traits, from the outermost inward
+   */
+  public static void attach(GamePiece piece, PropertyPlan[] plans) {
+    if (countTraits(piece) != plans.length) {
+      return;
+    }
+
+    GamePiece p = piece;
+    for (final PropertyPlan plan : plans) {
+      final Decorator d = (Decorator) p;
+      d.propertyPlan = plan;
+      p = d.piece;
+    }
+  }
+
+  private static int countTraits(GamePiece piece) {
+    int n = 0;
+    for (GamePiece p = piece; p instanceof Decorator; p = ((Decorator) p).piece) {
+      ++n;
+    }
+    return n;
+  }
+
+  /**
+   * @param inner the member inward of the trait whose plan this is
+   * @param key the name of the property
+   * @param localized whether the localized property is requested
+   * @return the first member from {@code inner} inward which may answer the property itself
+   */
+  GamePiece next(GamePiece inner, String key, boolean localized) {
+    final Map<String, Integer> skips = localized ? this.localized : property;
+    Integer n = skips.get(key);
+    if (n == null) {
+      int count = 0;
+      for (GamePiece p = inner; !Decorator.mayAnswer(p, key, localized); p = ((Decorator) p).piece) {
+        ++count;
+      }
+      n = count;
+      if (skips.size() < MAX_KEYS) {
+        skips.put(key, n);
+      }
+    }
+
+    GamePiece p = inner;
+    for (int i = n; i > 0 && p instanceof Decorator; --i) {
+      p = ((Decorator) p).piece;
+    }
+    return p;
+  }
+}
@@ -166,6 +166,11 @@ public class Restricted extends Decorator implements EditablePiece {
     }
   }
 
+  @Override
+  protected boolean answersProperty(String key) {
+    return Properties.RESTRICTED.equals(key) || Properties.RESTRICTED_MOVEMENT.equals(key);
+  }
+
   @Override
   public Object getProperty(Object key) {
     if (Properties.RESTRICTED.equals(key)) {
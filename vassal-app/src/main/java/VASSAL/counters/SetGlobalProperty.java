@@ -124,6 +124,11 @@ public class SetGlobalProperty extends DynamicProperty {
    * Duplicate code from Decorator for setProperty(), getProperty() Do not call super.xxxProperty() as we no longer
    * contain a DynamicProperty that can be manipulated, but you cannot call super.super.xxxProperty().
    */
+  @Override
+  protected boolean answersProperty(String key) {
+    return false;
+  }
+
   @Override
   public Object getProperty(Object key) {
     if (Properties.KEY_COMMANDS.equals(key)) {
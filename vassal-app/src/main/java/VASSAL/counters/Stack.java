@@ -195,6 +195,7 @@ public class Stack extends AbstractImageFinder implements GamePiece, StateMergea
         contents[i] = contents[i + 1];
       }
       expanded = expanded && pieceCount > 1;
+      boundsChanged();
     }
   }
 
@@ -232,6 +233,7 @@ public class Stack extends AbstractImageFinder implements GamePiece, StateMergea
 
     contents[index] = p;
     pieceCount++;
+    boundsChanged();
   }
 
   /**
@@ -240,6 +242,16 @@ public class Stack extends AbstractImageFinder implements GamePiece, StateMergea
   public void removeAll() {
     pieceCount = 0;
     expanded = false;
+    boundsChanged();
+  }
+
+  /**
+   * Lets our {@link Map} know that the bounds of the stack may have changed
+   */
+  protected void boundsChanged() {
+    if (getMap() != null) {
+      getMap().pieceBoundsChanged(this);
+    }
   }
 
   /**
@@ -586,6 +598,7 @@ public class Stack extends AbstractImageFinder implements GamePiece, StateMergea
    */
   public void setExpanded(boolean b) {
     expanded = b && getPieceCount() > 1;
+    boundsChanged();
   }
 
   /**
@@ -784,6 +797,7 @@ public class Stack extends AbstractImageFinder implements GamePiece, StateMergea
   @Override
   public void setPosition(Point p) {
     pos = p;
+    boundsChanged();
   }
 
   /**
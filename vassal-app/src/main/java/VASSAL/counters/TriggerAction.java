@@ -301,6 +301,11 @@ public class TriggerAction extends Decorator implements TranslatablePiece,
     return loop && index && indexProperty != null && indexProperty.length() > 0;
   }
 
+  @Override
+  protected boolean answersProperty(String key) {
+    return isIndex() && indexProperty.equals(key);
+  }
+
   @Override
   public Object getProperty(Object key) {
     if (isIndex() && indexProperty.equals(key)) {
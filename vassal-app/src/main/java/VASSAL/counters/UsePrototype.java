@@ -77,13 +77,13 @@ public class UsePrototype extends Decorator implements EditablePiece, Loopable {
   @Override
   public void mySetType(String type) {
     this.type = type;
-    final SequenceEncoder.Decoder st = new SequenceEncoder.Decoder(type.substring(ID.length()), ';');
+    final SequenceEncoder.Decoder st = new SequenceEncoder.Decoder(type, ID.length(), type.length(), ';');
     prototypeName = st.nextToken("");
     if (st.hasMoreTokens()) {
       final java.util.Properties p = new java.util.Properties();
-      final SequenceEncoder.Decoder st2 = new SequenceEncoder.Decoder(st.nextToken(), ',');
+      final SequenceEncoder.Decoder st2 = st.nextDecoder(',');
       while (st2.hasMoreTokens()) {
-        final SequenceEncoder.Decoder st3 = new SequenceEncoder.Decoder(st2.nextToken(), '=');
+        final SequenceEncoder.Decoder st3 = st2.nextDecoder('=');
         if (st3.hasMoreTokens()) {
           final String key = st3.nextToken();
           if (st3.hasMoreTokens()) {
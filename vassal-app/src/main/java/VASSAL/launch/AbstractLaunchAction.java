@@ -66,6 +66,8 @@ import VASSAL.tools.concurrent.FutureUtils;
 import VASSAL.tools.concurrent.listener.EventListener;
 import VASSAL.tools.filechooser.FileChooser;
 import VASSAL.tools.filechooser.ModuleFileFilter;
+import VASSAL.tools.image.tilecache.LazyImageTileDiskCache;
+import VASSAL.tools.image.tilecache.TileStore;
 import VASSAL.tools.io.ProcessLauncher;
 import VASSAL.tools.io.ProcessWrapper;
 import VASSAL.tools.ipc.IPCMessage;
@@ -262,6 +264,12 @@ public abstract class AbstractLaunchAction extends AbstractAction {
 
         final File cdir = new File(Info.getConfDir(), "tiles/" + hstr);
 
+        // with lazy tiling, images are tiled by the player when first shown,
+        // except those too large for it to tile
+        final boolean lazy = Boolean.TRUE.equals(
+          Prefs.getGlobalPrefs().getValue(Prefs.LAZY_TILING)
+        );
+
         final TilingHandler th = new TilingHandler(
           aname,
           cdir,
@@ -271,7 +279,13 @@ public abstract class AbstractLaunchAction extends AbstractAction {
         );
 
         try {
-          th.sliceTiles();
+          if (lazy) {
+            th.discardStaleTiles();
+            th.sliceTiles(LazyImageTileDiskCache.MAX_PIXELS);
+          }
+          else {
+            th.sliceTiles();
+          }
         }
         catch (CancellationException e) {
           cancel(true);
@@ -290,13 +304,27 @@ public abstract class AbstractLaunchAction extends AbstractAction {
           );
 
           try {
-            eth.sliceTiles();
+            if (lazy) {
+              eth.discardStaleTiles();
+              eth.sliceTiles(LazyImageTileDiskCache.MAX_PIXELS);
+            }
+            else {
+              eth.sliceTiles();
+            }
           }
           catch (CancellationException e) {
             cancel(true);
             return null;
           }
         }
+
+        // trim the tile store shared by all modules
+        final Object limit =
+          Prefs.getGlobalPrefs().getValue(Prefs.TILE_CACHE_LIMIT);
+        if (limit instanceof Integer) {
+          new TileStore(new File(Info.getConfDir(), "tiles/" + TileStore.DIR_NAME)) //NON-NLS
+            .evict((long) (Integer) limit << 20);
+        }
       }
 
       if (lr.game != null) {
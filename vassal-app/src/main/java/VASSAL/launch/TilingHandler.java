@@ -41,6 +41,7 @@ import java.util.concurrent.ExecutionException;
 
 import VASSAL.i18n.Resources;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -48,6 +49,8 @@ import VASSAL.Info;
 import VASSAL.tools.DataArchive;
 import VASSAL.tools.image.ImageUtils;
 import VASSAL.tools.image.tilecache.ImageTileDiskCache;
+import VASSAL.tools.image.tilecache.TileIndex;
+import VASSAL.tools.image.tilecache.TileStore;
 import VASSAL.tools.image.tilecache.TileUtils;
 import VASSAL.tools.io.FileArchive;
 import VASSAL.tools.io.FileStore;
@@ -63,6 +66,11 @@ import VASSAL.tools.swing.Progressor;
 /**
  * A launcher for the process which tiles large images.
  *
+ * Tiles are written to a {@link TileStore} shared by all modules, under
+ * a key computed from the contents of each image, so images which are
+ * already in the store, e.g. from another version of the module, need
+ * not be tiled again.
+ *
  * @since 3.2.0
  * @author Joel Uckelman
  */
@@ -72,6 +80,8 @@ public class TilingHandler {
 
   protected final String aname;
   protected final File cdir;
+  protected final TileStore store;
+  protected final TileIndex index;
   protected final Dimension tdim;
   protected final int maxheap_limit;
   protected final int pid;
@@ -86,8 +96,26 @@ public class TilingHandler {
    */
   public TilingHandler(String aname, File cdir,
                        Dimension tdim, int mhlim, int pid) {
+    this(aname, cdir, new File(cdir.getParentFile(), TileStore.DIR_NAME),
+         tdim, mhlim, pid);
+  }
+
+  /**
+   * Creates a {@code TilingHandler}.
+   *
+   * @param aname the path to the ZIP archive
+   * @param cdir the tile cache directory
+   * @param sdir the tile store directory
+   * @param tdim the tile size
+   * @param pid the id of the child process
+   * @since 3.5.0
+   */
+  public TilingHandler(String aname, File cdir, File sdir,
+                       Dimension tdim, int mhlim, int pid) {
     this.aname = aname;
     this.cdir = cdir;
+    this.store = new TileStore(sdir);
+    this.index = new TileIndex(new File(cdir, TileIndex.FILE_NAME));
     this.tdim = tdim;
     this.maxheap_limit = mhlim;
     this.pid = pid;
@@ -96,14 +124,26 @@ public class TilingHandler {
   protected boolean isFresh(FileArchive archive,
                             FileStore tcache, String ipath)
                                                            throws IOException {
-    // look at the first 1:1 tile
-    final String tpath = TileUtils.tileName(ipath, 0, 0, 1);
-
     // check whether the image is older than the tile
     final long imtime = archive.getMTime(ipath);
+    if (imtime <= 0) {
+      // time in archive might be goofy
+      return false;
+    }
 
-    return imtime > 0 && // time in archive might be goofy
-           imtime <= tcache.getMTime(tpath);
+    // look for the tile pack in the store, or a record that none is needed
+    final String key = index.getKey(ipath, imtime, archive.getSize(ipath));
+    if (TileIndex.UNTILED.equals(key)) {
+      return true;
+    }
+    if (key != null && store.contains(key)) {
+      store.touch(key);
+      return true;
+    }
+
+    // look at the tile pack in the cache directory
+    final String tpath = TileUtils.packName(ipath);
+    return imtime <= tcache.getMTime(tpath);
   }
 
   protected Dimension getImageSize(DataArchive archive, String ipath)
@@ -118,6 +158,21 @@ public class TilingHandler {
     FileStore tcache,
     List<String> multi,
     List<Pair<String, IOException>> failed) throws IOException {
+    return findImages(archive, tcache, multi, failed, 0);
+  }
+
+  /**
+   * Finds the images which need tiling.
+   *
+   * @param minPixels images with no more pixels than this are skipped
+   * @since 3.5.0
+   */
+  protected Pair<Integer, Integer> findImages(
+    DataArchive archive,
+    FileStore tcache,
+    List<String> multi,
+    List<Pair<String, IOException>> failed,
+    long minPixels) throws IOException {
 
     // build a list of all multi-tile images and count tiles
     final Set<String> images = archive.getImageNameSet();
@@ -133,6 +188,7 @@ public class TilingHandler {
       // skip images with fresh tiles
       if (isFresh(fa, tcache, ipath)) continue;
 
+      // read only the header of the image, for its size
       final Dimension idim;
       try {
         idim = getImageSize(archive, ipath);
@@ -143,11 +199,42 @@ public class TilingHandler {
         continue;
       }
 
+      final long mtime = fa.getMTime(ipath);
+      final long size = fa.getSize(ipath);
+
       // count the tiles at all sizes if we have more than one tile at 1:1
       final int t = TileUtils.tileCountAtScale(idim, tdim, 1) > 1 ?
                     TileUtils.tileCount(idim, tdim) : 0;
 
-      if (t == 0) continue;
+      if (t == 0) {
+        // record that the image needs no tiles, so that it is fresh hereafter
+        index.put(ipath, mtime, size, TileIndex.UNTILED);
+        continue;
+      }
+
+      // skip images left to be tiled elsewhere
+      if ((long) idim.width * idim.height <= minPixels) continue;
+
+      // an unchanged image keeps its key, even if its tiles were evicted
+      String key = index.getKey(ipath, mtime, size);
+      if (key == null) {
+        final byte[] data;
+        try (InputStream in = archive.getInputStream(ipath)) {
+          data = IOUtils.toByteArray(in);
+        }
+        catch (IOException e) {
+          failed.add(Pair.of(ipath, e));
+          continue;
+        }
+
+        // skip images whose tiles are already in the store
+        key = TileStore.key(data, tdim);
+        index.put(ipath, mtime, size, key);
+        if (store.contains(key)) {
+          store.touch(key);
+          continue;
+        }
+      }
 
       tcount += t;
       multi.add(ipath);
@@ -179,7 +266,7 @@ public class TilingHandler {
       "-DVASSAL.port=" + port, //NON-NLS
       "VASSAL.tools.image.tilecache.ZipFileImageTiler",
       aname,
-      cdir.getAbsolutePath(),
+      store.getDir().getAbsolutePath(),
       String.valueOf(tdim.width),
       String.valueOf(tdim.height)
     );
@@ -202,9 +289,12 @@ public class TilingHandler {
       args.toArray(new String[0])
     );
 
-    // write the image paths to child's stdin, one per line
+    // write the image paths and their keys to child's stdin, one per line
     try (PrintWriter stdin = new PrintWriter(proc.stdin, true, StandardCharsets.UTF_8)) {
-      multi.forEach(stdin::println);
+      for (final String ipath : multi) {
+        final String key = index.getKey(ipath);
+        stdin.println(key == null ? ipath : ipath + '\t' + key);
+      }
     }
 
     try (Socket csock = ssock.accept()) {
@@ -285,14 +375,57 @@ public class TilingHandler {
   protected void makeHashDirs() throws IOException {
     for (int i = 0; i < 16; ++i) {
       for (int j = 0; j < 16; ++j) {
-        final File d = new File(String.format("%s/%1x/%1x%1x", cdir, i, i, j)); //NON-NLS
+        final File d = new File(String.format("%s/%1x/%1x%1x", store.getDir(), i, i, j)); //NON-NLS
         FileUtils.forceMkdir(d);
       }
     }
   }
 
   protected void cleanup() throws IOException {
-    FileUtils.forceDelete(cdir);
+    // tile packs are written whole, so only the cache directory can be bad
+    if (cdir.exists()) {
+      FileUtils.forceDelete(cdir);
+    }
+  }
+
+  /**
+   * Discards the tiles of images which have changed since they were tiled.
+   * Used instead of {@link #sliceTiles()} when images are tiled lazily, when
+   * they are first shown, so that changed images are tiled again. Images too
+   * large to be tiled lazily are then tiled by {@link #sliceTiles(long)}.
+   *
+   * @throws IOException if one occurs
+   * @see VASSAL.tools.image.tilecache.LazyImageTileDiskCache
+   * @since 3.5.0
+   */
+  public void discardStaleTiles() throws IOException {
+    try (DataArchive archive = new DataArchive(aname)) {
+      final FileArchive fa = archive.getArchive();
+      final FileStore tcache = new ImageTileDiskCache(cdir.getAbsolutePath());
+
+      boolean changed = false;
+      for (final String iname : archive.getImageNameSet()) {
+        final String ipath = DataArchive.IMAGE_DIR + iname;
+        final String tpath = TileUtils.packName(ipath);
+
+        // tiles in the store may be shared, so only forget the key
+        final long mtime = index.getMTime(ipath);
+        if (mtime != -1 && mtime != fa.getMTime(ipath)) {
+          logger.info("Discarding stale key for {}", ipath); //NON-NLS
+          index.remove(ipath);
+          changed = true;
+        }
+
+        if (tcache.contains(tpath) && !isFresh(fa, tcache, ipath)) {
+          logger.info("Discarding stale tiles for {}", ipath); //NON-NLS
+          FileUtils.forceDelete(new File(cdir, tpath));
+        }
+      }
+
+      if (changed) {
+        index.save();
+      }
+    }
   }
 
   /**
@@ -301,6 +434,19 @@ public class TilingHandler {
    * @throws IOException if one occurs
    */
   public void sliceTiles() throws CancellationException, IOException {
+    sliceTiles(0);
+  }
+
+  /**
+   * Slices the tiles of images having more than the given number of pixels.
+   * With lazy tiling, the player tiles the smaller images when first shown,
+   * but the larger ones are too large for it to hold in memory.
+   *
+   * @param minPixels images with no more pixels than this are not tiled
+   * @throws IOException if one occurs
+   * @since 3.5.0
+   */
+  public void sliceTiles(long minPixels) throws CancellationException, IOException {
     final List<String> multi = new ArrayList<>();
     final List<Pair<String, IOException>> failed =
       new ArrayList<>();
@@ -308,12 +454,13 @@ public class TilingHandler {
     final Pair<Integer, Integer> s;
     try (DataArchive archive = new DataArchive(aname)) {
       final FileStore tcache = new ImageTileDiskCache(cdir.getAbsolutePath());
-      s = findImages(archive, tcache, multi, failed);
+      s = findImages(archive, tcache, multi, failed, minPixels);
     }
 
     // nothing to do if no images need tiling
     if (multi.isEmpty()) {
       logger.info("No images to tile."); //NON-NLS
+      index.save();
       return;
     }
 
@@ -337,5 +484,7 @@ public class TilingHandler {
       cleanup();
       throw e;
     }
+
+    index.save();
   }
 }
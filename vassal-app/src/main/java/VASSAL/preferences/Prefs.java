@@ -41,6 +41,7 @@ import VASSAL.build.module.WizardSupport;
 import VASSAL.configure.BooleanConfigurer;
 import VASSAL.configure.Configurer;
 import VASSAL.configure.DirectoryConfigurer;
+import VASSAL.configure.IntConfigurer;
 import VASSAL.i18n.Resources;
 import VASSAL.tools.ReadErrorDialog;
 
@@ -52,6 +53,8 @@ public class Prefs implements Closeable {
   /** Preferences key for the directory containing modules */
   public static final String MODULES_DIR_KEY = "modulesDir"; //NON-NLS
   public static final String DISABLE_D3D = "disableD3d"; //NON-NLS
+  public static final String LAZY_TILING = "lazyTiling"; //NON-NLS
+  public static final String TILE_CACHE_LIMIT = "tileCacheLimit"; //NON-NLS
 
   private static Prefs globalPrefs;
 
@@ -280,6 +283,22 @@ public class Prefs implements Closeable {
       globalPrefs.addOption(Resources.getString("Prefs.compatibility_tab"), d3dConf);
     }
 
+    // Option to tile large images when they are first shown, instead of when the module is opened
+    final BooleanConfigurer lazyTilingConf = new BooleanConfigurer(
+      LAZY_TILING,
+      Resources.getString("Prefs.lazy_tiling"),
+      Boolean.FALSE
+    );
+    globalPrefs.addOption(lazyTilingConf);
+
+    // Maximum size of the tile store shared by all modules, in MB
+    final IntConfigurer tileCacheLimitConf = new IntConfigurer(
+      TILE_CACHE_LIMIT,
+      Resources.getString("Prefs.tile_cache_limit"),
+      2048
+    );
+    globalPrefs.addOption(tileCacheLimitConf);
+
     final BooleanConfigurer wizardConf = new BooleanConfigurer(
       WizardSupport.WELCOME_WIZARD_KEY,
       Resources.getString("WizardSupport.ShowWizard"),
@@ -24,12 +24,15 @@ import VASSAL.counters.BasicPiece;
 import VASSAL.counters.Decorator;
 import VASSAL.counters.GamePiece;
 import VASSAL.counters.PieceFilter;
+import VASSAL.counters.PropertiesPieceFilter;
+import VASSAL.counters.PropertyIndex;
 import VASSAL.counters.Stack;
 import VASSAL.i18n.Resources;
 import VASSAL.tools.ErrorDialog;
 import VASSAL.tools.RecursionLimitException;
 import VASSAL.tools.RecursionLimiter;
 import VASSAL.tools.RecursionLimiter.Loopable;
+import VASSAL.tools.concurrent.LRUCache;
 import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -37,7 +40,8 @@ import java.io.IOException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
@@ -50,8 +54,11 @@ import VASSAL.build.module.properties.PropertySource;
 import VASSAL.script.expression.ExpressionException;
 import VASSAL.tools.WarningDialog;
 import bsh.BeanShellExpressionValidator;
+import bsh.BshMethod;
+import bsh.CallStack;
 import bsh.EvalError;
 import bsh.NameSpace;
+import bsh.UtilEvalError;
 
 /**
  *
@@ -94,9 +101,25 @@ public class ExpressionInterpreter extends AbstractInterpreter implements Loopab
   protected List<String> variables;
   protected List<String> stringVariables;
 
-  // Maintain a cache of all generated Interpreters. All Expressions
+  // Property names for each of the variables, with any $...$ removed
+  protected List<String> propertyNames;
+
+  // The parsed method enclosing the expression, invoked directly with
+  // the String property values as arguments
+  protected BshMethod compiledMethod;
+
+  // Whether evaluation invokes the compiled method directly, or builds and
+  // parses a call to it on each evaluation as was done previously
+  private static boolean compiledMode = true;
+
+  // The most Interpreters kept in the cache. Expressions built on the fly
+  // can produce any number of distinct strings, so the least recently used
+  // Interpreters are dropped; Expressions keep the Interpreters they hold.
+  private static final int CACHE_SIZE = 5000;
+
+  // Maintain a cache of generated Interpreters. All Expressions
   // with the same Expression use the same Interpreter.
-  protected static final java.util.Map<String, ExpressionInterpreter> cache = new HashMap<>();
+  protected static final LRUCache<String, ExpressionInterpreter> cache = new LRUCache<>(CACHE_SIZE);
 
   @Override
   public String getComponentTypeName() {
@@ -112,12 +135,21 @@ public class ExpressionInterpreter extends AbstractInterpreter implements Loopab
     final String e = expr == null ? "" : strip(expr);
     ExpressionInterpreter interpreter = cache.get(e);
     if (interpreter == null) {
-      interpreter = new ExpressionInterpreter(e);
-      cache.put(e, interpreter);
+      // Parsed outside the cache lock; should another thread parse the
+      // same expression meanwhile, both use whichever was cached first
+      interpreter = cache.add(e, new ExpressionInterpreter(e));
     }
     return interpreter;
   }
 
+  /**
+   * @return the cache of Interpreters, for its hit, miss and eviction counts
+   * @since 3.5.0
+   */
+  public static LRUCache<String, ExpressionInterpreter> getCache() {
+    return cache;
+  }
+
   protected static String strip(String expr) {
     final String s = expr.trim();
     if (s.startsWith("{") && s.endsWith("}")) {
@@ -180,6 +212,27 @@ public class ExpressionInterpreter extends AbstractInterpreter implements Loopab
       catch (EvalError e) {
         throw new ExpressionException(getExpression());
       }
+
+      // Keep hold of the parsed method so that it can be invoked without
+      // parsing a call to it on every evaluation
+      final Class<?>[] signature = new Class<?>[stringVariables.size()];
+      Arrays.fill(signature, String.class);
+      try {
+        compiledMethod = expressionNameSpace.getMethod(MAGIC2, signature, true);
+      }
+      catch (UtilEvalError e) {
+        compiledMethod = null;
+      }
+    }
+
+    propertyNames = new ArrayList<>(variables.size());
+    for (final String var : variables) {
+      if (var.length() > 2 && var.startsWith("$") && var.endsWith("$")) {
+        propertyNames.add(var.substring(1, var.length() - 1));
+      }
+      else {
+        propertyNames.add(var);
+      }
     }
 
     // Add a link to this Interpreter into the new NameSpace for callbacks from
@@ -221,6 +274,25 @@ public class ExpressionInterpreter extends AbstractInterpreter implements Loopab
     }
   }
 
+  /**
+   * Select how expressions are evaluated. In compiled mode (the default) the
+   * parsed expression is invoked directly with the property values as
+   * arguments. Otherwise a call to the expression is built as a String and
+   * parsed on every evaluation.
+   *
+   * @param compiled true to use compiled mode
+   */
+  public static void setCompiledMode(boolean compiled) {
+    compiledMode = compiled;
+  }
+
+  /**
+   * @return true if expressions are evaluated in compiled mode
+   */
+  public static boolean isCompiledMode() {
+    return compiledMode;
+  }
+
   /**
    * Return the current expression
    *
@@ -259,65 +331,21 @@ public class ExpressionInterpreter extends AbstractInterpreter implements Loopab
 
       // Bind each undeclared variable with the value of the
       // corresponding Vassal property. Allow for old-style $variable$ references
-      for (final String var : variables) {
-        String name = var;
-        if (name.length() > 2 && name.startsWith("$") && name.endsWith("$")) {
-          name = name.substring(1, name.length() - 1);
-        }
-        final Object prop = localized ? source.getLocalizedProperty(name) : source.getProperty(name);
-        final String value = prop == null ? "" : prop.toString();
-        if (value == null) {
-          setVar(var, "");
-        }
-        else if (BeanShell.TRUE.equals(value)) {
-          setVar(var, true);
-        }
-        else if (BeanShell.FALSE.equals(value)) {
-          setVar(var, false);
-        }
-        else if (! StringUtils.containsOnly(value, "+-.0123456789")) { // NON-NLS
-          setVar(var, value);
-        }
-        else {
-          try {
-            setVar(var, Integer.parseInt(value));
-          }
-          catch (NumberFormatException ex1) {
-
-            try {
-              setVar(var, Float.parseFloat(value));
-            }
-            catch (NumberFormatException ex2) {
-              setVar(var, value);
-            }
-          }
-        }
-      }
-
-      final StringBuilder argList = new StringBuilder();
-      for (final String var : stringVariables) {
-        if (argList.length() > 0) {
-          argList.append(',');
-        }
-        final Object value = localized ? source.getLocalizedProperty(var) : source.getProperty(var);
-        argList.append('"').append(value == null ? "" : value.toString()).append('"');
+      for (int i = 0; i < variables.size(); ++i) {
+        final Object prop = localized ? source.getLocalizedProperty(propertyNames.get(i)) : source.getProperty(propertyNames.get(i));
+        bindVariable(variables.get(i), prop == null ? "" : prop.toString());
       }
 
-      // Re-evaluate the pre-parsed expression now that the undefined variables have
-      // been bound to their Vassal property values.
-
       setVar(THIS, this);
       setVar(SOURCE, source);
 
-      try {
-        eval(MAGIC1 + "=" + MAGIC2 + "(" + argList.toString() + ")");
-        result = get(MAGIC1).toString();
+      // Re-evaluate the pre-parsed expression now that the undefined variables have
+      // been bound to their Vassal property values.
+      if (compiledMode && compiledMethod != null) {
+        result = invokeCompiled(localized);
       }
-      catch (EvalError e) {
-        final String s = e.getRawMessage();
-        final String search = MAGIC2 + "();'' : ";
-        final int pos = s.indexOf(search);
-        throw new ExpressionException(getExpression(), s.substring(pos + search.length()));
+      else {
+        result = invokeInterpreted(localized);
       }
     }
     catch (RecursionLimitException e) {
@@ -331,6 +359,100 @@ public class ExpressionInterpreter extends AbstractInterpreter implements Loopab
     return result;
   }
 
+  /**
+   * Bind a variable to a property value, converting it to a boolean or
+   * number where possible
+   *
+   * @param var Variable name
+   * @param value Property value
+   */
+  protected void bindVariable(String var, String value) {
+    if (value == null) {
+      setVar(var, "");
+    }
+    else if (BeanShell.TRUE.equals(value)) {
+      setVar(var, true);
+    }
+    else if (BeanShell.FALSE.equals(value)) {
+      setVar(var, false);
+    }
+    else if (! StringUtils.containsOnly(value, "+-.0123456789")) { // NON-NLS
+      setVar(var, value);
+    }
+    else {
+      try {
+        setVar(var, Integer.parseInt(value));
+      }
+      catch (NumberFormatException ex1) {
+
+        try {
+          setVar(var, Float.parseFloat(value));
+        }
+        catch (NumberFormatException ex2) {
+          setVar(var, value);
+        }
+      }
+    }
+  }
+
+  /**
+   * Invoke the parsed expression method directly, passing the values of the
+   * String variables as arguments.
+   *
+   * @param localized true to use localized property values
+   * @return result
+   * @throws ExpressionException Error evaluating the expression
+   */
+  protected String invokeCompiled(boolean localized) throws ExpressionException {
+    final Object[] args = new Object[stringVariables.size()];
+    for (int i = 0; i < args.length; ++i) {
+      final Object value = localized ? source.getLocalizedProperty(stringVariables.get(i)) : source.getProperty(stringVariables.get(i));
+      args[i] = value == null ? "" : value.toString();
+    }
+
+    try {
+      final Object value = compiledMethod.invoke(args, this, new CallStack(expressionNameSpace), null);
+      return value == null ? "" : value.toString();
+    }
+    catch (EvalError e) {
+      throw new ExpressionException(getExpression(), errorMessage(e));
+    }
+  }
+
+  /**
+   * Build a call to the expression method with the values of the String
+   * variables quoted as arguments, and parse and evaluate it.
+   *
+   * @param localized true to use localized property values
+   * @return result
+   * @throws ExpressionException Error evaluating the expression
+   */
+  protected String invokeInterpreted(boolean localized) throws ExpressionException {
+    final StringBuilder argList = new StringBuilder();
+    for (final String var : stringVariables) {
+      if (argList.length() > 0) {
+        argList.append(',');
+      }
+      final Object value = localized ? source.getLocalizedProperty(var) : source.getProperty(var);
+      argList.append('"').append(value == null ? "" : value.toString()).append('"');
+    }
+
+    try {
+      eval(MAGIC1 + "=" + MAGIC2 + "(" + argList.toString() + ")");
+      return get(MAGIC1).toString();
+    }
+    catch (EvalError e) {
+      throw new ExpressionException(getExpression(), errorMessage(e));
+    }
+  }
+
+  private String errorMessage(EvalError e) {
+    final String s = e.getRawMessage();
+    final String search = MAGIC2 + "();'' : ";
+    final int pos = s.indexOf(search);
+    return pos < 0 ? s : s.substring(pos + search.length());
+  }
+
   public String evaluate() throws ExpressionException {
     return getExpression().length() == 0 ? "" : evaluate(GameModule.getGameModule());
   }
@@ -553,6 +675,16 @@ public class ExpressionInterpreter extends AbstractInterpreter implements Loopab
     final List<Map> maps = getMapList(mapName, sourcePiece);
     final PieceFilter filter = matchString == null ? null : new PropertyExpression(unescape(matchString)).getFilter(sourcePiece);
 
+    final Collection<GamePiece> candidates = findCandidates(filter);
+    if (candidates != null) {
+      for (final GamePiece p : candidates) {
+        if (maps.contains(p.getMap())) {
+          result += getIntPropertyValue(p, filter, (String) propertyName);
+        }
+      }
+      return result;
+    }
+
     for (final Map map : maps) {
       for (final GamePiece piece : map.getAllPieces()) {
         if (piece instanceof Stack) {
@@ -597,6 +729,17 @@ public class ExpressionInterpreter extends AbstractInterpreter implements Loopab
     final List<Map> maps = getMapList(mapName, sourcePiece);
 
     final PieceFilter filter = matchString == null ? null : new PropertyExpression(unescape(matchString)).getFilter(sourcePiece);
+
+    final Collection<GamePiece> candidates = findCandidates(filter);
+    if (candidates != null) {
+      for (final GamePiece p : candidates) {
+        if (maps.contains(p.getMap()) && filter.accept(p)) {
+          result++;
+        }
+      }
+      return result;
+    }
+
     for (final Map map : maps) {
       for (final GamePiece piece : map.getAllPieces()) {
         if (piece instanceof Stack) {
@@ -617,6 +760,22 @@ public class ExpressionInterpreter extends AbstractInterpreter implements Loopab
     return result;
   }
 
+  /**
+   * If the filter is a simple equality, such as "Type = Infantry", and the {@link PropertyIndex} is
+   * enabled, find the pieces which pass it from the index instead of checking every piece
+   * @param filter the filter, or null
+   * @return the pieces in the game, on any map or none, which may pass the filter, or null if
+   * every piece must be checked
+   */
+  private Collection<GamePiece> findCandidates(PieceFilter filter) {
+    final String[] equality = PropertiesPieceFilter.getEquality(filter);
+    if (equality == null) {
+      return null;
+    }
+    final PropertyIndex index = PropertyIndex.getInstance();
+    return index == null ? null : index.find(equality[0], equality[1]);
+  }
+
   private String unescape(String expr) {
     return expr.replace("\\\"", "\"");
   }
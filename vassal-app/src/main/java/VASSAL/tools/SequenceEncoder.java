@@ -19,6 +19,7 @@ package VASSAL.tools;
 
 import java.awt.Color;
 import java.awt.event.InputEvent;
+import java.nio.CharBuffer;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
@@ -51,7 +52,7 @@ import VASSAL.configure.StringArrayConfigurer;
  * <pre>
  * SequenceEncoder.Decoder st = new SequenceEncoder.Decoder("A,B\,C",',');
  * String A = st.nextToken();
- * SequenceEncoder.Decoder BC = new SequenceEncoder.Decoder(st.nextToken(),',');
+ * SequenceEncoder.Decoder BC = st.nextDecoder(',');
  * String B = BC.nextToken();
  * String C = BC.nextToken();
  * </pre>
@@ -206,70 +207,122 @@ public class SequenceEncoder {
     buffer.append(s, begin, s.length());
   }
 
+  /**
+   * Decodes a value encoded by a {@link SequenceEncoder}.
+   * <br><br>
+   * Tokens are found in place in the value, which may be any {@link CharSequence}. A token is
+   * copied into a String only when it is asked for as one: the numeric, boolean and character
+   * parsers read the token where it lies, and {@link #nextCharSequence} and {@link #nextDecoder}
+   * hand out views of it. Only a token containing escaped delimiters must first be pieced
+   * together in a buffer.
+   */
   public static class Decoder implements Iterator<String> {
-    private String val;
+    private final CharSequence val;
     private final char delim;
+    private boolean done;
 
     private StringBuilder buf;
 
     private int start;
+    private final int first;
     private final int stop;
 
+    // The last token found: either the part of val from tokBegin to tokEnd,
+    // or, if it contained escaped delimiters, the same part of buf
+    private boolean inBuf;
+    private int tokBegin;
+    private int tokEnd;
+
     public Decoder(String value, char delimiter) {
+      this((CharSequence) value, delimiter);
+    }
+
+    /**
+     * Decodes a value without converting it to a String first. The value must not change
+     * while it is being decoded.
+     *
+     * @param value the encoded value
+     * @param delimiter the delimiter with which it was encoded
+     * @since 3.5.0
+     */
+    public Decoder(CharSequence value, char delimiter) {
+      this(value, 0, value != null ? value.length() : 0, delimiter);
+    }
+
+    /**
+     * Decodes part of a value, as if it were the whole of it.
+     *
+     * @param value the value holding the encoded value
+     * @param beginIndex the start of the encoded value, inclusive
+     * @param endIndex the end of the encoded value, exclusive
+     * @param delimiter the delimiter with which it was encoded
+     * @since 3.5.0
+     */
+    public Decoder(CharSequence value, int beginIndex, int endIndex, char delimiter) {
       val = value;
       delim = delimiter;
+      done = value == null;
 
-      start = 0;
-      stop = val != null ? val.length() : 0;
+      first = beginIndex;
+      start = beginIndex;
+      stop = endIndex;
     }
 
     public Decoder(Decoder d) {
       val = d.val;
       delim = d.delim;
+      done = d.done;
 
+      first = d.first;
       start = d.start;
       stop = d.stop;
     }
 
     public boolean hasMoreTokens() {
-      return val != null;
+      return !done;
     }
 
-    public String nextToken() {
-      if (!hasMoreTokens()) throw new NoSuchElementException();
+    /**
+     * Finds the next token, and strips any enclosing single quotes from it
+     */
+    private void scan() {
+      if (done) throw new NoSuchElementException();
+
+      inBuf = false;
 
       if (start == stop) {
         // token for "null" is the empty string
-        val = null;
-        return "";
-      }
-
-      if (buf != null) {
-        buf.setLength(0);
+        done = true;
+        tokBegin = tokEnd = stop;
+        return;
       }
 
-      String tok = null;
       int i = start;
       for ( ; i < stop; ++i) {
         if (val.charAt(i) == delim) {
-          if (i > 0 && val.charAt(i - 1) == '\\') {
+          if (i > first && val.charAt(i - 1) == '\\') {
             // escaped delimiter; piece together the token
-            if (buf == null) {
-              buf = new StringBuilder();
+            if (!inBuf) {
+              if (buf == null) {
+                buf = new StringBuilder();
+              }
+              buf.setLength(0);
+              inBuf = true;
             }
             buf.append(val, start, i - 1);
             start = i;
           }
           else {
             // real delimiter
-            if (buf == null || buf.length() == 0) {
-              // no escapes; take the token whole
-              tok = val.substring(start, i);
-            }
-            else {
+            if (inBuf) {
               // had an earlier escape; cobble on the end
               buf.append(val, start, i);
             }
+            else {
+              // no escapes; take the token whole
+              tokBegin = start;
+              tokEnd = i;
+            }
             start = i + 1;
             break;
           }
@@ -278,27 +331,88 @@ public class SequenceEncoder {
 
       if (start < i) {
         // i == stop; we reached the end without a delimiter
-        if (buf == null || buf.length() == 0) {
-          // no escapes; take the token whole
-          tok = val.substring(start);
+        if (inBuf) {
+          buf.append(val, start, stop);
         }
         else {
-          // had an earlier escape; cobble on the end
-          buf.append(val, start, stop);
+          tokBegin = start;
+          tokEnd = stop;
         }
-        val = null;
+        done = true;
       }
 
-      return unquote(tok != null ? tok : buf);
-    }
+      if (inBuf) {
+        tokBegin = 0;
+        tokEnd = buf.length();
+      }
 
-    private String unquote(CharSequence cs) {
       // strip enclosure by single quotes
-      final int len = cs.length();
-      return (
-        len > 1 && cs.charAt(0) == '\'' && cs.charAt(len - 1) == '\'' ?
-        cs.subSequence(1, len - 1) : cs
-      ).toString();
+      final CharSequence tok = token();
+      if (tokEnd - tokBegin > 1 && tok.charAt(tokBegin) == '\'' && tok.charAt(tokEnd - 1) == '\'') {
+        ++tokBegin;
+        --tokEnd;
+      }
+    }
+
+    /**
+     * @return the sequence holding the last token found, from tokBegin to tokEnd
+     */
+    private CharSequence token() {
+      return inBuf ? buf : val;
+    }
+
+    private String tokenString() {
+      return token().subSequence(tokBegin, tokEnd).toString();
+    }
+
+    private boolean tokenEquals(String s) {
+      final int len = s.length();
+      if (tokEnd - tokBegin != len) {
+        return false;
+      }
+      final CharSequence tok = token();
+      for (int i = 0; i < len; ++i) {
+        if (tok.charAt(tokBegin + i) != s.charAt(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    public String nextToken() {
+      scan();
+      return tokenString();
+    }
+
+    /**
+     * Returns the next token without copying it, if it can be. The view is valid for as long
+     * as the decoded value does not change.
+     *
+     * @return the next token
+     * @throws NoSuchElementException if there are no more tokens
+     * @since 3.5.0
+     */
+    public CharSequence nextCharSequence() {
+      scan();
+      // the buffer is reused by the next token, so a token in it must be copied
+      return inBuf ? tokenString() : CharBuffer.wrap(val, tokBegin, tokEnd);
+    }
+
+    /**
+     * Returns a decoder for the next token, which was itself encoded with the given delimiter,
+     * without copying the token if it can be. This replaces
+     * <code>new Decoder(nextToken(), delimiter)</code>.
+     *
+     * @param delimiter the delimiter with which the token was encoded
+     * @return a decoder for the next token
+     * @throws NoSuchElementException if there are no more tokens
+     * @since 3.5.0
+     */
+    public Decoder nextDecoder(char delimiter) {
+      scan();
+      return inBuf ?
+        new Decoder(tokenString(), delimiter) :
+        new Decoder(val, tokBegin, tokEnd, delimiter);
     }
 
     @Override
@@ -326,9 +440,10 @@ public class SequenceEncoder {
      * @return next token as an integer, or defaultValue if it didn't exist or didn't parse
      */
     public int nextInt(int defaultValue) {
-      if (val != null) {
+      if (!done) {
+        scan();
         try {
-          defaultValue = Integer.parseInt(nextToken());
+          defaultValue = Integer.parseInt(token(), tokBegin, tokEnd, 10);
         }
         catch (NumberFormatException e) {
           // no action
@@ -338,9 +453,10 @@ public class SequenceEncoder {
     }
 
     public long nextLong(long defaultValue) {
-      if (val != null) {
+      if (!done) {
+        scan();
         try {
-          defaultValue = Long.parseLong(nextToken());
+          defaultValue = Long.parseLong(token(), tokBegin, tokEnd, 10);
         }
         catch (NumberFormatException e) {
           // no action
@@ -350,7 +466,7 @@ public class SequenceEncoder {
     }
 
     public double nextDouble(double defaultValue) {
-      if (val != null) {
+      if (!done) {
         try {
           defaultValue = Double.parseDouble(nextToken());
         }
@@ -362,7 +478,11 @@ public class SequenceEncoder {
     }
 
     public boolean nextBoolean(boolean defaultValue) {
-      return val != null ? "true".equals(nextToken()) : defaultValue; //NON-NLS
+      if (!done) {
+        scan();
+        defaultValue = tokenEquals("true"); //NON-NLS
+      }
+      return defaultValue;
     }
 
     /**
@@ -371,9 +491,9 @@ public class SequenceEncoder {
      * @return next token if a character is available, or defaultValue if no more tokens or the token has zero length
      */
     public char nextChar(char defaultValue) {
-      if (val != null) {
-        final String s = nextToken();
-        defaultValue = s.length() > 0 ? s.charAt(0) : defaultValue;
+      if (!done) {
+        scan();
+        defaultValue = tokEnd > tokBegin ? token().charAt(tokBegin) : defaultValue;
       }
       return defaultValue;
     }
@@ -384,10 +504,11 @@ public class SequenceEncoder {
     }
 
     public Color nextColor(Color defaultValue) {
-      if (val != null) {
-        final String s = nextToken();
-        if (s.length() > 0) {
-          defaultValue = ColorConfigurer.stringToColor(s);
+      if (!done) {
+        scan();
+        if (tokEnd > tokBegin) {
+          final Color c = tokenToColor();
+          defaultValue = c != null ? c : ColorConfigurer.stringToColor(tokenString());
         }
         else {
           defaultValue = null;
@@ -396,8 +517,41 @@ public class SequenceEncoder {
       return defaultValue;
     }
 
+    /**
+     * Parses the last token found as a color in the usual "r,g,b" or "r,g,b,a" form, in place
+     * @return the color, or null if the token has any other form, which is then left to
+     * {@link ColorConfigurer#stringToColor}
+     */
+    private Color tokenToColor() {
+      final CharSequence tok = token();
+      final int[] rgba = { 0, 0, 0, 255 };
+      int n = 0;
+      int begin = tokBegin;
+      while (begin <= tokEnd) {
+        int end = begin;
+        while (end < tokEnd && tok.charAt(end) != ',') {
+          ++end;
+        }
+        if (end == begin || n == rgba.length) {
+          return null;
+        }
+        try {
+          rgba[n] = Integer.parseInt(tok, begin, end, 10);
+        }
+        catch (NumberFormatException e) {
+          return null;
+        }
+        if (rgba[n] < 0 || rgba[n] > 255) {
+          return null;
+        }
+        ++n;
+        begin = end + 1;
+      }
+      return n >= 3 ? new Color(rgba[0], rgba[1], rgba[2], rgba[3]) : null;
+    }
+
     public KeyStroke nextKeyStroke(KeyStroke defaultValue) {
-      if (val != null) {
+      if (!done) {
         final String s = nextToken();
         if (s.length() == 0) {
           defaultValue = null;
@@ -422,7 +576,7 @@ public class SequenceEncoder {
     }
 
     public NamedKeyStroke nextNamedKeyStroke(NamedKeyStroke defaultValue) {
-      if (val != null) {
+      if (!done) {
         final String s = nextToken();
         if (s.length() == 0) {
           defaultValue = null;
@@ -443,12 +597,12 @@ public class SequenceEncoder {
      * @return next token, or the default value if no more tokens
      */
     public String nextToken(String defaultValue) {
-      return val != null ? nextToken() : defaultValue;
+      return !done ? nextToken() : defaultValue;
     }
 
     public String[] nextStringArray(int minLength) {
       String[] retVal;
-      if (val != null) {
+      if (!done) {
         retVal = StringArrayConfigurer.stringToArray(nextToken());
       }
       else {
@@ -0,0 +1,147 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+
+package VASSAL.tools.concurrent;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A thread-safe cache holding at most a fixed number of entries. When a new
+ * entry would exceed the limit, the least recently used entry is evicted.
+ *
+ * <p>The numbers of hits, misses and evictions are counted, so that the
+ * cache can be tuned.</p>
+ *
+ * <p>This implementation does not permit <code>null</code> keys or
+ * values.</p>
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ * @since 3.5.0
+ */
+public class LRUCache<K, V> {
+  private final LinkedHashMap<K, V> map = new LinkedHashMap<>(16, 0.75f, true);
+
+  private int maxSize;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  /**
+   * @param maxSize the maximum number of entries
+   * @throws IllegalArgumentException if <code>maxSize &lt; 1</code>
+   */
+  public LRUCache(int maxSize) {
+    setMaxSize(maxSize);
+  }
+
+  /**
+   * @return the value for <code>key</code>, or <code>null</code> if it is
+   * not in the cache
+   */
+  public synchronized V get(K key) {
+    final V value = map.get(key);
+    if (value == null) {
+      ++misses;
+    }
+    else {
+      ++hits;
+    }
+    return value;
+  }
+
+  /**
+   * Adds a value to the cache, unless a value for the same key was added
+   * since it was found to be missing.
+   *
+   * @return the value now in the cache for <code>key</code>
+   */
+  public synchronized V add(K key, V value) {
+    if (key == null || value == null) throw new IllegalArgumentException();
+
+    final V old = map.putIfAbsent(key, value);
+    if (old != null) {
+      return old;
+    }
+
+    trim();
+    return value;
+  }
+
+  public synchronized V remove(K key) {
+    return map.remove(key);
+  }
+
+  public synchronized void clear() {
+    map.clear();
+  }
+
+  public synchronized int size() {
+    return map.size();
+  }
+
+  public synchronized int getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * Changes the maximum number of entries, evicting any over the new limit
+   *
+   * @throws IllegalArgumentException if <code>maxSize &lt; 1</code>
+   */
+  public synchronized void setMaxSize(int maxSize) {
+    if (maxSize < 1) throw new IllegalArgumentException();
+    this.maxSize = maxSize;
+    trim();
+  }
+
+  private void trim() {
+    final Iterator<Map.Entry<K, V>> i = map.entrySet().iterator();
+    while (map.size() > maxSize && i.hasNext()) {
+      i.next();
+      i.remove();
+      ++evictions;
+    }
+  }
+
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  public synchronized long getEvictions() {
+    return evictions;
+  }
+
+  /** Resets the hit, miss and eviction counts to zero */
+  public synchronized void resetStatistics() {
+    hits = misses = evictions = 0;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "size=" + map.size() + "/" + maxSize + //NON-NLS
+      " hits=" + hits + " misses=" + misses + //NON-NLS
+      " evictions=" + evictions; //NON-NLS
+  }
+}
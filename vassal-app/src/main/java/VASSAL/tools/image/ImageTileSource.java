@@ -77,4 +77,18 @@ public interface ImageTileSource {
     int tileX,
     int tileY,
     double scale) throws ImageIOException;
+
+  /**
+   * Requests the tiles of an image. A source which produces tiles on demand
+   * may start producing them.
+   *
+   * @param name the image name
+   * @return <code>true</code> if the tiles of the image can be read from
+   * this source now, <code>false</code> if they must be cut from the image
+   * itself until they can
+   * @since 3.5.0
+   */
+  default boolean requestTiles(String name) {
+    return true;
+  }
 }
@@ -62,8 +62,38 @@ public class FileArchiveImageTiler {
     Callback<Void> tileListener,
     Callback<Void> doneListener
   ) throws IOException {
+    run(fa, tpath, tw, th, ipaths, ipaths, exec, loader, slicer,
+        imageListener, tileListener, doneListener);
+  }
+
+  /**
+   * Tile image contained in an archive.
+   *
+   * @param fa the file archive
+   * @param tpath path to the output directory
+   * @param tw tile width, in pixels
+   * @param th tile height, in pixels
+   * @param ipaths paths within the archive to images to be tiled
+   * @param pnames names under which to store the tiles of each image
+   * @since 3.5.0
+   */
+  public void run(
+    FileArchive fa,
+    final String tpath,
+    int tw,
+    int th,
+    String[] ipaths,
+    String[] pnames,
+    ExecutorService exec,
+    ImageLoader loader,
+    TileSlicer slicer,
+    Callback<String> imageListener,
+    Callback<Void> tileListener,
+    Callback<Void> doneListener
+  ) throws IOException {
 
-    for (final String ipath : ipaths) {
+    for (int i = 0; i < ipaths.length; ++i) {
+      final String ipath = ipaths[i];
       logger.info("Tiling {}", ipath); //NON-NLS
       imageListener.receive(ipath);
 
@@ -79,7 +109,7 @@ public class FileArchiveImageTiler {
         continue;
       }
 
-      slicer.slice(src, ipath, tpath, tw, th, exec, tileListener);
+      slicer.slice(src, pnames[i], tpath, tw, th, exec, tileListener);
     }
 
     exec.shutdown();
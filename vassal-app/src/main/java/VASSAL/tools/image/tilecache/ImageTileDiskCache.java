@@ -20,12 +20,20 @@ package VASSAL.tools.image.tilecache;
 
 import java.awt.Dimension;
 import java.awt.image.BufferedImage;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Objects;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import VASSAL.tools.image.ImageIOException;
 import VASSAL.tools.image.ImageTileSource;
@@ -34,6 +42,15 @@ import VASSAL.tools.io.FileStore;
 /**
  * An on-disk {@link ImageTileSource} and {@link FileStore} for image tiles.
  *
+ * Tiles are read from the {@link TilePack} for each image. If the cache
+ * has a {@link TileStore}, the pack for an image is found in the store by
+ * way of the cache's {@link TileIndex}. Packs in the cache directory itself,
+ * and caches from before tile packs, which hold one file per tile, are
+ * still readable.
+ *
+ * Open tile packs are kept for reuse, but are closed and opened again when
+ * the index maps their image to another key, or their file is replaced.
+ *
  * @since 3.2.0
  * @author Joel Uckelman
  */
@@ -41,13 +58,83 @@ public class ImageTileDiskCache implements ImageTileSource, FileStore {
 
   protected final String cpath;
 
+  private static final Logger logger =
+    LoggerFactory.getLogger(ImageTileDiskCache.class);
+
+  protected final TileStore store;
+  protected final TileIndex index;
+
+  // Keeps the packs of the images in the index from being evicted
+  private final Closeable lease;
+
+  /** How often, in milliseconds, an open tile pack is checked for changes */
+  static final long CHECK_MILLIS = 1000;
+
+  // An open tile pack, and what its file was when it was opened
+  private static final class OpenPack {
+    private final TilePack pack;
+    private final String key;
+    private final File file;
+    private final Object fileKey;
+    private final long size;
+    private final long mtime;
+    private volatile long checked;
+
+    private OpenPack(TilePack pack, String key, File file, BasicFileAttributes attrs) {
+      this.pack = pack;
+      this.key = key;
+      this.file = file;
+      this.fileKey = attrs.fileKey();
+      this.size = attrs.size();
+      this.mtime = attrs.lastModifiedTime().toMillis();
+      this.checked = System.currentTimeMillis();
+    }
+  }
+
+  private final java.util.Map<String, OpenPack> packs = new ConcurrentHashMap<>();
+  long checkMillis = CHECK_MILLIS;
+
   /**
    * Creates an {@code ImageTileDiskCache}.
    *
    * @param cpath path to the root directory of the cache
    */
   public ImageTileDiskCache(String cpath) {
+    this(cpath, null);
+  }
+
+  /**
+   * Creates an {@code ImageTileDiskCache} which reads tile packs from
+   * a shared {@link TileStore}.
+   *
+   * @param cpath path to the root directory of the cache
+   * @param store the tile store, or {@code null} for none
+   * @since 3.5.0
+   */
+  public ImageTileDiskCache(String cpath, TileStore store) {
     this.cpath = cpath;
+    this.store = store;
+
+    if (store == null) {
+      index = null;
+      lease = null;
+    }
+    else {
+      final File ifile = new File(cpath, TileIndex.FILE_NAME);
+      index = new TileIndex(ifile);
+      lease = takeLease(store, ifile);
+    }
+  }
+
+  private static Closeable takeLease(TileStore store, File ifile) {
+    try {
+      return store.lease(ifile);
+    }
+    catch (IOException e) {
+      // Touching packs when opened still makes them unlikely to be evicted
+      logger.warn("Could not lease tiles from {}", store.getDir(), e); //NON-NLS
+      return null;
+    }
   }
 
   /** {@inheritDoc} */
@@ -58,8 +145,127 @@ public class ImageTileDiskCache implements ImageTileSource, FileStore {
     int tileY,
     double scale) throws ImageIOException {
 
+    final int div = (int)(1.0 / scale);
+    final TilePack pack = getPack(name);
+    if (pack != null) {
+      try {
+        return pack.read(tileX, tileY, div);
+      }
+      catch (IOException e) {
+        throw new ImageIOException(TileUtils.packName(name), e);
+      }
+    }
+
     return TileUtils.read(cpath + '/' +
-      TileUtils.tileName(name, tileX, tileY, (int)(1.0 / scale)));
+      TileUtils.tileName(name, tileX, tileY, div));
+  }
+
+  /**
+   * Gets the file holding the tile pack for an image.
+   *
+   * @param name the image name
+   * @return the tile pack file, which may not exist
+   * @since 3.5.0
+   */
+  protected File getPackFile(String name) {
+    if (index != null) {
+      final String key = index.getKey(name);
+      if (key != null) {
+        final File f = store.getPackFile(key);
+        if (f.isFile()) {
+          return f;
+        }
+      }
+    }
+    return new File(cpath + '/' + TileUtils.packName(name));
+  }
+
+  /**
+   * Gets the tile pack for an image, opening it if necessary.
+   *
+   * @param name the image name
+   * @return the tile pack, or {@code null} if there is none
+   * @throws ImageIOException if the tile pack cannot be opened
+   */
+  protected TilePack getPack(String name) throws ImageIOException {
+    OpenPack op = packs.get(name);
+    if (op != null && isStale(name, op)) {
+      if (packs.remove(name, op)) {
+        closePack(op.pack);
+      }
+      op = null;
+    }
+
+    if (op == null) {
+      final String key = index == null ? null : index.getKey(name);
+      final File f = getPackFile(name);
+      if (!f.isFile()) {
+        return null;
+      }
+
+      if (store != null) {
+        // keep packs in use from being evicted
+        TileStore.touch(f);
+      }
+
+      final TilePack pack;
+      try {
+        final BasicFileAttributes attrs =
+          Files.readAttributes(f.toPath(), BasicFileAttributes.class);
+        pack = new TilePack(f);
+        op = new OpenPack(pack, key, f, attrs);
+      }
+      catch (IOException e) {
+        throw new ImageIOException(f, e);
+      }
+
+      final OpenPack prev = packs.putIfAbsent(name, op);
+      if (prev != null) {
+        closePack(pack);
+        op = prev;
+      }
+    }
+    return op.pack;
+  }
+
+  /**
+   * An open pack is stale if the index now maps its image to another key,
+   * or its file has been deleted or replaced. Caches with a store touch
+   * packs whenever they open them, so their modification times are not
+   * compared.
+   */
+  private boolean isStale(String name, OpenPack op) {
+    if (index != null && !Objects.equals(op.key, index.getKey(name))) {
+      return true;
+    }
+
+    // Checking the file for every tile would cost a system call each time
+    final long now = System.currentTimeMillis();
+    if (now - op.checked < checkMillis) {
+      return false;
+    }
+    op.checked = now;
+
+    final BasicFileAttributes attrs;
+    try {
+      attrs = Files.readAttributes(op.file.toPath(), BasicFileAttributes.class);
+    }
+    catch (IOException e) {
+      return true;
+    }
+
+    return attrs.size() != op.size ||
+      !Objects.equals(attrs.fileKey(), op.fileKey) ||
+      (store == null && attrs.lastModifiedTime().toMillis() != op.mtime);
+  }
+
+  private static void closePack(TilePack pack) {
+    try {
+      pack.close();
+    }
+    catch (IOException ignored) {
+      // nothing more to be done
+    }
   }
 
   /** {@inheritDoc} */
@@ -70,8 +276,19 @@ public class ImageTileDiskCache implements ImageTileSource, FileStore {
     int tileY,
     double scale) throws ImageIOException {
 
+    final int div = (int)(1.0 / scale);
+    final TilePack pack = getPack(name);
+    if (pack != null) {
+      try {
+        return pack.getTileSize(tileX, tileY, div);
+      }
+      catch (IOException e) {
+        throw new ImageIOException(TileUtils.packName(name), e);
+      }
+    }
+
     return TileUtils.size(cpath + '/' +
-      TileUtils.tileName(name, tileX, tileY, (int)(1.0 / scale)));
+      TileUtils.tileName(name, tileX, tileY, div));
   }
 
   /** {@inheritDoc} */
@@ -82,8 +299,14 @@ public class ImageTileDiskCache implements ImageTileSource, FileStore {
     int tileY,
     double scale) throws ImageIOException {
 
+    final int div = (int)(1.0 / scale);
+    final TilePack pack = getPack(name);
+    if (pack != null) {
+      return pack.contains(tileX, tileY, div);
+    }
+
     final File f = new File(cpath + '/' +
-      TileUtils.tileName(name, tileX, tileY, (int)(1.0 / scale)));
+      TileUtils.tileName(name, tileX, tileY, div));
     return f.exists() && f.isFile();
   }
 
@@ -146,5 +369,19 @@ public class ImageTileDiskCache implements ImageTileSource, FileStore {
 
   /** {@inheritDoc} */
   @Override
-  public void close() {}
+  public void close() {
+    for (final OpenPack op : packs.values()) {
+      closePack(op.pack);
+    }
+    packs.clear();
+
+    if (lease != null) {
+      try {
+        lease.close();
+      }
+      catch (IOException e) {
+        logger.warn("Could not release the lease on {}", store.getDir(), e); //NON-NLS
+      }
+    }
+  }
 }
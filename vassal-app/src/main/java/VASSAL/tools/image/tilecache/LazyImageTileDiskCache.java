@@ -0,0 +1,239 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+
+package VASSAL.tools.image.tilecache;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import VASSAL.tools.DataArchive;
+import VASSAL.tools.concurrent.DaemonThreadFactory;
+import VASSAL.tools.image.ImageIOException;
+import VASSAL.tools.image.ImageUtils;
+
+/**
+ * An {@link ImageTileDiskCache} which tiles images when they are first
+ * shown, instead of before the module is opened.
+ *
+ * Until an image has been tiled, its tiles are cut from the image itself
+ * by the {@link VASSAL.tools.imageop.ImageOp}s which request them, while
+ * the image is tiled in the background. The image most recently requested,
+ * i.e., the one most likely to be in view, is tiled first. Images which are
+ * never shown are never tiled.
+ *
+ * If the cache has a {@link TileStore}, images are tiled into the store
+ * unless it already has their tiles.
+ *
+ * Both cutting tiles from an image and tiling it need the whole image in
+ * memory, so only images of at most {@link #MAX_PIXELS} pixels are tiled
+ * here. Larger images are still tiled before the module is opened, in a
+ * process of their own; see {@link VASSAL.launch.TilingHandler}.
+ *
+ * @since 3.5.0
+ */
+public class LazyImageTileDiskCache extends ImageTileDiskCache {
+  private static final Logger logger =
+    LoggerFactory.getLogger(LazyImageTileDiskCache.class);
+
+  /** The most pixels in an image tiled when first shown */
+  public static final long MAX_PIXELS = 4096L * 4096L;
+
+  protected final DataArchive archive;
+  protected final Dimension tdim;
+  private final long maxPixels;
+
+  private final TileSlicer slicer = new TileSlicerImpl();
+
+  // Images waiting to be tiled, most recently requested first
+  private final BlockingDeque<String> queue = new LinkedBlockingDeque<>();
+
+  // Images queued, being tiled, or which could not be tiled
+  private final Set<String> requested = ConcurrentHashMap.newKeySet();
+
+  // Tiles one image at a time, to bound the memory used
+  private final ExecutorService coordinator = Executors.newSingleThreadExecutor(
+    new DaemonThreadFactory(getClass().getSimpleName())
+  );
+
+  // Slices the tiles of the image being tiled
+  private final ExecutorService workers = Executors.newFixedThreadPool(
+    Math.max(1, Runtime.getRuntime().availableProcessors() - 1),
+    new DaemonThreadFactory(getClass().getSimpleName() + "Slicer") //NON-NLS
+  );
+
+  /**
+   * Creates a {@code LazyImageTileDiskCache}.
+   *
+   * @param cpath path to the root directory of the cache
+   * @param archive the archive holding the images
+   * @param tdim the tile size
+   */
+  public LazyImageTileDiskCache(String cpath, DataArchive archive, Dimension tdim) {
+    this(cpath, null, archive, tdim);
+  }
+
+  /**
+   * Creates a {@code LazyImageTileDiskCache} which keeps tiles in a shared
+   * {@link TileStore}.
+   *
+   * @param cpath path to the root directory of the cache
+   * @param store the tile store, or {@code null} for none
+   * @param archive the archive holding the images
+   * @param tdim the tile size
+   */
+  public LazyImageTileDiskCache(String cpath, TileStore store,
+                                DataArchive archive, Dimension tdim) {
+    this(cpath, store, archive, tdim, MAX_PIXELS);
+  }
+
+  LazyImageTileDiskCache(String cpath, TileStore store, DataArchive archive,
+                         Dimension tdim, long maxPixels) {
+    super(cpath, store);
+    this.archive = archive;
+    this.tdim = tdim;
+    this.maxPixels = maxPixels;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * If the image has not been tiled yet, it is queued to be tiled ahead of
+   * any images requested before it, unless it is too large to be tiled here.
+   */
+  @Override
+  public boolean requestTiles(String name) {
+    try {
+      if (getPack(name) != null) {
+        return true;
+      }
+    }
+    catch (ImageIOException e) {
+      logger.error("", e);
+      return false;
+    }
+
+    if (requested.add(name)) {
+      if (!isSmallEnough(name)) {
+        // leave it in requested, so that it is never queued
+        return false;
+      }
+      queue.addFirst(name);
+      coordinator.execute(() -> {
+        final String next = queue.pollFirst();
+        if (next != null) {
+          tile(next);
+        }
+      });
+    }
+    else if (queue.remove(name)) {
+      // still waiting: move it to the front
+      queue.addFirst(name);
+    }
+
+    return false;
+  }
+
+  private boolean isSmallEnough(String name) {
+    final Dimension d;
+    try (InputStream in = archive.getInputStream(name)) {
+      d = ImageUtils.getImageSize(name, in);
+    }
+    catch (IOException e) {
+      logger.error("Error while reading {}", name, e); //NON-NLS
+      return false;
+    }
+
+    if ((long) d.width * d.height > maxPixels) {
+      logger.warn("{} is too large to be tiled when first shown", name); //NON-NLS
+      return false;
+    }
+    return true;
+  }
+
+  protected void tile(String name) {
+    try {
+      if (getPack(name) == null) {
+        if (store == null) {
+          logger.info("Tiling {}", name); //NON-NLS
+
+          final BufferedImage src;
+          try (InputStream in = archive.getInputStream(name)) {
+            src = ImageUtils.getImage(name, in);
+          }
+
+          slicer.slice(src, name, cpath, tdim.width, tdim.height, workers, obj -> { });
+        }
+        else {
+          tileToStore(name);
+        }
+      }
+
+      // Only forget images which were tiled, so that failures are not retried
+      requested.remove(name);
+    }
+    catch (IOException e) {
+      logger.error("Error while tiling {}", name, e); //NON-NLS
+    }
+  }
+
+  private void tileToStore(String name) throws IOException {
+    final byte[] data;
+    try (InputStream in = archive.getInputStream(name)) {
+      data = IOUtils.toByteArray(in);
+    }
+
+    final String key = TileStore.key(data, tdim);
+    if (!store.contains(key)) {
+      logger.info("Tiling {}", name); //NON-NLS
+
+      final BufferedImage src =
+        ImageUtils.getImage(name, new ByteArrayInputStream(data));
+      slicer.slice(
+        src, key, store.getDir().getAbsolutePath(),
+        tdim.width, tdim.height, workers, obj -> { }
+      );
+    }
+
+    final boolean inArchive = archive.getArchive().contains(name);
+    final long mtime = inArchive ? archive.getArchive().getMTime(name) : 0;
+    final long size = inArchive ? archive.getArchive().getSize(name) : -1;
+    index.put(name, mtime, size, key);
+    index.save();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void close() {
+    coordinator.shutdownNow();
+    workers.shutdownNow();
+    super.close();
+  }
+}
@@ -0,0 +1,197 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+
+package VASSAL.tools.image.tilecache;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records, for the images of one module, the keys under which their tiles
+ * are found in the {@link TileStore}, and the modification times and sizes
+ * the images had when their keys were computed, so that keys need be
+ * computed again only for images which have changed. Images which need no
+ * tiles are recorded too, with the key {@link #UNTILED}.
+ * <p>
+ * The index is a text file with one line per image, giving the modification
+ * time, size, key and path of the image, separated by tabs. Lines without a
+ * size, as written before sizes were recorded, are still read.
+ *
+ * @since 3.5.0
+ */
+public class TileIndex {
+  /** The name of the index file within a module's tile cache directory */
+  public static final String FILE_NAME = "index"; //NON-NLS
+
+  /** The key recorded for an image which has only one tile, and so needs no tiles */
+  public static final String UNTILED = "-"; //NON-NLS
+
+  private static class Entry {
+    private final long mtime;
+    private final long size;
+    private final String key;
+
+    private Entry(long mtime, long size, String key) {
+      this.mtime = mtime;
+      this.size = size;
+      this.key = key;
+    }
+  }
+
+  protected final File file;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a {@code TileIndex}, reading it from its file if there is one.
+   *
+   * @param file the index file
+   */
+  public TileIndex(File file) {
+    this.file = file;
+
+    if (file.isFile()) {
+      try (BufferedReader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+        String line;
+        while ((line = in.readLine()) != null) {
+          try {
+            // keys are never numbers, so a line without a size has a key second
+            final String[] f = line.split("\t", 4);
+            if (f.length == 4 && f[1].matches("-?\\d+")) {
+              entries.put(f[3], new Entry(Long.parseLong(f[0]), Long.parseLong(f[1]), f[2]));
+            }
+            else {
+              final String[] g = line.split("\t", 3);
+              if (g.length == 3) {
+                entries.put(g[2], new Entry(Long.parseLong(g[0]), -1, g[1]));
+              }
+            }
+          }
+          catch (NumberFormatException ignored) {
+            // skip malformed lines; the image will just be indexed again
+          }
+        }
+      }
+      catch (IOException ignored) {
+        // an unreadable index is as good as an empty one
+      }
+    }
+  }
+
+  /**
+   * @param ipath the path of an image
+   * @return the key of the image, or {@code null} if it has none or needs
+   * no tiles
+   */
+  public String getKey(String ipath) {
+    final Entry e = entries.get(ipath);
+    return e == null || UNTILED.equals(e.key) ? null : e.key;
+  }
+
+  /**
+   * @param ipath the path of an image
+   * @param mtime the current modification time of the image
+   * @param size the current size of the image, in bytes
+   * @return the key of the image, which is {@link #UNTILED} if it needs no
+   * tiles, or {@code null} if it has none or the image has changed since
+   * its key was computed
+   */
+  public String getKey(String ipath, long mtime, long size) {
+    final Entry e = entries.get(ipath);
+    return e == null || e.mtime != mtime || (e.size != -1 && e.size != size) ?
+      null : e.key;
+  }
+
+  /**
+   * @return the keys of all images having tiles
+   */
+  public Set<String> getKeys() {
+    final Set<String> keys = new HashSet<>();
+    for (final Entry e : entries.values()) {
+      if (!UNTILED.equals(e.key)) {
+        keys.add(e.key);
+      }
+    }
+    return keys;
+  }
+
+  /**
+   * @param ipath the path of an image
+   * @return the modification time recorded for the image, or -1 if it has
+   * no key
+   */
+  public long getMTime(String ipath) {
+    final Entry e = entries.get(ipath);
+    return e == null ? -1 : e.mtime;
+  }
+
+  /**
+   * Records the key of an image.
+   *
+   * @param ipath the path of the image
+   * @param mtime the modification time of the image
+   * @param size the size of the image, in bytes
+   * @param key the key, or {@link #UNTILED}
+   */
+  public void put(String ipath, long mtime, long size, String key) {
+    entries.put(ipath, new Entry(mtime, size, key));
+  }
+
+  /**
+   * Forgets the key of an image.
+   *
+   * @param ipath the path of the image
+   */
+  public void remove(String ipath) {
+    entries.remove(ipath);
+  }
+
+  /**
+   * Writes the index to its file.
+   *
+   * @throws IOException if the file cannot be written
+   */
+  public synchronized void save() throws IOException {
+    final Path dir = file.getAbsoluteFile().getParentFile().toPath();
+    Files.createDirectories(dir);
+
+    final Path tmp = Files.createTempFile(dir, FILE_NAME, ".tmp"); //NON-NLS
+    try {
+      try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+        for (final Map.Entry<String, Entry> e : entries.entrySet()) {
+          final Entry v = e.getValue();
+          out.write(v.mtime + "\t" + v.size + "\t" + v.key + "\t" + e.getKey());
+          out.newLine();
+        }
+      }
+      Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+    finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+}
@@ -0,0 +1,292 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+
+package VASSAL.tools.image.tilecache;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.apache.commons.lang3.SystemUtils;
+
+/**
+ * Reads the tiles of one image from a packed tile file.
+ *
+ * A tile pack holds every tile of an image, at every scale, in a single
+ * file, so that reading a tile costs neither opening a file nor copying
+ * it through intermediate arrays. The file is memory-mapped and each tile
+ * is decoded directly into the data array of a new image.
+ *
+ * On Windows a mapped file cannot be deleted or replaced until the mapping
+ * is garbage collected, which would keep the tiler from replacing a stale
+ * pack and the {@link TileStore} from evicting one. There the pack is read
+ * through a {@link FileChannel} instead; Java opens channels sharing
+ * delete access, so the file may be replaced while it is open.
+ *
+ * The file consists of a 24-byte header, the tile data, and an index. The
+ * header is the signature 'VASSALTP' (8 bytes), the format version
+ * (4 bytes), the number of tiles (4 bytes), and the offset of the index
+ * (8 bytes). Each index entry gives the scale divisor, column, row, width,
+ * height, image type, codec, data offset (8 bytes) and data length of a
+ * tile. All values are big-endian. The tile data are 4-bpp pixels, either
+ * raw or zlib-compressed.
+ *
+ * @see TilePackWriter
+ * @since 3.5.0
+ */
+public class TilePack implements Closeable {
+  static final byte[] SIGNATURE = "VASSALTP".getBytes(StandardCharsets.UTF_8); //NON-NLS
+  static final int VERSION = 1;
+  static final int HEADER_LENGTH = 24;
+  static final int ENTRY_LENGTH = 40;
+
+  static final int CODEC_RAW = 0;
+  static final int CODEC_DEFLATE = 1;
+
+  private static final int CHUNK = 1 << 16;
+
+  /** Whether packs are memory-mapped, rather than read through a channel */
+  static final boolean MAP = !SystemUtils.IS_OS_WINDOWS;
+
+  private static final ThreadLocal<Inflater> INFLATER =
+    ThreadLocal.withInitial(Inflater::new);
+
+  private final File file;
+  private final ByteBuffer map;
+  private final FileChannel channel;
+  private final Map<Long, Integer> index = new HashMap<>();
+
+  private final int[] width;
+  private final int[] height;
+  private final int[] type;
+  private final int[] codec;
+  private final long[] offset;
+  private final int[] length;
+
+  /**
+   * Opens a tile pack.
+   *
+   * @param file the tile pack file
+   * @throws IOException if the file cannot be read or is not a tile pack
+   */
+  public TilePack(File file) throws IOException {
+    this(file, MAP);
+  }
+
+  TilePack(File file, boolean mapped) throws IOException {
+    this.file = file;
+
+    final FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    try {
+      final long size = ch.size();
+      if (mapped && size <= Integer.MAX_VALUE) {
+        // the mapping stays valid after the channel is closed
+        map = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        channel = null;
+        ch.close();
+      }
+      else {
+        // not mapped, or too large to map in one piece; read tiles from the channel
+        map = null;
+        channel = ch;
+      }
+
+      final ByteBuffer header = read(0, HEADER_LENGTH);
+      final byte[] sig = new byte[SIGNATURE.length];
+      header.get(sig);
+      if (!Arrays.equals(sig, SIGNATURE)) {
+        throw new IOException(file + ": bad signature"); //NON-NLS
+      }
+
+      final int version = header.getInt();
+      if (version != VERSION) {
+        throw new IOException(file + ": unsupported version " + version); //NON-NLS
+      }
+
+      final int count = header.getInt();
+      final long indexOffset = header.getLong();
+      if (count < 0 || indexOffset + (long) count * ENTRY_LENGTH > size) {
+        throw new IOException(file + ": truncated"); //NON-NLS
+      }
+
+      width = new int[count];
+      height = new int[count];
+      type = new int[count];
+      codec = new int[count];
+      offset = new long[count];
+      length = new int[count];
+
+      final ByteBuffer ib = read(indexOffset, count * ENTRY_LENGTH);
+      for (int i = 0; i < count; ++i) {
+        final int div = ib.getInt();
+        final int tx = ib.getInt();
+        final int ty = ib.getInt();
+        width[i] = ib.getInt();
+        height[i] = ib.getInt();
+        type[i] = ib.getInt();
+        codec[i] = ib.getInt();
+        offset[i] = ib.getLong();
+        length[i] = ib.getInt();
+
+        if (offset[i] + length[i] > indexOffset) {
+          throw new IOException(file + ": bad index entry " + i); //NON-NLS
+        }
+
+        index.put(key(tx, ty, div), i);
+      }
+    }
+    catch (IOException | RuntimeException e) {
+      ch.close();
+      throw e;
+    }
+  }
+
+  static long key(int tx, int ty, int div) {
+    return ((long) div << 48) ^ ((long) tx << 24) ^ ty;
+  }
+
+  private ByteBuffer read(long off, int len) throws IOException {
+    if (map != null) {
+      return map.duplicate().position((int) off).limit((int) off + len).slice();
+    }
+
+    final ByteBuffer buf = ByteBuffer.allocate(len);
+    while (buf.hasRemaining()) {
+      if (channel.read(buf, off + buf.position()) < 0) {
+        throw new IOException(file + ": truncated"); //NON-NLS
+      }
+    }
+    buf.flip();
+    return buf;
+  }
+
+  /**
+   * @param tileX the column of the tile
+   * @param tileY the row of the tile
+   * @param div the scale divisor
+   * @return whether the pack contains the tile
+   */
+  public boolean contains(int tileX, int tileY, int div) {
+    return index.containsKey(key(tileX, tileY, div));
+  }
+
+  /**
+   * @param tileX the column of the tile
+   * @param tileY the row of the tile
+   * @param div the scale divisor
+   * @return the dimensions of the tile
+   * @throws IOException if the pack does not contain the tile
+   */
+  public Dimension getTileSize(int tileX, int tileY, int div) throws IOException {
+    final int i = find(tileX, tileY, div);
+    return new Dimension(width[i], height[i]);
+  }
+
+  /**
+   * Reads a tile.
+   *
+   * @param tileX the column of the tile
+   * @param tileY the row of the tile
+   * @param div the scale divisor
+   * @return the tile image
+   * @throws IOException if the pack does not contain the tile or the tile cannot be decoded
+   */
+  public BufferedImage read(int tileX, int tileY, int div) throws IOException {
+    final int i = find(tileX, tileY, div);
+
+    final BufferedImage img = new BufferedImage(width[i], height[i], type[i]);
+    final int[] data =
+      ((DataBufferInt) img.getRaster().getDataBuffer()).getData();
+
+    final ByteBuffer src = read(offset[i], length[i]);
+    if (codec[i] == CODEC_RAW) {
+      if (src.remaining() != 4 * data.length) {
+        throw new IOException(file + ": bad tile length"); //NON-NLS
+      }
+      src.asIntBuffer().get(data);
+    }
+    else if (codec[i] == CODEC_DEFLATE) {
+      inflate(src, data);
+    }
+    else {
+      throw new IOException(file + ": unknown codec " + codec[i]); //NON-NLS
+    }
+
+    return img;
+  }
+
+  private void inflate(ByteBuffer src, int[] data) throws IOException {
+    final Inflater inf = INFLATER.get();
+    inf.reset();
+    inf.setInput(src);
+
+    // inflate a chunk at a time, copying whole ints into the image data
+    final ByteBuffer buf = ByteBuffer.allocate(Math.min(CHUNK, 4 * data.length));
+    int pos = 0;
+    try {
+      while (pos < data.length) {
+        final int n = inf.inflate(buf);
+        if (n == 0 && (inf.finished() || inf.needsInput() || inf.needsDictionary())) {
+          throw new IOException(file + ": truncated tile"); //NON-NLS
+        }
+
+        buf.flip();
+        final IntBuffer ib = buf.asIntBuffer();
+        final int k = Math.min(ib.remaining(), data.length - pos);
+        ib.get(data, pos, k);
+        pos += k;
+        buf.position(buf.position() + 4 * k);
+        buf.compact();
+      }
+    }
+    catch (DataFormatException e) {
+      throw new IOException(file + ": corrupt tile", e); //NON-NLS
+    }
+  }
+
+  private int find(int tileX, int tileY, int div) throws IOException {
+    final Integer i = index.get(key(tileX, tileY, div));
+    if (i == null) {
+      throw new IOException(
+        file + ": no tile (" + tileX + "," + tileY + ")@1:" + div //NON-NLS
+      );
+    }
+    return i;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void close() throws IOException {
+    if (channel != null) {
+      channel.close();
+    }
+  }
+}
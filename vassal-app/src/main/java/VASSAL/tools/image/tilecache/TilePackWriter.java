@@ -0,0 +1,227 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+
+package VASSAL.tools.image.tilecache;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Writes the tiles of one image to a packed tile file.
+ *
+ * Tiles may be encoded concurrently with {@link #encode} and then added in
+ * any order with {@link #write}. The pack is written to a temporary file
+ * which replaces the destination only when the writer is closed, so that
+ * readers never see a partial pack.
+ *
+ * @see TilePack
+ * @since 3.5.0
+ */
+public class TilePackWriter implements Closeable {
+  private final File dst;
+  private final File tmp;
+  private final FileChannel channel;
+  private long pos = TilePack.HEADER_LENGTH;
+  private ByteBuffer index = ByteBuffer.allocate(64 * TilePack.ENTRY_LENGTH);
+  private int count = 0;
+  private boolean closed = false;
+
+  /**
+   * An encoded tile, ready to be written.
+   */
+  public static class EncodedTile {
+    final int width;
+    final int height;
+    final int type;
+    final int codec;
+    final byte[] data;
+    final int length;
+
+    EncodedTile(int width, int height, int type, int codec, byte[] data, int length) {
+      this.width = width;
+      this.height = height;
+      this.type = type;
+      this.codec = codec;
+      this.data = data;
+      this.length = length;
+    }
+  }
+
+  /**
+   * Creates a writer for a tile pack.
+   *
+   * @param dst the tile pack file
+   * @throws IOException if the temporary file cannot be created
+   */
+  public TilePackWriter(File dst) throws IOException {
+    this.dst = dst;
+    final File dir = dst.getAbsoluteFile().getParentFile();
+    Files.createDirectories(dir.toPath());
+    tmp = File.createTempFile("tiles_", ".tmp", dir); //NON-NLS
+    channel = FileChannel.open(tmp.toPath(), StandardOpenOption.WRITE);
+  }
+
+  /**
+   * Encodes a tile. This is thread-safe.
+   *
+   * @param tile the tile image, which must have integer pixels
+   * @return the encoded tile
+   */
+  public static EncodedTile encode(BufferedImage tile) {
+    final int[] pixels =
+      ((DataBufferInt) tile.getRaster().getDataBuffer()).getData();
+
+    final ByteBuffer raw = ByteBuffer.allocate(4 * pixels.length);
+    raw.asIntBuffer().put(pixels);
+    final byte[] rawBytes = raw.array();
+
+    // Favor speed over size: tiles are decoded far more often than written
+    final Deflater def = new Deflater(Deflater.BEST_SPEED);
+    try {
+      def.setInput(rawBytes);
+      def.finish();
+
+      byte[] out = new byte[Math.max(64, rawBytes.length / 4)];
+      int len = 0;
+      while (!def.finished()) {
+        if (len == out.length) {
+          if (len >= rawBytes.length) {
+            // incompressible; store the raw pixels instead
+            return new EncodedTile(tile.getWidth(), tile.getHeight(),
+              tile.getType(), TilePack.CODEC_RAW, rawBytes, rawBytes.length);
+          }
+          out = Arrays.copyOf(out, Math.min(2 * out.length, rawBytes.length));
+        }
+        len += def.deflate(out, len, out.length - len);
+      }
+
+      return new EncodedTile(tile.getWidth(), tile.getHeight(),
+        tile.getType(), TilePack.CODEC_DEFLATE, out, len);
+    }
+    finally {
+      def.end();
+    }
+  }
+
+  /**
+   * Adds an encoded tile to the pack.
+   *
+   * @param tileX the column of the tile
+   * @param tileY the row of the tile
+   * @param div the scale divisor
+   * @param tile the encoded tile
+   * @throws IOException if the write fails
+   */
+  public synchronized void write(int tileX, int tileY, int div, EncodedTile tile)
+                                                           throws IOException {
+    final ByteBuffer bb = ByteBuffer.wrap(tile.data, 0, tile.length);
+    final long off = pos;
+    while (bb.hasRemaining()) {
+      pos += channel.write(bb, pos);
+    }
+
+    if (!index.hasRemaining()) {
+      index = ByteBuffer.allocate(2 * index.capacity()).put(index.flip());
+    }
+
+    index.putInt(div)
+         .putInt(tileX)
+         .putInt(tileY)
+         .putInt(tile.width)
+         .putInt(tile.height)
+         .putInt(tile.type)
+         .putInt(tile.codec)
+         .putLong(off)
+         .putInt(tile.length);
+    ++count;
+  }
+
+  /**
+   * Discards the pack, leaving any existing pack in place.
+   */
+  public synchronized void abort() {
+    if (!closed) {
+      closed = true;
+      try {
+        channel.close();
+      }
+      catch (IOException ignored) {
+        // we are deleting the file anyway
+      }
+      tmp.delete();
+    }
+  }
+
+  /**
+   * Writes the index and replaces the destination file with the pack.
+   *
+   * @throws IOException if the write fails
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+
+    try {
+      index.flip();
+      final long indexOffset = pos;
+      while (index.hasRemaining()) {
+        pos += channel.write(index, pos);
+      }
+
+      final ByteBuffer header = ByteBuffer.allocate(TilePack.HEADER_LENGTH)
+        .put(TilePack.SIGNATURE)
+        .putInt(TilePack.VERSION)
+        .putInt(count)
+        .putLong(indexOffset)
+        .flip();
+      long hpos = 0;
+      while (header.hasRemaining()) {
+        hpos += channel.write(header, hpos);
+      }
+
+      channel.close();
+
+      try {
+        Files.move(tmp.toPath(), dst.toPath(),
+          StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      }
+      catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmp.toPath(), dst.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+    catch (IOException e) {
+      channel.close();
+      tmp.delete();
+      throw e;
+    }
+  }
+}
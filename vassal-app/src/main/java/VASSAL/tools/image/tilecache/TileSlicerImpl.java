@@ -32,7 +32,7 @@ import VASSAL.tools.image.GeneralFilter;
 import VASSAL.tools.lang.Callback;
 
 /**
- * Slices an image into tiles.
+ * Slices an image into tiles, which are written to a single {@link TilePack}.
  *
  * @since 3.2.0
  * @author Joel Uckelman
@@ -65,11 +65,14 @@ public class TileSlicerImpl implements TileSlicer {
 
     final List<Future<Void>> futures = new ArrayList<>();
 
+    final TilePackWriter pack =
+      new TilePackWriter(new File(tpath, TileUtils.packName(iname)));
+
     // slice unscaled 1:1 tiles
     final TaskMaker unscaled = TileTask::new;
 
     queueTileTasks(
-      src, iname, tpath, 1, tw, th, sw, sh, unscaled, exec, futures
+      src, pack, 1, tw, th, sw, sh, unscaled, exec, futures
     );
 
     // slice scaled tiles, starting at 1:2
@@ -78,9 +81,9 @@ public class TileSlicerImpl implements TileSlicer {
         new GeneralFilter.Lanczos3Filter();
 
       @Override
-      public TileTask make(BufferedImage src, File f,
+      public TileTask make(BufferedImage src, TilePackWriter pack, int div,
                            int tx, int ty, int tw, int th, int dw, int dh) {
-        return new ScaledTileTask(src, f, filter, tx, ty, tw, th, dw, dh);
+        return new ScaledTileTask(src, pack, div, filter, tx, ty, tw, th, dw, dh);
       }
     };
 
@@ -89,16 +92,18 @@ public class TileSlicerImpl implements TileSlicer {
       final int dh = sh / div;
 
       queueTileTasks(
-        src, iname, tpath, div, tw, th, dw, dh, scaled, exec, futures
+        src, pack, div, tw, th, dw, dh, scaled, exec, futures
       );
     }
 
     // wait for all tiles to complete
+    boolean complete = false;
     try {
       for (final Future<Void> f : futures) {
         f.get();
         progress.receive(null);
       }
+      complete = true;
     }
     catch (CancellationException | InterruptedException e) {
       // should never happen
@@ -112,19 +117,24 @@ public class TileSlicerImpl implements TileSlicer {
       for (final Future<Void> f : futures) {
         if (!f.isDone()) f.cancel(true);
       }
+
+      if (!complete) {
+        pack.abort();
+      }
     }
+
+    pack.close();
   }
 
   @FunctionalInterface
   protected interface TaskMaker {
-    TileTask make(BufferedImage src, File f,
+    TileTask make(BufferedImage src, TilePackWriter pack, int div,
                          int tx, int ty, int tw, int th, int dw, int dh);
   }
 
   protected static void queueTileTasks(
     BufferedImage src,
-    String iname,
-    String tpath,
+    TilePackWriter pack,
     int div,
     int tw,
     int th,
@@ -140,10 +150,7 @@ public class TileSlicerImpl implements TileSlicer {
 
     for (int tx = 0; tx < tcols; ++tx) {
       for (int ty = 0; ty < trows; ++ty) {
-        final String tn = TileUtils.tileName(iname, tx, ty, div);
-        final File f = new File(tpath, tn);
-
-        final TileTask tt = tm.make(src, f, tx, ty, tw, th, dw, dh);
+        final TileTask tt = tm.make(src, pack, div, tx, ty, tw, th, dw, dh);
         futures.add(exec.submit(tt));
       }
     }
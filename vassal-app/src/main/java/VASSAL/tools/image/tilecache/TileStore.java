@@ -0,0 +1,278 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+
+package VASSAL.tools.image.tilecache;
+
+import java.awt.Dimension;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A store of {@link TilePack}s shared by all modules, in which the tiles of
+ * an image are found by the content of the image rather than by its name.
+ * Identical images in different modules, or in different versions of the
+ * same module, therefore share their tiles.
+ * <p>
+ * Each module's {@link TileIndex} records which tile pack in the store holds
+ * the tiles of each of its images. The store is kept to a maximum size by
+ * {@link #evict}, which removes the least recently used tile packs. Since
+ * several VASSAL processes may share the store, each process reading tiles
+ * from it holds a {@link #lease} on the tile packs of its module, which
+ * eviction leaves alone.
+ *
+ * @since 3.5.0
+ */
+public class TileStore {
+  private static final Logger logger =
+    LoggerFactory.getLogger(TileStore.class);
+
+  /** The name of the store directory within the tile cache directory */
+  public static final String DIR_NAME = "store"; //NON-NLS
+
+  /** The directory within the store holding the leases of its users */
+  static final String LEASE_DIR = "leases"; //NON-NLS
+
+  // The region of a lease file locked by its holder, beyond its contents,
+  // so that the contents can be read by others while it is locked
+  private static final long LOCK_POSITION = Long.MAX_VALUE - 1;
+
+  protected final File dir;
+
+  /**
+   * Creates a {@code TileStore}.
+   *
+   * @param dir the store directory
+   */
+  public TileStore(File dir) {
+    this.dir = dir;
+  }
+
+  /**
+   * @return the store directory
+   */
+  public File getDir() {
+    return dir;
+  }
+
+  /**
+   * Gets the key under which the tiles of an image are stored.
+   *
+   * @param data the contents of the image file
+   * @param tdim the tile size
+   * @return the key
+   */
+  public static String key(byte[] data, Dimension tdim) {
+    return DigestUtils.sha1Hex(data) + '_' + tdim.width + 'x' + tdim.height;
+  }
+
+  /**
+   * @param key the key of an image
+   * @return the tile pack file for the image, which may not exist
+   */
+  public File getPackFile(String key) {
+    return new File(dir, TileUtils.packName(key));
+  }
+
+  /**
+   * @param key the key of an image
+   * @return whether the store has the tiles of the image
+   */
+  public boolean contains(String key) {
+    return getPackFile(key).isFile();
+  }
+
+  /**
+   * Marks the tiles of an image as used, so that they will be the last
+   * to be evicted.
+   *
+   * @param key the key of an image
+   */
+  public void touch(String key) {
+    touch(getPackFile(key));
+  }
+
+  static void touch(File f) {
+    // Failure only makes the pack more likely to be evicted
+    f.setLastModified(System.currentTimeMillis());
+  }
+
+  /**
+   * Leases the tile packs of the images in a module's index, keeping them
+   * from being evicted, by this or any other process, until the lease is
+   * closed or this process ends. Packs added to the index while the lease
+   * is held are covered too.
+   *
+   * @param indexFile the module's index file
+   * @return the lease
+   * @throws IOException if the lease cannot be made
+   */
+  public Closeable lease(File indexFile) throws IOException {
+    final Path ldir = new File(dir, LEASE_DIR).toPath();
+    Files.createDirectories(ldir);
+
+    final Path f = Files.createTempFile(ldir, "lease", ".txt"); //NON-NLS
+    final FileChannel ch;
+    final FileLock lock;
+    try {
+      Files.writeString(f, indexFile.getAbsolutePath(), StandardCharsets.UTF_8);
+      ch = FileChannel.open(f, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      try {
+        // The operating system releases the lock if this process dies
+        lock = ch.lock(LOCK_POSITION, 1, false);
+      }
+      catch (IOException | RuntimeException e) {
+        ch.close();
+        throw e;
+      }
+    }
+    catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(f);
+      throw e;
+    }
+
+    return () -> {
+      try (ch) {
+        lock.release();
+      }
+      finally {
+        Files.deleteIfExists(f);
+      }
+    };
+  }
+
+  /**
+   * @return the keys of the tile packs leased by live processes; the leases
+   * of processes which have ended are removed
+   */
+  private Set<String> leasedKeys() throws IOException {
+    final Set<String> keys = new HashSet<>();
+
+    final File[] leases = new File(dir, LEASE_DIR).listFiles();
+    if (leases == null) {
+      return keys;
+    }
+
+    for (final File f : leases) {
+      boolean live = true;
+      try (FileChannel ch = FileChannel.open(f.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        final FileLock lock = ch.tryLock(LOCK_POSITION, 1, false);
+        if (lock != null) {
+          // nobody holds the lease any longer
+          lock.release();
+          live = false;
+        }
+      }
+      catch (OverlappingFileLockException e) {
+        // held by this process
+      }
+      catch (IOException e) {
+        // e.g., removed by its holder meanwhile; assume it is live
+        logger.debug("Could not check lease {}", f, e); //NON-NLS
+      }
+
+      if (!live) {
+        Files.deleteIfExists(f.toPath());
+        continue;
+      }
+
+      try {
+        final String index = Files.readString(f.toPath(), StandardCharsets.UTF_8);
+        keys.addAll(new TileIndex(new File(index)).getKeys());
+      }
+      catch (IOException e) {
+        // removed by its holder meanwhile
+      }
+    }
+
+    return keys;
+  }
+
+  /**
+   * Removes the least recently used tile packs until the store is no
+   * larger than the given size. Packs leased by any process, including
+   * this one, are never removed, so the store may remain larger than
+   * the given size.
+   *
+   * @param maxBytes the maximum size of the store, in bytes
+   * @throws IOException if the store cannot be read
+   */
+  public void evict(long maxBytes) throws IOException {
+    if (!dir.isDirectory()) {
+      return;
+    }
+
+    final List<File> packs;
+    try (Stream<Path> s = Files.walk(dir.toPath())) {
+      packs = s.filter(p -> p.toString().endsWith(".tiles")) //NON-NLS
+               .map(Path::toFile)
+               .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    long total = 0;
+    for (final File f : packs) {
+      total += f.length();
+    }
+
+    if (total <= maxBytes) {
+      return;
+    }
+
+    final Set<File> leased = new HashSet<>();
+    for (final String key : leasedKeys()) {
+      leased.add(getPackFile(key).getAbsoluteFile());
+    }
+
+    packs.sort(Comparator.comparingLong(File::lastModified));
+    for (final File f : packs) {
+      if (total <= maxBytes) {
+        break;
+      }
+
+      if (leased.contains(f.getAbsoluteFile())) {
+        continue;
+      }
+
+      final long len = f.length();
+      if (f.delete()) {
+        total -= len;
+      }
+      else {
+        logger.info("Could not evict {}", f); //NON-NLS
+      }
+    }
+  }
+}
@@ -20,19 +20,19 @@ package VASSAL.tools.image.tilecache;
 
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
-import java.io.File;
 import java.io.IOException;
 import java.util.concurrent.Callable;
 
 /**
- * Slices one tile from an image and writes it to disk.
+ * Slices one tile from an image and writes it to a tile pack.
  *
  * @since 3.2.0
  * @author Joel Uckelman
  */
 class TileTask implements Callable<Void> {
   protected final BufferedImage src;
-  protected final File dst;
+  protected final TilePackWriter dst;
+  protected final int div;
   protected final int tx;
   protected final int ty;
   protected final int tw;
@@ -42,7 +42,8 @@ class TileTask implements Callable<Void> {
 
   /**
    * @param src the source image
-   * @param dst the destination file
+   * @param dst the destination tile pack
+   * @param div the scale divisor
    * @param tx the tile column
    * @param ty the tile row
    * @param tw the standard tile width
@@ -50,10 +51,11 @@ class TileTask implements Callable<Void> {
    * @param dw the width of the whole destination image
    * @param dh the height of the whole destination image
    */
-  public TileTask(BufferedImage src, File dst,
+  public TileTask(BufferedImage src, TilePackWriter dst, int div,
                   int tx, int ty, int tw, int th, int dw, int dh) {
     this.src = src;
     this.dst = dst;
+    this.div = div;
     this.tx = tx;
     this.ty = ty;
     this.tw = tw;
@@ -66,7 +68,7 @@ class TileTask implements Callable<Void> {
   @Override
   public Void call() throws IOException {
     final BufferedImage tile = sliceTile();
-    TileUtils.write(tile, dst);
+    dst.write(tx, ty, div, TilePackWriter.encode(tile));
     return null;
   }
 
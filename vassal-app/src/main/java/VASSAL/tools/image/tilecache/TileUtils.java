@@ -398,4 +398,16 @@ public class TileUtils {
 
     return sha.substring(0, 1) + '/' + sha.substring(0, 2) + '/' + sha;
   }
+
+  /**
+   * Gets the name of the tile pack file for an image.
+   *
+   * @param iname the image name
+   * @return the name of the tile pack file
+   * @see TilePack
+   */
+  public static String packName(String iname) {
+    final String sha = DigestUtils.sha1Hex(iname);
+    return sha.substring(0, 1) + '/' + sha.substring(0, 2) + '/' + sha + ".tiles"; //NON-NLS
+  }
 }
@@ -80,12 +80,22 @@ public class ZipFileImageTiler {
       final int tw = Integer.parseInt(args[2]);
       final int th = Integer.parseInt(args[3]);
 
-      // Get the image paths from stdin, one per line
+      // Get the image paths from stdin, one per line, each optionally
+      // followed by a tab and the name under which to store its tiles
       final List<String> pl = new ArrayList<>();
+      final List<String> nl = new ArrayList<>();
       try (BufferedReader stdin = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))) {
         String s;
         while ((s = stdin.readLine()) != null) {
-          pl.add(s);
+          final int tab = s.indexOf('\t');
+          if (tab < 0) {
+            pl.add(s);
+            nl.add(s);
+          }
+          else {
+            pl.add(s.substring(0, tab));
+            nl.add(s.substring(tab + 1));
+          }
         }
       }
       catch (IOException e) {
@@ -93,6 +103,7 @@ public class ZipFileImageTiler {
       }
 
       final String[] ipaths = pl.toArray(new String[0]);
+      final String[] pnames = nl.toArray(new String[0]);
 
       // TODO: Determine what the optimal number of threads is.
       final Runtime runtime = Runtime.getRuntime();
@@ -115,11 +126,11 @@ public class ZipFileImageTiler {
       final String portProp = System.getProperty("VASSAL.port");
 
       if (portProp != null) {
-        writeToSocket(portProp, zpath, tiler, tpath, tw, th, ipaths, exec,
+        writeToSocket(portProp, zpath, tiler, tpath, tw, th, ipaths, pnames, exec,
           loader, slicer);
       }
       else {
-        writeToSystemErr(zpath, tiler, tpath, tw, th, ipaths, exec,
+        writeToSystemErr(zpath, tiler, tpath, tw, th, ipaths, pnames, exec,
           loader, slicer);
       }
     }
@@ -129,17 +140,17 @@ public class ZipFileImageTiler {
   }
 
   private static void writeToSystemErr(String zpath, FileArchiveImageTiler tiler, String tpath, int tw, int th,
-                                       String[] ipaths, ExecutorService exec, ImageLoader loader,
+                                       String[] ipaths, String[] pnames, ExecutorService exec, ImageLoader loader,
                                        TileSlicer slicer) {
 
-    writeToOutputStream(System.err, zpath, tiler, tpath, tw, th, ipaths, exec,
+    writeToOutputStream(System.err, zpath, tiler, tpath, tw, th, ipaths, pnames, exec,
       loader, slicer);
 
   }
 
   private static void writeToSocket(String portProp, String zpath,
                                     FileArchiveImageTiler tiler, String tpath, int tw, int th,
-                                    String[] ipaths, ExecutorService exec, ImageLoader loader,
+                                    String[] ipaths, String[] pnames, ExecutorService exec, ImageLoader loader,
                                     TileSlicer slicer) {
 
     final InetAddress lo;
@@ -155,7 +166,7 @@ public class ZipFileImageTiler {
     try (Socket sock = new Socket(lo, port)) {
       sock.shutdownInput();
 
-      writeToOutputStream(sock.getOutputStream(), zpath, tiler, tpath, tw, th, ipaths, exec,
+      writeToOutputStream(sock.getOutputStream(), zpath, tiler, tpath, tw, th, ipaths, pnames, exec,
         loader, slicer);
     }
     catch (IOException e) {
@@ -163,7 +174,7 @@ public class ZipFileImageTiler {
     }
   }
 
-  private static void writeToOutputStream(OutputStream os, String zpath, FileArchiveImageTiler tiler, String tpath, int tw, int th, String[] ipaths, ExecutorService exec,
+  private static void writeToOutputStream(OutputStream os, String zpath, FileArchiveImageTiler tiler, String tpath, int tw, int th, String[] ipaths, String[] pnames, ExecutorService exec,
                                           ImageLoader loader, TileSlicer slicer) {
 
     try (DataOutputStream out = new DataOutputStream(os)) {
@@ -186,7 +197,7 @@ public class ZipFileImageTiler {
       try (FileArchive fa = new ZipArchive(zpath)) {
         // Tile the images
         tiler.run(
-          fa, tpath, tw, th, ipaths, exec,
+          fa, tpath, tw, th, ipaths, pnames, exec,
           loader, slicer, imageL, tileL, doneL
         );
       }
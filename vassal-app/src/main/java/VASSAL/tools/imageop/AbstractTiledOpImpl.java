@@ -107,7 +107,7 @@ public abstract class AbstractTiledOpImpl extends AbstractOpImpl {
   @Override
   public ImageOp getTileOp(int tileX, int tileY) {
     ImageOp top = tiles[tileY * numXTiles + tileX];
-    if (top == null) {
+    if (top == null || !isTileOpCurrent(top)) {
       top = tiles[tileY * numXTiles + tileX] = createTileOp(tileX, tileY);
     }
 
@@ -116,6 +116,18 @@ public abstract class AbstractTiledOpImpl extends AbstractOpImpl {
 
   protected abstract ImageOp createTileOp(int tileX, int tileY);
 
+  /**
+   * Checks whether a tile op created earlier by {@link #createTileOp} may
+   * still be used. If not, it is created again.
+   *
+   * @param top the tile op
+   * @return <code>true</code> by default
+   * @since 3.5.0
+   */
+  protected boolean isTileOpCurrent(ImageOp top) {
+    return true;
+  }
+
   /**
    * {@inheritDoc}
    *
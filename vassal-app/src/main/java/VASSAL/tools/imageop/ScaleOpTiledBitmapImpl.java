@@ -31,6 +31,7 @@ import java.util.List;
 
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 
+import VASSAL.build.GameModule;
 import VASSAL.tools.image.GeneralFilter;
 import VASSAL.tools.image.ImageUtils;
 
@@ -61,15 +62,37 @@ public class ScaleOpTiledBitmapImpl extends ScaleOpBitmapImpl {
 
     if (invPow2 && sop instanceof SourceOp) {
       final String name = ((SourceOp) sop).getName();
-      return new SourceOpDiskCacheBitmapImpl(name, tileX, tileY, scale);
+      if (GameModule.getGameModule().getImageTileSource().requestTiles(name)) {
+        return new SourceOpDiskCacheBitmapImpl(name, tileX, tileY, scale);
+      }
+      else {
+        // scale the tile from the image until the tile cache has it
+        return super.createTileOp(tileX, tileY);
+      }
     }
     else {
       return new TileOp(this, tileX, tileY);
     }
   }
 
+  @Override
+  protected boolean isTileOpCurrent(ImageOp top) {
+    if (top instanceof SourceOpDiskCacheBitmapImpl) {
+      return true;
+    }
+    else if (top instanceof TileOp) {
+      return ((TileOp) top).isCurrent();
+    }
+    else {
+      // replace a tile scaled from the image once the tile cache has it
+      return !GameModule.getGameModule().getImageTileSource()
+                        .requestTiles(((SourceOp) sop).getName());
+    }
+  }
+
   private static class TileOp extends AbstractTileOpImpl {
     private final ImageOp rsop;
+    private final Point[] stiles;
     private final ImageOp[] sop;
     private final int dx0, dy0, dx1, dy1, dw, dh;
     private final int sx0, sy0, sx1, sy1, sw, sh;
@@ -149,7 +172,7 @@ public class ScaleOpTiledBitmapImpl extends ScaleOpBitmapImpl {
       sh = sy1 - sy0 + 1;
 
       final Rectangle sr = new Rectangle(sx0, sy0, sw, sh);
-      final Point[] stiles = rsop.getTileIndices(sr);
+      stiles = rsop.getTileIndices(sr);
 
       sop = new ImageOp[stiles.length];
       for (int i = 0; i < stiles.length; ++i) {
@@ -166,6 +189,19 @@ public class ScaleOpTiledBitmapImpl extends ScaleOpBitmapImpl {
                                   .toHashCode();
     }
 
+    /**
+     * @return whether the source tile ops are still those of the source,
+     * which replaces those it cut from the image once it has them tiled
+     */
+    boolean isCurrent() {
+      for (int i = 0; i < stiles.length; ++i) {
+        if (sop[i] != rsop.getTileOp(stiles[i])) {
+          return false;
+        }
+      }
+      return true;
+    }
+
     @Override
     public List<VASSAL.tools.opcache.Op<?>> getSources() {
       return Arrays.asList(sop);
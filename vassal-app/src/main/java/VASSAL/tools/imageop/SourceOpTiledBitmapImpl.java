@@ -51,6 +51,16 @@ public class SourceOpTiledBitmapImpl extends SourceOpBitmapImpl {
 
   @Override
   protected ImageOp createTileOp(int tileX, int tileY) {
-    return new SourceOpDiskCacheBitmapImpl(name, tileX, tileY, 1.0);
+    // cut the tile from the image until the tile cache has it
+    return GameModule.getGameModule().getImageTileSource().requestTiles(name) ?
+      new SourceOpDiskCacheBitmapImpl(name, tileX, tileY, 1.0) :
+      super.createTileOp(tileX, tileY);
+  }
+
+  @Override
+  protected boolean isTileOpCurrent(ImageOp top) {
+    // replace a tile cut from the image once the tile cache has it
+    return top instanceof SourceOpDiskCacheBitmapImpl ||
+      !GameModule.getGameModule().getImageTileSource().requestTiles(name);
   }
 }
@@ -0,0 +1,433 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+
+package VASSAL.tools.io;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipException;
+
+/**
+ * Writes a ZIP archive to a {@link FileChannel}, copying entries from
+ * another archive as they are, without inflating and deflating them again.
+ * Only new entries pass through a {@link Deflater}.
+ * <p>
+ * ZIP64 archives are not supported: a {@link ZipException} is thrown if the
+ * archive written would need ZIP64 extensions, and {@link Directory#read}
+ * declines to read an archive which has them. Callers should then fall back
+ * to {@link java.util.zip.ZipOutputStream}.
+ *
+ * @since 3.5.0
+ */
+final class RawZipWriter {
+  private static final int LOC_SIG = 0x04034b50;
+  private static final int CEN_SIG = 0x02014b50;
+  private static final int END_SIG = 0x06054b50;
+  private static final int EXT_SIG = 0x08074b50;
+
+  private static final int LOC_LEN = 30;
+  private static final int CEN_LEN = 46;
+  private static final int END_LEN = 22;
+
+  private static final int FLAG_DESCRIPTOR = 0x0008;
+  private static final int FLAG_UTF8 = 0x0800;
+
+  private static final int STORED = 0;
+  private static final int DEFLATED = 8;
+
+  private static final long MAX_U32 = 0xFFFFFFFFL;
+  private static final int MAX_U16 = 0xFFFF;
+
+  /** An entry in the central directory of an archive */
+  static final class Record {
+    final String name;
+    private final byte[] header; // the whole central directory header
+    private final int flags;
+    private final long compressedSize;
+    private final long offset;
+
+    private Record(String name, byte[] header, int flags, long compressedSize, long offset) {
+      this.name = name;
+      this.header = header;
+      this.flags = flags;
+      this.compressedSize = compressedSize;
+      this.offset = offset;
+    }
+  }
+
+  /** The central directory of an existing archive */
+  static final class Directory {
+    final List<Record> records;
+    final long offset;
+
+    private Directory(List<Record> records, long offset) {
+      this.records = Collections.unmodifiableList(records);
+      this.offset = offset;
+    }
+
+    /**
+     * Reads the central directory of an archive.
+     *
+     * @param ch the archive
+     * @return the directory, or <code>null</code> if the archive is not one
+     * which can be copied raw, e.g. because it uses ZIP64 extensions or has
+     * data following its central directory
+     * @throws IOException oops
+     */
+    static Directory read(FileChannel ch) throws IOException {
+      final long size = ch.size();
+      if (size < END_LEN) {
+        return null;
+      }
+
+      // Find the end of central directory record, which may be followed
+      // by a comment of up to 64k
+      final int tailLen = (int) Math.min(size, END_LEN + MAX_U16);
+      final ByteBuffer tail = readFully(ch, size - tailLen, tailLen);
+      int end = -1;
+      for (int i = tailLen - END_LEN; i >= 0; --i) {
+        if (tail.getInt(i) == END_SIG &&
+            i + END_LEN + u16(tail, i + 20) == tailLen) {
+          end = i;
+          break;
+        }
+      }
+      if (end < 0) {
+        return null;
+      }
+
+      final int count = u16(tail, end + 10);
+      final long cenLen = u32(tail, end + 12);
+      final long cenOff = u32(tail, end + 16);
+      if (u16(tail, end + 4) != 0 ||
+          u16(tail, end + 6) != 0 ||
+          u16(tail, end + 8) != count ||
+          count == MAX_U16 || cenLen == MAX_U32 || cenOff == MAX_U32 ||
+          cenOff + cenLen != size - tailLen + end) {
+        // multiple disks, ZIP64, or something between the directory and its end
+        return null;
+      }
+
+      final ByteBuffer cen = readFully(ch, cenOff, (int) cenLen);
+      final List<Record> records = new ArrayList<>(count);
+      int pos = 0;
+      for (int i = 0; i < count; ++i) {
+        if (pos + CEN_LEN > cenLen || cen.getInt(pos) != CEN_SIG) {
+          return null;
+        }
+
+        final long csize = u32(cen, pos + 20);
+        final long usize = u32(cen, pos + 24);
+        final long off = u32(cen, pos + 42);
+        if (csize == MAX_U32 || usize == MAX_U32 || off == MAX_U32) {
+          return null;
+        }
+
+        final int nlen = u16(cen, pos + 28);
+        final int len = CEN_LEN + nlen + u16(cen, pos + 30) + u16(cen, pos + 32);
+        if (pos + len > cenLen) {
+          return null;
+        }
+
+        final byte[] header = new byte[len];
+        cen.position(pos);
+        cen.get(header);
+
+        // ZipFile reads names as UTF-8 whether or not they are flagged so
+        final String name = new String(header, CEN_LEN, nlen, StandardCharsets.UTF_8);
+        records.add(new Record(name, header, u16(cen, pos + 8), csize, off));
+        pos += len;
+      }
+
+      return pos == cenLen ? new Directory(records, cenOff) : null;
+    }
+  }
+
+  private final FileChannel out;
+  private final int level;
+  private ByteBuffer cen;
+  private int count = 0;
+
+  private final byte[] buf = new byte[8192];
+  private final byte[] dbuf = new byte[8192];
+
+  /**
+   * @param out the channel to which to write, starting at its current position
+   * @param level the compression level for new entries
+   */
+  RawZipWriter(FileChannel out, int level) {
+    this.out = out;
+    this.level = level;
+    cen = ByteBuffer.allocate(8192).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  /**
+   * Lists an entry which is already in place in the output in the central
+   * directory, as it was listed in the output's old central directory.
+   *
+   * @param r the entry
+   */
+  void keep(Record r) {
+    putCen(r.header);
+  }
+
+  /**
+   * Copies an entry from another archive, with its header, compressed data
+   * and CRC exactly as they are.
+   *
+   * @param src the archive containing the entry
+   * @param r the entry
+   * @throws IOException oops
+   */
+  void copy(FileChannel src, Record r) throws IOException {
+    final ByteBuffer loc = readFully(src, r.offset, LOC_LEN);
+    if (loc.getInt(0) != LOC_SIG) {
+      throw new ZipException("invalid local header for " + r.name); //NON-NLS
+    }
+
+    long end = r.offset + LOC_LEN + u16(loc, 26) + u16(loc, 28) + r.compressedSize;
+    if ((r.flags & FLAG_DESCRIPTOR) != 0) {
+      // the data descriptor may or may not have a signature
+      end += readFully(src, end, 4).getInt(0) == EXT_SIG ? 16 : 12;
+    }
+
+    final long offset = checkU32(out.position());
+    for (long pos = r.offset; pos < end; ) {
+      final long n = src.transferTo(pos, end - pos, out);
+      if (n <= 0) {
+        throw new EOFException(r.name);
+      }
+      pos += n;
+    }
+
+    final byte[] header = r.header.clone();
+    ByteBuffer.wrap(header).order(ByteOrder.LITTLE_ENDIAN).putInt(42, (int) offset);
+    putCen(header);
+  }
+
+  /**
+   * Writes a new entry.
+   *
+   * @param name the name of the entry
+   * @param file the file holding the contents of the entry
+   * @param compress whether to deflate the contents
+   * @param time the modification time of the entry
+   * @throws IOException oops
+   */
+  void write(String name, File file, boolean compress, long time) throws IOException {
+    final byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+    final int flags = nameBytes.length == name.length() ? 0 : FLAG_UTF8;
+    final int method = compress ? DEFLATED : STORED;
+    final int version = compress ? 20 : 10;
+    final int dosTime = dosTime(time);
+
+    // Write the local header with the CRC and sizes still to come
+    final long offset = checkU32(out.position());
+    final ByteBuffer loc = ByteBuffer.allocate(LOC_LEN + nameBytes.length)
+                                     .order(ByteOrder.LITTLE_ENDIAN);
+    loc.putInt(LOC_SIG)
+       .putShort((short) version)
+       .putShort((short) flags)
+       .putShort((short) method)
+       .putInt(dosTime)
+       .putInt(0)
+       .putInt(0)
+       .putInt(0)
+       .putShort((short) nameBytes.length)
+       .putShort((short) 0)
+       .put(nameBytes);
+    writeFully(loc.flip(), -1);
+
+    final CRC32 crc = new CRC32();
+    long size = 0;
+    final Deflater def = compress ? new Deflater(level, true) : null;
+    try (InputStream in = new FileInputStream(file)) {
+      int n;
+      while ((n = in.read(buf)) != -1) {
+        crc.update(buf, 0, n);
+        size += n;
+        if (def != null) {
+          def.setInput(buf, 0, n);
+          while (!def.needsInput()) {
+            deflate(def);
+          }
+        }
+        else {
+          writeFully(ByteBuffer.wrap(buf, 0, n), -1);
+        }
+      }
+
+      if (def != null) {
+        def.finish();
+        while (!def.finished()) {
+          deflate(def);
+        }
+      }
+    }
+    finally {
+      if (def != null) {
+        def.end();
+      }
+    }
+
+    final long csize = checkU32(out.position() - offset - loc.limit());
+    checkU32(size);
+
+    // Now fill in the CRC and sizes
+    final ByteBuffer sums = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+    sums.putInt((int) crc.getValue()).putInt((int) csize).putInt((int) size);
+    writeFully(sums.flip(), offset + 14);
+
+    final ByteBuffer header = ByteBuffer.allocate(CEN_LEN + nameBytes.length)
+                                        .order(ByteOrder.LITTLE_ENDIAN);
+    header.putInt(CEN_SIG)
+          .putShort((short) version)
+          .putShort((short) version)
+          .putShort((short) flags)
+          .putShort((short) method)
+          .putInt(dosTime)
+          .putInt((int) crc.getValue())
+          .putInt((int) csize)
+          .putInt((int) size)
+          .putShort((short) nameBytes.length)
+          .putShort((short) 0)
+          .putShort((short) 0)
+          .putShort((short) 0)
+          .putShort((short) 0)
+          .putInt(0)
+          .putInt((int) offset)
+          .put(nameBytes);
+    putCen(header.array());
+  }
+
+  /**
+   * Writes the central directory, and truncates the output after it.
+   *
+   * @throws IOException oops
+   */
+  void finish() throws IOException {
+    if (count >= MAX_U16) {
+      throw new ZipException("too many entries for ZIP: " + count); //NON-NLS
+    }
+
+    final long offset = checkU32(out.position());
+    final long len = cen.position();
+    writeFully(cen.flip(), -1);
+
+    final ByteBuffer end = ByteBuffer.allocate(END_LEN).order(ByteOrder.LITTLE_ENDIAN);
+    end.putInt(END_SIG)
+       .putShort((short) 0)
+       .putShort((short) 0)
+       .putShort((short) count)
+       .putShort((short) count)
+       .putInt((int) checkU32(len))
+       .putInt((int) offset)
+       .putShort((short) 0);
+    writeFully(end.flip(), -1);
+
+    out.truncate(out.position());
+  }
+
+  private void deflate(Deflater def) throws IOException {
+    final int n = def.deflate(dbuf);
+    if (n > 0) {
+      writeFully(ByteBuffer.wrap(dbuf, 0, n), -1);
+    }
+  }
+
+  private void putCen(byte[] header) {
+    if (cen.remaining() < header.length) {
+      final ByteBuffer grown = ByteBuffer.allocate(
+        Math.max(2 * cen.capacity(), cen.position() + header.length)
+      ).order(ByteOrder.LITTLE_ENDIAN);
+      grown.put(cen.flip());
+      cen = grown;
+    }
+    cen.put(header);
+    ++count;
+  }
+
+  /** Writes all of a buffer at a position, or at the current position if negative */
+  private void writeFully(ByteBuffer b, long pos) throws IOException {
+    while (b.hasRemaining()) {
+      if (pos < 0) {
+        out.write(b);
+      }
+      else {
+        pos += out.write(b, pos);
+      }
+    }
+  }
+
+  static ByteBuffer readFully(FileChannel ch, long pos, int len) throws IOException {
+    final ByteBuffer b = ByteBuffer.allocate(len).order(ByteOrder.LITTLE_ENDIAN);
+    while (b.hasRemaining()) {
+      final int n = ch.read(b, pos + b.position());
+      if (n < 0) {
+        throw new EOFException();
+      }
+    }
+    return b.flip();
+  }
+
+  private static int u16(ByteBuffer b, int i) {
+    return b.getShort(i) & 0xFFFF;
+  }
+
+  private static long u32(ByteBuffer b, int i) {
+    return b.getInt(i) & MAX_U32;
+  }
+
+  private static long checkU32(long n) throws ZipException {
+    if (n >= MAX_U32) {
+      throw new ZipException("too large for ZIP without ZIP64: " + n); //NON-NLS
+    }
+    return n;
+  }
+
+  /** Converts a Java time to an MS-DOS date and time, as ZipEntry does */
+  private static int dosTime(long time) {
+    final LocalDateTime d = LocalDateTime.ofInstant(
+      Instant.ofEpochMilli(time), ZoneId.systemDefault()
+    );
+    if (d.getYear() < 1980) {
+      return (1 << 21) | (1 << 16);
+    }
+    return (d.getYear() - 1980) << 25 |
+           d.getMonthValue() << 21 |
+           d.getDayOfMonth() << 16 |
+           d.getHour() << 11 |
+           d.getMinute() << 5 |
+           d.getSecond() >> 1;
+  }
+}
@@ -29,21 +29,28 @@ import java.io.FilterInputStream;
 import java.io.InputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.FileSystemException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.zip.CRC32;
 import java.util.zip.CheckedOutputStream;
 import java.util.zip.Checksum;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
@@ -64,6 +71,7 @@ public class ZipArchive implements FileArchive {
 
   private boolean modified = false;
   private boolean closed = true;
+  private int compressionLevel = Deflater.BEST_COMPRESSION;
 
   private static class Entry {
     public ZipEntry ze;
@@ -130,6 +138,7 @@ public class ZipArchive implements FileArchive {
 
     if (truncate) {
       archiveFile.delete();
+      journalFile().delete();
     }
   }
 
@@ -191,6 +200,30 @@ public class ZipArchive implements FileArchive {
     return modified;
   }
 
+  /**
+   * @return the level at which new and modified files are compressed
+   * @since 3.5.0
+   */
+  public int getCompressionLevel() {
+    return compressionLevel;
+  }
+
+  /**
+   * Sets the level at which new and modified files are compressed when the
+   * archive is written. Unmodified files are copied from the old archive
+   * as they are, and so keep the level at which they were compressed.
+   *
+   * @param level a {@link Deflater} compression level, from 0 to 9
+   * @since 3.5.0
+   */
+  public void setCompressionLevel(int level) {
+    if ((level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION) &&
+        level != Deflater.DEFAULT_COMPRESSION) {
+      throw new IllegalArgumentException("invalid compression level: " + level); //NON-NLS
+    }
+    compressionLevel = level;
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -494,20 +527,269 @@ public class ZipArchive implements FileArchive {
   }
 
   private void writeToDisk() throws IOException {
+    final boolean copyOld = zipFile != null;
+    if (copyOld) {
+      zipFile.close();
+      zipFile = null;
+    }
+
+    if (copyOld && appendToDisk()) {
+      discardEntries();
+      return;
+    }
+
     // write all files to a temporary zip archive
     final File tmpFile = makeTempFileFor(archiveFile.getName());
+    if (!writeRaw(tmpFile, copyOld)) {
+      writeStreaming(tmpFile, copyOld);
+    }
+
+    try {
+      // Replace old archive with temp archive
+      moveFile(tmpFile.toPath(), archiveFile.toPath());
+    }
+    finally {
+      discardEntries();
+    }
+  }
+
+  /**
+   * Appends the new files to the end of the archive, if no files have been
+   * modified or removed, so that the archive need not be copied. The end of
+   * the archive, which the new files overwrite, is kept in a journal until
+   * they are written, so that the archive can be restored if writing them
+   * is interrupted.
+   *
+   * @return <code>true</code> if the files were appended
+   * @throws IOException oops
+   */
+  private boolean appendToDisk() throws IOException {
+    final FileChannel ch;
+    try {
+      ch = FileChannel.open(
+        archiveFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE
+      );
+    }
+    catch (IOException e) {
+      // The archive may still be replaceable even if it is not writable
+      return false;
+    }
+
+    try (ch) {
+      final RawZipWriter.Directory dir = RawZipWriter.Directory.read(ch);
+      if (dir == null || !onlyAdded(dir)) {
+        return false;
+      }
+
+      // The new files overwrite the central directory, so keep it in
+      // case they cannot be written, and in the journal in case writing
+      // them is interrupted
+      final ByteBuffer tail =
+        RawZipWriter.readFully(ch, dir.offset, (int) (ch.size() - dir.offset));
+
+      try {
+        writeJournal(dir.offset, tail.duplicate());
+      }
+      catch (IOException e) {
+        // Without a journal, replace the archive instead
+        journalFile().delete();
+        return false;
+      }
+
+      ch.position(dir.offset);
+      try {
+        final RawZipWriter zw = new RawZipWriter(ch, compressionLevel);
+        for (final RawZipWriter.Record rec : dir.records) {
+          zw.keep(rec);
+        }
+        writeNewEntries(zw);
+        if (whileAppending != null) {
+          whileAppending.run();
+        }
+        zw.finish();
+        ch.force(true);
+      }
+      catch (IOException e) {
+        // Put the old central directory back, leaving the archive as it was
+        restoreTail(ch, dir.offset, tail);
+        journalFile().delete();
+
+        if (e instanceof ZipException) {
+          return false;
+        }
+        throw e;
+      }
+
+      Files.delete(journalFile().toPath());
+      return true;
+    }
+  }
+
+  // For tests: run while new files are being appended, e.g. to simulate a crash
+  static Runnable whileAppending;
+
+  /**
+   * @return the journal holding the end of the archive while new files are
+   * appended to it, from which it is restored if appending is interrupted
+   */
+  private File journalFile() {
+    return new File(archiveFile.getPath() + ".journal"); //NON-NLS
+  }
+
+  /**
+   * Writes the journal: the position of the end of the archive which new
+   * files overwrite, the length of the end, and the end itself.
+   */
+  private void writeJournal(long offset, ByteBuffer tail) throws IOException {
+    final ByteBuffer head = ByteBuffer.allocate(12);
+    head.putLong(offset).putInt(tail.remaining()).flip();
+
+    try (FileChannel jc = FileChannel.open(journalFile().toPath(),
+           StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+           StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (head.hasRemaining()) {
+        jc.write(head);
+      }
+      while (tail.hasRemaining()) {
+        jc.write(tail);
+      }
+      // The archive is not touched until the journal is safely written
+      jc.force(true);
+    }
+  }
 
+  private static void restoreTail(FileChannel ch, long offset, ByteBuffer tail)
+                                                            throws IOException {
+    ch.truncate(offset);
+    for (long pos = offset; tail.hasRemaining(); ) {
+      pos += ch.write(tail, pos);
+    }
+    ch.force(true);
+  }
+
+  /**
+   * Restores the end of the archive from its journal, if appending new
+   * files to it was interrupted, e.g. by a crash, leaving the archive as it
+   * was before.
+   */
+  private void recover() throws IOException {
+    final Path journal = journalFile().toPath();
+    if (!Files.exists(journal)) {
+      return;
+    }
+
+    if (archiveFile.exists()) {
+      final ByteBuffer b = ByteBuffer.wrap(Files.readAllBytes(journal));
+      // An incomplete journal was written before the archive was touched
+      if (b.remaining() >= 12) {
+        final long offset = b.getLong();
+        if (b.getInt() == b.remaining()) {
+          try (FileChannel ch = FileChannel.open(
+                 archiveFile.toPath(), StandardOpenOption.WRITE)) {
+            restoreTail(ch, offset, b);
+          }
+        }
+      }
+    }
+
+    Files.delete(journal);
+  }
+
+  /**
+   * @return <code>true</code> if every file in the archive's directory is
+   * still present and unmodified
+   */
+  private boolean onlyAdded(RawZipWriter.Directory dir) {
+    int unmodified = 0;
+    for (final Entry e : entries.values()) {
+      if (e != null && e.file == null) {
+        ++unmodified;
+      }
+    }
+
+    if (unmodified != dir.records.size()) {
+      return false;
+    }
+
+    for (final RawZipWriter.Record rec : dir.records) {
+      final Entry e = entries.get(rec.name);
+      if (e == null || e.file != null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Writes the archive, copying the compressed data of unmodified files
+   * from the old archive as it is.
+   *
+   * @return <code>false</code> if the archive cannot be written this way,
+   * e.g. because it needs ZIP64 extensions
+   * @throws IOException oops
+   */
+  private boolean writeRaw(File tmpFile, boolean copyOld) throws IOException {
+    try (FileChannel out = FileChannel.open(
+           tmpFile.toPath(),
+           StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      final RawZipWriter zw = new RawZipWriter(out, compressionLevel);
+
+      if (copyOld) {
+        // copy unmodified files into the temp archive
+        try (FileChannel in = FileChannel.open(archiveFile.toPath(), StandardOpenOption.READ)) {
+          final RawZipWriter.Directory dir = RawZipWriter.Directory.read(in);
+          if (dir == null) {
+            return false;
+          }
+
+          final Set<String> copied = new HashSet<>();
+          for (final RawZipWriter.Record rec : dir.records) {
+            // skip modified or removed entries
+            final Entry e = entries.get(rec.name);
+            if (e == null || e.file != null || !copied.add(rec.name)) continue;
+
+            zw.copy(in, rec);
+          }
+        }
+      }
+
+      writeNewEntries(zw);
+      zw.finish();
+      return true;
+    }
+    catch (ZipException e) {
+      return false;
+    }
+  }
+
+  private void writeNewEntries(RawZipWriter zw) throws IOException {
+    for (final Entry e : entries.values()) {
+      // skip removed or unmodified files
+      if (e == null || e.file == null) continue;
+
+      // write new or modified file into the archive
+      zw.write(
+        e.ze.getName(),
+        e.file,
+        e.ze.getMethod() != ZipEntry.STORED,
+        e.file.lastModified()
+      );
+    }
+  }
+
+  /**
+   * Writes the archive with a {@link ZipOutputStream}, inflating and
+   * deflating again every unmodified file.
+   */
+  private void writeStreaming(File tmpFile, boolean copyOld) throws IOException {
     try (OutputStream fout = new FileOutputStream(tmpFile);
          OutputStream bout = new BufferedOutputStream(fout);
          ZipOutputStream out = new ZipOutputStream(bout)) {
-      out.setLevel(9);
+      out.setLevel(compressionLevel);
 
       final byte[] buf = new byte[8192];
 
-      if (zipFile != null) {
-        zipFile.close();
-        zipFile = null;
-
+      if (copyOld) {
         // copy unmodified file into the temp archive
         try (InputStream fin = new FileInputStream(archiveFile);
              InputStream bin = new BufferedInputStream(fin);
@@ -546,23 +828,19 @@ public class ZipArchive implements FileArchive {
         }
       }
     }
+  }
 
-    try {
-      // Replace old archive with temp archive
-      moveFile(tmpFile.toPath(), archiveFile.toPath());
-    }
-    finally {
-      // Delete all temporary files
-      for (final Entry e : entries.values()) {
-        if (e != null && e.file != null) {
-          e.file.delete();
-        }
+  private void discardEntries() {
+    // Delete all temporary files
+    for (final Entry e : entries.values()) {
+      if (e != null && e.file != null) {
+        e.file.delete();
       }
-
-      closed = true;
-      modified = false;
-      entries.clear();
     }
+
+    closed = true;
+    modified = false;
+    entries.clear();
   }
 
   /** {@inheritDoc} */
@@ -663,6 +941,7 @@ public class ZipArchive implements FileArchive {
   /** Rebuilds the {@link Entry}s from our underlying {@link ZipFile}. */
   private synchronized void readEntries() throws IOException {
     entries.clear();
+    recover();
 
     if (archiveFile.exists() && archiveFile.length() > 0) {
       zipFile = new ZipFile(archiveFile);
@@ -0,0 +1,143 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package VASSAL.build;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import VASSAL.build.module.documentation.HelpFile;
+
+import org.junit.Test;
+
+public class AbstractBuildableTest {
+
+  private static class Node extends AbstractConfigurable {
+    Node(String name) {
+      setConfigureName(name);
+    }
+
+    Node with(Node... children) {
+      for (final Node c : children) {
+        add(c);
+      }
+      return this;
+    }
+
+    @Override
+    public String[] getAttributeDescriptions() {
+      return new String[0];
+    }
+
+    @Override
+    public Class<?>[] getAttributeTypes() {
+      return new Class<?>[0];
+    }
+
+    @Override
+    public String[] getAttributeNames() {
+      return new String[0];
+    }
+
+    @Override
+    public void setAttribute(String key, Object value) {
+    }
+
+    @Override
+    public String getAttributeValueString(String key) {
+      return null;
+    }
+
+    @Override
+    public Class<?>[] getAllowableConfigureComponents() {
+      return new Class<?>[0];
+    }
+
+    @Override
+    public HelpFile getHelpFile() {
+      return null;
+    }
+
+    @Override
+    public void removeFrom(Buildable parent) {
+    }
+
+    @Override
+    public void addTo(Buildable parent) {
+    }
+  }
+
+  private static class Leaf extends Node {
+    Leaf(String name) {
+      super(name);
+    }
+  }
+
+  @Test
+  public void testLookupsFollowChanges() {
+    final Leaf a = new Leaf("a");
+    final Leaf b = new Leaf("b");
+    final Leaf c = new Leaf("c");
+    final Node mid = new Node("mid").with(b);
+    final Node root = new Node("root").with(a, mid);
+
+    assertEquals(Arrays.asList(a), root.getComponentsOf(Leaf.class));
+    assertEquals(Arrays.asList(a, b), root.getAllDescendantComponentsOf(Leaf.class));
+
+    // a change below the node searched
+    mid.add(c);
+    assertEquals(Arrays.asList(a, b, c), root.getAllDescendantComponentsOf(Leaf.class));
+
+    mid.remove(b);
+    assertEquals(Arrays.asList(a, c), root.getAllDescendantComponentsOf(Leaf.class));
+
+    // changes made directly to the list
+    mid.buildComponents.clear();
+    assertEquals(Arrays.asList(a), root.getAllDescendantComponentsOf(Leaf.class));
+  }
+
+  @Test
+  public void testResultsMayBeChanged() {
+    final Leaf a = new Leaf("a");
+    final Node root = new Node("root").with(a);
+
+    root.getComponentsOf(Leaf.class).clear();
+    root.getAllDescendantComponentsOf(Leaf.class).clear();
+    assertEquals(Arrays.asList(a), root.getComponentsOf(Leaf.class));
+    assertEquals(Arrays.asList(a), root.getAllDescendantComponentsOf(Leaf.class));
+  }
+
+  @Test
+  public void testComponentsNamed() {
+    final Leaf a1 = new Leaf("a");
+    final Leaf a2 = new Leaf("a");
+    final Leaf b = new Leaf("b");
+    final Node root = new Node("root").with(a1, b, a2);
+
+    assertEquals(Arrays.asList(a1, a2), root.getComponentsNamed(Leaf.class, "a"));
+    assertEquals(Arrays.asList(b), root.getComponentsNamed(Node.class, "b"));
+    assertTrue(root.getComponentsNamed(Leaf.class, "c").isEmpty());
+
+    b.setConfigureName("c");
+    final List<Leaf> l = root.getComponentsNamed(Leaf.class, "c");
+    assertEquals(Arrays.asList(b), l);
+    assertTrue(root.getComponentsNamed(Leaf.class, "b").isEmpty());
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package VASSAL.build.module;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import VASSAL.build.GameModule;
+import VASSAL.build.GpIdSupport;
+import VASSAL.counters.BasicPiece;
+import VASSAL.counters.Decorator;
+import VASSAL.counters.DynamicProperty;
+import VASSAL.counters.GamePiece;
+import VASSAL.counters.Marker;
+import VASSAL.counters.PlaceMarker;
+import VASSAL.counters.UsePrototype;
+import VASSAL.tools.SequenceEncoder;
+
+public class BasicCommandEncoderTest {
+
+  private MockedStatic<GameModule> staticGm;
+
+  @Before
+  public void setUp() {
+    final GameModule gm = mock(GameModule.class);
+    when(gm.getGpIdSupport()).thenReturn(mock(GpIdSupport.class));
+    staticGm = Mockito.mockStatic(GameModule.class);
+    staticGm.when(GameModule::getGameModule).thenReturn(gm);
+  }
+
+  @After
+  public void tearDown() {
+    staticGm.close();
+  }
+
+  private static GamePiece basic(String name) {
+    return new BasicPiece(BasicPiece.ID + ";;;" + name);
+  }
+
+  // A Place Marker trait holds the whole definition of the marker it places
+  private static PlaceMarker placeMarker(GamePiece marker, GamePiece inner) {
+    final SequenceEncoder se = new SequenceEncoder(';');
+    se.append("Place").append("M").append(marker.getType()).append("null"); //NON-NLS
+    return new PlaceMarker(PlaceMarker.ID + se.getValue(), inner);
+  }
+
+  private static void assertSameChain(GamePiece expected, GamePiece actual) {
+    assertNotSame(expected, actual);
+    assertEquals(expected.getType(), actual.getType());
+
+    GamePiece e = expected;
+    GamePiece a = actual;
+    while (e instanceof Decorator) {
+      assertEquals(e.getClass(), a.getClass());
+      assertEquals(((Decorator) e).myGetType(), ((Decorator) a).myGetType());
+      e = ((Decorator) e).getInner();
+      a = ((Decorator) a).getInner();
+    }
+    assertEquals(e.getClass(), a.getClass());
+    assertEquals(e.getType(), a.getType());
+  }
+
+  @Test
+  public void testCachedDefinitionBuildsSamePiece() {
+    // a marker using a prototype, placed by a marker, placed by a piece using the same prototype
+    final GamePiece rifle = new UsePrototype(UsePrototype.ID + "Infantry", //NON-NLS
+      new DynamicProperty(DynamicProperty.ID + "Strength", basic("Rifle"))); //NON-NLS
+    final GamePiece squad = placeMarker(rifle, basic("Squad")); //NON-NLS
+    final Marker side = new Marker(Marker.ID + "Side", //NON-NLS
+      placeMarker(squad, new UsePrototype(UsePrototype.ID + "Infantry", basic("Platoon")))); //NON-NLS
+    side.setProperty("Side", "Axis"); //NON-NLS
+    final String type = side.getType();
+    final String state = side.getState();
+
+    final BasicCommandEncoder encoder = new BasicCommandEncoder();
+    final GamePiece uncached = encoder.createPiece(type);
+    final GamePiece cached = encoder.createPiece(type);
+    assertNotSame(uncached, cached);
+    assertSameChain(side, uncached);
+    assertSameChain(side, cached);
+
+    uncached.setState(state);
+    cached.setState(state);
+    assertEquals(state, uncached.getState());
+    assertEquals(state, cached.getState());
+    assertEquals("Axis", cached.getProperty("Side")); //NON-NLS
+
+    // the pieces built from one definition share no state
+    cached.setProperty("Side", "Allies"); //NON-NLS
+    assertNotEquals(cached.getState(), uncached.getState());
+    assertEquals("Axis", uncached.getProperty("Side")); //NON-NLS
+
+    // the definitions held by the Place Marker traits build the same markers, cached or not
+    assertSameChain(squad, encoder.createPiece(squad.getType()));
+    assertSameChain(rifle, encoder.createPiece(rifle.getType()));
+    assertSameChain(rifle, encoder.createPiece(rifle.getType()));
+  }
+
+  @Test
+  public void testSubclassTraitsBuiltForCachedDefinition() {
+    final List<String> built = new ArrayList<>();
+    final BasicCommandEncoder encoder = new BasicCommandEncoder() {
+      @Override
+      public Decorator createDecorator(String type, GamePiece inner) {
+        built.add(type);
+        return super.createDecorator(type, inner);
+      }
+    };
+
+    final GamePiece side = new Marker(Marker.ID + "Side", basic("Rifle")); //NON-NLS
+    assertSameChain(side, encoder.createPiece(side.getType()));
+    assertSameChain(side, encoder.createPiece(side.getType()));
+    assertEquals(List.of(Marker.ID + "Side", Marker.ID + "Side"), built); //NON-NLS
+  }
+
+  @Test
+  public void testDefinitionCacheBounded() {
+    final BasicCommandEncoder encoder = new BasicCommandEncoder();
+    encoder.definitions.setMaxSize(2);
+
+    final GamePiece a = basic("A"); //NON-NLS
+    final GamePiece b = basic("B"); //NON-NLS
+    final GamePiece c = basic("C"); //NON-NLS
+    encoder.createPiece(a.getType());
+    encoder.createPiece(b.getType());
+    encoder.createPiece(c.getType());
+    assertEquals(2, encoder.definitions.size());
+    assertEquals(1, encoder.definitions.getEvictions());
+
+    // a dropped definition is parsed again
+    assertSameChain(a, encoder.createPiece(a.getType()));
+  }
+}
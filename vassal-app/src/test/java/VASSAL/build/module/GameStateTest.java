@@ -0,0 +1,222 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package VASSAL.build.module;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import VASSAL.build.GameModule;
+import VASSAL.build.module.properties.ChangePropertyCommand;
+import VASSAL.build.module.properties.MutableProperty;
+import VASSAL.command.Command;
+import VASSAL.command.Logger;
+import VASSAL.counters.GamePiece;
+import VASSAL.tools.swing.ProgressDialog;
+
+public class GameStateTest {
+
+  private final List<String> executed = new ArrayList<>();
+
+  private MockedStatic<GameModule> staticGm;
+  private GameModule gm;
+  private Map map;
+
+  // A command which records its execution, and if asked to, fails in a way
+  // which Command.execute() does not report and swallow
+  private class Step extends Command {
+    private final String name;
+    private final boolean fail;
+
+    Step(String name, boolean fail) {
+      this.name = name;
+      this.fail = fail;
+    }
+
+    @Override
+    public void execute() {
+      executed.add(name);
+      if (fail) {
+        throw new IllegalStateException(name);
+      }
+    }
+
+    @Override
+    protected void executeCommand() {
+    }
+
+    @Override
+    protected Command myUndoCommand() {
+      return null;
+    }
+  }
+
+  @Before
+  public void setUp() {
+    map = mock(Map.class);
+    gm = mock(GameModule.class);
+    when(gm.getComponentsOf(Map.class)).thenReturn(new ArrayList<>(List.of(map)));
+    when(gm.getGameState()).thenReturn(mock(GameState.class));
+    staticGm = Mockito.mockStatic(GameModule.class);
+    staticGm.when(GameModule::getGameModule).thenReturn(gm);
+  }
+
+  @After
+  public void tearDown() {
+    staticGm.close();
+  }
+
+  @Test
+  public void testLoaderFinishesWhenCommandThrows() {
+    final JFrame frame = mock(JFrame.class);
+    final ProgressDialog dialog = mock(ProgressDialog.class);
+    final GameState.GameLoader loader = new GameState.GameLoader(frame, "test.vsav", List.of( //NON-NLS
+      new Step("first", false), new Step("bad", true), new Step("last", false)), "loaded", dialog); //NON-NLS
+    verify(map).setPiecesLoading(true);
+
+    try {
+      loader.run();
+      fail();
+    }
+    catch (IllegalStateException e) {
+      assertEquals("bad", e.getMessage()); //NON-NLS
+    }
+
+    // the loader is finished: the maps draw their pieces and the dialog is gone
+    assertEquals(List.of("first", "bad"), executed); //NON-NLS
+    verify(map).setPiecesLoading(false);
+    verify(dialog).dispose();
+    verify(frame).setCursor(any());
+    verify(gm).warn("loaded"); //NON-NLS
+
+    // a slice already queued does nothing more
+    loader.run();
+    assertEquals(List.of("first", "bad"), executed); //NON-NLS
+    verify(dialog, times(1)).dispose();
+  }
+
+  @Test
+  public void testCommandsReceivedWhileLoadingExecutedAfterwards() {
+    final Logger logger = mock(Logger.class);
+    when(gm.getLogger()).thenReturn(logger);
+    final Step received = new Step("received", false); //NON-NLS
+    final Step after = new Step("after", false); //NON-NLS
+
+    // the next slice is run here, rather than on the EDT
+    try (MockedStatic<SwingUtilities> staticSwing = Mockito.mockStatic(SwingUtilities.class)) {
+      final GameState.GameLoader loader = new GameState.GameLoader(mock(JFrame.class), "test.vsav", List.of( //NON-NLS
+        new Step("first", false) { //NON-NLS
+          @Override
+          public void execute() {
+            super.execute();
+            try {
+              // longer than a slice
+              Thread.sleep(100);
+            }
+            catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          }
+        },
+        new Step("last", false)), "loaded", mock(ProgressDialog.class)); //NON-NLS
+
+      loader.run();
+      staticSwing.verify(() -> SwingUtilities.invokeLater(loader));
+      assertEquals(List.of("first"), executed); //NON-NLS
+
+      // a command received between slices waits for the whole game
+      GameState.executeReceived(received);
+      assertEquals(List.of("first"), executed); //NON-NLS
+      verify(logger, never()).log(any());
+
+      loader.run();
+      assertEquals(List.of("first", "last", "received"), executed); //NON-NLS
+      verify(logger).log(received);
+    }
+
+    // once the game has loaded, commands are executed as they arrive
+    GameState.executeReceived(after);
+    assertEquals(List.of("first", "last", "received", "after"), executed); //NON-NLS
+    verify(logger).log(after);
+  }
+
+  @Test
+  public void testUnchangedPropertyChangesNoPieces() {
+    final GameState state = new GameState();
+    final GameState.PieceListener l = mock(GameState.PieceListener.class);
+    state.addPieceListener(l);
+    final MutableProperty p = mock(MutableProperty.class);
+
+    // Set Global Property reports a change even if the value is the same
+    state.piecesChanged(new ChangePropertyCommand(p, "Turn", "1", "1")); //NON-NLS
+    verify(l, never()).allPiecesChanged();
+
+    // any piece may depend on a Global Property which has changed
+    state.piecesChanged(new ChangePropertyCommand(p, "Turn", "1", "1").append( //NON-NLS
+      new ChangePropertyCommand(p, "Turn", "1", "2"))); //NON-NLS
+    verify(l).allPiecesChanged();
+  }
+
+  @Test
+  public void testDigestComputedOnlyAfterChanges() {
+    final int[] digests = {0};
+    final GameState state = new GameState() {
+      @Override
+      protected byte[] saveDigest() {
+        return new byte[] {(byte) ++digests[0]};
+      }
+    };
+    state.setModified(false);
+    assertEquals(1, digests[0]);
+
+    // nothing has changed, so the game is not digested again
+    assertFalse(state.isModified());
+    assertFalse(state.isModified());
+    assertEquals(1, digests[0]);
+
+    final GamePiece p = mock(GamePiece.class);
+    when(p.getId()).thenReturn("1"); //NON-NLS
+    state.addPiece(p);
+    assertTrue(state.isModified());
+    assertTrue(state.isModified());
+    assertEquals(2, digests[0]);
+
+    state.piecesChanged(new Step("move", false)); //NON-NLS
+    assertTrue(state.isModified());
+    assertEquals(3, digests[0]);
+  }
+}
@@ -0,0 +1,203 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package VASSAL.build.module;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.event.TreeModelListener;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import VASSAL.build.GameModule;
+import VASSAL.counters.GamePiece;
+import VASSAL.tools.DataArchive;
+
+public class InventoryTest {
+
+  private MockedStatic<GameModule> staticGm;
+  private Inventory inv;
+  private Inventory.CounterInventory tree;
+  private TreeModelListener listener;
+
+  @Before
+  public void setUp() throws IOException {
+    // the launch button loads its icon from the archive
+    final DataArchive archive = mock(DataArchive.class);
+    when(archive.getInputStream(anyString())).thenAnswer(i -> Inventory.class.getResourceAsStream(i.getArgument(0)));
+    final GameModule gm = mock(GameModule.class);
+    when(gm.getDataArchive()).thenReturn(archive);
+    staticGm = Mockito.mockStatic(GameModule.class);
+    staticGm.when(GameModule::getGameModule).thenReturn(gm);
+
+    inv = new Inventory();
+    tree = inv.new CounterInventory(inv.new Counter("root"), List.of(), true); //NON-NLS
+    tree.live = true;
+    listener = mock(TreeModelListener.class);
+    tree.addTreeModelListener(listener);
+  }
+
+  @After
+  public void tearDown() {
+    staticGm.close();
+  }
+
+  private GamePiece piece(String name) {
+    final GamePiece p = mock(GamePiece.class);
+    when(p.getName()).thenReturn(name);
+    when(p.getProperty("PieceName")).thenReturn(name); //NON-NLS
+    return p;
+  }
+
+  private Inventory.Counter counter(GamePiece p, int value, String... groups) {
+    return inv.new Counter(p, new ArrayList<>(List.of(groups)), value, "$PieceName$", "$PieceName$"); //NON-NLS
+  }
+
+  private Inventory.CounterNode node(String... path) {
+    Inventory.CounterNode node = (Inventory.CounterNode) tree.getRoot();
+    for (final String entry : path) {
+      Inventory.CounterNode next = null;
+      for (int i = 0; i < node.getChildCount(); ++i) {
+        final Inventory.CounterNode child = (Inventory.CounterNode) node.getChild(i);
+        if (entry.equals(child.toString())) {
+          next = child;
+        }
+      }
+      assertTrue(entry, next != null);
+      node = next;
+    }
+    return node;
+  }
+
+  private List<String> children(String... path) {
+    final Inventory.CounterNode node = node(path);
+    final List<String> names = new ArrayList<>();
+    for (int i = 0; i < node.getChildCount(); ++i) {
+      names.add(node.getChild(i).toString());
+    }
+    return names;
+  }
+
+  private int total(String... path) {
+    return node(path).getCounter().getValue();
+  }
+
+  @Test
+  public void testInsertPlacesCountersInSortedGroups() {
+    tree.insert(counter(piece("Bravo"), 1, "Map", "East")); //NON-NLS
+    tree.insert(counter(piece("Alpha"), 2, "Map", "East")); //NON-NLS
+    tree.insert(counter(piece("Charlie"), 3, "Map", "West")); //NON-NLS
+
+    assertEquals(List.of("Map"), children()); //NON-NLS
+    assertEquals(List.of("East", "West"), children("Map")); //NON-NLS
+    assertEquals(List.of("Alpha", "Bravo"), children("Map", "East")); //NON-NLS
+    assertEquals(List.of("Charlie"), children("Map", "West")); //NON-NLS
+
+    // the first node under the hidden root changes the whole tree
+    verify(listener).treeStructureChanged(any());
+    verify(listener, times(2)).treeNodesInserted(any());
+  }
+
+  @Test
+  public void testRemovePrunesEmptyGroups() {
+    final Inventory.Counter a = counter(piece("Alpha"), 1, "Map", "East"); //NON-NLS
+    final Inventory.Counter b = counter(piece("Bravo"), 1, "Map", "East"); //NON-NLS
+    final Inventory.Counter c = counter(piece("Charlie"), 1, "Map", "West"); //NON-NLS
+    tree.insert(a);
+    tree.insert(b);
+    tree.insert(c);
+
+    tree.remove(c);
+    assertEquals(List.of("East"), children("Map")); //NON-NLS
+    assertFalse(tree.inventory.containsKey("MapWest")); //NON-NLS
+    verify(listener).treeNodesRemoved(any());
+
+    tree.remove(a);
+    assertEquals(List.of("Bravo"), children("Map", "East")); //NON-NLS
+
+    tree.remove(b);
+    assertEquals(List.of(), children());
+    assertTrue(tree.inventory.isEmpty());
+
+    // a pruned group is made again when needed
+    tree.insert(counter(piece("Delta"), 1, "Map", "West")); //NON-NLS
+    assertEquals(List.of("Delta"), children("Map", "West")); //NON-NLS
+  }
+
+  @Test
+  public void testMoveBetweenGroups() {
+    final GamePiece p = piece("Bravo"); //NON-NLS
+    final Inventory.Counter b = counter(p, 2, "Map", "East"); //NON-NLS
+    tree.insert(counter(piece("Alpha"), 1, "Map", "East")); //NON-NLS
+    tree.insert(b);
+    tree.insert(counter(piece("Charlie"), 4, "Map", "West")); //NON-NLS
+
+    // a piece whose groups change is removed, and inserted where it now belongs
+    final Inventory.Counter moved = counter(p, 2, "Map", "West"); //NON-NLS
+    tree.remove(b);
+    tree.insert(moved);
+
+    assertEquals(List.of("Alpha"), children("Map", "East")); //NON-NLS
+    assertEquals(List.of("Bravo", "Charlie"), children("Map", "West")); //NON-NLS
+    assertEquals(1, total("Map", "East")); //NON-NLS
+    assertEquals(6, total("Map", "West")); //NON-NLS
+
+    // a piece whose name changes is moved within its group
+    when(p.getProperty("PieceName")).thenReturn("Delta"); //NON-NLS
+    tree.update(moved);
+    assertEquals(List.of("Charlie", "Delta"), children("Map", "West")); //NON-NLS
+  }
+
+  @Test
+  public void testTotalsRecomputed() {
+    final Inventory.Counter a = counter(piece("Alpha"), 1, "Map", "East"); //NON-NLS
+    final Inventory.Counter b = counter(piece("Bravo"), 2, "Map", "East"); //NON-NLS
+    final Inventory.Counter c = counter(piece("Charlie"), 3, "Map", "West"); //NON-NLS
+    tree.insert(a);
+    tree.insert(b);
+    tree.insert(c);
+    assertEquals(6, total());
+    assertEquals(6, total("Map")); //NON-NLS
+    assertEquals(3, total("Map", "East")); //NON-NLS
+    assertEquals(3, total("Map", "West")); //NON-NLS
+
+    a.setValue(5);
+    tree.update(a);
+    assertEquals(10, total("Map")); //NON-NLS
+    assertEquals(7, total("Map", "East")); //NON-NLS
+
+    tree.remove(c);
+    assertEquals(7, total());
+    assertEquals(7, total("Map")); //NON-NLS
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+
+package VASSAL.build.module.map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import VASSAL.counters.GamePiece;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompoundPieceCollectionTest {
+
+  /** A collection whose layers come from a table instead of from piece properties */
+  private static class TestCollection extends CompoundPieceCollection {
+    final java.util.Map<GamePiece, Integer> layerOf = new IdentityHashMap<>();
+
+    TestCollection() {
+      super(2);
+    }
+
+    @Override
+    public int getLayerForPiece(GamePiece p) {
+      return layerOf.get(p);
+    }
+  }
+
+  private TestCollection pieces;
+  private GamePiece a;
+  private GamePiece b;
+  private GamePiece top;
+
+  private GamePiece piece(int layer) {
+    final GamePiece p = mock(GamePiece.class);
+    pieces.layerOf.put(p, layer);
+    pieces.add(p);
+    return p;
+  }
+
+  @Before
+  public void setUp() {
+    pieces = new TestCollection();
+    top = piece(1);
+    a = piece(0);
+    b = piece(0);
+  }
+
+  @Test
+  public void piecesShouldBeInLayerOrder() {
+    assertEquals(List.of(a, b, top), pieces.getPieceList(false));
+    assertArrayEquals(new GamePiece[] {a, b, top}, pieces.getPieces());
+  }
+
+  @Test
+  public void snapshotShouldBeSharedUntilChanged() {
+    final List<GamePiece> l = pieces.getPieceList(false);
+    assertSame(l, pieces.getPieceList(false));
+    assertNotSame(pieces.getPieces(), pieces.getPieces());
+
+    pieces.moveToFront(a);
+    assertNotSame(l, pieces.getPieceList(false));
+    assertEquals(List.of(a, b, top), l);
+    assertEquals(List.of(b, a, top), pieces.getPieceList(false));
+
+    pieces.moveToBack(a);
+    assertEquals(List.of(a, b, top), pieces.getPieceList(false));
+  }
+
+  @Test
+  public void snapshotShouldFollowAddAndRemove() {
+    int modCount = pieces.getModCount();
+    final GamePiece c = piece(1);
+    assertEquals(List.of(a, b, top, c), pieces.getPieceList(true));
+    assertNotEquals(modCount, pieces.getModCount());
+
+    modCount = pieces.getModCount();
+    pieces.remove(b);
+    assertEquals(List.of(a, top, c), pieces.getPieceList(true));
+    assertNotEquals(modCount, pieces.getModCount());
+
+    pieces.clear();
+    assertEquals(List.of(), pieces.getPieceList(true));
+  }
+
+  @Test
+  public void snapshotShouldFollowLayers() {
+    pieces.setLayerEnabled(1, false);
+    assertEquals(List.of(a, b), pieces.getPieceList(false));
+    assertEquals(List.of(a, b, top), pieces.getPieceList(true));
+
+    pieces.setLayerEnabled(1, true);
+    pieces.setBottomLayer(1);
+    assertEquals(List.of(top, a, b), pieces.getPieceList(false));
+
+    pieces.reset();
+    assertEquals(List.of(a, b, top), pieces.getPieceList(false));
+  }
+
+  @Test
+  public void forEachPieceShouldAllowChanges() {
+    final List<GamePiece> visited = new ArrayList<>();
+    pieces.forEachPiece(false, p -> {
+      visited.add(p);
+      pieces.remove(p);
+    });
+    assertEquals(List.of(a, b, top), visited);
+    assertEquals(0, pieces.getPieceList(true).size());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void snapshotShouldBeUnmodifiable() {
+    pieces.getPieceList(false).clear();
+  }
+}
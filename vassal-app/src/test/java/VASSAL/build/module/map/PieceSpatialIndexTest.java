@@ -0,0 +1,106 @@
+package VASSAL.build.module.map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import VASSAL.counters.GamePiece;
+
+import org.junit.Test;
+
+public class PieceSpatialIndexTest {
+
+  /** An index whose bounds come from a table instead of from live pieces */
+  private static class TestIndex extends PieceSpatialIndex {
+    final java.util.Map<GamePiece, Rectangle> bounds = new IdentityHashMap<>();
+
+    TestIndex() {
+      super(100);
+    }
+
+    void put(GamePiece p, Rectangle r) {
+      bounds.put(p, r);
+    }
+
+    @Override
+    protected Rectangle boundsOf(GamePiece p) {
+      final Rectangle r = bounds.get(p);
+      return r == null ? null : new Rectangle(r);
+    }
+  }
+
+  @Test
+  public void queryShouldReturnOnlyNearbyPieces() {
+    final TestIndex index = new TestIndex();
+    final GamePiece near = mock(GamePiece.class);
+    final GamePiece far = mock(GamePiece.class);
+    index.put(near, new Rectangle(10, 10, 50, 50));
+    index.put(far, new Rectangle(5000, 5000, 50, 50));
+    index.add(near);
+    index.add(far);
+
+    final Set<GamePiece> found = index.query(new Rectangle(0, 0, 100, 100));
+    assertTrue(found.contains(near));
+    assertFalse(found.contains(far));
+
+    final Set<GamePiece> atPoint = index.query(new Point(5020, 5020));
+    assertTrue(atPoint.contains(far));
+    assertFalse(atPoint.contains(near));
+  }
+
+  @Test
+  public void invalidateShouldReindexMovedPiece() {
+    final TestIndex index = new TestIndex();
+    final GamePiece p = mock(GamePiece.class);
+    index.put(p, new Rectangle(0, 0, 50, 50));
+    index.add(p);
+    assertTrue(index.query(new Point(10, 10)).contains(p));
+
+    index.put(p, new Rectangle(3000, 3000, 50, 50));
+    index.invalidate(p);
+    assertFalse(index.query(new Point(10, 10)).contains(p));
+    assertTrue(index.query(new Point(3010, 3010)).contains(p));
+  }
+
+  @Test
+  public void removedPiecesShouldNotBeFound() {
+    final TestIndex index = new TestIndex();
+    final GamePiece p = mock(GamePiece.class);
+    index.put(p, new Rectangle(0, 0, 50, 50));
+    index.add(p);
+    index.query(new Point(0, 0));
+    index.remove(p);
+    assertFalse(index.contains(p));
+    assertFalse(index.query(new Point(10, 10)).contains(p));
+
+    // invalidating a piece not in the index must not add it
+    index.invalidate(p);
+    assertFalse(index.contains(p));
+  }
+
+  @Test
+  public void unmeasurablePiecesShouldAlwaysBeCandidates() {
+    final TestIndex index = new TestIndex();
+    final GamePiece p = mock(GamePiece.class);
+    index.add(p);
+    assertTrue(index.query(new Point(-10000, 10000)).contains(p));
+    assertEquals(1, index.query(new Rectangle(0, 0, 1, 1)).size());
+  }
+
+  @Test
+  public void largeRegionsShouldFindEverything() {
+    final TestIndex index = new TestIndex();
+    for (int i = 0; i < 20; ++i) {
+      final GamePiece p = mock(GamePiece.class);
+      index.put(p, new Rectangle(i * 250, i * 250, 40, 40));
+      index.add(p);
+    }
+    assertEquals(20, index.query(new Rectangle(-100, -100, 10000, 10000)).size());
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package VASSAL.build.module.map.boardPicker;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.JPanel;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import VASSAL.build.module.Map;
+import VASSAL.build.module.map.BoardBuffer;
+import VASSAL.tools.imageop.SourceOp;
+
+public class BoardTest {
+  private static final int TILE = 100;
+
+  // Tiles still loading; all others are loaded at once
+  private final java.util.Map<Point, CompletableFuture<BufferedImage>> pending = new HashMap<>();
+
+  private final BoardBuffer buffer = new BoardBuffer();
+  private final BufferedImage target = new BufferedImage(500, 500, BufferedImage.TYPE_INT_RGB);
+  private JPanel view;
+  private GraphicsConfiguration gc;
+  private Board board;
+  private int paints;
+
+  // The tiles of the 500x500 board in a region, in the order in which the op gives them
+  private static Point[] tiles(Rectangle r) {
+    final List<Point> tiles = new ArrayList<>();
+    for (int y = Math.max(0, r.y / TILE); y <= Math.min(4, (r.y + r.height - 1) / TILE); ++y) {
+      for (int x = Math.max(0, r.x / TILE); x <= Math.min(4, (r.x + r.width - 1) / TILE); ++x) {
+        tiles.add(new Point(x, y));
+      }
+    }
+    return tiles.toArray(new Point[0]);
+  }
+
+  @Before
+  public void setUp() throws ExecutionException {
+    final SourceOp op = mock(SourceOp.class);
+    when(op.getTileWidth()).thenReturn(TILE);
+    when(op.getTileHeight()).thenReturn(TILE);
+    when(op.getTileIndices(any())).thenAnswer(i -> tiles(i.getArgument(0)));
+    when(op.getFutureTile(anyInt(), anyInt(), any())).thenAnswer(i -> pending.getOrDefault(
+      new Point(i.getArgument(0), i.getArgument(1)),
+      CompletableFuture.completedFuture(new BufferedImage(TILE, TILE, BufferedImage.TYPE_INT_RGB))
+    ));
+
+    view = new JPanel();
+    final Map map = mock(Map.class);
+    when(map.getView()).thenReturn(view);
+
+    board = new Board();
+    board.setMap(map);
+    board.boardImageOp = op;
+
+    gc = mock(GraphicsConfiguration.class);
+    when(gc.createCompatibleImage(anyInt(), anyInt())).thenAnswer(i ->
+      new BufferedImage(i.getArgument(0), i.getArgument(1), BufferedImage.TYPE_INT_RGB));
+  }
+
+  private void draw(Rectangle viewRect, Point location) {
+    final Graphics2D g = target.createGraphics();
+    buffer.draw(g, viewRect, viewRect, 1.0, gc, Color.WHITE, (bg, region) -> {
+      ++paints;
+      board.drawRegion(bg, location, region, 1.0, 1.0, view);
+      return board.isViewSettled();
+    });
+    g.dispose();
+  }
+
+  @Test
+  public void testBufferUsedAfterScrollingAwayFromFadingTile() {
+    final CompletableFuture<BufferedImage> fim = new CompletableFuture<>();
+    pending.put(new Point(0, 0), fim);
+
+    final Rectangle corner = new Rectangle(0, 0, 200, 200);
+    draw(corner, new Point());
+    draw(corner, new Point());
+    assertEquals(2, paints);
+
+    // the tile arrives, and starts to fade in
+    fim.complete(new BufferedImage(TILE, TILE, BufferedImage.TYPE_INT_RGB));
+    draw(corner, new Point());
+    assertEquals(3, paints);
+
+    // the tiles in view elsewhere are all drawn, so the buffer is kept
+    final Rectangle middle = new Rectangle(300, 300, 200, 200);
+    draw(middle, new Point());
+    draw(middle, new Point());
+    assertEquals(4, paints);
+  }
+
+  @Test
+  public void testPendingTilesDroppedWhenBoardMoves() {
+    final CompletableFuture<BufferedImage> fim = new CompletableFuture<>();
+    pending.put(new Point(0, 0), fim);
+
+    final Rectangle corner = new Rectangle(0, 0, 200, 200);
+    draw(corner, new Point());
+    assertEquals(1, paints);
+
+    // at another location the tile is another one, which need not fade in
+    fim.complete(new BufferedImage(TILE, TILE, BufferedImage.TYPE_INT_RGB));
+    draw(corner, new Point(50, 50));
+    draw(corner, new Point(50, 50));
+    assertEquals(2, paints);
+  }
+}
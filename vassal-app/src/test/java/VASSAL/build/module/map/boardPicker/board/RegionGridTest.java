@@ -0,0 +1,74 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package VASSAL.build.module.map.boardPicker.board;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Point;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class RegionGridTest {
+
+  // The distance to the nearest origin, found as before origins were indexed
+  private static double nearest(RegionGrid grid, Point p) {
+    double min = Double.MAX_VALUE;
+    for (final Point o : grid.regionList.keySet()) {
+      min = Math.min(min, p.distance(o));
+    }
+    return min;
+  }
+
+  @Test
+  public void testSnapToNearest() {
+    final Random r = new Random(7);
+    final RegionGrid grid = new RegionGrid();
+    for (int i = 0; i < 500; ++i) {
+      // clustered, to leave many cells empty
+      final int cx = (i % 5) * 400;
+      grid.addRegion(new Region(new Point(cx + r.nextInt(50), r.nextInt(i % 2 == 0 ? 50 : 1500))));
+    }
+
+    for (int i = 0; i < 20000; ++i) {
+      final Point p = new Point(r.nextInt(3000) - 500, r.nextInt(3000) - 500);
+      final Point snap = grid.snapTo(p);
+      assertEquals(nearest(grid, p), p.distance(snap), 0.0);
+    }
+  }
+
+  @Test
+  public void testRegionMoved() {
+    final RegionGrid grid = new RegionGrid();
+    final Region a = new Region(new Point(0, 0));
+    final Region b = new Region(new Point(100, 0));
+    a.addTo(grid);
+    b.addTo(grid);
+    assertEquals(new Point(0, 0), grid.snapTo(new Point(10, 10)));
+
+    b.setAttribute(Region.X, 10);
+    assertEquals(new Point(10, 0), grid.snapTo(new Point(10, 10)));
+
+    b.moveOrigin(1000, 0);
+    assertEquals(new Point(0, 0), grid.snapTo(new Point(10, 10)));
+    assertEquals(new Point(1010, 0), grid.snapTo(new Point(900, 10)));
+
+    grid.removeAllRegions();
+    assertEquals(new Point(10, 10), grid.snapTo(new Point(10, 10)));
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package VASSAL.build.module.map.boardPicker.board;
+
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.awt.Point;
+import java.util.Random;
+
+import VASSAL.build.module.map.boardPicker.board.mapgrid.Zone;
+
+import org.junit.Test;
+
+public class ZonedGridTest {
+
+  private static Zone zone(String path) {
+    final Zone z = new Zone();
+    z.setAttribute(Zone.PATH, path);
+    return z;
+  }
+
+  // The first zone containing p, as found before zones were indexed
+  private static Zone scan(ZonedGrid grid, Point p) {
+    for (final Zone z : grid.zones) {
+      if (z.contains(p)) {
+        return z;
+      }
+    }
+    return null;
+  }
+
+  @Test
+  public void testFirstZoneWins() {
+    final ZonedGrid grid = new ZonedGrid();
+    final Zone big = zone("0,0;100,0;100,100;0,100");
+    final Zone small = zone("10,10;20,10;20,20;10,20");
+    grid.addZone(big);
+    grid.addZone(small);
+    assertSame(big, grid.findZone(new Point(15, 15)));
+
+    grid.removeZone(big);
+    assertSame(small, grid.findZone(new Point(15, 15)));
+    assertNull(grid.findZone(new Point(50, 50)));
+  }
+
+  @Test
+  public void testZoneReshaped() {
+    final ZonedGrid grid = new ZonedGrid();
+    // as when added to the grid by the module; Zone's own grid field hides the local here
+    final ZonedGrid parent = grid;
+    final Zone z = new Zone() {
+      {
+        parentGrid = parent;
+      }
+    };
+    z.setAttribute(Zone.PATH, "0,0;10,0;10,10;0,10");
+    grid.addZone(z);
+    assertSame(z, grid.findZone(new Point(5, 5)));
+
+    final int version = grid.getVersion();
+    z.setAttribute(Zone.PATH, "100,100;110,100;110,110;100,110");
+    assertNull(grid.findZone(new Point(5, 5)));
+    assertSame(z, grid.findZone(new Point(105, 105)));
+    assertNotEquals(version, grid.getVersion());
+  }
+
+  @Test
+  public void testMatchesScan() {
+    final Random r = new Random(42);
+    final ZonedGrid grid = new ZonedGrid();
+    for (int i = 0; i < 300; ++i) {
+      final int x = r.nextInt(2000);
+      final int y = r.nextInt(2000);
+      final int w = 1 + r.nextInt(i % 10 == 0 ? 1000 : 100);
+      final int h = 1 + r.nextInt(i % 10 == 0 ? 1000 : 100);
+      // triangles, so that the bounds hold points outside the zone
+      grid.addZone(zone(x + "," + y + ";" + (x + w) + "," + y + ";" + x + "," + (y + h)));
+    }
+    // an empty zone
+    grid.addZone(new Zone());
+
+    for (int i = 0; i < 20000; ++i) {
+      final Point p = new Point(r.nextInt(3200) - 100, r.nextInt(3200) - 100);
+      assertSame(scan(grid, p), grid.findZone(p));
+    }
+  }
+}
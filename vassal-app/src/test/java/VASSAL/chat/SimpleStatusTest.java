@@ -0,0 +1,48 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package VASSAL.chat;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class SimpleStatusTest {
+
+  @Test
+  public void testEncodeRoundTrip() {
+    final SimpleStatus s = new SimpleStatus(true, false, "profile", "3.5.0", "127.0.0.1", "1.0", "1a2b", true); //NON-NLS
+    final SimpleStatus d = SimpleStatus.decode(SimpleStatus.encode(s));
+    assertTrue(d.isLooking());
+    assertFalse(d.isAway());
+    assertEquals("profile", d.getProfile()); //NON-NLS
+    assertEquals("3.5.0", d.getClient()); //NON-NLS
+    assertEquals("1a2b", d.getCrc()); //NON-NLS
+    assertTrue(d.isDeltaSynch());
+  }
+
+  @Test
+  public void testOlderClientCannotDeltaSynch() {
+    // older clients report the same version as this one, but no delta flag
+    final SimpleStatus d = SimpleStatus.decode("false,false,profile,3.5.0-SNAPSHOT,127.0.0.1,1.0,1a2b"); //NON-NLS
+    assertEquals("1a2b", d.getCrc()); //NON-NLS
+    assertFalse(d.isDeltaSynch());
+    assertFalse(new SimpleStatus(false, false, "", "3.5.0", "", "", "").isDeltaSynch()); //NON-NLS
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package VASSAL.chat;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+
+public class SynchDigestTest {
+
+  @Test
+  public void testEncodeRoundTrip() {
+    final String s = "1a2b,2,c1,c2,100,t1,s1,101\\,x,t2,s2";
+    final SynchDigest d = SynchDigest.decode(s);
+    assertEquals(2, d.getPieceCount());
+    assertEquals(s, d.encode());
+    assertEquals(s, SynchDigest.decode(d.encode()).encode());
+  }
+
+  @Test
+  public void testPiecesAreSortedById() {
+    final SynchDigest a = SynchDigest.decode("1a2b,0,100,t1,s1,101,t2,s2");
+    final SynchDigest b = SynchDigest.decode("1a2b,0,101,t2,s2,100,t1,s1");
+    assertEquals(a.encode(), b.encode());
+    assertEquals(a.getChecksum(), b.getChecksum());
+  }
+
+  @Test
+  public void testChecksumCoversOnlyPieces() {
+    final SynchDigest a = SynchDigest.decode("1a2b,1,c1,100,t1,s1");
+    final SynchDigest b = SynchDigest.decode("1a2b,1,c2,100,t1,s1");
+    final SynchDigest c = SynchDigest.decode("1a2b,1,c1,100,t1,s2");
+    assertEquals(a.getChecksum(), b.getChecksum());
+    assertNotEquals(a.getChecksum(), c.getChecksum());
+  }
+
+  @Test
+  public void testEmpty() {
+    final SynchDigest d = SynchDigest.decode("1a2b,0");
+    assertEquals(0, d.getPieceCount());
+    assertEquals("1a2b,0", d.encode());
+  }
+}
@@ -0,0 +1,203 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package VASSAL.chat.node;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ChannelSocketHandlerTest {
+  private static final long TIMEOUT = 10;
+
+  private final BlockingQueue<ChannelSocketHandler> handlers = new LinkedBlockingQueue<>();
+  private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+  private final BlockingQueue<SocketHandler> closed = new LinkedBlockingQueue<>();
+  private long maxQueuedBytes = ChannelSocketHandler.MAX_QUEUED_BYTES;
+  private long maxBacklogMillis = ChannelSocketHandler.MAX_BACKLOG_MILLIS;
+
+  private Server server;
+  private Socket client;
+  private ChannelSocketHandler handler;
+
+  private final SocketWatcher watcher = new SocketWatcher() {
+    @Override
+    public void handleMessage(String msg) {
+      received.add(msg);
+    }
+
+    @Override
+    public void socketClosed(SocketHandler h) {
+      closed.add(h);
+    }
+  };
+
+  @Before
+  public void setUp() throws IOException {
+    server = new Server(null, 0) {
+      @Override
+      void connect(SocketChannel channel) {
+        final ChannelSocketHandler h = new ChannelSocketHandler(channel, this, watcher, maxQueuedBytes, maxBacklogMillis);
+        h.start();
+        handlers.add(h);
+      }
+    };
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    if (client != null) {
+      client.close();
+    }
+    server.shutdown();
+  }
+
+  private void connect() throws IOException, InterruptedException {
+    client = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+    handler = handlers.poll(TIMEOUT, TimeUnit.SECONDS);
+    assertNotNull(handler);
+  }
+
+  private void send(String s) throws IOException {
+    final OutputStream out = client.getOutputStream();
+    out.write(s.getBytes(StandardCharsets.UTF_8));
+    out.flush();
+  }
+
+  private String next() throws InterruptedException {
+    return received.poll(TIMEOUT, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testLinesSplitAcrossReads() throws Exception {
+    connect();
+    send("one\ntw");
+    Thread.sleep(50);
+    send("o\r\n\nthr");
+    Thread.sleep(50);
+    send("ee\n");
+
+    // the empty line is a keep-alive, and is not passed on
+    assertEquals("one", next());
+    assertEquals("two", next());
+    assertEquals("three", next());
+  }
+
+  @Test
+  public void testOrderedDelivery() throws Exception {
+    connect();
+
+    final StringBuilder b = new StringBuilder();
+    for (int i = 0; i < 1000; ++i) {
+      b.append("in ").append(i).append('\n'); //NON-NLS
+      handler.writeLine("out " + i); //NON-NLS
+    }
+    send(b.toString());
+
+    for (int i = 0; i < 1000; ++i) {
+      assertEquals("in " + i, next()); //NON-NLS
+    }
+
+    final BufferedReader in = new BufferedReader(
+      new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+    for (int i = 0; i < 1000; ++i) {
+      assertEquals("out " + i, in.readLine()); //NON-NLS
+    }
+  }
+
+  @Test
+  public void testClientSignOff() throws Exception {
+    connect();
+    send("last\n" + SocketHandler.SIGN_OFF + "\nignored\n");
+
+    assertEquals("last", next());
+    assertSame(handler, closed.poll(TIMEOUT, TimeUnit.SECONDS));
+    assertNull(received.poll(100, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void testServerSignOff() throws Exception {
+    connect();
+    handler.writeLine("goodbye");
+    handler.close();
+    handler.writeLine("too late");
+
+    final BufferedReader in = new BufferedReader(
+      new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+    assertEquals("goodbye", in.readLine());
+    assertEquals(SocketHandler.SIGN_OFF, in.readLine());
+    assertNull(in.readLine());
+    assertSame(handler, closed.poll(TIMEOUT, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testSlowClientDisconnected() throws Exception {
+    maxQueuedBytes = 64 * 1024;
+    maxBacklogMillis = 200;
+    connect();
+
+    // the client reads nothing, so the socket buffers fill and the queue grows
+    final String line = "x".repeat(1000);
+    for (int i = 0; i < 20000 && closed.isEmpty(); ++i) {
+      handler.writeLine(line);
+    }
+
+    // and stays too long for the next line to be queued
+    Thread.sleep(2 * maxBacklogMillis);
+    handler.writeLine(line);
+    assertSame(handler, closed.poll(TIMEOUT, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testLargeLineAccepted() throws Exception {
+    maxQueuedBytes = 64 * 1024;
+    maxBacklogMillis = 200;
+    connect();
+
+    // a line larger than the limit is sent to a client which reads it
+    final String large = "x".repeat(1024 * 1024);
+    handler.writeLine(large);
+    final BufferedReader in = new BufferedReader(
+      new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+    assertEquals(large, in.readLine());
+
+    Thread.sleep(2 * maxBacklogMillis);
+    handler.writeLine(large);
+    handler.writeLine("after"); //NON-NLS
+    assertEquals(large, in.readLine());
+    assertEquals("after", in.readLine()); //NON-NLS
+    assertTrue(closed.isEmpty());
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package VASSAL.chat.node;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ContentsDeltaTest {
+
+  private Node server;
+  private Node module;
+  private ModuleContents contents;
+
+  // The client's view of the server, as sent by a list command
+  private Node client;
+
+  @Before
+  public void setUp() {
+    server = new Node(null, null, null);
+    module = Node.build(server, "mod");
+    contents = new ModuleContents();
+    client = new Node(null, null, null);
+  }
+
+  private static class Leaf extends Node {
+    Leaf(String id, String info) {
+      super(null, id, info);
+    }
+
+    @Override
+    public boolean isLeaf() {
+      return true;
+    }
+  }
+
+  private Node join(String room, String id, String info) {
+    final Node p = new Leaf(id, info);
+    Node.build(server, "mod/" + room).add(p);
+    return p;
+  }
+
+  private void move(Node p, String room) {
+    final Node old = p.getParent();
+    Node.build(server, "mod/" + room).add(p);
+    if (old.getChildren().length == 0) {
+      module.remove(old);
+    }
+  }
+
+  private void leave(Node p) {
+    final Node room = p.getParent();
+    room.remove(p);
+    if (room.getChildren().length == 0) {
+      module.remove(room);
+    }
+  }
+
+  // Sends the changes to the client through the protocol
+  private ContentsDelta sync() {
+    final ContentsDelta delta = contents.update(module);
+    if (delta != null) {
+      Protocol.decodeDeltaCommand(Protocol.encodeDeltaCommand(delta)).applyTo(client);
+    }
+    return delta;
+  }
+
+  private static String dump(Node root) {
+    final TreeSet<String> s = new TreeSet<>();
+    for (final Node m : root.getChildren()) {
+      for (final Node r : m.getChildren()) {
+        s.add(r.getPath() + "=" + r.getInfo());
+        for (final Node p : r.getChildren()) {
+          s.add(p.getPath() + "=" + p.getInfo());
+        }
+      }
+    }
+    return s.toString();
+  }
+
+  private void assertInSync() {
+    final Node list = Protocol.decodeListCommand(
+      Protocol.encodeListCommand(module.getLeafDescendants()));
+    assertNotNull(list);
+    for (final Node r : module.getChildren()) {
+      final Node lr = list.getDescendant(r.getPath());
+      if (lr != null) {
+        lr.setInfo(r.getInfo());
+      }
+    }
+    assertEquals(dump(list), dump(client));
+  }
+
+  @Test
+  public void testJoinMoveInfoLeave() {
+    final Node a = join("Main", "a", "name=A");
+    final Node b = join("Main", "b", "name=B");
+    assertEquals(1, sync().getSeq());
+    assertInSync();
+
+    assertNull(contents.update(module));
+
+    move(b, "Room 1");
+    module.getChild("Room 1").setInfo("owner=b");
+    final ContentsDelta d = sync();
+    assertEquals(2, d.getSeq());
+    assertEquals(2, d.getChanges().size());
+    assertInSync();
+
+    a.setInfo("name=A2");
+    assertEquals(1, sync().getChanges().size());
+    assertInSync();
+
+    move(b, "Main");
+    sync();
+    assertInSync();
+    assertNull(client.getDescendant("mod/Room 1"));
+
+    leave(a);
+    sync();
+    assertInSync();
+    assertEquals(Arrays.asList("b"), Arrays.asList(
+      Arrays.stream(client.getDescendant("mod/Main").getChildren()).map(Node::getId).toArray()));
+  }
+
+  @Test
+  public void testRoomReoccupiedResendsInfo() {
+    final Node a = join("Main", "a", "name=A");
+    final Node r = Node.build(server, "mod/Room 1");
+    r.setInfo("locked=true");
+    sync();
+
+    move(a, "Room 1");
+    sync();
+    assertEquals("locked=true", client.getDescendant("mod/Room 1").getInfo());
+
+    // the room stays on the server, but is dropped from the list while empty
+    Node.build(server, "mod/Main").add(a);
+    sync();
+    assertNull(client.getDescendant("mod/Room 1"));
+
+    r.add(a);
+    final ContentsDelta d = sync();
+    assertEquals(2, d.getChanges().size());
+    assertEquals("locked=true", client.getDescendant("mod/Room 1").getInfo());
+  }
+
+  @Test
+  public void testDecodeIgnoresOtherCommands() {
+    assertNull(Protocol.decodeDeltaCommand(Protocol.encodeListCommand(new Node[0])));
+    assertEquals(-1, Protocol.decodeListSeqCommand(Protocol.encodeListRequest()));
+    assertEquals(7, Protocol.decodeListSeqCommand(Protocol.encodeListSeqCommand(7)));
+  }
+}
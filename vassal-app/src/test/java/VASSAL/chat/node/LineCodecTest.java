@@ -0,0 +1,124 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package VASSAL.chat.node;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class LineCodecTest {
+
+  private LineCodec sender;
+  private LineCodec receiver;
+  private List<String> received;
+
+  @Before
+  public void setUp() {
+    received = new ArrayList<>();
+    sender = new LineCodec(s -> { });
+    receiver = new LineCodec(s -> {
+      received.add(s);
+      if (SocketHandler.DEFLATE.equals(s)) {
+        receiver.startInflating();
+      }
+    });
+  }
+
+  // Delivers bytes a few at a time, as a socket might
+  private void deliver(byte[] b, int chunk) throws IOException {
+    for (int i = 0; i < b.length; i += chunk) {
+      receiver.decode(b, i, Math.min(chunk, b.length - i));
+    }
+  }
+
+  private byte[] send(String... lines) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (final String s : lines) {
+      out.write(sender.encode(s));
+      if (SocketHandler.DEFLATE.equals(s)) {
+        sender.startDeflating();
+      }
+    }
+    return out.toByteArray();
+  }
+
+  @Test
+  public void testPlainLines() throws IOException {
+    deliver(send("FWD\tmod/Main\thello", "", "caf\u00e9 \u2603"), 3);
+    receiver.decode("x\r\n".getBytes(StandardCharsets.UTF_8), 0, 3);
+    assertEquals(Arrays.asList("FWD\tmod/Main\thello", "", "caf\u00e9 \u2603", "x"), received);
+  }
+
+  @Test
+  public void testSwitchToDeflateMidBuffer() throws IOException {
+    final byte[] b = send("before", SocketHandler.DEFLATE, "after", "caf\u00e9");
+    assertTrue(sender.isDeflating());
+
+    // the plain and compressed bytes arrive together
+    receiver.decode(b, 0, b.length);
+    assertEquals(Arrays.asList("before", SocketHandler.DEFLATE, "after", "caf\u00e9"), received);
+
+    received.clear();
+    deliver(send("one", "two"), 1);
+    assertEquals(Arrays.asList("one", "two"), received);
+  }
+
+  @Test
+  public void testRepeatedLinesShrink() throws IOException {
+    send(SocketHandler.DEFLATE);
+    final String cmd = "FWD\tmod/Main/~a\tM\tMain Map\t102\t205\tpiece1234\tx";
+    final int first = sender.encode(cmd).length;
+    final int second = sender.encode(cmd).length;
+    assertTrue(second < first);
+    assertTrue(second < cmd.length() / 4);
+  }
+
+  @Test
+  public void testLongLine() throws IOException {
+    final char[] c = new char[100000];
+    Arrays.fill(c, 'z');
+    final String s = new String(c);
+    deliver(send(SocketHandler.DEFLATE, s, "end"), 1000);
+    assertEquals(Arrays.asList(SocketHandler.DEFLATE, s, "end"), received);
+  }
+
+  @Test(expected = IOException.class)
+  public void testCorruptInput() throws IOException {
+    receiver.startInflating();
+    final byte[] b = new byte[64];
+    Arrays.fill(b, (byte) 0xff);
+    receiver.decode(b, 0, b.length);
+  }
+
+  @Test
+  public void testEncodeAfterEnd() {
+    sender.startDeflating();
+    sender.end();
+    assertArrayEquals("x\n".getBytes(StandardCharsets.UTF_8), sender.encode("x"));
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package VASSAL.chat.node;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import VASSAL.chat.Compressor;
+
+public class ServerNodeTest {
+  private static final long TIMEOUT = 10000;
+
+  private ServerNode server;
+
+  private static class Leaf extends Node {
+    final List<String> received = new ArrayList<>();
+
+    Leaf(String id) {
+      super(null, id, null);
+    }
+
+    @Override
+    public boolean isLeaf() {
+      return true;
+    }
+
+    @Override
+    public void send(String msg) {
+      received.add(msg);
+    }
+  }
+
+  @Before
+  public void setUp() {
+    server = new ServerNode();
+  }
+
+  private Thread start(Runnable r) {
+    final Thread t = new Thread(r);
+    t.start();
+    return t;
+  }
+
+  @Test
+  public void testModulesChangedInParallel() throws InterruptedException {
+    final Node a = new Leaf("a"); //NON-NLS
+    server.registerNode("modA/room", a); //NON-NLS
+    server.registerNode("modB/room", new Leaf("b")); //NON-NLS
+    final Node modA = server.getChild("modA"); //NON-NLS
+
+    final Thread other;
+    final Thread same;
+    synchronized (modA) {
+      // a change to another module is not held up by one in progress
+      other = start(() -> server.registerNode("modB/other", new Leaf("c"))); //NON-NLS
+      other.join(TIMEOUT);
+      assertFalse(other.isAlive());
+
+      // but one to the same module waits for it
+      same = start(() -> server.move(a, "modA/other")); //NON-NLS
+      same.join(200);
+      assertTrue(same.isAlive());
+      assertEquals("modA/room", a.getParent().getPath()); //NON-NLS
+    }
+    same.join(TIMEOUT);
+    assertFalse(same.isAlive());
+
+    assertEquals("modA/other", a.getParent().getPath()); //NON-NLS
+    assertNotNull(server.getDescendant("modB/other/c")); //NON-NLS
+  }
+
+  @Test
+  public void testDisconnectRemovesEmptyRoomsAndModules() {
+    final Node a = new Leaf("a"); //NON-NLS
+    final Node b = new Leaf("b"); //NON-NLS
+    server.registerNode("mod/room1", a); //NON-NLS
+    server.registerNode("mod/room2", b); //NON-NLS
+    final Node mod = server.getChild("mod"); //NON-NLS
+
+    server.disconnect(a);
+    assertEquals(1, mod.getChildren().length);
+    assertSame(mod, server.getChild("mod")); //NON-NLS
+
+    server.disconnect(b);
+    assertEquals(0, server.getChildren().length);
+
+    // a module made again is a new one
+    server.registerNode("mod/room1", a); //NON-NLS
+    assertEquals("mod/room1", a.getParent().getPath()); //NON-NLS
+    assertFalse(mod == server.getChild("mod")); //NON-NLS
+  }
+
+  @Test
+  public void testMoveBetweenModules() {
+    final Node a = new Leaf("a"); //NON-NLS
+    server.registerNode("modA/room", a); //NON-NLS
+    server.move(a, "modB/room"); //NON-NLS
+    assertSame(server.getChild("modB"), server.getModule(a)); //NON-NLS
+  }
+
+  private static String unzip(String msg) throws IOException {
+    return new String(
+      Compressor.decompress(Base64.decodeBase64(msg.substring(Protocol.ZIP_HEADER.length()))),
+      StandardCharsets.UTF_8
+    );
+  }
+
+  @Test
+  public void testLongMessagesZippedForUncompressedPlayers() throws IOException {
+    final Leaf a = new Leaf("a"); //NON-NLS
+    final Leaf b = new Leaf("b"); //NON-NLS
+    server.registerNode("mod/room", a); //NON-NLS
+    server.registerNode("mod/room", b); //NON-NLS
+
+    final String shortMsg = "hello"; //NON-NLS
+    final String longMsg = StringUtils.repeat('x', Protocol.ZIP_LIMIT + 1);
+    final String zipped = Protocol.encodeZipped(longMsg);
+
+    server.forward("mod/room", shortMsg); //NON-NLS
+    server.forward("mod/room/~a", longMsg); //NON-NLS
+    server.forward("mod/room/a", zipped); //NON-NLS
+
+    // a message already zipped is forwarded as it is
+    assertEquals(List.of(shortMsg, zipped), a.received);
+
+    assertEquals(2, b.received.size());
+    assertEquals(shortMsg, b.received.get(0));
+    assertTrue(b.received.get(1).startsWith(Protocol.ZIP_HEADER));
+    assertEquals(longMsg, unzip(b.received.get(1)));
+  }
+}
@@ -0,0 +1,140 @@
+package VASSAL.command;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+
+import VASSAL.tools.SequenceEncoder;
+
+import org.junit.Test;
+
+public class StreamingCommandEncoderTest {
+  private static final char DELIM = 27;
+
+  private static class TextCommand extends Command {
+    final String text;
+
+    TextCommand(String text) {
+      this.text = text;
+    }
+
+    @Override
+    protected void executeCommand() {
+    }
+
+    @Override
+    protected Command myUndoCommand() {
+      return null;
+    }
+  }
+
+  private static final CommandEncoder TEXT_ENCODER = new CommandEncoder() {
+    @Override
+    public Command decode(String command) {
+      return command.startsWith("T") ? new TextCommand(command.substring(1)) : null;
+    }
+
+    @Override
+    public String encode(Command c) {
+      return c instanceof TextCommand ? "T" + ((TextCommand) c).text : null;
+    }
+  };
+
+  /** The SequenceEncoder-based encoding used by GameModule */
+  private static String referenceEncode(Command c) {
+    String s = TEXT_ENCODER.encode(c);
+    final Command[] sub = c.getSubCommands();
+    if (sub.length > 0) {
+      final SequenceEncoder se = new SequenceEncoder(s, DELIM);
+      for (final Command command : sub) {
+        final String s2 = referenceEncode(command);
+        if (s2 != null) {
+          se.append(s2);
+        }
+      }
+      s = se.getValue();
+    }
+    return s;
+  }
+
+  /** The SequenceEncoder-based decoding used by GameModule */
+  private static Command referenceDecode(String command) {
+    final SequenceEncoder.Decoder st = new SequenceEncoder.Decoder(command, DELIM);
+    final String first = st.nextToken();
+    if (command.equals(first)) {
+      return TEXT_ENCODER.decode(first);
+    }
+    Command c = referenceDecode(first);
+    while (st.hasMoreTokens()) {
+      final Command next = referenceDecode(st.nextToken());
+      c = c == null ? next : c.append(next);
+    }
+    return c;
+  }
+
+  private static Command randomCommand(Random rnd, int depth) {
+    final Command c = rnd.nextInt(4) == 0 ?
+      new NullCommand() : new TextCommand(randomText(rnd));
+    if (depth > 0) {
+      final int n = rnd.nextInt(4);
+      for (int i = 0; i < n; ++i) {
+        c.append(randomCommand(rnd, depth - 1));
+      }
+    }
+    return c;
+  }
+
+  private static String randomText(Random rnd) {
+    final char[] alphabet = {'a', 'b', '\\', '\'', DELIM, ';'};
+    final StringBuilder sb = new StringBuilder();
+    final int len = rnd.nextInt(6);
+    for (int i = 0; i < len; ++i) {
+      sb.append(alphabet[rnd.nextInt(alphabet.length)]);
+    }
+    return sb.toString();
+  }
+
+  @Test
+  public void encodeShouldMatchSequenceEncoder() throws Exception {
+    final StreamingCommandEncoder enc = new StreamingCommandEncoder(TEXT_ENCODER, DELIM);
+    final Random rnd = new Random(42);
+    for (int i = 0; i < 5000; ++i) {
+      final Command c = randomCommand(rnd, 3);
+      final StringWriter out = new StringWriter();
+      enc.encode(c, out);
+      final String expected = referenceEncode(c);
+      assertEquals(expected == null ? "" : expected, out.toString());
+    }
+  }
+
+  @Test
+  public void decodeShouldMatchSequenceEncoder() throws Exception {
+    final StreamingCommandEncoder enc = new StreamingCommandEncoder(TEXT_ENCODER, DELIM);
+    final Random rnd = new Random(17);
+    for (int i = 0; i < 5000; ++i) {
+      final Command c = randomCommand(rnd, 3);
+      final String s = referenceEncode(c);
+      if (s == null) {
+        continue;
+      }
+      final Command decoded = enc.decode(new StringReader(s));
+      final Command expected = referenceDecode(s);
+      // Commands have no equals(), so compare their encodings
+      assertEquals(
+        expected == null ? null : referenceEncode(expected),
+        decoded == null ? null : referenceEncode(decoded)
+      );
+    }
+  }
+
+  @Test
+  public void unencodableCommandShouldGiveNull() {
+    final StreamingCommandEncoder enc = new StreamingCommandEncoder(TEXT_ENCODER, DELIM);
+    assertNull(enc.encode(new NullCommand()));
+    assertNull(enc.encode((Command) null));
+    assertNull(enc.decode((String) null));
+  }
+}
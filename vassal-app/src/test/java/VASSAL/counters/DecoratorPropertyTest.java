@@ -0,0 +1,235 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package VASSAL.counters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.Shape;
+
+import javax.swing.KeyStroke;
+
+import org.junit.Test;
+
+import VASSAL.command.Command;
+
+public class DecoratorPropertyTest {
+
+  // A trait which leaves properties to the default behavior
+  private static class Pass extends Decorator {
+    private final String state;
+
+    Pass(String state, GamePiece inner) {
+      this.state = state;
+      setInner(inner);
+    }
+
+    @Override
+    public void mySetState(String newState) {
+    }
+
+    @Override
+    public String myGetState() {
+      return state;
+    }
+
+    @Override
+    public String myGetType() {
+      return "pass;"; //NON-NLS
+    }
+
+    @Override
+    protected KeyCommand[] myGetKeyCommands() {
+      return new KeyCommand[0];
+    }
+
+    @Override
+    public Command myKeyEvent(KeyStroke stroke) {
+      return null;
+    }
+
+    @Override
+    public void draw(Graphics g, int x, int y, Component obs, double zoom) {
+    }
+
+    @Override
+    public Rectangle boundingBox() {
+      return new Rectangle();
+    }
+
+    @Override
+    public Shape getShape() {
+      return new Rectangle();
+    }
+
+    @Override
+    public String getName() {
+      return state;
+    }
+  }
+
+  // A trait which answers properties named after it
+  private static class Answer extends Pass {
+    Answer(String state, GamePiece inner) {
+      super(state, inner);
+    }
+
+    @Override
+    public Object getProperty(Object key) {
+      return myGetState().equals(key) ? "answer " + key : super.getProperty(key); //NON-NLS
+    }
+
+    @Override
+    public Object getLocalizedProperty(Object key) {
+      return myGetState().equals(key) ? "localized " + key : super.getLocalizedProperty(key); //NON-NLS
+    }
+  }
+
+  // A trait which answers only the property named after it, and says so
+  private static class Named extends Pass {
+    int asked;
+
+    Named(String state, GamePiece inner) {
+      super(state, inner);
+    }
+
+    @Override
+    protected boolean answersProperty(String key) {
+      return myGetState().equals(key);
+    }
+
+    @Override
+    public Object getProperty(Object key) {
+      ++asked;
+      return myGetState().equals(key) ? "named " + key : super.getProperty(key); //NON-NLS
+    }
+  }
+
+  // A trait which answers more than the trait it extends says
+  private static class MoreNamed extends Named {
+    MoreNamed(String state, GamePiece inner) {
+      super(state, inner);
+    }
+
+    @Override
+    public Object getProperty(Object key) {
+      return "more".equals(key) ? "more" : super.getProperty(key); //NON-NLS
+    }
+  }
+
+  private GamePiece planned(GamePiece piece, PropertyPlan[] plans) {
+    PropertyPlan.attach(piece, plans);
+    return piece;
+  }
+
+  @Test
+  public void testPassingTraitsAreSteppedOver() {
+    final Pass inner = new Pass("c", new BasicPiece());
+    final Answer b = new Answer("b", inner);
+    final Pass outer = new Pass("a", new Answer("x", new Pass("d", b)));
+
+    assertEquals("answer x", outer.getProperty("x"));
+    assertEquals("answer b", outer.getProperty("b"));
+    assertEquals("localized b", outer.getLocalizedProperty("b"));
+
+    // the keys handled by every trait are still answered by the outermost
+    assertSame(outer.getInner(), outer.getProperty(Properties.INNER));
+    assertEquals("axdbc", outer.getProperty(Properties.VISIBLE_STATE));
+    assertEquals("axdbc", outer.getLocalizedProperty(Properties.VISIBLE_STATE));
+
+    outer.setProperty(Properties.SELECTED, Boolean.TRUE);
+    assertEquals(Boolean.TRUE, outer.getProperty(Properties.SELECTED));
+    assertEquals(Boolean.TRUE, inner.getProperty(Properties.SELECTED));
+  }
+
+  @Test
+  public void testPlanSkipsTraitsWhichDoNotAnswer() {
+    final BasicPiece basic = new BasicPiece();
+    basic.setProperty("held", "basic"); //NON-NLS
+    final Named c = new Named("c", basic); //NON-NLS
+    final Named b = new Named("b", new Pass("x", c)); //NON-NLS
+    final Named a = new Named("a", b); //NON-NLS
+    final GamePiece outer = new Pass("o", a); //NON-NLS
+    PropertyPlan.attach(outer, PropertyPlan.create(outer));
+
+    for (int i = 0; i < 3; ++i) {
+      assertEquals("named c", outer.getProperty("c")); //NON-NLS
+      assertEquals("named b", outer.getProperty("b")); //NON-NLS
+    }
+    // only the trait which answers is asked
+    assertEquals(0, a.asked);
+    assertEquals(3, b.asked);
+    assertEquals(3, c.asked);
+
+    // a property which no trait answers goes straight to the BasicPiece
+    assertEquals("basic", outer.getProperty("held")); //NON-NLS
+    assertEquals(0, a.asked);
+    assertEquals(3, b.asked);
+    assertEquals(3, c.asked);
+
+    // the keys handled by every trait are still answered by the outermost
+    assertSame(a, outer.getProperty(Properties.INNER));
+  }
+
+  @Test
+  public void testPlanSharedByPiecesOfSameType() {
+    final PropertyPlan[] plans = PropertyPlan.create(new Named("a", new Pass("x", new Named("b", new BasicPiece())))); //NON-NLS
+
+    final Named b1 = new Named("b", new BasicPiece()); //NON-NLS
+    final GamePiece p1 = planned(new Named("a", new Pass("x", b1)), plans); //NON-NLS
+    final Named b2 = new Named("b", new BasicPiece()); //NON-NLS
+    final GamePiece p2 = planned(new Named("a", new Pass("x", b2)), plans); //NON-NLS
+
+    assertEquals("named b", p1.getProperty("b")); //NON-NLS
+    assertEquals("named b", p2.getProperty("b")); //NON-NLS
+    assertEquals(1, b1.asked);
+    assertEquals(1, b2.asked);
+
+    // a piece of a different shape is given no plans
+    final Named b3 = new Named("b", new BasicPiece()); //NON-NLS
+    final GamePiece p3 = planned(new Named("a", b3), plans); //NON-NLS
+    assertEquals("named b", p3.getProperty("b")); //NON-NLS
+  }
+
+  @Test
+  public void testPlanDroppedWhenTraitsChange() {
+    final BasicPiece basic = new BasicPiece();
+    basic.setProperty("b", "basic"); //NON-NLS
+    final Pass inner = new Pass("x", basic); //NON-NLS
+    final Pass middle = new Pass("y", inner); //NON-NLS
+    final GamePiece outer = new Pass("z", middle); //NON-NLS
+    PropertyPlan.attach(outer, PropertyPlan.create(outer));
+    assertEquals("basic", outer.getProperty("b")); //NON-NLS
+
+    // a trait which answers is added inward
+    middle.setInner(new Named("b", inner)); //NON-NLS
+    assertEquals("named b", outer.getProperty("b")); //NON-NLS
+  }
+
+  @Test
+  public void testSubclassAnsweringMoreIsAsked() {
+    final GamePiece outer = new Pass("o", new MoreNamed("a", new BasicPiece())); //NON-NLS
+    PropertyPlan.attach(outer, PropertyPlan.create(outer));
+
+    assertEquals("more", outer.getProperty("more")); //NON-NLS
+    assertEquals("named a", outer.getProperty("a")); //NON-NLS
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package VASSAL.counters;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import VASSAL.build.GameModule;
+import VASSAL.build.module.GameState;
+import VASSAL.build.module.Map;
+import VASSAL.tools.RecursionLimiter.Loopable;
+
+public class GlobalCommandTest {
+
+  private static final String SIDE = "Side";
+
+  private final List<GamePiece> pieces = new ArrayList<>();
+  private final PropertyIndex index = new PropertyIndex(pieces);
+  private final List<GamePiece> visited = new ArrayList<>();
+
+  private GameModule gm;
+  private MockedStatic<GameModule> staticGm;
+  private Map axisMap;
+  private Map alliesMap;
+  private DynamicProperty axis;
+  private DynamicProperty allies;
+  private BasicPiece plain;
+
+  private static BasicPiece basic() {
+    return new BasicPiece(BasicPiece.ID + ";;;");
+  }
+
+  private DynamicProperty place(String value, Map map) {
+    final DynamicProperty dp = new DynamicProperty(DynamicProperty.ID + SIDE, basic());
+    dp.setValue(value);
+    dp.setMap(map);
+    pieces.add(dp);
+    return dp;
+  }
+
+  @Before
+  public void setUp() {
+    final GameState gs = mock(GameState.class);
+    when(gs.getPropertyIndex()).thenReturn(index);
+    gm = mock(GameModule.class);
+    when(gm.getGameState()).thenReturn(gs);
+    staticGm = Mockito.mockStatic(GameModule.class);
+    staticGm.when(GameModule::getGameModule).thenReturn(gm);
+
+    axisMap = mock(Map.class);
+    alliesMap = mock(Map.class);
+
+    axis = place("Axis", axisMap);
+    allies = place("Allies", alliesMap);
+
+    // A piece whose value is not held by a trait, and so must always be asked
+    plain = basic();
+    plain.setProperty(SIDE, "Axis");
+    plain.setMap(alliesMap);
+    pieces.add(plain);
+
+    when(axisMap.getPieceList()).thenReturn(List.of(axis));
+    when(alliesMap.getPieceList()).thenReturn(List.of(allies, plain));
+  }
+
+  @After
+  public void tearDown() {
+    staticGm.close();
+  }
+
+  private List<GamePiece> apply(String value) {
+    visited.clear();
+
+    final GlobalCommandTarget target = new GlobalCommandTarget(GlobalCommandTarget.GKCtype.MODULE);
+    target.setFastMatchProperty(true);
+    target.setTargetProperty(SIDE);
+    target.setTargetValue(value);
+    target.setTargetCompare(GlobalCommandTarget.CompareMode.EQUALS);
+
+    // The filter records the pieces which reach it, and accepts none, so that no command is sent
+    new GlobalCommand(mock(Loopable.class)).apply(new Map[] { axisMap, alliesMap }, p -> {
+      visited.add(p);
+      return false;
+    }, target);
+    return visited;
+  }
+
+  // The game's index is used only on the Event Dispatch Thread, for which the module is mocked too
+  private void onEventDispatchThread(Runnable r) throws Throwable {
+    try {
+      SwingUtilities.invokeAndWait(() -> {
+        try (MockedStatic<GameModule> edtGm = Mockito.mockStatic(GameModule.class)) {
+          edtGm.when(GameModule::getGameModule).thenReturn(gm);
+          r.run();
+        }
+      });
+    }
+    catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  @Test
+  public void testIndexSkipsMapsWithoutCandidates() throws Throwable {
+    index.setEnabled(true);
+
+    onEventDispatchThread(() -> {
+      assertEquals(List.of(allies), apply("Allies"));
+      verify(axisMap, never()).getPieceList();
+
+      // a value changed after the index was built is found
+      axis.setValue("Allies");
+      assertEquals(List.of(axis, allies), apply("Allies"));
+
+      // the unindexed piece is still matched by asking it
+      assertEquals(List.of(plain), apply("Axis"));
+    });
+  }
+
+  @Test
+  public void testIndexNotUsedOffEventDispatchThread() {
+    index.setEnabled(true);
+
+    assertEquals(List.of(allies), apply("Allies"));
+    verify(axisMap).getPieceList();
+  }
+
+  @Test
+  public void testSameResultWithoutIndex() {
+    assertEquals(List.of(allies), apply("Allies"));
+    verify(axisMap).getPieceList();
+
+    axis.setValue("Allies");
+    assertEquals(List.of(axis, allies), apply("Allies"));
+    assertEquals(List.of(plain), apply("Axis"));
+  }
+}
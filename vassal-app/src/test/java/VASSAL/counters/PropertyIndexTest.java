@@ -0,0 +1,155 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+
+package VASSAL.counters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PropertyIndexTest {
+
+  private static final String SIDE = "Side";
+
+  private final List<GamePiece> pieces = new ArrayList<>();
+  private final PropertyIndex index = new PropertyIndex(pieces);
+
+  private DynamicProperty axis;
+  private DynamicProperty allies;
+  private Marker marker;
+  private BasicPiece plain;
+
+  private static BasicPiece basic() {
+    return new BasicPiece(BasicPiece.ID + ";;;");
+  }
+
+  private static DynamicProperty dynamic(String value) {
+    final DynamicProperty dp = new DynamicProperty(DynamicProperty.ID + SIDE, basic());
+    dp.setValue(value);
+    return dp;
+  }
+
+  @Before
+  public void setUp() {
+    axis = dynamic("Axis");
+    allies = dynamic("Allies");
+
+    marker = new Marker(Marker.ID + SIDE, basic());
+    marker.mySetState("Axis");
+
+    // A piece whose value is not held by a trait, and so is not indexed
+    plain = basic();
+    plain.setProperty(SIDE, "Axis");
+
+    pieces.add(axis);
+    pieces.add(allies);
+    pieces.add(marker);
+    pieces.add(plain);
+
+    index.setEnabled(true);
+  }
+
+  @Test
+  public void testFind() {
+    final Set<GamePiece> found = index.find(SIDE, "Axis");
+    assertEquals(3, found.size());
+    assertTrue(found.contains(axis));
+    assertTrue(found.contains(marker));
+    assertTrue(found.contains(plain));
+
+    assertEquals(Set.of(allies), index.find(SIDE, "Allies"));
+    assertTrue(index.find(SIDE, "Neutral").isEmpty());
+  }
+
+  @Test
+  public void testFindCandidates() {
+    final Set<GamePiece> found = index.findCandidates(SIDE, "Allies");
+    assertEquals(2, found.size());
+    assertTrue(found.contains(allies));
+    assertTrue(found.contains(plain));
+
+    assertTrue(index.mayEqual(allies, SIDE, "Allies"));
+    assertFalse(index.mayEqual(axis, SIDE, "Allies"));
+    assertTrue(index.mayEqual(plain, SIDE, "Allies"));
+  }
+
+  @Test
+  public void testUpdate() {
+    index.find(SIDE, "Axis");
+    final int modCount = index.getModCount();
+
+    allies.setValue("Axis");
+    index.update(allies);
+
+    assertNotEquals(modCount, index.getModCount());
+    assertTrue(index.find(SIDE, "Axis").contains(allies));
+    assertTrue(index.find(SIDE, "Allies").isEmpty());
+
+    marker.setProperty(SIDE, "Allies");
+    index.update(marker);
+    assertEquals(Set.of(marker), index.find(SIDE, "Allies"));
+  }
+
+  @Test
+  public void testUpdateUnchanged() {
+    index.find(SIDE, "Axis");
+    final int modCount = index.getModCount();
+    index.update(axis);
+    assertEquals(modCount, index.getModCount());
+  }
+
+  @Test
+  public void testAddRemove() {
+    index.find(SIDE, "Axis");
+
+    final DynamicProperty added = dynamic("Axis");
+    pieces.add(added);
+    index.add(added);
+    assertTrue(index.find(SIDE, "Axis").contains(added));
+
+    pieces.remove(axis);
+    index.remove(axis);
+    assertFalse(index.find(SIDE, "Axis").contains(axis));
+  }
+
+  @Test
+  public void testOutermostTraitWins() {
+    // A Calculated Property of the same name hides the Dynamic Property, so the value cannot be indexed
+    final CalculatedProperty calc = new CalculatedProperty(CalculatedProperty.ID + SIDE, dynamic("Allies"));
+    pieces.add(calc);
+    assertTrue(index.findCandidates(SIDE, "Axis").contains(calc));
+    assertTrue(index.mayEqual(calc, SIDE, "Axis"));
+  }
+
+  @Test
+  public void testDisabled() {
+    index.setEnabled(false);
+    assertNull(index.find(SIDE, "Axis"));
+    assertNull(index.findCandidates(SIDE, "Axis"));
+    assertTrue(index.mayEqual(allies, SIDE, "Axis"));
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package VASSAL.launch;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.awt.Dimension;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import VASSAL.tools.DataArchive;
+import VASSAL.tools.io.FileArchive;
+import VASSAL.tools.io.FileStore;
+import VASSAL.tools.image.tilecache.TileStore;
+
+public class TilingHandlerTest {
+  private static final Dimension TDIM = new Dimension(256, 256);
+  private static final String MAP = DataArchive.IMAGE_DIR + "map.png"; //NON-NLS
+  private static final String COUNTER = DataArchive.IMAGE_DIR + "counter.png"; //NON-NLS
+  private static final byte[] MAP_DATA = "map".getBytes(StandardCharsets.UTF_8); //NON-NLS
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private DataArchive archive;
+  private FileStore tcache;
+  private final List<String> sized = new ArrayList<>();
+  private TilingHandler handler;
+
+  @Before
+  public void setUp() throws IOException {
+    final FileArchive fa = mock(FileArchive.class);
+    when(fa.getMTime(anyString())).thenReturn(1000L);
+    when(fa.getSize(anyString())).thenReturn(3L);
+
+    archive = mock(DataArchive.class);
+    when(archive.getArchive()).thenReturn(fa);
+    when(archive.getImageNameSet()).thenReturn(new TreeSet<>(List.of("map.png", "counter.png"))); //NON-NLS
+    when(archive.getInputStream(MAP)).thenAnswer(i -> new ByteArrayInputStream(MAP_DATA));
+
+    tcache = mock(FileStore.class);
+
+    handler = new TilingHandler("module.vmod", tmp.newFolder("cache"), tmp.newFolder("store"), TDIM, 1024, 1) { //NON-NLS
+      @Override
+      protected Dimension getImageSize(DataArchive archive, String ipath) {
+        sized.add(ipath);
+        return MAP.equals(ipath) ? new Dimension(1000, 1000) : new Dimension(100, 100);
+      }
+    };
+  }
+
+  private List<String> findImages() throws IOException {
+    final List<String> multi = new ArrayList<>();
+    handler.findImages(archive, tcache, multi, new ArrayList<>(), 0);
+    return multi;
+  }
+
+  @Test
+  public void testUnchangedImagesNotReadAgain() throws IOException {
+    assertEquals(List.of(MAP), findImages());
+    assertEquals(List.of(COUNTER, MAP), sized);
+    verify(archive).getInputStream(MAP);
+
+    // the map is tiled
+    final File pack = new TileStore(tmp.getRoot().toPath().resolve("store").toFile())
+      .getPackFile(TileStore.key(MAP_DATA, TDIM));
+    FileUtils.writeByteArrayToFile(pack, new byte[1]);
+
+    // neither the tiled map nor the single-tile counter is read again
+    sized.clear();
+    assertEquals(List.of(), findImages());
+    assertEquals(List.of(), sized);
+    verify(archive, times(1)).getInputStream(MAP);
+    verify(archive, never()).getInputStream(COUNTER);
+
+    // nor hashed again if its tiles are evicted
+    FileUtils.forceDelete(pack);
+    assertEquals(List.of(MAP), findImages());
+    verify(archive, times(1)).getInputStream(MAP);
+  }
+}
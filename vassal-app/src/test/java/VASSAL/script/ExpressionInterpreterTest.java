@@ -375,4 +375,30 @@ public class ExpressionInterpreterTest {
     }
   }
 
-}
\ No newline at end of file
+  @Test
+  public void compiledModeMatchesInterpretedMode() throws ExpressionException {
+    final PropertySource ps = mock(PropertySource.class);
+    when(ps.getProperty("Name")).thenReturn("Tiger");
+    when(ps.getProperty("Strength")).thenReturn("7");
+
+    final ExpressionInterpreter interpreter = ExpressionInterpreter.createInterpreter("Name.length() + Strength * 2");
+    try {
+      ExpressionInterpreter.setCompiledMode(false);
+      assertThat(interpreter.evaluate(ps), is(equalTo("19")));
+      ExpressionInterpreter.setCompiledMode(true);
+      assertThat(interpreter.evaluate(ps), is(equalTo("19")));
+    }
+    finally {
+      ExpressionInterpreter.setCompiledMode(true);
+    }
+  }
+
+  @Test
+  public void compiledModePassesQuotesInStringProperties() throws ExpressionException {
+    final PropertySource ps = mock(PropertySource.class);
+    when(ps.getProperty("Label")).thenReturn("say \"hi\"");
+
+    final ExpressionInterpreter interpreter = ExpressionInterpreter.createInterpreter("Label.length()");
+    assertThat(interpreter.evaluate(ps), is(equalTo("8")));
+  }
+}
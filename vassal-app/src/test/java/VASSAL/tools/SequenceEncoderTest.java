@@ -295,4 +295,69 @@ public class SequenceEncoderTest {
     assertFalse(sd1.hasNext());
     assertFalse(sd2.hasNext());
   }
+
+  @Test
+  public void testDecodeCharSequence() {
+    final StringBuilder sb = new StringBuilder("a,'b',c\\,d,42,true");
+    final SequenceEncoder.Decoder sd = new SequenceEncoder.Decoder(sb, ',');
+    assertEquals("a", sd.nextToken());
+    assertEquals("b", sd.nextCharSequence().toString());
+    assertEquals("c,d", sd.nextCharSequence().toString());
+    assertEquals(42, sd.nextInt(-1));
+    assertTrue(sd.nextBoolean(false));
+    assertFalse(sd.hasMoreTokens());
+  }
+
+  @Test
+  public void testDecodeRange() {
+    final String s = "D\t1\t2";
+    final SequenceEncoder.Decoder sd = new SequenceEncoder.Decoder(s, 2, s.length(), '\t');
+    assertEquals(1, sd.nextInt(-1));
+    assertEquals("2", sd.nextToken());
+    assertFalse(sd.hasMoreTokens());
+  }
+
+  @Test
+  public void testNextDecoder() {
+    final SequenceEncoder inner = new SequenceEncoder(',').append("x").append(7);
+    final SequenceEncoder escaped = new SequenceEncoder(',').append("y;z").append(8);
+    final SequenceEncoder se = new SequenceEncoder(';')
+      .append(inner.getValue())
+      .append(escaped.getValue())
+      .append("last");
+
+    final SequenceEncoder.Decoder sd = new SequenceEncoder.Decoder(se.getValue(), ';');
+
+    final SequenceEncoder.Decoder sd1 = sd.nextDecoder(',');
+    assertEquals("x", sd1.nextToken());
+    assertEquals(7, sd1.nextInt(-1));
+    assertFalse(sd1.hasMoreTokens());
+
+    final SequenceEncoder.Decoder sd2 = sd.nextDecoder(',');
+    assertEquals("y;z", sd2.nextToken());
+    assertEquals(8, sd2.nextInt(-1));
+    assertFalse(sd2.hasMoreTokens());
+
+    assertEquals("last", sd.nextToken());
+  }
+
+  @Test
+  public void testDecodeEscapedPrimitives() {
+    // An escaped delimiter in a token which is parsed in place
+    final SequenceEncoder.Decoder sd = new SequenceEncoder.Decoder("1\\;2;x;'';", ';');
+    assertEquals(-1, sd.nextInt(-1));
+    assertEquals('x', sd.nextChar('y'));
+    assertEquals('y', sd.nextChar('y'));
+    assertFalse(sd.nextBoolean(true));
+    assertFalse(sd.hasMoreTokens());
+  }
+
+  @Test
+  public void testDecodeColorForms() {
+    final SequenceEncoder.Decoder sd = new SequenceEncoder.Decoder("1,2,3,4;0xff0000;;5,6,7", ';');
+    assertEquals(new Color(1, 2, 3, 4), sd.nextColor(Color.RED));
+    assertEquals(new Color(255, 0, 0), sd.nextColor(null));
+    assertNull(sd.nextColor(Color.RED));
+    assertEquals(new Color(5, 6, 7), sd.nextColor(null));
+  }
 }
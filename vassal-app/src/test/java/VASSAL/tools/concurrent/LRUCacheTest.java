@@ -0,0 +1,105 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+
+package VASSAL.tools.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LRUCacheTest {
+  @Test
+  public void testEvictsLeastRecentlyUsed() {
+    final LRUCache<String, Integer> cache = new LRUCache<>(2);
+    cache.add("a", 1);
+    cache.add("b", 2);
+    assertEquals(Integer.valueOf(1), cache.get("a"));
+
+    cache.add("c", 3);
+    assertEquals(2, cache.size());
+    assertNull(cache.get("b"));
+    assertEquals(Integer.valueOf(1), cache.get("a"));
+    assertEquals(Integer.valueOf(3), cache.get("c"));
+
+    assertEquals(3, cache.getHits());
+    assertEquals(1, cache.getMisses());
+    assertEquals(1, cache.getEvictions());
+  }
+
+  @Test
+  public void testAddKeepsFirstValue() {
+    final LRUCache<String, Integer> cache = new LRUCache<>(2);
+    assertEquals(Integer.valueOf(1), cache.add("a", 1));
+    assertEquals(Integer.valueOf(1), cache.add("a", 2));
+    assertEquals(0, cache.getEvictions());
+  }
+
+  @Test
+  public void testShrink() {
+    final LRUCache<Integer, Integer> cache = new LRUCache<>(10);
+    for (int i = 0; i < 10; ++i) {
+      cache.add(i, i);
+    }
+    cache.setMaxSize(3);
+    assertEquals(3, cache.size());
+    assertEquals(7, cache.getEvictions());
+    assertNotNull(cache.get(9));
+    assertNull(cache.get(6));
+
+    cache.resetStatistics();
+    assertEquals(0, cache.getHits());
+    assertEquals(0, cache.getEvictions());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testZeroSize() {
+    new LRUCache<String, String>(0);
+  }
+
+  @Test
+  public void testConcurrentUse() throws Exception {
+    final LRUCache<Integer, Integer> cache = new LRUCache<>(100);
+    final ExecutorService ex = Executors.newFixedThreadPool(4);
+    final List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < 4; ++t) {
+      futures.add(ex.submit(() -> {
+        for (int i = 0; i < 10000; ++i) {
+          final Integer k = i % 300;
+          if (cache.get(k) == null) {
+            assertEquals(k, cache.add(k, k));
+          }
+        }
+      }));
+    }
+    for (final Future<?> f : futures) {
+      f.get();
+    }
+    ex.shutdown();
+    assertTrue(ex.awaitTermination(10, TimeUnit.SECONDS));
+
+    assertEquals(100, cache.size());
+    assertEquals(40000, cache.getHits() + cache.getMisses());
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package VASSAL.tools.image.tilecache;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class ImageTileDiskCacheTest {
+  private static final String NAME = "images/map.png"; //NON-NLS
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private ImageTileDiskCache cache;
+
+  @After
+  public void tearDown() {
+    if (cache != null) {
+      cache.close();
+    }
+  }
+
+  private static void writePack(File f, int w, int h) throws IOException {
+    try (TilePackWriter out = new TilePackWriter(f)) {
+      out.write(0, 0, 1, TilePackWriter.encode(
+        new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB)));
+    }
+  }
+
+  @Test
+  public void testReplacedPackReopened() throws IOException {
+    final File cdir = tmp.newFolder("tiles");
+    final File f = new File(cdir, TileUtils.packName(NAME));
+    writePack(f, 100, 37);
+
+    cache = new ImageTileDiskCache(cdir.getPath());
+    cache.checkMillis = 0;
+    assertEquals(new Dimension(100, 37), cache.getTileSize(NAME, 0, 0, 1.0));
+
+    writePack(f, 50, 20);
+    assertEquals(new Dimension(50, 20), cache.getTileSize(NAME, 0, 0, 1.0));
+
+    assertTrue(f.delete());
+    assertFalse(cache.tileExists(NAME, 0, 0, 1.0));
+  }
+
+  @Test
+  public void testPackReopenedWhenIndexChanges() throws IOException {
+    final File cdir = tmp.newFolder("tiles");
+    final TileStore store = new TileStore(tmp.newFolder("store"));
+    writePack(store.getPackFile("a_256x256"), 100, 37); //NON-NLS
+    writePack(store.getPackFile("b_256x256"), 50, 20); //NON-NLS
+
+    cache = new ImageTileDiskCache(cdir.getPath(), store);
+    cache.checkMillis = Long.MAX_VALUE;
+    cache.index.put(NAME, 0, 0, "a_256x256"); //NON-NLS
+    assertEquals(new Dimension(100, 37), cache.getTileSize(NAME, 0, 0, 1.0));
+
+    // the change is seen at once, without waiting to check the file
+    cache.index.put(NAME, 0, 0, "b_256x256"); //NON-NLS
+    assertEquals(new Dimension(50, 20), cache.getTileSize(NAME, 0, 0, 1.0));
+  }
+}
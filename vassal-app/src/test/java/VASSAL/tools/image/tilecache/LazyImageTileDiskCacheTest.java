@@ -0,0 +1,121 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+
+package VASSAL.tools.image.tilecache;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import javax.imageio.ImageIO;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import VASSAL.tools.DataArchive;
+
+import static org.junit.Assert.*;
+
+public class LazyImageTileDiskCacheTest {
+  private static final String NAME = "images/map.png"; //NON-NLS
+  private static final Dimension TDIM = new Dimension(256, 256);
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private BufferedImage src;
+  private DataArchive archive;
+  private File cdir;
+  private LazyImageTileDiskCache cache;
+
+  @Before
+  public void setUp() throws IOException {
+    src = new BufferedImage(600, 300, BufferedImage.TYPE_INT_RGB);
+    final Random rnd = new Random(42);
+    for (int x = 0; x < src.getWidth(); ++x) {
+      for (int y = 0; y < src.getHeight(); ++y) {
+        src.setRGB(x, y, rnd.nextInt());
+      }
+    }
+
+    final File zip = tmp.newFile("module.vmod");
+    try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zip))) {
+      out.putNextEntry(new ZipEntry(NAME));
+      ImageIO.write(src, "png", out); //NON-NLS
+      out.closeEntry();
+    }
+
+    archive = new DataArchive(zip.getPath());
+    cdir = tmp.newFolder("tiles");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    if (cache != null) {
+      cache.close();
+    }
+    archive.close();
+  }
+
+  private static void assertSamePixels(BufferedImage expected, BufferedImage actual) {
+    assertEquals(expected.getWidth(), actual.getWidth());
+    assertEquals(expected.getHeight(), actual.getHeight());
+    for (int x = 0; x < expected.getWidth(); ++x) {
+      for (int y = 0; y < expected.getHeight(); ++y) {
+        assertEquals(expected.getRGB(x, y) | 0xff000000, actual.getRGB(x, y) | 0xff000000);
+      }
+    }
+  }
+
+  @Test
+  public void testTiledWhenFirstRequested() throws Exception {
+    cache = new LazyImageTileDiskCache(cdir.getPath(), archive, TDIM);
+
+    // the first request finds no tiles, and queues the image for tiling
+    assertFalse(cache.requestTiles(NAME));
+
+    final long deadline = System.currentTimeMillis() + 10000;
+    while (!cache.requestTiles(NAME)) {
+      assertTrue(System.currentTimeMillis() < deadline);
+      Thread.sleep(20);
+    }
+
+    assertTrue(new File(cdir, TileUtils.packName(NAME)).isFile());
+    assertSamePixels(src.getSubimage(256, 0, 256, 256), cache.getTile(NAME, 1, 0, 1.0));
+    assertSamePixels(src.getSubimage(512, 256, 88, 44), cache.getTile(NAME, 2, 1, 1.0));
+    assertEquals(new Dimension(150, 75), cache.getTileSize(NAME, 0, 0, 0.25));
+  }
+
+  @Test
+  public void testLargeImageNotTiled() throws Exception {
+    cache = new LazyImageTileDiskCache(cdir.getPath(), null, archive, TDIM, 600 * 300 - 1);
+
+    assertFalse(cache.requestTiles(NAME));
+    Thread.sleep(500);
+    assertFalse(cache.requestTiles(NAME));
+    assertFalse(new File(cdir, TileUtils.packName(NAME)).exists());
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+
+package VASSAL.tools.image.tilecache;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+import static VASSAL.tools.image.AssertImage.*;
+
+public class TilePackTest {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private static BufferedImage noise(int w, int h, long seed) {
+    final BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB_PRE);
+    final Random rnd = new Random(seed);
+    for (int x = 0; x < w; ++x) {
+      for (int y = 0; y < h; ++y) {
+        img.setRGB(x, y, rnd.nextInt());
+      }
+    }
+    return img;
+  }
+
+  private static BufferedImage flat(int w, int h, int rgb) {
+    final BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+    for (int x = 0; x < w; ++x) {
+      for (int y = 0; y < h; ++y) {
+        img.setRGB(x, y, rgb);
+      }
+    }
+    return img;
+  }
+
+  @Test
+  public void testWriteRead() throws IOException {
+    final File f = new File(tmp.getRoot(), "a/ab/test.tiles");
+
+    final BufferedImage compressible = flat(256, 256, 0x123456);
+    final BufferedImage incompressible = noise(100, 37, 42);
+
+    try (TilePackWriter w = new TilePackWriter(f)) {
+      w.write(1, 0, 1, TilePackWriter.encode(incompressible));
+      w.write(0, 0, 1, TilePackWriter.encode(compressible));
+      w.write(0, 0, 2, TilePackWriter.encode(compressible));
+    }
+
+    assertTrue(f.isFile());
+    assertTrue(f.length() < 4 * 256 * 256);
+
+    try (TilePack pack = new TilePack(f)) {
+      assertTrue(pack.contains(0, 0, 1));
+      assertTrue(pack.contains(1, 0, 1));
+      assertTrue(pack.contains(0, 0, 2));
+      assertFalse(pack.contains(1, 0, 2));
+
+      assertEquals(new Dimension(100, 37), pack.getTileSize(1, 0, 1));
+      assertImageEquals(compressible, pack.read(0, 0, 1));
+      assertImageEquals(incompressible, pack.read(1, 0, 1));
+      assertImageEquals(compressible, pack.read(0, 0, 2));
+    }
+  }
+
+  @Test
+  public void testReplaceAndDeleteWhileOpen() throws IOException {
+    final File f = new File(tmp.getRoot(), "open.tiles");
+    final BufferedImage a = noise(64, 64, 1);
+    final BufferedImage b = noise(64, 64, 2);
+
+    try (TilePackWriter w = new TilePackWriter(f)) {
+      w.write(0, 0, 1, TilePackWriter.encode(a));
+    }
+
+    // read as on Windows, where a mapped file could be neither replaced nor deleted
+    try (TilePack pack = new TilePack(f, false)) {
+      assertImageEquals(a, pack.read(0, 0, 1));
+
+      try (TilePackWriter w = new TilePackWriter(f)) {
+        w.write(0, 0, 1, TilePackWriter.encode(b));
+      }
+
+      try (TilePack replaced = new TilePack(f, false)) {
+        assertImageEquals(b, replaced.read(0, 0, 1));
+        assertTrue(f.delete());
+      }
+    }
+    assertFalse(f.exists());
+  }
+
+  @Test
+  public void testAbortLeavesNoPack() throws IOException {
+    final File f = new File(tmp.getRoot(), "aborted.tiles");
+    final TilePackWriter w = new TilePackWriter(f);
+    w.write(0, 0, 1, TilePackWriter.encode(flat(10, 10, 0)));
+    w.abort();
+    assertFalse(f.exists());
+    assertEquals(0, tmp.getRoot().list().length);
+  }
+
+  @Test(expected = IOException.class)
+  public void testMissingTile() throws IOException {
+    final File f = new File(tmp.getRoot(), "empty.tiles");
+    new TilePackWriter(f).close();
+    try (TilePack pack = new TilePack(f)) {
+      pack.read(0, 0, 1);
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testBadSignature() throws IOException {
+    final File f = tmp.newFile("bad.tiles");
+    java.nio.file.Files.write(f.toPath(), new byte[64]);
+    new TilePack(f);
+  }
+}
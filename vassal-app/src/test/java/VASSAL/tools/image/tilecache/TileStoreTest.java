@@ -0,0 +1,185 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+
+package VASSAL.tools.image.tilecache;
+
+import java.awt.Dimension;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class TileStoreTest {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private TileStore store;
+
+  @Before
+  public void setUp() throws IOException {
+    store = new TileStore(tmp.newFolder(TileStore.DIR_NAME));
+  }
+
+  private File pack(String key, int size, long mtime) throws IOException {
+    final File f = store.getPackFile(key);
+    FileUtils.writeByteArrayToFile(f, new byte[size]);
+    assertTrue(f.setLastModified(mtime));
+    return f;
+  }
+
+  @Test
+  public void testKeyDependsOnContentAndTileSize() {
+    final byte[] a = "a".getBytes(StandardCharsets.UTF_8);
+    final byte[] b = "b".getBytes(StandardCharsets.UTF_8);
+    final Dimension d = new Dimension(256, 256);
+
+    assertEquals(TileStore.key(a, d), TileStore.key(a.clone(), new Dimension(d)));
+    assertNotEquals(TileStore.key(a, d), TileStore.key(b, d));
+    assertNotEquals(TileStore.key(a, d), TileStore.key(a, new Dimension(128, 128)));
+  }
+
+  @Test
+  public void testContainsAndTouch() throws IOException {
+    assertFalse(store.contains("k"));
+    final File f = pack("k", 10, 1000L);
+    assertTrue(store.contains("k"));
+
+    store.touch("k");
+    assertTrue(f.lastModified() > 1000L);
+  }
+
+  @Test
+  public void testEvictLeastRecentlyUsed() throws IOException {
+    final File oldest = pack("a", 100, 1000000L);
+    final File middle = pack("b", 100, 2000000L);
+    final File newest = pack("c", 100, 3000000L);
+
+    store.evict(300);
+    assertTrue(oldest.exists());
+
+    store.evict(250);
+    assertFalse(oldest.exists());
+    assertTrue(middle.exists());
+    assertTrue(newest.exists());
+
+    store.evict(0);
+    assertFalse(middle.exists());
+    assertFalse(newest.exists());
+  }
+
+  @Test
+  public void testLeasedPacksNotEvicted() throws IOException {
+    final File a = pack("a", 100, 1000000L);
+    final File b = pack("b", 100, 2000000L);
+
+    final File ifile = new File(tmp.getRoot(), "cache/" + TileIndex.FILE_NAME);
+    final TileIndex index = new TileIndex(ifile);
+    index.put("images/a.png", 1L, 1L, "a");
+    index.save();
+
+    try (Closeable lease = store.lease(ifile)) {
+      store.evict(0);
+      assertTrue(a.exists());
+      assertFalse(b.exists());
+
+      // a pack indexed after the lease was taken is covered too
+      final File c = pack("c", 100, 500000L);
+      index.put("images/c.png", 1L, 1L, "c");
+      index.save();
+      store.evict(0);
+      assertTrue(c.exists());
+    }
+
+    store.evict(0);
+    assertFalse(a.exists());
+  }
+
+  @Test
+  public void testLeaseOfEndedProcessRemoved() throws IOException {
+    final File a = pack("a", 100, 1000000L);
+
+    final File ifile = new File(tmp.getRoot(), "cache/" + TileIndex.FILE_NAME);
+    final TileIndex index = new TileIndex(ifile);
+    index.put("images/a.png", 1L, 1L, "a");
+    index.save();
+
+    // a lease which nobody holds locked
+    final File lease = new File(store.getDir(), TileStore.LEASE_DIR + "/lease.txt");
+    FileUtils.writeStringToFile(lease, ifile.getAbsolutePath(), StandardCharsets.UTF_8);
+
+    store.evict(0);
+    assertFalse(a.exists());
+    assertFalse(lease.exists());
+  }
+
+  @Test
+  public void testEvictMissingStore() throws IOException {
+    new TileStore(new File(tmp.getRoot(), "missing")).evict(0);
+  }
+
+  @Test
+  public void testIndexRoundTrip() throws IOException {
+    final File f = new File(tmp.getRoot(), "cache/" + TileIndex.FILE_NAME);
+    final TileIndex index = new TileIndex(f);
+    assertNull(index.getKey("images/map.png"));
+
+    index.put("images/map.png", 42L, 1000L, "k1");
+    index.put("images/with\ttab.png", 7L, 10L, "k2");
+    index.put("images/counter.png", 7L, 10L, TileIndex.UNTILED);
+    index.save();
+
+    final TileIndex read = new TileIndex(f);
+    assertEquals("k1", read.getKey("images/map.png"));
+    assertEquals("k1", read.getKey("images/map.png", 42L, 1000L));
+    assertNull(read.getKey("images/map.png", 43L, 1000L));
+    assertNull(read.getKey("images/map.png", 42L, 1001L));
+    assertEquals(42L, read.getMTime("images/map.png"));
+    assertEquals("k2", read.getKey("images/with\ttab.png"));
+
+    // an image needing no tiles is known, but has no key
+    assertEquals(TileIndex.UNTILED, read.getKey("images/counter.png", 7L, 10L));
+    assertNull(read.getKey("images/counter.png"));
+
+    read.remove("images/map.png");
+    read.save();
+    assertNull(new TileIndex(f).getKey("images/map.png"));
+    assertEquals(-1L, new TileIndex(f).getMTime("images/map.png"));
+  }
+
+  @Test
+  public void testIndexWithoutSizesRead() throws IOException {
+    final File f = new File(tmp.getRoot(), TileIndex.FILE_NAME);
+    FileUtils.writeStringToFile(f,
+      "42\tk1\timages/map.png\n7\tk2\timages/with\ttab.png\n", StandardCharsets.UTF_8);
+
+    // any size matches, since none was recorded
+    final TileIndex index = new TileIndex(f);
+    assertEquals("k1", index.getKey("images/map.png", 42L, 1000L));
+    assertNull(index.getKey("images/map.png", 43L, 1000L));
+    assertEquals("k2", index.getKey("images/with\ttab.png"));
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package VASSAL.tools.imageop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import VASSAL.build.GameModule;
+import VASSAL.tools.image.ImageTileSource;
+import VASSAL.tools.io.FileArchive;
+
+public class SourceOpTiledBitmapImplTest {
+  private static final String NAME = "images/map.png"; //NON-NLS
+
+  private MockedStatic<GameModule> staticGm;
+  private FileArchive archive;
+  private boolean tiled;
+
+  @Before
+  public void setUp() throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ImageIO.write(new BufferedImage(600, 300, BufferedImage.TYPE_INT_RGB), "png", out); //NON-NLS
+    final byte[] png = out.toByteArray();
+
+    archive = mock(FileArchive.class);
+    when(archive.getInputStream(NAME)).thenAnswer(i -> new ByteArrayInputStream(png));
+
+    // the tile cache has the tiles only once tiled is set
+    final ImageTileSource tileSource = mock(ImageTileSource.class);
+    when(tileSource.requestTiles(NAME)).thenAnswer(i -> tiled);
+
+    final GameModule gm = mock(GameModule.class);
+    when(gm.getImageTileSource()).thenReturn(tileSource);
+    staticGm = Mockito.mockStatic(GameModule.class);
+    staticGm.when(GameModule::getGameModule).thenReturn(gm);
+  }
+
+  @After
+  public void tearDown() {
+    staticGm.close();
+  }
+
+  @Test
+  public void testTileOpsReplacedOnceTiled() {
+    final SourceOpTiledBitmapImpl op = new SourceOpTiledBitmapImpl(NAME, archive);
+    final ScaleOpTiledBitmapImpl half = new ScaleOpTiledBitmapImpl(op, 0.5);
+    final ScaleOpTiledBitmapImpl odd = new ScaleOpTiledBitmapImpl(op, 0.75);
+    assertEquals(3, op.getNumXTiles());
+    assertEquals(2, half.getNumXTiles());
+    assertEquals(2, odd.getNumXTiles());
+
+    // until the tiles are cached, they are cut from the image
+    final ImageOp cut = op.getTileOp(1, 0);
+    final ImageOp halfCut = half.getTileOp(1, 0);
+    final ImageOp oddCut = odd.getTileOp(1, 0);
+    assertFalse(cut instanceof SourceOpDiskCacheBitmapImpl);
+    assertFalse(halfCut instanceof SourceOpDiskCacheBitmapImpl);
+    assertSame(cut, op.getTileOp(1, 0));
+    assertSame(halfCut, half.getTileOp(1, 0));
+    assertSame(oddCut, odd.getTileOp(1, 0));
+
+    tiled = true;
+
+    // then the tile ops are replaced by ones reading the tile cache
+    final ImageOp cached = op.getTileOp(1, 0);
+    final ImageOp halfCached = half.getTileOp(1, 0);
+    final ImageOp oddCached = odd.getTileOp(1, 0);
+    assertTrue(cached instanceof SourceOpDiskCacheBitmapImpl);
+    assertTrue(halfCached instanceof SourceOpDiskCacheBitmapImpl);
+    assertNotSame(oddCut, oddCached);
+
+    // and are not replaced again
+    assertSame(cached, op.getTileOp(1, 0));
+    assertSame(halfCached, half.getTileOp(1, 0));
+    assertSame(oddCached, odd.getTileOp(1, 0));
+  }
+}
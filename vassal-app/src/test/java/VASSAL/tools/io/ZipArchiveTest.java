@@ -24,7 +24,12 @@ import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
 
 import org.junit.After;
 import org.junit.Rule;
@@ -43,6 +48,7 @@ public class ZipArchiveTest {
   @After
   public void cleanup() throws IOException {
     Files.deleteIfExists(testArchivePath());
+    Files.deleteIfExists(Path.of(testArchivePath() + ".journal"));
   }
 
   private Path testArchivePath() {
@@ -292,4 +298,165 @@ public class ZipArchiveTest {
       assertTrue(z.isClosed());
     }
   }
+
+  private static byte[] randomBytes(int len) {
+    final byte[] data = new byte[len];
+    new Random(42).nextBytes(data);
+    return data;
+  }
+
+  private long compressedSize(Path p, String name) throws IOException {
+    try (ZipFile zf = new ZipFile(p.toFile())) {
+      return zf.getEntry(name).getCompressedSize();
+    }
+  }
+
+  @Test
+  public void testUnmodifiedFilesKeepCompression() throws IOException {
+    final Path p = testArchivePath();
+    final byte[] text = "Lorem ipsum dolor sit amet. ".repeat(1000).getBytes();
+    final byte[] noise = randomBytes(5000);
+
+    // write an archive with a ZipOutputStream, as another tool might
+    try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(p))) {
+      out.setLevel(1);
+      out.putNextEntry(new ZipEntry("text"));
+      out.write(text);
+      out.putNextEntry(new ZipEntry("noise"));
+      out.write(noise);
+      final ZipEntry stored = new ZipEntry("stored");
+      stored.setMethod(ZipEntry.STORED);
+      stored.setSize(3);
+      stored.setCompressedSize(3);
+      final CRC32 crc = new CRC32();
+      crc.update(new byte[]{ 1, 2, 3 });
+      stored.setCrc(crc.getValue());
+      out.putNextEntry(stored);
+      out.write(new byte[]{ 1, 2, 3 });
+    }
+
+    final long textSize = compressedSize(p, "text");
+
+    // modify one file, so the others are copied
+    try (ZipArchive z = new ZipArchive(p.toFile())) {
+      z.add("noise", randomBytes(100));
+    }
+
+    // the unmodified file was copied, not compressed again at level 9
+    assertEquals(textSize, compressedSize(p, "text"));
+
+    try (ZipArchive z = new ZipArchive(p.toFile())) {
+      assertFile("text", text, z);
+      assertFile("noise", randomBytes(100), z);
+      assertFile("stored", new byte[]{ 1, 2, 3 }, z);
+    }
+  }
+
+  @Test
+  public void testAppend() throws IOException {
+    final Path p = testArchivePath();
+    final byte[] a = randomBytes(1000);
+    final byte[] b = "b".repeat(1000).getBytes();
+
+    try (ZipArchive z = new ZipArchive(p.toFile())) {
+      z.add("a", a);
+    }
+
+    final long size = Files.size(p);
+
+    // only add a file, so it is appended
+    try (ZipArchive z = new ZipArchive(p.toFile())) {
+      z.setCompressionLevel(0);
+      z.add("dir/b", b);
+    }
+
+    assertTrue(Files.size(p) > size + b.length);
+
+    try (ZipArchive z = new ZipArchive(p.toFile())) {
+      assertEquals(Set.of("a", "dir/b"), Set.copyOf(z.getFiles()));
+      assertFile("a", a, z);
+      assertFile("dir/b", b, z);
+
+      // remove a file, so the archive is rewritten
+      z.remove("a");
+    }
+
+    try (ZipArchive z = new ZipArchive(p.toFile())) {
+      assertNoFile("a", z);
+      assertFile("dir/b", b, z);
+      try (OutputStream out = z.getOutputStream("c", false)) {
+        out.write(a);
+      }
+    }
+
+    try (ZipArchive z = new ZipArchive(p.toFile())) {
+      assertEquals(Set.of("dir/b", "c"), Set.copyOf(z.getFiles()));
+      assertFile("dir/b", b, z);
+      assertFile("c", a, z);
+    }
+  }
+
+  // Stands in for the process dying
+  private static class Crash extends Error {
+    private static final long serialVersionUID = 1L;
+  }
+
+  @Test
+  public void testInterruptedAppendRecovered() throws IOException {
+    final Path p = testArchivePath();
+    final Path journal = Path.of(p + ".journal");
+    final byte[] a = randomBytes(1000);
+    final byte[] b = randomBytes(100000);
+
+    try (ZipArchive z = new ZipArchive(p.toFile())) {
+      z.add("a", a);
+    }
+
+    final ZipArchive z = new ZipArchive(p.toFile());
+    z.add("b", b);
+    ZipArchive.whileAppending = () -> {
+      throw new Crash();
+    };
+    try {
+      z.close();
+      fail();
+    }
+    catch (Crash e) {
+      // the new file has overwritten the central directory
+      assertTrue(Files.exists(journal));
+      try (ZipFile zf = new ZipFile(p.toFile())) {
+        fail();
+      }
+      catch (IOException expected) {
+        // the archive is unreadable until it is recovered
+      }
+    }
+    finally {
+      ZipArchive.whileAppending = null;
+    }
+
+    try (ZipArchive z2 = new ZipArchive(p.toFile())) {
+      assertEquals(List.of("a"), z2.getFiles());
+      assertFile("a", a, z2);
+    }
+    assertFalse(Files.exists(journal));
+
+    // and the archive can be appended to again
+    try (ZipArchive z2 = new ZipArchive(p.toFile())) {
+      z2.add("b", b);
+    }
+
+    try (ZipArchive z2 = new ZipArchive(p.toFile())) {
+      assertEquals(Set.of("a", "b"), Set.copyOf(z2.getFiles()));
+      assertFile("b", b, z2);
+    }
+    assertFalse(Files.exists(journal));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadCompressionLevel() throws IOException {
+    try (ZipArchive z = new ZipArchive(testArchivePath().toFile())) {
+      z.setCompressionLevel(10);
+    }
+  }
 }
@@ -0,0 +1,92 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package org.vassalengine.benchmarks;
+
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import VASSAL.build.module.BasicCommandEncoder;
+import VASSAL.command.Command;
+import VASSAL.command.StreamingCommandEncoder;
+
+/**
+ * Encoding and decoding a large compound command, such as a saved game or a Global Key Command
+ * over many pieces.
+ * <br><br>
+ * {@link VASSAL.build.GameModule#encode} and {@link VASSAL.build.GameModule#decode} cannot be
+ * called without a module, which needs a window, so this uses the {@link StreamingCommandEncoder}
+ * to which they delegate, with the same delimiter and the {@link BasicCommandEncoder}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandEncoderBenchmark {
+  private static final char COMMAND_SEPARATOR = (char) KeyEvent.VK_ESCAPE;
+
+  @Param({ "100", "1000" })
+  public int pieceCount;
+
+  private StreamingCommandEncoder encoder;
+  private Command game;
+  private String encoded;
+
+  @Setup
+  public void setUp() {
+    encoder = new StreamingCommandEncoder(new BasicCommandEncoder(), COMMAND_SEPARATOR);
+    game = Fixtures.createGame(pieceCount);
+    encoded = encoder.encode(game);
+  }
+
+  @Benchmark
+  public String encode() {
+    return encoder.encode(game);
+  }
+
+  @Benchmark
+  public Command decode() {
+    return encoder.decode(encoded);
+  }
+
+  @Benchmark
+  public void encodeStream() throws IOException {
+    encoder.encode(game, Writer.nullWriter());
+  }
+
+  @Benchmark
+  public Command decodeStream() throws IOException {
+    return encoder.decode(new StringReader(encoded));
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package org.vassalengine.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import VASSAL.build.module.BasicCommandEncoder;
+import VASSAL.counters.GamePiece;
+
+/**
+ * Building pieces from their types with {@link BasicCommandEncoder#createPiece}, as when loading
+ * a game. The pieces of a game share few distinct types, so the benchmark cycles through
+ * {@code typeCount} of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreatePieceBenchmark {
+  @Param({ "1", "1000" })
+  public int typeCount;
+
+  private BasicCommandEncoder encoder;
+  private String[] types;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    encoder = new BasicCommandEncoder();
+    types = new String[typeCount];
+    for (int i = 0; i < typeCount; ++i) {
+      types[i] = Fixtures.createPieceType(i);
+    }
+  }
+
+  @Benchmark
+  public GamePiece createPiece() {
+    final String type = types[next];
+    next = (next + 1) % types.length;
+    return encoder.createPiece(type);
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package org.vassalengine.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import VASSAL.script.ExpressionInterpreter;
+import VASSAL.script.expression.ExpressionException;
+
+/**
+ * Evaluating BeanShell expressions with {@link ExpressionInterpreter#evaluate}, comparing the
+ * compiled evaluation of expressions against interpreting them each time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpressionInterpreterBenchmark {
+  @Param({
+    "Strength > 10 && Side == \"Axis\"", //NON-NLS
+    "Strength * 2 + 1", //NON-NLS
+    "Side == \"Axis\" ? Type + \" (\" + Strength + \")\" : \"\"" //NON-NLS
+  })
+  public String expression;
+
+  @Param({ "true", "false" })
+  public boolean compiled;
+
+  private ExpressionInterpreter interpreter;
+  private final Fixtures.Properties source = new Fixtures.Properties();
+
+  @Setup
+  public void setUp() throws ExpressionException {
+    ExpressionInterpreter.setCompiledMode(compiled);
+    interpreter = ExpressionInterpreter.createInterpreter(expression);
+    source.put(Fixtures.SIDE, "Axis"); //NON-NLS
+    source.put(Fixtures.TYPE, "Infantry"); //NON-NLS
+    source.put(Fixtures.STRENGTH, "12");
+  }
+
+  @TearDown
+  public void tearDown() {
+    ExpressionInterpreter.setCompiledMode(true);
+  }
+
+  @Benchmark
+  public String evaluate() throws ExpressionException {
+    return interpreter.evaluate(source);
+  }
+}
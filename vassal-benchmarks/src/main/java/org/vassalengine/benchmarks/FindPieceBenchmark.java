@@ -0,0 +1,79 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package org.vassalengine.benchmarks;
+
+import java.awt.Point;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import VASSAL.build.module.Map;
+import VASSAL.counters.GamePiece;
+import VASSAL.counters.PieceFinder;
+
+/**
+ * Finding the piece under the mouse with {@link Map#findPiece}, as on every click and drag, on a
+ * map holding {@code pieceCount} pieces. A point hits a piece about half of the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FindPieceBenchmark {
+  private static final int POINT_COUNT = 1024;
+
+  @Param({ "1000", "10000" })
+  public int pieceCount;
+
+  private Map map;
+  private final Point[] points = new Point[POINT_COUNT];
+  private int next;
+
+  @Setup
+  public void setUp() {
+    map = Fixtures.createMap(pieceCount);
+
+    // Half of the points are on pieces, half are random
+    final Random rnd = new Random(Fixtures.SEED + 1);
+    final GamePiece[] pieces = map.getPieces();
+    for (int i = 0; i < POINT_COUNT; ++i) {
+      points[i] = i % 2 == 0 ?
+        pieces[rnd.nextInt(pieces.length)].getPosition() : Fixtures.randomPoint(rnd);
+    }
+  }
+
+  @Benchmark
+  public GamePiece findPiece() {
+    final Point pt = points[next];
+    next = (next + 1) % POINT_COUNT;
+    return map.findPiece(pt, PieceFinder.PIECE_IN_STACK);
+  }
+}
@@ -0,0 +1,275 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package org.vassalengine.benchmarks;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Random;
+
+import VASSAL.build.module.BasicCommandEncoder;
+import VASSAL.build.module.Map;
+import VASSAL.build.module.properties.PropertySource;
+import VASSAL.command.AddPiece;
+import VASSAL.command.ChangePiece;
+import VASSAL.command.Command;
+import VASSAL.command.MovePiece;
+import VASSAL.command.NullCommand;
+import VASSAL.counters.BasicPiece;
+import VASSAL.counters.Clone;
+import VASSAL.counters.Decorator;
+import VASSAL.counters.Delete;
+import VASSAL.counters.DynamicProperty;
+import VASSAL.counters.GamePiece;
+import VASSAL.counters.Immobilized;
+import VASSAL.counters.Marker;
+import VASSAL.counters.MenuSeparator;
+import VASSAL.counters.RestrictCommands;
+import VASSAL.counters.SendToLocation;
+import VASSAL.counters.TriggerAction;
+
+/**
+ * Synthetic pieces, maps and games for the benchmarks. Everything is generated in code from a
+ * fixed seed, so that the benchmarks need no module and give the same fixture on every run.
+ * Only traits which need no {@link VASSAL.build.GameModule} are used, so that the benchmarks
+ * run headless.
+ */
+public final class Fixtures {
+  public static final long SEED = 42;
+
+  public static final String SIDE = "Side";
+  public static final String TYPE = "Type";
+  public static final String STRENGTH = "Strength";
+
+  public static final String[] SIDES = { "Axis", "Allies", "Neutral" }; //NON-NLS
+  public static final String[] TYPES = { "Infantry", "Armor", "Artillery", "HQ" }; //NON-NLS
+
+  /** The size of the synthetic map, in pixels */
+  public static final int MAP_SIZE = 5000;
+
+  /** The types of the traits which add commands, and answer few or no properties */
+  private static final String[] COMMAND_TRAITS = {
+    Delete.ID,
+    Clone.ID + "Clone", //NON-NLS
+    Immobilized.ID,
+    SendToLocation.ID,
+    MenuSeparator.ID + "Menu", //NON-NLS
+    RestrictCommands.ID,
+    TriggerAction.ID
+  };
+
+  private static final BasicCommandEncoder ENCODER = new BasicCommandEncoder();
+
+  private Fixtures() {
+  }
+
+  /**
+   * A {@link BasicPiece} with a fixed size, since a piece without an image has none, and so
+   * could never be found at a point
+   */
+  public static class Counter extends BasicPiece {
+    private static final Rectangle BOUNDS = new Rectangle(-25, -25, 50, 50);
+
+    public Counter(String type) {
+      super(type);
+    }
+
+    @Override
+    public Rectangle boundingBox() {
+      return new Rectangle(BOUNDS);
+    }
+
+    @Override
+    public Shape getShape() {
+      return boundingBox();
+    }
+  }
+
+  /**
+   * A {@link PropertySource} holding fixed values
+   */
+  public static class Properties extends HashMap<String, Object> implements PropertySource {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public Object getProperty(Object key) {
+      return get(key);
+    }
+
+    @Override
+    public Object getLocalizedProperty(Object key) {
+      return get(key);
+    }
+  }
+
+  /**
+   * A {@link Map} holding fixed properties. It stands in for the module's Global Properties, on
+   * which a piece falls back for keys that none of its traits answer, since a
+   * {@link VASSAL.build.GameModule} cannot be created headless.
+   */
+  public static class PropertyMap extends Map {
+    private final Properties properties = new Properties();
+
+    public Properties getProperties() {
+      return properties;
+    }
+
+    @Override
+    public Object getProperty(Object key) {
+      return properties.get(key);
+    }
+
+    @Override
+    public Object getLocalizedProperty(Object key) {
+      return properties.get(key);
+    }
+  }
+
+  /**
+   * Creates a piece with a few traits, whose properties are derived from its number
+   * @param n the number of the piece, which is also its id
+   * @return the outermost trait of the piece
+   */
+  public static GamePiece createPiece(int n) {
+    final Counter basic = new Counter(BasicPiece.ID + ";;;Unit " + n); //NON-NLS
+    basic.setId(Integer.toString(n));
+
+    final Marker marker = new Marker(Marker.ID + SIDE + "," + TYPE, basic);
+    marker.mySetState(SIDES[n % SIDES.length] + "," + TYPES[n % TYPES.length]);
+
+    final DynamicProperty strength = new DynamicProperty(DynamicProperty.ID + STRENGTH + ";true,0,20,false;", marker); //NON-NLS
+    strength.setValue(Integer.toString(n % 20));
+
+    final Immobilized immobilized = new Immobilized(Immobilized.ID, strength);
+    return new Delete(Delete.ID, immobilized);
+  }
+
+  /**
+   * Creates a piece with the given number of traits, laid out as in a typical module: a
+   * {@link Marker} next to the {@link BasicPiece}, a {@link DynamicProperty} halfway out, and
+   * traits which add commands in between and beyond
+   * @param n the number of the piece, which is also its id
+   * @param traitCount the number of traits, at least two
+   * @return the outermost trait of the piece
+   */
+  public static GamePiece createPiece(int n, int traitCount) {
+    final Counter basic = new Counter(BasicPiece.ID + ";;;Unit " + n); //NON-NLS
+    basic.setId(Integer.toString(n));
+
+    final Marker marker = new Marker(Marker.ID + SIDE + "," + TYPE, basic);
+    marker.mySetState(SIDES[n % SIDES.length] + "," + TYPES[n % TYPES.length]);
+
+    GamePiece p = marker;
+    for (int i = 2; i <= traitCount; ++i) {
+      if (i == traitCount / 2 + 1) {
+        final DynamicProperty strength = new DynamicProperty(DynamicProperty.ID + STRENGTH + ";true,0,20,false;", p); //NON-NLS
+        strength.setValue(Integer.toString(n % 20));
+        p = strength;
+      }
+      else {
+        p = ENCODER.createDecorator(COMMAND_TRAITS[i % COMMAND_TRAITS.length], p);
+      }
+    }
+    return p;
+  }
+
+  /**
+   * @return the type of a piece made by {@link #createPiece}, as saved in a game
+   */
+  public static String createPieceType(int n) {
+    return createPiece(n).getType();
+  }
+
+  /**
+   * Creates a map holding pieces made by {@link #createPiece} at random positions
+   * @param pieceCount the number of pieces
+   * @return the map
+   */
+  public static Map createMap(int pieceCount) {
+    final Map map = new Map();
+    final Random rnd = new Random(SEED);
+    for (int i = 0; i < pieceCount; ++i) {
+      final GamePiece p = createPiece(i);
+      p.setPosition(randomPoint(rnd));
+      map.addPiece(p);
+    }
+    return map;
+  }
+
+  public static Point randomPoint(Random rnd) {
+    return new Point(rnd.nextInt(MAP_SIZE), rnd.nextInt(MAP_SIZE));
+  }
+
+  /**
+   * Creates the commands which a saved game of pieces made by {@link #createPiece} would hold:
+   * one {@link AddPiece} for each piece, followed by a turn's worth of {@link MovePiece} and
+   * {@link ChangePiece} commands for a tenth of them
+   * @param pieceCount the number of pieces
+   * @return the compound command
+   */
+  public static Command createGame(int pieceCount) {
+    final Random rnd = new Random(SEED);
+    final Command c = new NullCommand();
+    final GamePiece[] pieces = new GamePiece[pieceCount];
+    for (int i = 0; i < pieceCount; ++i) {
+      pieces[i] = createPiece(i);
+      c.append(new AddPiece(pieces[i]));
+    }
+
+    for (int i = 0; i < pieceCount / 10; ++i) {
+      final GamePiece p = pieces[rnd.nextInt(pieceCount)];
+      c.append(new MovePiece(p.getId(), "Map0", randomPoint(rnd), null, "Map0", randomPoint(rnd), null, "player")); //NON-NLS
+
+      final DynamicProperty strength = (DynamicProperty) Decorator.getDecorator(p, DynamicProperty.class);
+      final String oldState = p.getState();
+      strength.setValue(Integer.toString(rnd.nextInt(20)));
+      c.append(new ChangePiece(p.getId(), oldState, p.getState()));
+    }
+    return c;
+  }
+
+  /**
+   * Creates an opaque image of random noise, which compresses poorly
+   */
+  public static BufferedImage noise(int w, int h) {
+    final BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+    final Random rnd = new Random(SEED);
+    for (int y = 0; y < h; ++y) {
+      for (int x = 0; x < w; ++x) {
+        img.setRGB(x, y, rnd.nextInt());
+      }
+    }
+    return img;
+  }
+
+  /**
+   * Creates an image of large flat areas with soft edges, which compresses like a typical map
+   */
+  public static BufferedImage terrain(int w, int h) {
+    final BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB_PRE);
+    for (int y = 0; y < h; ++y) {
+      for (int x = 0; x < w; ++x) {
+        final int band = ((x / 64) + (y / 48)) % 4;
+        img.setRGB(x, y, 0xff000000 | (0x30 * band) << 16 | (0x20 + (x + y) % 8) << 8 | 0x40);
+      }
+    }
+    return img;
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package org.vassalengine.benchmarks;
+
+import java.awt.event.KeyEvent;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.KeyStroke;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import VASSAL.build.module.Map;
+import VASSAL.command.Command;
+import VASSAL.configure.PropertyExpression;
+import VASSAL.counters.GlobalCommand;
+import VASSAL.counters.GlobalCommandTarget;
+import VASSAL.counters.PieceFilter;
+import VASSAL.counters.PropertiesPieceFilter;
+import VASSAL.tools.RecursionLimiter;
+
+/**
+ * Applying a Global Key Command with {@link GlobalCommand#apply} to the pieces of four maps,
+ * selecting those of one side with a Strength over 10, either with a classic property match
+ * expression or a BeanShell expression, and with or without a Property Fast Match on the side.
+ * The key stroke is not handled by any trait, so that this measures finding the pieces.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GlobalCommandBenchmark {
+  private static final int MAP_COUNT = 4;
+
+  @Param({ "1000", "10000" })
+  public int pieceCount;
+
+  @Param({ "properties", "beanshell" })
+  public String filterType;
+
+  @Param({ "false", "true" })
+  public boolean fastMatch;
+
+  private final Map[] maps = new Map[MAP_COUNT];
+  private PieceFilter filter;
+  private GlobalCommandTarget target;
+  private GlobalCommand command;
+
+  @Setup
+  public void setUp() {
+    for (int i = 0; i < MAP_COUNT; ++i) {
+      maps[i] = Fixtures.createMap(pieceCount / MAP_COUNT);
+    }
+
+    filter = "beanshell".equals(filterType) ? //NON-NLS
+      new PropertyExpression("{Side == \"Allies\" && Strength > 10}") : //NON-NLS
+      PropertiesPieceFilter.parse("Side = Allies && Strength > 10"); //NON-NLS
+
+    target = new GlobalCommandTarget(GlobalCommandTarget.GKCtype.MODULE);
+    if (fastMatch) {
+      target.setFastMatchProperty(true);
+      target.setTargetProperty(Fixtures.SIDE);
+      target.setTargetValue("Allies"); //NON-NLS
+      target.setTargetCompare(GlobalCommandTarget.CompareMode.EQUALS);
+    }
+
+    command = new GlobalCommand(new RecursionLimiter.Loopable() {
+      @Override
+      public String getComponentTypeName() {
+        return "Benchmark"; //NON-NLS
+      }
+
+      @Override
+      public String getComponentName() {
+        return "Benchmark"; //NON-NLS
+      }
+    });
+    command.setKeyStroke(KeyStroke.getKeyStroke(KeyEvent.VK_F12, 0));
+  }
+
+  @Benchmark
+  public Command apply() {
+    return command.apply(maps, filter, target);
+  }
+}
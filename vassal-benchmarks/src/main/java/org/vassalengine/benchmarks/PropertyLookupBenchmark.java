@@ -0,0 +1,116 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package org.vassalengine.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import VASSAL.counters.BasicPiece;
+import VASSAL.counters.GamePiece;
+import VASSAL.counters.PropertyPlan;
+
+/**
+ * Looking up a property of a piece with {@link GamePiece#getProperty} and
+ * {@link GamePiece#getLocalizedProperty}, as expressions, filters and Global Key Commands do,
+ * for pieces of {@code traitCount} traits. The key is answered by the {@link BasicPiece}
+ * ({@code basic}), by a Dynamic Property halfway out ({@code dynamic}), or by none of the traits,
+ * so that the lookup falls back on the global properties ({@code global}). The pieces share
+ * {@link PropertyPlan}s, as pieces built from the same definition do, or have none
+ * ({@code planned}). The benchmark cycles through a few pieces, so that the lookups are not all of
+ * the same values.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertyLookupBenchmark {
+  private static final int PIECE_COUNT = 64;
+  private static final String GLOBAL = "Turn"; //NON-NLS
+
+  @Param({ "5", "10", "20" })
+  public int traitCount;
+
+  @Param({ "basic", "dynamic", "global" })
+  public String keyType;
+
+  @Param({ "true", "false" })
+  public boolean planned;
+
+  private final GamePiece[] pieces = new GamePiece[PIECE_COUNT];
+  private String key;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    final Fixtures.PropertyMap map = new Fixtures.PropertyMap();
+    map.getProperties().put(GLOBAL, "3");
+
+    for (int i = 0; i < PIECE_COUNT; ++i) {
+      pieces[i] = Fixtures.createPiece(i, traitCount);
+      pieces[i].setMap(map);
+    }
+
+    if (planned) {
+      final PropertyPlan[] plans = PropertyPlan.create(pieces[0]);
+      for (final GamePiece p : pieces) {
+        PropertyPlan.attach(p, plans);
+      }
+    }
+
+    switch (keyType) {
+    case "basic": //NON-NLS
+      key = BasicPiece.BASIC_NAME;
+      break;
+    case "dynamic": //NON-NLS
+      key = Fixtures.STRENGTH;
+      break;
+    default:
+      key = GLOBAL;
+    }
+  }
+
+  private GamePiece nextPiece() {
+    final GamePiece p = pieces[next];
+    next = (next + 1) % PIECE_COUNT;
+    return p;
+  }
+
+  @Benchmark
+  public Object getProperty() {
+    return nextPiece().getProperty(key);
+  }
+
+  @Benchmark
+  public Object getLocalizedProperty() {
+    return nextPiece().getLocalizedProperty(key);
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package org.vassalengine.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import VASSAL.tools.SequenceEncoder;
+
+/**
+ * Encoding and decoding with {@link SequenceEncoder}, which every piece type and state, and every
+ * command, passes through. Some of the tokens contain the delimiter, and so must be escaped.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SequenceEncoderBenchmark {
+  @Param({ "8", "64" })
+  public int tokenCount;
+
+  private String[] tokens;
+  private String encoded;
+
+  @Setup
+  public void setUp() {
+    final Random rnd = new Random(Fixtures.SEED);
+    tokens = new String[tokenCount];
+    for (int i = 0; i < tokenCount; ++i) {
+      switch (rnd.nextInt(4)) {
+      case 0:
+        tokens[i] = Integer.toString(rnd.nextInt(1000));
+        break;
+      case 1:
+        tokens[i] = "";
+        break;
+      case 2:
+        tokens[i] = "mark;Side,Type"; //NON-NLS
+        break;
+      default:
+        tokens[i] = Fixtures.TYPES[rnd.nextInt(Fixtures.TYPES.length)];
+      }
+    }
+    encoded = encode();
+  }
+
+  @Benchmark
+  public String encode() {
+    final SequenceEncoder se = new SequenceEncoder(';');
+    for (final String token : tokens) {
+      se.append(token);
+    }
+    return se.getValue();
+  }
+
+  @Benchmark
+  public void decode(Blackhole bh) {
+    final SequenceEncoder.Decoder sd = new SequenceEncoder.Decoder(encoded, ';');
+    while (sd.hasMoreTokens()) {
+      bh.consume(sd.nextToken());
+    }
+  }
+
+  @Benchmark
+  public void decodeCharSequences(Blackhole bh) {
+    final SequenceEncoder.Decoder sd = new SequenceEncoder.Decoder(encoded, ';');
+    while (sd.hasMoreTokens()) {
+      bh.consume(sd.nextCharSequence());
+    }
+  }
+
+  @Benchmark
+  public void roundTrip(Blackhole bh) {
+    final SequenceEncoder.Decoder sd = new SequenceEncoder.Decoder(encode(), ';');
+    while (sd.hasMoreTokens()) {
+      bh.consume(sd.nextToken());
+    }
+  }
+}
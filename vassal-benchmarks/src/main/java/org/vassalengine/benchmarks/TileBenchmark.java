@@ -0,0 +1,110 @@
+/*
+ *
+ * Copyright (c) 2020 by VASSAL Development Team
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Library General Public
+ * License (LGPL) as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this library; if not, copies are available
+ * at http://www.opensource.org.
+ */
+package org.vassalengine.benchmarks;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import VASSAL.tools.image.tilecache.TilePack;
+import VASSAL.tools.image.tilecache.TilePackWriter;
+import VASSAL.tools.image.tilecache.TileUtils;
+
+/**
+ * Writing and reading one 256x256 map tile, both as a single tile file with {@link TileUtils}
+ * and in a {@link TilePack}. The terrain image compresses like a typical map, the noise image
+ * hardly at all.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TileBenchmark {
+  private static final int TILE_SIZE = 256;
+
+  @Param({ "terrain", "noise" })
+  public String image;
+
+  private BufferedImage tile;
+  private byte[] tileFile;
+  private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+  private File packFile;
+  private TilePack pack;
+
+  @Setup
+  public void setUp() throws IOException {
+    tile = "noise".equals(image) ? //NON-NLS
+      Fixtures.noise(TILE_SIZE, TILE_SIZE) : Fixtures.terrain(TILE_SIZE, TILE_SIZE);
+
+    TileUtils.write(tile, out);
+    tileFile = out.toByteArray();
+
+    packFile = Files.createTempFile("bench_", ".tiles").toFile(); //NON-NLS
+    try (TilePackWriter w = new TilePackWriter(packFile)) {
+      w.write(0, 0, 1, TilePackWriter.encode(tile));
+    }
+    pack = new TilePack(packFile);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    pack.close();
+    Files.deleteIfExists(packFile.toPath());
+  }
+
+  @Benchmark
+  public int writeTile() throws IOException {
+    out.reset();
+    TileUtils.write(tile, out);
+    return out.size();
+  }
+
+  @Benchmark
+  public BufferedImage readTile() throws IOException {
+    return TileUtils.read(new ByteArrayInputStream(tileFile));
+  }
+
+  @Benchmark
+  public TilePackWriter.EncodedTile encodePackTile() {
+    return TilePackWriter.encode(tile);
+  }
+
+  @Benchmark
+  public BufferedImage readPackTile() throws IOException {
+    return pack.read(0, 0, 1);
+  }
+}